@@ -27,6 +27,7 @@
  */
 package com.algorithmstudy.datastructures;
 
+import java.util.Comparator;
 import java.util.NoSuchElementException;
 
 /**
@@ -319,6 +320,75 @@ public class DoublyLinkedList<T> implements Stack<T>, Queue<T> {
     return n.value;
   }
 
+  /**
+   * Sorts the list into the order induced by {@code comparator} using the merge sort algorithm.
+   * The nodes are relinked rather than their values copied, so no memory is allocated apart from
+   * the {@code O(lg(n))} stack used by the recursion. The sort runs in {@code O(n lg(n))} time and
+   * is stable.
+   * 
+   * @param comparator
+   *          The comparator which defines the order.
+   */
+  public void sort(Comparator<? super T> comparator) {
+    if (null == comparator) {
+      throw new NullPointerException("Can't sort without a comparator.");
+    }
+    if (size < 2) {
+      return;
+    }
+    head = mergeSort(head, size, comparator);
+
+    // Restore the previous links and the tail
+    Node<T> prev = null;
+    for (Node<T> n = head; null != n; n = n.next) {
+      n.previous = prev;
+      prev = n;
+    }
+    tail = prev;
+  }
+
+  /**
+   * Sort the {@code n} nodes starting at {@code first} and link them into a new chain.
+   * 
+   * @return The first node of the sorted chain. The {@code next} link of its last node is
+   *         {@code null}.
+   */
+  private Node<T> mergeSort(Node<T> first, int n, Comparator<? super T> comparator) {
+    if (1 == n) {
+      first.next = null;
+      return first;
+    }
+
+    int half = n / 2;
+    Node<T> second = first;
+    for (int i = 0; i < half; i++) {
+      second = second.next;
+    }
+    Node<T> left = mergeSort(first, half, comparator);
+    Node<T> right = mergeSort(second, n - half, comparator);
+
+    Node<T> sorted = null;
+    Node<T> last = null;
+    while (null != left && null != right) {
+      Node<T> node;
+      if (comparator.compare(right.value, left.value) < 0) {
+        node = right;
+        right = right.next;
+      } else {
+        node = left;
+        left = left.next;
+      }
+      if (null == last) {
+        sorted = node;
+      } else {
+        last.next = node;
+      }
+      last = node;
+    }
+    last.next = (null != left) ? left : right;
+    return sorted;
+  }
+
   /**
    * Find the node at position {@code index} in the list.
    * 
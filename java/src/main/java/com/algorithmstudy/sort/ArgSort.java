@@ -0,0 +1,447 @@
+/*
+ * Copyright (c) 2009, The Algorithm Study Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright notice,
+ *       this list of conditions and the following disclaimer in the documentation
+ *       and/or other materials provided with the distribution.
+ *     * Neither the name of the Algorithm Study Project, algorithmstudy.com, nor
+ *       the names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+package com.algorithmstudy.sort;
+
+/**
+ * {@code ArgSort} sorts indirectly: rather than moving the keys it returns the permutation which
+ * would sort them, i.e. an {@code int[] p} such that {@code keys[p[0]] <= keys[p[1]] <= ...}.
+ * Columnar data (one array per field) can then be put into the order of one of its columns by
+ * applying the same permutation to every column with {@code applyPermutation()}, without ever
+ * building an object per record. <br>
+ * <br>
+ * The permutations are stable: indices of equal keys stay in ascending order. Where the key and
+ * the index fit into 64 bits together, each (key, index) pair is packed into a single
+ * {@code long} with the key in the high bits and the pairs are sorted with {@link RadixSort}, which
+ * sorts by key and then by index in {@code O(n)} time. Otherwise the index array is sorted with a
+ * merge sort which compares the keys the indices refer to.
+ */
+public class ArgSort {
+
+  /**
+   * Get the permutation which sorts an {@code int[]}. {@code keys} is not modified.
+   * 
+   * @param keys
+   *          The keys for which to find the sorting permutation.
+   * @return The permutation {@code p} which sorts {@code keys}, i.e. {@code keys[p[i]]} is the
+   *         {@code i}th smallest key.
+   */
+  public static int[] argSort(int[] keys) {
+    if (null == keys) {
+      throw new NullPointerException("Can't sort null keys.");
+    }
+    int n = keys.length;
+    long[] packed = new long[n];
+    for (int i = 0; i < n; i++) {
+      packed[i] = ((long) keys[i] << 32) | i;
+    }
+    RadixSort.sort(packed, 0, n, null);
+
+    int[] perm = new int[n];
+    for (int i = 0; i < n; i++) {
+      perm[i] = (int) packed[i];
+    }
+    return perm;
+  }
+
+  /**
+   * Get the permutation which sorts a {@code long[]}. {@code keys} is not modified. The packed
+   * fast path is used when the range of the keys ({@code max - min}) fits into the bits left over
+   * by the indices, which is the case for example for timestamps within a few years of each other.
+   * 
+   * @param keys
+   *          The keys for which to find the sorting permutation.
+   * @return The permutation {@code p} which sorts {@code keys}, i.e. {@code keys[p[i]]} is the
+   *         {@code i}th smallest key.
+   */
+  public static int[] argSort(long[] keys) {
+    if (null == keys) {
+      throw new NullPointerException("Can't sort null keys.");
+    }
+    int n = keys.length;
+    if (0 == n) {
+      return new int[0];
+    }
+
+    long min = keys[0];
+    long max = keys[0];
+    for (long k : keys) {
+      if (k < min) {
+        min = k;
+      } else if (k > max) {
+        max = k;
+      }
+    }
+
+    int indexBits = 32 - Integer.numberOfLeadingZeros(n - 1);
+    long range = max - min;
+    // A range which overflowed is negative and so never fits
+    if (range >= 0 && 64 - Long.numberOfLeadingZeros(range) + indexBits <= 63) {
+      long[] packed = new long[n];
+      for (int i = 0; i < n; i++) {
+        packed[i] = ((keys[i] - min) << indexBits) | i;
+      }
+      RadixSort.sort(packed, 0, n, null);
+
+      int[] perm = new int[n];
+      long mask = (1L << indexBits) - 1;
+      for (int i = 0; i < n; i++) {
+        perm[i] = (int) (packed[i] & mask);
+      }
+      return perm;
+    }
+
+    int[] perm = identity(n);
+    int[] scratch = perm.clone();
+    mergeSortR(keys, perm, scratch, 0, n, true);
+    return perm;
+  }
+
+  /**
+   * Build the identity permutation of length {@code n}.
+   */
+  private static int[] identity(int n) {
+    int[] perm = new int[n];
+    for (int i = 0; i < n; i++) {
+      perm[i] = i;
+    }
+    return perm;
+  }
+
+  /**
+   * Sort the indices in the segment {@code [l, r)} of {@code a} by the keys they refer to,
+   * alternating between {@code a} and {@code b} as in {@link MergeSort}. On entry both arrays must
+   * hold the same indices in the segment.
+   */
+  private static void mergeSortR(long[] keys, int[] a, int[] b, int l, int r, boolean toA) {
+    if (r - l == 1) {
+      return;
+    }
+    int m = ((r - l) / 2) + l;
+    mergeSortR(keys, a, b, l, m, !toA);
+    mergeSortR(keys, a, b, m, r, !toA);
+    if (toA) {
+      merge(keys, b, l, m, r, a);
+    } else {
+      merge(keys, a, l, m, r, b);
+    }
+  }
+
+  private static void merge(long[] keys, int[] src, int l, int m, int r, int[] dst) {
+    int l1 = l;
+    int l2 = m;
+    int d = l;
+    while (l1 < m && l2 < r) {
+      if (keys[src[l2]] < keys[src[l1]]) {
+        dst[d++] = src[l2++];
+      } else {
+        dst[d++] = src[l1++];
+      }
+    }
+    System.arraycopy(src, l1, dst, d, m - l1);
+    System.arraycopy(src, l2, dst, d + m - l1, r - l2);
+  }
+
+  /**
+   * Reorder a {@code int[]} column in place by a permutation, so that afterwards
+   * {@code column[i]} holds what was at {@code column[perm[i]]}. The permutation is applied by
+   * following its cycles, which moves each element once. {@code perm} is checked in a separate
+   * pass before anything is moved. Entries of {@code perm} are marked by flipping their bits
+   * during both passes, so no memory is allocated, but {@code perm} must not be used by another
+   * thread at the same time. It is unchanged afterwards.
+   * 
+   * @param perm
+   *          The permutation to apply, for example one returned by {@code argSort()}.
+   * @param column
+   *          The column to reorder. If {@code perm} is not a permutation of its length an
+   *          {@code IllegalArgumentException} is thrown and both arrays are left unchanged.
+   */
+  public static void applyPermutation(int[] perm, int[] column) {
+    check(perm, column.length);
+    for (int i = 0; i < perm.length; i++) {
+      if (perm[i] < 0) {
+        continue;
+      }
+      int first = column[i];
+      int j = i;
+      int k = visit(perm, j);
+      while (k != i) {
+        column[j] = column[k];
+        j = k;
+        k = visit(perm, j);
+      }
+      column[j] = first;
+    }
+    unmark(perm);
+  }
+
+  /**
+   * Reorder a {@code long[]} column in place by a permutation, so that afterwards
+   * {@code column[i]} holds what was at {@code column[perm[i]]}. The permutation is applied by
+   * following its cycles, which moves each element once. {@code perm} is checked in a separate
+   * pass before anything is moved. Entries of {@code perm} are marked by flipping their bits
+   * during both passes, so no memory is allocated, but {@code perm} must not be used by another
+   * thread at the same time. It is unchanged afterwards.
+   * 
+   * @param perm
+   *          The permutation to apply, for example one returned by {@code argSort()}.
+   * @param column
+   *          The column to reorder. If {@code perm} is not a permutation of its length an
+   *          {@code IllegalArgumentException} is thrown and both arrays are left unchanged.
+   */
+  public static void applyPermutation(int[] perm, long[] column) {
+    check(perm, column.length);
+    for (int i = 0; i < perm.length; i++) {
+      if (perm[i] < 0) {
+        continue;
+      }
+      long first = column[i];
+      int j = i;
+      int k = visit(perm, j);
+      while (k != i) {
+        column[j] = column[k];
+        j = k;
+        k = visit(perm, j);
+      }
+      column[j] = first;
+    }
+    unmark(perm);
+  }
+
+  /**
+   * Reorder a {@code double[]} column in place by a permutation, so that afterwards
+   * {@code column[i]} holds what was at {@code column[perm[i]]}. The permutation is applied by
+   * following its cycles, which moves each element once. {@code perm} is checked in a separate
+   * pass before anything is moved. Entries of {@code perm} are marked by flipping their bits
+   * during both passes, so no memory is allocated, but {@code perm} must not be used by another
+   * thread at the same time. It is unchanged afterwards.
+   * 
+   * @param perm
+   *          The permutation to apply, for example one returned by {@code argSort()}.
+   * @param column
+   *          The column to reorder. If {@code perm} is not a permutation of its length an
+   *          {@code IllegalArgumentException} is thrown and both arrays are left unchanged.
+   */
+  public static void applyPermutation(int[] perm, double[] column) {
+    check(perm, column.length);
+    for (int i = 0; i < perm.length; i++) {
+      if (perm[i] < 0) {
+        continue;
+      }
+      double first = column[i];
+      int j = i;
+      int k = visit(perm, j);
+      while (k != i) {
+        column[j] = column[k];
+        j = k;
+        k = visit(perm, j);
+      }
+      column[j] = first;
+    }
+    unmark(perm);
+  }
+
+  /**
+   * Reorder a {@code float[]} column in place by a permutation, so that afterwards
+   * {@code column[i]} holds what was at {@code column[perm[i]]}. The permutation is applied by
+   * following its cycles, which moves each element once. {@code perm} is checked in a separate
+   * pass before anything is moved. Entries of {@code perm} are marked by flipping their bits
+   * during both passes, so no memory is allocated, but {@code perm} must not be used by another
+   * thread at the same time. It is unchanged afterwards.
+   * 
+   * @param perm
+   *          The permutation to apply, for example one returned by {@code argSort()}.
+   * @param column
+   *          The column to reorder. If {@code perm} is not a permutation of its length an
+   *          {@code IllegalArgumentException} is thrown and both arrays are left unchanged.
+   */
+  public static void applyPermutation(int[] perm, float[] column) {
+    check(perm, column.length);
+    for (int i = 0; i < perm.length; i++) {
+      if (perm[i] < 0) {
+        continue;
+      }
+      float first = column[i];
+      int j = i;
+      int k = visit(perm, j);
+      while (k != i) {
+        column[j] = column[k];
+        j = k;
+        k = visit(perm, j);
+      }
+      column[j] = first;
+    }
+    unmark(perm);
+  }
+
+  /**
+   * Reorder a {@code short[]} column in place by a permutation, so that afterwards
+   * {@code column[i]} holds what was at {@code column[perm[i]]}. The permutation is applied by
+   * following its cycles, which moves each element once. {@code perm} is checked in a separate
+   * pass before anything is moved. Entries of {@code perm} are marked by flipping their bits
+   * during both passes, so no memory is allocated, but {@code perm} must not be used by another
+   * thread at the same time. It is unchanged afterwards.
+   * 
+   * @param perm
+   *          The permutation to apply, for example one returned by {@code argSort()}.
+   * @param column
+   *          The column to reorder. If {@code perm} is not a permutation of its length an
+   *          {@code IllegalArgumentException} is thrown and both arrays are left unchanged.
+   */
+  public static void applyPermutation(int[] perm, short[] column) {
+    check(perm, column.length);
+    for (int i = 0; i < perm.length; i++) {
+      if (perm[i] < 0) {
+        continue;
+      }
+      short first = column[i];
+      int j = i;
+      int k = visit(perm, j);
+      while (k != i) {
+        column[j] = column[k];
+        j = k;
+        k = visit(perm, j);
+      }
+      column[j] = first;
+    }
+    unmark(perm);
+  }
+
+  /**
+   * Reorder a {@code char[]} column in place by a permutation, so that afterwards
+   * {@code column[i]} holds what was at {@code column[perm[i]]}. The permutation is applied by
+   * following its cycles, which moves each element once. {@code perm} is checked in a separate
+   * pass before anything is moved. Entries of {@code perm} are marked by flipping their bits
+   * during both passes, so no memory is allocated, but {@code perm} must not be used by another
+   * thread at the same time. It is unchanged afterwards.
+   * 
+   * @param perm
+   *          The permutation to apply, for example one returned by {@code argSort()}.
+   * @param column
+   *          The column to reorder. If {@code perm} is not a permutation of its length an
+   *          {@code IllegalArgumentException} is thrown and both arrays are left unchanged.
+   */
+  public static void applyPermutation(int[] perm, char[] column) {
+    check(perm, column.length);
+    for (int i = 0; i < perm.length; i++) {
+      if (perm[i] < 0) {
+        continue;
+      }
+      char first = column[i];
+      int j = i;
+      int k = visit(perm, j);
+      while (k != i) {
+        column[j] = column[k];
+        j = k;
+        k = visit(perm, j);
+      }
+      column[j] = first;
+    }
+    unmark(perm);
+  }
+
+  /**
+   * Reorder a {@code byte[]} column in place by a permutation, so that afterwards
+   * {@code column[i]} holds what was at {@code column[perm[i]]}. The permutation is applied by
+   * following its cycles, which moves each element once. {@code perm} is checked in a separate
+   * pass before anything is moved. Entries of {@code perm} are marked by flipping their bits
+   * during both passes, so no memory is allocated, but {@code perm} must not be used by another
+   * thread at the same time. It is unchanged afterwards.
+   * 
+   * @param perm
+   *          The permutation to apply, for example one returned by {@code argSort()}.
+   * @param column
+   *          The column to reorder. If {@code perm} is not a permutation of its length an
+   *          {@code IllegalArgumentException} is thrown and both arrays are left unchanged.
+   */
+  public static void applyPermutation(int[] perm, byte[] column) {
+    check(perm, column.length);
+    for (int i = 0; i < perm.length; i++) {
+      if (perm[i] < 0) {
+        continue;
+      }
+      byte first = column[i];
+      int j = i;
+      int k = visit(perm, j);
+      while (k != i) {
+        column[j] = column[k];
+        j = k;
+        k = visit(perm, j);
+      }
+      column[j] = first;
+    }
+    unmark(perm);
+  }
+
+  /**
+   * Check that {@code perm} and {@code column} are usable together, i.e. that {@code perm} holds
+   * each index of the column exactly once. Once every entry is known to be in range, the targets
+   * seen so far are marked by flipping the bits of the entries at those indices, which is undone
+   * before returning or throwing.
+   */
+  private static void check(int[] perm, int columnLength) {
+    if (perm.length != columnLength) {
+      throw new IllegalArgumentException("The permutation has " + perm.length
+          + " elements but the column has " + columnLength);
+    }
+    for (int j = 0; j < perm.length; j++) {
+      if (perm[j] < 0 || perm[j] >= perm.length) {
+        throw new IllegalArgumentException("Not a permutation: " + perm[j] + " at index " + j);
+      }
+    }
+    for (int j = 0; j < perm.length; j++) {
+      int k = perm[j] < 0 ? ~perm[j] : perm[j];
+      if (perm[k] < 0) {
+        unmark(perm);
+        throw new IllegalArgumentException("Not a permutation: " + k + " appears twice");
+      }
+      perm[k] = ~perm[k];
+    }
+    unmark(perm);
+  }
+
+  /**
+   * Mark the element of {@code perm} at index {@code j} as visited and get its target.
+   */
+  private static int visit(int[] perm, int j) {
+    int k = perm[j];
+    perm[j] = ~k;
+    return k;
+  }
+
+  /**
+   * Undo the visited marks left in {@code perm}.
+   */
+  private static void unmark(int[] perm) {
+    for (int i = 0; i < perm.length; i++) {
+      if (perm[i] < 0) {
+        perm[i] = ~perm[i];
+      }
+    }
+  }
+
+}
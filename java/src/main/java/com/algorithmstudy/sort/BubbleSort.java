@@ -51,4 +51,156 @@ public class BubbleSort {
     }
   }
 
+  /**
+   * Sort the range {@code [fromIndex, toIndex)} of an {@code int[]} using the bubble sort
+   * algorithm. The elements outside the range are not touched.
+   * 
+   * @param a
+   *          The {@code int[]} to sort.
+   * @param fromIndex
+   *          The index of the first element to sort.
+   * @param toIndex
+   *          One greater than the index of the last element to sort.
+   * @throws IllegalArgumentException
+   *           if {@code fromIndex > toIndex}.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code fromIndex < 0} or {@code toIndex > a.length}.
+   */
+  public static void bubbleSort(int[] a, int fromIndex, int toIndex) {
+    RangeCheck.check(a.length, fromIndex, toIndex);
+    for (int i = toIndex - 1; i > fromIndex; i--) {
+      for (int j = fromIndex; j < i; j++) {
+        if (a[j] > a[j + 1]) {
+          int tmp = a[j];
+          a[j] = a[j + 1];
+          a[j + 1] = tmp;
+        }
+      }
+    }
+  }
+
+  /**
+   * Sort a {@code long[]} using the bubble sort algorithm.
+   * 
+   * @param a
+   *          The {@code long[]} to sort.
+   */
+  public static void bubbleSort(long[] a) {
+    int n = a.length;
+    for (int i = n - 1; i > 0; i--) {
+      for (int j = 0; j < i; j++) {
+        if (a[j] > a[j + 1]) {
+          long tmp = a[j];
+          a[j] = a[j + 1];
+          a[j + 1] = tmp;
+        }
+      }
+    }
+  }
+
+  /**
+   * Sort a {@code double[]} using the bubble sort algorithm. <br>
+   * <br>
+   * {@code NaN}s are placed after all other values and {@code -0.0} before {@code 0.0}, the same
+   * order as {@code Double.compare()}.
+   * 
+   * @param a
+   *          The {@code double[]} to sort.
+   */
+  public static void bubbleSort(double[] a) {
+    int n = FloatingPoint.moveNaNsToEnd(a, 0, a.length);
+    int negativeZeros = FloatingPoint.clearNegativeZeros(a, 0, n);
+    for (int i = n - 1; i > 0; i--) {
+      for (int j = 0; j < i; j++) {
+        if (a[j] > a[j + 1]) {
+          double tmp = a[j];
+          a[j] = a[j + 1];
+          a[j + 1] = tmp;
+        }
+      }
+    }
+    FloatingPoint.restoreNegativeZeros(a, 0, n, negativeZeros);
+  }
+
+  /**
+   * Sort a {@code float[]} using the bubble sort algorithm. <br>
+   * <br>
+   * {@code NaN}s are placed after all other values and {@code -0.0} before {@code 0.0}, the same
+   * order as {@code Float.compare()}.
+   * 
+   * @param a
+   *          The {@code float[]} to sort.
+   */
+  public static void bubbleSort(float[] a) {
+    int n = FloatingPoint.moveNaNsToEnd(a, 0, a.length);
+    int negativeZeros = FloatingPoint.clearNegativeZeros(a, 0, n);
+    for (int i = n - 1; i > 0; i--) {
+      for (int j = 0; j < i; j++) {
+        if (a[j] > a[j + 1]) {
+          float tmp = a[j];
+          a[j] = a[j + 1];
+          a[j + 1] = tmp;
+        }
+      }
+    }
+    FloatingPoint.restoreNegativeZeros(a, 0, n, negativeZeros);
+  }
+
+  /**
+   * Sort a {@code short[]} using the bubble sort algorithm.
+   * 
+   * @param a
+   *          The {@code short[]} to sort.
+   */
+  public static void bubbleSort(short[] a) {
+    int n = a.length;
+    for (int i = n - 1; i > 0; i--) {
+      for (int j = 0; j < i; j++) {
+        if (a[j] > a[j + 1]) {
+          short tmp = a[j];
+          a[j] = a[j + 1];
+          a[j + 1] = tmp;
+        }
+      }
+    }
+  }
+
+  /**
+   * Sort a {@code char[]} using the bubble sort algorithm.
+   * 
+   * @param a
+   *          The {@code char[]} to sort.
+   */
+  public static void bubbleSort(char[] a) {
+    int n = a.length;
+    for (int i = n - 1; i > 0; i--) {
+      for (int j = 0; j < i; j++) {
+        if (a[j] > a[j + 1]) {
+          char tmp = a[j];
+          a[j] = a[j + 1];
+          a[j + 1] = tmp;
+        }
+      }
+    }
+  }
+
+  /**
+   * Sort a {@code byte[]} using the bubble sort algorithm.
+   * 
+   * @param a
+   *          The {@code byte[]} to sort.
+   */
+  public static void bubbleSort(byte[] a) {
+    int n = a.length;
+    for (int i = n - 1; i > 0; i--) {
+      for (int j = 0; j < i; j++) {
+        if (a[j] > a[j + 1]) {
+          byte tmp = a[j];
+          a[j] = a[j + 1];
+          a[j + 1] = tmp;
+        }
+      }
+    }
+  }
+
 }
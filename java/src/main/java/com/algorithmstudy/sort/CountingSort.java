@@ -0,0 +1,460 @@
+/*
+ * Copyright (c) 2009, The Algorithm Study Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright notice,
+ *       this list of conditions and the following disclaimer in the documentation
+ *       and/or other materials provided with the distribution.
+ *     * Neither the name of the Algorithm Study Project, algorithmstudy.com, nor
+ *       the names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+package com.algorithmstudy.sort;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * {@code CountingSort} contains implementations of the counting sort algorithm for {@code int}
+ * keys drawn from a small range {@code [min, max]}, such as percentages, status codes or shard
+ * ids. The algorithm:
+ * <ul>
+ * <li>runs in {@code O(n + k)} time, where {@code k = max - min + 1} is the size of the range</li>
+ * <li>has memory use of {@code O(k)} for the counts</li>
+ * <li>is stable (trivially, since equal {@code int} keys can't be told apart)</li>
+ * </ul>
+ * Counting sort doesn't compare keys at all. One pass over the input counts how many times each
+ * key in the range occurs, then the input is overwritten with each key repeated as many times as
+ * it was counted, in ascending order. When the range isn't given it is found by a pass over the
+ * input. <br>
+ * <br>
+ * The counts take {@code 4k} bytes, so a range wider than {@link #MAX_RANGE} keys is too wide for
+ * the memory budget; such input is sorted with {@link RadixSort} instead, which also runs in
+ * {@code O(n)} time. <br>
+ * <br>
+ * For further discussion of counting sort, see chapter 8, section 2 of "Introduction to
+ * Algorithms" by Cormen et. al.
+ */
+public class CountingSort {
+
+  /**
+   * The widest range of keys, {@code max - min + 1}, which is counting sorted (4 MB of counts).
+   * Wider ranges are sorted with {@link RadixSort}.
+   */
+  public static final int MAX_RANGE = 1 << 20;
+
+  /**
+   * The default size of an array at or below which {@code parallelCountingSort()} sorts it
+   * sequentially.
+   */
+  public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 16;
+
+  /**
+   * The smallest block of elements for which a histogram is built by a separate task.
+   */
+  private static final int MIN_BLOCK_SIZE = 1 << 12;
+
+  /**
+   * Sort an {@code int[]} using the counting sort algorithm, finding the range of its keys first.
+   * 
+   * @param a
+   *          The {@code int[]} to sort.
+   */
+  public static void countingSort(int[] a) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array.");
+    }
+    sort(a, 0, a.length);
+  }
+
+  /**
+   * Sort the range {@code [fromIndex, toIndex)} of an {@code int[]} using the counting sort
+   * algorithm, finding the range of its keys first. The elements outside the range are not
+   * touched.
+   * 
+   * @param a
+   *          The {@code int[]} to sort.
+   * @param fromIndex
+   *          The index of the first element to sort.
+   * @param toIndex
+   *          One greater than the index of the last element to sort.
+   * @throws IllegalArgumentException
+   *           if {@code fromIndex > toIndex}.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code fromIndex < 0} or {@code toIndex > a.length}.
+   */
+  public static void countingSort(int[] a, int fromIndex, int toIndex) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array.");
+    }
+    RangeCheck.check(a.length, fromIndex, toIndex);
+    sort(a, fromIndex, toIndex);
+  }
+
+  /**
+   * Sort the range {@code [fromIndex, toIndex)} of an {@code int[]}, all of whose keys lie in
+   * {@code [min, max]}, using the counting sort algorithm. The elements outside the range are not
+   * touched.
+   * 
+   * @param a
+   *          The {@code int[]} to sort.
+   * @param fromIndex
+   *          The index of the first element to sort.
+   * @param toIndex
+   *          One greater than the index of the last element to sort.
+   * @param min
+   *          The smallest key that may occur.
+   * @param max
+   *          The largest key that may occur.
+   * @throws IllegalArgumentException
+   *           if {@code fromIndex > toIndex}, if {@code min > max} or if a key lies outside
+   *           {@code [min, max]}, in which case {@code a} is left unchanged.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code fromIndex < 0} or {@code toIndex > a.length}.
+   */
+  public static void countingSort(int[] a, int fromIndex, int toIndex, int min, int max) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array.");
+    }
+    RangeCheck.check(a.length, fromIndex, toIndex);
+    if (min > max) {
+      throw new IllegalArgumentException("min(" + min + ") > max(" + max + ")");
+    }
+    for (int i = fromIndex; i < toIndex; i++) {
+      if (a[i] < min || a[i] > max) {
+        throw new IllegalArgumentException("Key " + a[i] + " at index " + i + " is outside ["
+            + min + ", " + max + "]");
+      }
+    }
+    sort(a, fromIndex, toIndex, min, max);
+  }
+
+  /**
+   * Sort the segment {@code [l, r)} of {@code a} using the counting sort algorithm, finding the
+   * range of its keys first.
+   */
+  static void sort(int[] a, int l, int r) {
+    if (r - l <= SortingNetworks.MAX_SIZE) {
+      SortingNetworks.sort(a, l, r);
+      return;
+    }
+    int min = a[l];
+    int max = min;
+    for (int i = l + 1; i < r; i++) {
+      int v = a[i];
+      if (v < min) {
+        min = v;
+      } else if (v > max) {
+        max = v;
+      }
+    }
+    sort(a, l, r, min, max);
+  }
+
+  /**
+   * Sort the segment {@code [l, r)} of {@code a}, all of whose keys lie in {@code [min, max]},
+   * using the counting sort algorithm. If the range is wider than {@link #MAX_RANGE} the segment
+   * is radix sorted instead.
+   */
+  static void sort(int[] a, int l, int r, int min, int max) {
+    if (r - l <= SortingNetworks.MAX_SIZE) {
+      SortingNetworks.sort(a, l, r);
+      return;
+    }
+    if ((long) max - min >= MAX_RANGE) {
+      RadixSort.sort(a, l, r, null, 0);
+      return;
+    }
+
+    int[] count = new int[max - min + 1];
+    for (int i = l; i < r; i++) {
+      count[a[i] - min]++;
+    }
+    int i = l;
+    for (int k = 0; k < count.length; k++) {
+      for (int c = count[k]; c > 0; c--) {
+        a[i++] = min + k;
+      }
+    }
+  }
+
+  /**
+   * Sort an {@code int[]} using a parallel counting sort. The sort is run in the common
+   * {@code ForkJoinPool} using {@link #DEFAULT_PARALLEL_THRESHOLD} as the sequential cutoff. See
+   * {@link #parallelCountingSort(int[], ForkJoinPool, int)} for details.
+   * 
+   * @param a
+   *          The {@code int[]} to sort.
+   */
+  public static void parallelCountingSort(int[] a) {
+    parallelCountingSort(a, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+  }
+
+  /**
+   * Sort an {@code int[]} using a parallel counting sort. <br>
+   * <br>
+   * The array is split into blocks, each of which finds the minimum and maximum of its elements
+   * and then builds a histogram of them in its own task. The range of keys is then split into
+   * slices, and each slice sums its part of the block histograms and writes its keys back into
+   * the array in parallel, starting at the offset given by a prefix sum over the slice totals. The
+   * histograms of all the blocks together are kept within the memory budget of {@link #MAX_RANGE}
+   * counts by using fewer blocks for wider ranges; a range too wide for even one histogram is
+   * sorted with {@link RadixSort#parallelRadixSort(int[], ForkJoinPool, int)} instead. <br>
+   * <br>
+   * The run time is {@code O(n + k)}, divided among the threads of the pool.
+   * 
+   * @param a
+   *          The {@code int[]} to sort.
+   * @param pool
+   *          The pool in which to run the sort.
+   * @param threshold
+   *          The size of an array at or below which it is sorted sequentially. Must be at least 1.
+   */
+  public static void parallelCountingSort(int[] a, ForkJoinPool pool, int threshold) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array.");
+    }
+    if (null == pool) {
+      throw new NullPointerException("Can't sort without a pool.");
+    }
+    if (threshold < 1) {
+      throw new IllegalArgumentException("threshold must be at least 1: " + threshold);
+    }
+    if (a.length <= threshold) {
+      sort(a, 0, a.length);
+      return;
+    }
+
+    CountingTask task = new CountingTask(a, 0, 0, false, pool.getParallelism());
+    pool.invoke(task);
+    if (task.tooWide) {
+      RadixSort.parallelRadixSort(a, pool, threshold);
+    }
+  }
+
+  /**
+   * Sort {@code a}, all of whose keys lie in {@code [min, max]}, using a parallel counting sort,
+   * or a parallel radix sort if the range is wider than {@link #MAX_RANGE}.
+   */
+  static void parallelSort(int[] a, int min, int max, ForkJoinPool pool, int threshold) {
+    if (a.length <= threshold) {
+      sort(a, 0, a.length, min, max);
+      return;
+    }
+    CountingTask task = new CountingTask(a, min, max, true, pool.getParallelism());
+    pool.invoke(task);
+    if (task.tooWide) {
+      RadixSort.parallelRadixSort(a, pool, threshold);
+    }
+  }
+
+  /**
+   * Split {@code [0, n)} into {@code blocks} blocks of at least {@link #MIN_BLOCK_SIZE} elements
+   * (the last may be smaller) and return their boundaries.
+   */
+  private static int[] split(int n, int blocks) {
+    int blockSize = Math.max(MIN_BLOCK_SIZE, (n + blocks - 1) / blocks);
+    blocks = (n + blockSize - 1) / blockSize;
+    int[] bounds = new int[blocks + 1];
+    for (int b = 0; b < blocks; b++) {
+      bounds[b] = b * blockSize;
+    }
+    bounds[blocks] = n;
+    return bounds;
+  }
+
+  /**
+   * A task which counting sorts all of {@code a}, finding the range of its keys first unless it's
+   * given. If the range turns out to be wider than {@link #MAX_RANGE} nothing is sorted and
+   * {@code tooWide} is set.
+   */
+  private static class CountingTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1l;
+
+    private final int[] a;
+    private int min;
+    private int max;
+    private final boolean hasRange;
+    private final int parallelism;
+    boolean tooWide;
+
+    CountingTask(int[] a, int min, int max, boolean hasRange, int parallelism) {
+      this.a = a;
+      this.min = min;
+      this.max = max;
+      this.hasRange = hasRange;
+      this.parallelism = parallelism;
+    }
+
+    @Override
+    protected void compute() {
+      int n = a.length;
+      if (!hasRange) {
+        int[] bounds = split(n, 4 * parallelism);
+        BlockTask[] tasks = new BlockTask[bounds.length - 1];
+        for (int b = 0; b < tasks.length; b++) {
+          tasks[b] = new BlockTask(a, bounds[b], bounds[b + 1], 0, 0);
+        }
+        invokeAll(tasks);
+        min = tasks[0].min;
+        max = tasks[0].max;
+        for (BlockTask task : tasks) {
+          min = Math.min(min, task.min);
+          max = Math.max(max, task.max);
+        }
+      }
+      long range = (long) max - min + 1;
+      if (range > MAX_RANGE) {
+        tooWide = true;
+        return;
+      }
+
+      // Each block has a histogram of its own, so use fewer blocks for wider ranges
+      int histograms = (int) Math.max(1, Math.min(4 * parallelism, MAX_RANGE / range));
+      int[] bounds = split(n, histograms);
+      BlockTask[] tasks = new BlockTask[bounds.length - 1];
+      for (int b = 0; b < tasks.length; b++) {
+        tasks[b] = new BlockTask(a, bounds[b], bounds[b + 1], min, (int) range);
+      }
+      invokeAll(tasks);
+
+      int[][] counts = new int[tasks.length][];
+      for (int b = 0; b < tasks.length; b++) {
+        counts[b] = tasks[b].count;
+      }
+      int slices = (int) Math.min(4 * parallelism, range);
+      SliceTask[] fills = new SliceTask[slices];
+      for (int s = 0; s < slices; s++) {
+        fills[s] = new SliceTask(a, counts, min, (int) (range * s / slices),
+            (int) (range * (s + 1) / slices));
+      }
+      invokeAll(fills);
+
+      // Turn the slice totals into the offsets at which the slices write their keys
+      int offset = 0;
+      for (SliceTask fill : fills) {
+        int total = fill.offset;
+        fill.offset = offset;
+        offset += total;
+        fill.reinitialize();
+      }
+      invokeAll(fills);
+    }
+  }
+
+  /**
+   * A task for the block {@code [from, to)} of {@code a}. Without a histogram ({@code range} of
+   * zero) it finds the minimum and maximum of the block; otherwise it builds the histogram of the
+   * block, whose keys lie in {@code [min, min + range)}.
+   */
+  private static class BlockTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1l;
+
+    private final int[] a;
+    private final int from;
+    private final int to;
+    int min;
+    int max;
+    final int[] count;
+
+    BlockTask(int[] a, int from, int to, int min, int range) {
+      this.a = a;
+      this.from = from;
+      this.to = to;
+      this.min = min;
+      this.count = 0 == range ? null : new int[range];
+    }
+
+    @Override
+    protected void compute() {
+      if (null == count) {
+        min = a[from];
+        max = min;
+        for (int i = from + 1; i < to; i++) {
+          int v = a[i];
+          if (v < min) {
+            min = v;
+          } else if (v > max) {
+            max = v;
+          }
+        }
+      } else {
+        for (int i = from; i < to; i++) {
+          count[a[i] - min]++;
+        }
+      }
+    }
+  }
+
+  /**
+   * A task for the slice {@code [kFrom, kTo)} of the counts, which stand for the keys
+   * {@code min + kFrom} to {@code min + kTo - 1}. The task is invoked twice: first it sums its
+   * slice of the block histograms into the first one and leaves the number of elements in the
+   * slice in {@code offset}, then (once {@code offset} has been replaced by the index of the
+   * slice's first element) it writes the keys of the slice into {@code a}.
+   */
+  private static class SliceTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1l;
+
+    private final int[] a;
+    private final int[][] counts;
+    private final int min;
+    private final int kFrom;
+    private final int kTo;
+    int offset;
+    private boolean summed;
+
+    SliceTask(int[] a, int[][] counts, int min, int kFrom, int kTo) {
+      this.a = a;
+      this.counts = counts;
+      this.min = min;
+      this.kFrom = kFrom;
+      this.kTo = kTo;
+    }
+
+    @Override
+    protected void compute() {
+      int[] count = counts[0];
+      if (!summed) {
+        int total = 0;
+        for (int k = kFrom; k < kTo; k++) {
+          int c = count[k];
+          for (int b = 1; b < counts.length; b++) {
+            c += counts[b][k];
+          }
+          count[k] = c;
+          total += c;
+        }
+        offset = total;
+        summed = true;
+      } else {
+        int i = offset;
+        for (int k = kFrom; k < kTo; k++) {
+          for (int c = count[k]; c > 0; c--) {
+            a[i++] = min + k;
+          }
+        }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,661 @@
+/*
+ * Copyright (c) 2009, The Algorithm Study Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright notice,
+ *       this list of conditions and the following disclaimer in the documentation
+ *       and/or other materials provided with the distribution.
+ *     * Neither the name of the Algorithm Study Project, algorithmstudy.com, nor
+ *       the names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+package com.algorithmstudy.sort;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code ExternalSorter} sorts binary files of 32-bit or 64-bit signed keys that are too large to
+ * be sorted in memory. The sort is the classic two phase external merge sort:
+ * <ol>
+ * <li>The input is read in runs that fit in the memory budget. Each run is sorted with
+ * {@link MergeSort} and spilled to a temporary file through a {@link FileChannel}.</li>
+ * <li>The runs are merged with a k-way merge. The head key of each run is kept in a binary min
+ * heap (the mirror image of {@link com.algorithmstudy.datastructures.MaxBinaryHeap}), and each run
+ * is read through its own read-ahead buffer. The buffers share the memory budget, so if there are
+ * too many runs to give each one a buffer of at least {@link #MIN_READ_BUFFER_SIZE} bytes, groups
+ * of runs are first merged into longer runs in intermediate passes.</li>
+ * </ol>
+ * If the whole input fits in one run it is sorted in memory and written straight to the output,
+ * without a temporary file. <br>
+ * <br>
+ * Each sort returns a {@link Stats} with the number of bytes read and written (including the
+ * temporary files), the number of runs and the number of merge passes, which is what is needed to
+ * tune the memory budget. <br>
+ * <br>
+ * The input and output may be the same file. A {@code ExternalSorter} holds no state between
+ * sorts, so one instance can be shared by several threads.
+ */
+public class ExternalSorter {
+
+  /**
+   * The memory budget used by the no argument constructor: 64 MB.
+   */
+  public static final long DEFAULT_MEMORY_BUDGET = 64L << 20;
+
+  /**
+   * The smallest memory budget an {@code ExternalSorter} accepts: 64 KB.
+   */
+  public static final long MIN_MEMORY_BUDGET = 64L << 10;
+
+  /**
+   * The smallest read-ahead buffer, in bytes, given to a run during a merge. If the memory budget
+   * can't give every run a buffer of at least this size, the runs are merged in several passes.
+   */
+  public static final int MIN_READ_BUFFER_SIZE = 4 << 10;
+
+  // The largest read-ahead or write buffer, in bytes
+  private static final int MAX_BUFFER_SIZE = 1 << 20;
+
+  // The size, in bytes, of the buffer used to read and spill runs
+  private static final int IO_BUFFER_SIZE = 64 << 10;
+
+  // The largest array the run phase allocates
+  private static final int MAX_RUN_LENGTH = Integer.MAX_VALUE - 8;
+
+  // The number of bytes of memory the sort may use for keys and buffers
+  private final long memoryBudget;
+
+  // The directory for the run files, or null for the default temporary-file directory
+  private final Path tempDirectory;
+
+  // The byte order of the keys in the files
+  private final ByteOrder order;
+
+  /**
+   * Construct a new {@code ExternalSorter} with the {@link #DEFAULT_MEMORY_BUDGET default memory
+   * budget} that reads and writes big-endian keys and puts its run files in the default
+   * temporary-file directory.
+   */
+  public ExternalSorter() {
+    this(DEFAULT_MEMORY_BUDGET);
+  }
+
+  /**
+   * Construct a new {@code ExternalSorter} that reads and writes big-endian keys and puts its run
+   * files in the default temporary-file directory.
+   * 
+   * @param memoryBudget
+   *          The number of bytes of memory the sort may use. Half of it holds the keys of a run and
+   *          half is the merge sort's scratch space, so the runs are {@code memoryBudget / 8} keys
+   *          long for 32-bit keys and {@code memoryBudget / 16} keys long for 64-bit keys.
+   */
+  public ExternalSorter(long memoryBudget) {
+    this(memoryBudget, null, ByteOrder.BIG_ENDIAN);
+  }
+
+  /**
+   * Construct a new {@code ExternalSorter}.
+   * 
+   * @param memoryBudget
+   *          The number of bytes of memory the sort may use. Half of it holds the keys of a run and
+   *          half is the merge sort's scratch space, so the runs are {@code memoryBudget / 8} keys
+   *          long for 32-bit keys and {@code memoryBudget / 16} keys long for 64-bit keys.
+   * @param tempDirectory
+   *          The directory in which to create the run files, or {@code null} to use the default
+   *          temporary-file directory.
+   * @param order
+   *          The byte order of the keys in the input and output files.
+   * @throws IllegalArgumentException
+   *           if {@code memoryBudget} is less than {@link #MIN_MEMORY_BUDGET}.
+   */
+  public ExternalSorter(long memoryBudget, Path tempDirectory, ByteOrder order) {
+    if (memoryBudget < MIN_MEMORY_BUDGET) {
+      throw new IllegalArgumentException("memoryBudget must be at least " + MIN_MEMORY_BUDGET
+          + ": " + memoryBudget);
+    }
+    if (null == order) {
+      throw new NullPointerException("Can't use a null byte order.");
+    }
+    this.memoryBudget = memoryBudget;
+    this.tempDirectory = tempDirectory;
+    this.order = order;
+  }
+
+  /**
+   * Sort a file of 32-bit signed keys into ascending order.
+   * 
+   * @param in
+   *          The file to sort. Its length must be a multiple of 4.
+   * @param out
+   *          The file to write the sorted keys to. It is created or truncated. It may be the same
+   *          file as {@code in}.
+   * @return The statistics of the sort.
+   * @throws IOException
+   *           if reading or writing any of the files fails.
+   * @throws IllegalArgumentException
+   *           if the length of {@code in} is not a multiple of 4.
+   */
+  public Stats sortInts(Path in, Path out) throws IOException {
+    return sort(in, out, 4);
+  }
+
+  /**
+   * Sort a file of 64-bit signed keys into ascending order.
+   * 
+   * @param in
+   *          The file to sort. Its length must be a multiple of 8.
+   * @param out
+   *          The file to write the sorted keys to. It is created or truncated. It may be the same
+   *          file as {@code in}.
+   * @return The statistics of the sort.
+   * @throws IOException
+   *           if reading or writing any of the files fails.
+   * @throws IllegalArgumentException
+   *           if the length of {@code in} is not a multiple of 8.
+   */
+  public Stats sortLongs(Path in, Path out) throws IOException {
+    return sort(in, out, 8);
+  }
+
+  /**
+   * Sort the file {@code in} of {@code keySize} byte keys into {@code out}.
+   */
+  private Stats sort(Path in, Path out, int keySize) throws IOException {
+    if (null == in || null == out) {
+      throw new NullPointerException("Can't sort a null file.");
+    }
+    long size = Files.size(in);
+    if (size % keySize != 0) {
+      throw new IllegalArgumentException("The length of " + in + " (" + size
+          + " bytes) is not a multiple of the key size (" + keySize + " bytes).");
+    }
+    Stats stats = new Stats();
+    List<Path> runs = new ArrayList<Path>();
+    try {
+      if (4 == keySize) {
+        int[] keys = intRuns(in, size / 4, runs, stats);
+        if (runs.isEmpty()) {
+          writeRun(out, keys, stats);
+          return stats;
+        }
+      } else {
+        long[] keys = longRuns(in, size / 8, runs, stats);
+        if (runs.isEmpty()) {
+          writeRun(out, keys, stats);
+          return stats;
+        }
+      }
+      merge(runs, out, keySize, stats);
+      return stats;
+    } finally {
+      for (Path run : runs) {
+        Files.deleteIfExists(run);
+      }
+    }
+  }
+
+  /**
+   * The number of keys of {@code keySize} bytes in a run when there are {@code keys} keys in all.
+   */
+  private int runLength(long keys, int keySize) {
+    return (int) Math.min(Math.min(keys, memoryBudget / (2 * keySize)), MAX_RUN_LENGTH);
+  }
+
+  /**
+   * Read the {@code keys} 32-bit keys of {@code in} in runs, sort each run, and spill the runs to
+   * temporary files that are added to {@code runs}. If all of the keys fit in one run, nothing is
+   * spilled and the sorted keys are returned instead.
+   */
+  private int[] intRuns(Path in, long keys, List<Path> runs, Stats stats) throws IOException {
+    int length = runLength(keys, 4);
+    int[] a = new int[length];
+    int[] scratch = new int[length];
+    ByteBuffer buffer = ByteBuffer.allocate(IO_BUFFER_SIZE).order(order);
+    FileChannel channel = FileChannel.open(in, StandardOpenOption.READ);
+    try {
+      long left = keys;
+      while (left > 0) {
+        int n = (int) Math.min(length, left);
+        for (int i = 0; i < n;) {
+          buffer.clear();
+          buffer.limit((int) Math.min(buffer.capacity(), (long) (n - i) * 4));
+          readFully(channel, buffer, stats);
+          int count = buffer.remaining() / 4;
+          buffer.asIntBuffer().get(a, i, count);
+          i += count;
+        }
+        if (n > 1) {
+          MergeSort.mergeSort(a, 0, n, scratch);
+        }
+        left -= n;
+        stats.runCount++;
+        if (0 == left && runs.isEmpty()) {
+          return a;
+        }
+        Path run = createRun(runs);
+        FileChannel runChannel = FileChannel.open(run, StandardOpenOption.WRITE);
+        try {
+          write(runChannel, a, n, buffer, stats);
+        } finally {
+          runChannel.close();
+        }
+      }
+      return a;
+    } finally {
+      channel.close();
+    }
+  }
+
+  /**
+   * Read the {@code keys} 64-bit keys of {@code in} in runs, sort each run, and spill the runs to
+   * temporary files that are added to {@code runs}. If all of the keys fit in one run, nothing is
+   * spilled and the sorted keys are returned instead.
+   */
+  private long[] longRuns(Path in, long keys, List<Path> runs, Stats stats) throws IOException {
+    int length = runLength(keys, 8);
+    long[] a = new long[length];
+    long[] scratch = new long[length];
+    ByteBuffer buffer = ByteBuffer.allocate(IO_BUFFER_SIZE).order(order);
+    FileChannel channel = FileChannel.open(in, StandardOpenOption.READ);
+    try {
+      long left = keys;
+      while (left > 0) {
+        int n = (int) Math.min(length, left);
+        for (int i = 0; i < n;) {
+          buffer.clear();
+          buffer.limit((int) Math.min(buffer.capacity(), (long) (n - i) * 8));
+          readFully(channel, buffer, stats);
+          int count = buffer.remaining() / 8;
+          buffer.asLongBuffer().get(a, i, count);
+          i += count;
+        }
+        if (n > 1) {
+          MergeSort.mergeSort(a, 0, n, scratch);
+        }
+        left -= n;
+        stats.runCount++;
+        if (0 == left && runs.isEmpty()) {
+          return a;
+        }
+        Path run = createRun(runs);
+        FileChannel runChannel = FileChannel.open(run, StandardOpenOption.WRITE);
+        try {
+          write(runChannel, a, n, buffer, stats);
+        } finally {
+          runChannel.close();
+        }
+      }
+      return a;
+    } finally {
+      channel.close();
+    }
+  }
+
+  /**
+   * Write the single sorted run {@code a} to {@code out}.
+   */
+  private void writeRun(Path out, int[] a, Stats stats) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(IO_BUFFER_SIZE).order(order);
+    FileChannel channel = openForWrite(out);
+    try {
+      write(channel, a, a.length, buffer, stats);
+    } finally {
+      channel.close();
+    }
+  }
+
+  /**
+   * Write the single sorted run {@code a} to {@code out}.
+   */
+  private void writeRun(Path out, long[] a, Stats stats) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(IO_BUFFER_SIZE).order(order);
+    FileChannel channel = openForWrite(out);
+    try {
+      write(channel, a, a.length, buffer, stats);
+    } finally {
+      channel.close();
+    }
+  }
+
+  /**
+   * Write {@code a[0, n)} to {@code channel} through {@code buffer}.
+   */
+  private static void write(FileChannel channel, int[] a, int n, ByteBuffer buffer, Stats stats)
+      throws IOException {
+    int perBuffer = buffer.capacity() / 4;
+    for (int i = 0; i < n;) {
+      int count = Math.min(perBuffer, n - i);
+      buffer.clear();
+      buffer.asIntBuffer().put(a, i, count);
+      buffer.limit(count * 4);
+      writeFully(channel, buffer, stats);
+      i += count;
+    }
+  }
+
+  /**
+   * Write {@code a[0, n)} to {@code channel} through {@code buffer}.
+   */
+  private static void write(FileChannel channel, long[] a, int n, ByteBuffer buffer, Stats stats)
+      throws IOException {
+    int perBuffer = buffer.capacity() / 8;
+    for (int i = 0; i < n;) {
+      int count = Math.min(perBuffer, n - i);
+      buffer.clear();
+      buffer.asLongBuffer().put(a, i, count);
+      buffer.limit(count * 8);
+      writeFully(channel, buffer, stats);
+      i += count;
+    }
+  }
+
+  /**
+   * Merge the sorted run files {@code runs} into {@code out}. If the memory budget can't give
+   * every run a read-ahead buffer of at least {@link #MIN_READ_BUFFER_SIZE} bytes, groups of runs
+   * are merged into new, longer runs first. The merged runs are deleted as soon as they have been
+   * read, and {@code runs} is updated to match, so that whatever is left in it when this method
+   * returns (or throws) is still to be deleted.
+   */
+  private void merge(List<Path> runs, Path out, int keySize, Stats stats) throws IOException {
+    // One buffer per run plus one for the output
+    int fanIn = (int) Math.max(2, Math.min(Integer.MAX_VALUE, memoryBudget / MIN_READ_BUFFER_SIZE)
+        - 1);
+    while (runs.size() > fanIn) {
+      stats.mergePasses++;
+      List<Path> merged = new ArrayList<Path>();
+      try {
+        while (!runs.isEmpty()) {
+          int k = Math.min(fanIn, runs.size());
+          List<Path> group = new ArrayList<Path>(runs.subList(0, k));
+          Path run = createRun(merged);
+          mergeRuns(group, run, keySize, stats);
+          runs.subList(0, k).clear();
+          for (Path p : group) {
+            Files.deleteIfExists(p);
+          }
+        }
+      } finally {
+        runs.addAll(merged);
+      }
+    }
+    stats.mergePasses++;
+    mergeRuns(runs, out, keySize, stats);
+  }
+
+  /**
+   * Merge the sorted run files {@code runs} into {@code out} with a k-way merge.
+   */
+  private void mergeRuns(List<Path> runs, Path out, int keySize, Stats stats) throws IOException {
+    int k = runs.size();
+    int bufferSize = (int) Math.min(MAX_BUFFER_SIZE, memoryBudget / (k + 1));
+    bufferSize -= bufferSize % 8;
+    RunReader[] heap = new RunReader[k];
+    int heapSize = 0;
+    FileChannel channel = null;
+    try {
+      for (int i = 0; i < k; i++) {
+        RunReader reader = new RunReader(runs.get(i), i, keySize, bufferSize, order);
+        heap[heapSize++] = reader;
+        if (!reader.advance(stats)) {
+          reader.close();
+          heapSize--;
+        }
+      }
+      for (int i = heapSize / 2 - 1; i >= 0; i--) {
+        siftDown(heap, i, heapSize);
+      }
+
+      channel = openForWrite(out);
+      ByteBuffer buffer = ByteBuffer.allocate(bufferSize).order(order);
+      while (heapSize > 0) {
+        RunReader min = heap[0];
+        if (buffer.remaining() < keySize) {
+          buffer.flip();
+          writeFully(channel, buffer, stats);
+          buffer.clear();
+        }
+        if (4 == keySize) {
+          buffer.putInt((int) min.head);
+        } else {
+          buffer.putLong(min.head);
+        }
+        if (!min.advance(stats)) {
+          min.close();
+          heap[0] = heap[--heapSize];
+          heap[heapSize] = null;
+        }
+        siftDown(heap, 0, heapSize);
+      }
+      buffer.flip();
+      writeFully(channel, buffer, stats);
+    } finally {
+      for (int i = 0; i < heapSize; i++) {
+        heap[i].close();
+      }
+      if (null != channel) {
+        channel.close();
+      }
+    }
+  }
+
+  /**
+   * Restore the min heap property at index {@code i} of {@code heap[0, size)}. Runs are ordered by
+   * their head keys, and by their position in the list of runs when the heads are equal, so the
+   * merge is stable.
+   */
+  private static void siftDown(RunReader[] heap, int i, int size) {
+    RunReader x = heap[i];
+    int child;
+    while ((child = 2 * i + 1) < size) {
+      if (child + 1 < size && heap[child + 1].precedes(heap[child])) {
+        child++;
+      }
+      if (!heap[child].precedes(x)) {
+        break;
+      }
+      heap[i] = heap[child];
+      i = child;
+    }
+    heap[i] = x;
+  }
+
+  /**
+   * Create a new, empty run file and add it to {@code runs}.
+   */
+  private Path createRun(List<Path> runs) throws IOException {
+    Path run;
+    if (null == tempDirectory) {
+      run = Files.createTempFile("run", ".tmp");
+    } else {
+      run = Files.createTempFile(tempDirectory, "run", ".tmp");
+    }
+    runs.add(run);
+    return run;
+  }
+
+  private static FileChannel openForWrite(Path out) throws IOException {
+    return FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING);
+  }
+
+  /**
+   * Read from {@code channel} until {@code buffer} is full and then flip it.
+   * 
+   * @throws EOFException
+   *           if the end of the channel is reached first.
+   */
+  private static void readFully(FileChannel channel, ByteBuffer buffer, Stats stats)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer);
+      if (read < 0) {
+        throw new EOFException("File ended " + buffer.remaining() + " bytes early.");
+      }
+      stats.bytesRead += read;
+    }
+    buffer.flip();
+  }
+
+  /**
+   * Write all of the remaining bytes of {@code buffer} to {@code channel}.
+   */
+  private static void writeFully(FileChannel channel, ByteBuffer buffer, Stats stats)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      stats.bytesWritten += channel.write(buffer);
+    }
+  }
+
+  /**
+   * {@code RunReader} reads the keys of one sorted run through a read-ahead buffer, exposing the
+   * key at the head of the run.
+   */
+  private static class RunReader {
+
+    // The channel the run is read from
+    private final FileChannel channel;
+
+    // The position of the run in the list of runs being merged
+    private final int index;
+
+    // The size of a key in bytes
+    private final int keySize;
+
+    // The read-ahead buffer
+    private final ByteBuffer buffer;
+
+    // The number of bytes of the run not yet read into the buffer
+    private long unread;
+
+    // The key at the head of the run
+    long head;
+
+    RunReader(Path run, int index, int keySize, int bufferSize, ByteOrder order)
+        throws IOException {
+      this.channel = FileChannel.open(run, StandardOpenOption.READ);
+      this.index = index;
+      this.keySize = keySize;
+      this.buffer = ByteBuffer.allocate(bufferSize).order(order);
+      this.unread = channel.size();
+      buffer.limit(0);
+    }
+
+    /**
+     * Move to the next key of the run.
+     * 
+     * @return {@code false} if the run is exhausted.
+     */
+    boolean advance(Stats stats) throws IOException {
+      if (!buffer.hasRemaining()) {
+        if (0 == unread) {
+          return false;
+        }
+        buffer.clear();
+        buffer.limit((int) Math.min(buffer.capacity(), unread));
+        readFully(channel, buffer, stats);
+        unread -= buffer.remaining();
+      }
+      head = 4 == keySize ? buffer.getInt() : buffer.getLong();
+      return true;
+    }
+
+    /**
+     * Whether this run's head comes before {@code other}'s in the merged output.
+     */
+    boolean precedes(RunReader other) {
+      return head < other.head || (head == other.head && index < other.index);
+    }
+
+    void close() throws IOException {
+      channel.close();
+    }
+  }
+
+  /**
+   * {@code Stats} holds the statistics of one external sort.
+   */
+  public static class Stats {
+
+    private long bytesRead;
+
+    private long bytesWritten;
+
+    private int runCount;
+
+    private int mergePasses;
+
+    Stats() {
+    }
+
+    /**
+     * Gets the number of bytes read from the input and the run files.
+     * 
+     * @return The number of bytes read.
+     */
+    public long bytesRead() {
+      return bytesRead;
+    }
+
+    /**
+     * Gets the number of bytes written to the run files and the output.
+     * 
+     * @return The number of bytes written.
+     */
+    public long bytesWritten() {
+      return bytesWritten;
+    }
+
+    /**
+     * Gets the number of sorted runs the input was split into. A run count of one means the input
+     * was sorted in memory.
+     * 
+     * @return The number of runs.
+     */
+    public int runCount() {
+      return runCount;
+    }
+
+    /**
+     * Gets the number of merge passes, including the final merge into the output. It is zero when
+     * the input was sorted in memory and more than one when the runs didn't all fit in a single
+     * merge.
+     * 
+     * @return The number of merge passes.
+     */
+    public int mergePasses() {
+      return mergePasses;
+    }
+
+    @Override
+    public String toString() {
+      return "runs=" + runCount + ", mergePasses=" + mergePasses + ", bytesRead=" + bytesRead
+          + ", bytesWritten=" + bytesWritten;
+    }
+  }
+
+}
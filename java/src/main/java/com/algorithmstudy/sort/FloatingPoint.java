@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2009, The Algorithm Study Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright notice,
+ *       this list of conditions and the following disclaimer in the documentation
+ *       and/or other materials provided with the distribution.
+ *     * Neither the name of the Algorithm Study Project, algorithmstudy.com, nor
+ *       the names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+package com.algorithmstudy.sort;
+
+/**
+ * {@code FloatingPoint} holds the helpers the sorters use to put {@code double[]} and
+ * {@code float[]} arrays into the same total order as {@link Double#compare(double, double)}:
+ * {@code -0.0} before {@code 0.0}, and {@code NaN} after everything else. The {@code <} and
+ * {@code >} operators can't be used for that on their own ({@code -0.0 == 0.0} and every
+ * comparison with {@code NaN} is false), so a sort of a floating point array is done in three
+ * steps:
+ * <ol>
+ * <li>{@code NaN}s are moved to the end of the array, where they belong, and are left out of the
+ * sort</li>
+ * <li>{@code -0.0}s are counted and replaced with {@code 0.0}</li>
+ * <li>after the sort (with the plain operators), the first zeros are turned back into
+ * {@code -0.0}s</li>
+ * </ol>
+ * Both extra passes take {@code O(n)} time.
+ */
+class FloatingPoint {
+
+  private FloatingPoint() {
+  }
+
+  /**
+   * Move the {@code NaN}s in the segment {@code [l, r)} of {@code a} to the end of the segment.
+   * 
+   * @return The index of the first {@code NaN}, i.e. one greater than the index of the last
+   *         element which is to be sorted.
+   */
+  static int moveNaNsToEnd(double[] a, int l, int r) {
+    int i = l;
+    while (i < r) {
+      if (a[i] != a[i]) {
+        r--;
+        double t = a[i];
+        a[i] = a[r];
+        a[r] = t;
+      } else {
+        i++;
+      }
+    }
+    return r;
+  }
+
+  /**
+   * Replace the {@code -0.0}s in the segment {@code [l, r)} of {@code a} with {@code 0.0}s.
+   * 
+   * @return The number of {@code -0.0}s replaced.
+   */
+  static int clearNegativeZeros(double[] a, int l, int r) {
+    int count = 0;
+    for (int i = l; i < r; i++) {
+      if (a[i] == 0.0d && Double.doubleToRawLongBits(a[i]) < 0) {
+        a[i] = 0.0d;
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Turn the first {@code count} zeros in the sorted segment {@code [l, r)} of {@code a} back into
+   * {@code -0.0}s.
+   */
+  static void restoreNegativeZeros(double[] a, int l, int r, int count) {
+    if (0 == count) {
+      return;
+    }
+    while (l < r) {
+      int m = (l + r) >>> 1;
+      if (a[m] < 0.0d) {
+        l = m + 1;
+      } else {
+        r = m;
+      }
+    }
+    for (int i = l; i < l + count; i++) {
+      a[i] = -0.0d;
+    }
+  }
+
+  /**
+   * Move the {@code NaN}s in the segment {@code [l, r)} of {@code a} to the end of the segment.
+   * 
+   * @return The index of the first {@code NaN}, i.e. one greater than the index of the last
+   *         element which is to be sorted.
+   */
+  static int moveNaNsToEnd(float[] a, int l, int r) {
+    int i = l;
+    while (i < r) {
+      if (a[i] != a[i]) {
+        r--;
+        float t = a[i];
+        a[i] = a[r];
+        a[r] = t;
+      } else {
+        i++;
+      }
+    }
+    return r;
+  }
+
+  /**
+   * Replace the {@code -0.0}s in the segment {@code [l, r)} of {@code a} with {@code 0.0}s.
+   * 
+   * @return The number of {@code -0.0}s replaced.
+   */
+  static int clearNegativeZeros(float[] a, int l, int r) {
+    int count = 0;
+    for (int i = l; i < r; i++) {
+      if (a[i] == 0.0f && Float.floatToRawIntBits(a[i]) < 0) {
+        a[i] = 0.0f;
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Turn the first {@code count} zeros in the sorted segment {@code [l, r)} of {@code a} back into
+   * {@code -0.0}s.
+   */
+  static void restoreNegativeZeros(float[] a, int l, int r, int count) {
+    if (0 == count) {
+      return;
+    }
+    while (l < r) {
+      int m = (l + r) >>> 1;
+      if (a[m] < 0.0f) {
+        l = m + 1;
+      } else {
+        r = m;
+      }
+    }
+    for (int i = l; i < l + count; i++) {
+      a[i] = -0.0f;
+    }
+  }
+
+}
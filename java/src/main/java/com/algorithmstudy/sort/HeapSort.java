@@ -27,6 +27,10 @@
  */
 package com.algorithmstudy.sort;
 
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Comparator;
+
 /**
  * {@code HeapSort} contains implementations of the heap sort algorithm. The binary heap sort
  * algorithm:
@@ -38,9 +42,17 @@ package com.algorithmstudy.sort;
 public class HeapSort {
 
   /**
-   * Sort an {@code int[]} using the heap sort algorithm based on a binary heap. {@code heapSort()}
-   * calls {@code buildMaxHeap()} once and calls {@code maxHeapify() n} times. The resultant run
-   * time is {@code O(n + n lg(n))} which simplifies to {@code O(n lg(n))}.
+   * Sort an {@code int[]} using the heap sort algorithm based on a binary heap. A max heap is built
+   * bottom up in {@code O(n)} time, then the root (the largest remaining element) is repeatedly
+   * exchanged with the last element of the heap, which shrinks by one, and the heap is repaired.
+   * The resultant run time is {@code O(n + n lg(n))} which simplifies to {@code O(n lg(n))}. <br>
+   * <br>
+   * The heap is repaired with Floyd's bottom-up sift: the hole left at the root is moved down to a
+   * leaf along the path of larger children, which takes one comparison per level, and the element
+   * that was taken from the end of the heap is then moved back up from that leaf to its place.
+   * Since that element came from the bottom of the heap it rarely moves up far, so this takes close
+   * to {@code n lg(n)} comparisons, against about {@code 2n lg(n)} for the textbook sift down which
+   * compares against both children at every level.
    * 
    * @param a
    *          The {@code int[]} to sort.
@@ -49,66 +61,396 @@ public class HeapSort {
     if (null == a) {
       throw new NullPointerException("Can't sort a null array!");
     }
+    sort(a, 0, a.length);
+  }
+
+  /**
+   * Sort the range {@code [fromIndex, toIndex)} of an {@code int[]} using the heap sort algorithm.
+   * The elements outside the range are not touched.
+   * 
+   * @param a
+   *          The {@code int[]} to sort.
+   * @param fromIndex
+   *          The index of the first element to sort.
+   * @param toIndex
+   *          One greater than the index of the last element to sort.
+   * @throws IllegalArgumentException
+   *           if {@code fromIndex > toIndex}.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code fromIndex < 0} or {@code toIndex > a.length}.
+   */
+  public static void heapSort(int[] a, int fromIndex, int toIndex) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array!");
+    }
+    RangeCheck.check(a.length, fromIndex, toIndex);
+    sort(a, fromIndex, toIndex);
+  }
 
-    if (a.length < 2) {
+  /**
+   * Sort the segment {@code [l, r)} of an {@code int[]} using the heap sort algorithm, as described
+   * for {@link #heapSort(int[])}. The heap is laid out relative to {@code l}, i.e. the children of
+   * the element at offset {@code i} from {@code l} are at offsets {@code 2i + 1} and
+   * {@code 2i + 2}.
+   * 
+   * @param a
+   *          The {@code int[]} to sort.
+   * @param l
+   *          The index of the first element to sort.
+   * @param r
+   *          One greater than the index of the last element to sort.
+   */
+  static void sort(int[] a, int l, int r) {
+    int n = r - l;
+    for (int i = (n >>> 1) - 1; i >= 0; i--) {
+      siftDown(a, l, i, n);
+    }
+    for (int i = n - 1; i > 0; i--) {
+      int x = a[l + i];
+      a[l + i] = a[l];
+      siftDownBottomUp(a, l, x, i);
+    }
+  }
+
+  /**
+   * Sort an {@code int[]} using the heap sort algorithm, recording its cost in {@code metrics},
+   * with the time spent building the heap and sorting it down as separate phases. Passing
+   * {@link SortMetrics#NONE} is the same as calling {@link #heapSort(int[])}.
+   * 
+   * @param a
+   *          The {@code int[]} to sort.
+   * @param metrics
+   *          The metrics in which to record the cost of the sort.
+   */
+  public static void heapSort(int[] a, SortMetrics metrics) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array!");
+    }
+    if (null == metrics) {
+      throw new NullPointerException("Can't record into null metrics.");
+    }
+    if (SortMetrics.NONE == metrics) {
+      sort(a, 0, a.length);
       return;
     }
+    sort(a, 0, a.length, metrics);
+  }
+
+  /**
+   * The instrumented version of {@link #sort(int[], int, int)}, which records its comparisons and
+   * moves in {@code metrics}.
+   */
+  static void sort(int[] a, int l, int r, SortMetrics metrics) {
+    int n = r - l;
+    metrics.depth(1);
+    long start = System.nanoTime();
+    for (int i = (n >>> 1) - 1; i >= 0; i--) {
+      siftDown(a, l, i, n, metrics);
+    }
+    long built = System.nanoTime();
+    metrics.phase("buildHeap", built - start);
+    for (int i = n - 1; i > 0; i--) {
+      int x = a[l + i];
+      a[l + i] = a[l];
+      metrics.moves++;
+      siftDownBottomUp(a, l, x, i, metrics);
+    }
+    metrics.phase("sortDown", System.nanoTime() - built);
+  }
 
-    buildMaxHeap(a);
+  private static void siftDown(int[] a, int base, int i, int size, SortMetrics metrics) {
+    int x = a[base + i];
+    int half = size >>> 1;
+    int start = i;
+    while (i < half) {
+      int child = 2 * i + 1;
+      int right = child + 1;
+      if (right < size) {
+        metrics.comparisons++;
+        if (a[base + right] > a[base + child]) {
+          child = right;
+        }
+      }
+      metrics.comparisons++;
+      if (x >= a[base + child]) {
+        break;
+      }
+      a[base + i] = a[base + child];
+      metrics.moves++;
+      i = child;
+    }
+    if (i != start) {
+      a[base + i] = x;
+      metrics.moves++;
+    }
+  }
 
-    for (int i = a.length - 1; i > 0; i--) {
-      exchange(a, 0, i);
-      maxHeapify(a, 0, i);
+  private static void siftDownBottomUp(int[] a, int base, int x, int size, SortMetrics metrics) {
+    int i = 0;
+    int half = size >>> 1;
+    while (i < half) {
+      int child = 2 * i + 1;
+      int right = child + 1;
+      if (right < size) {
+        metrics.comparisons++;
+        if (a[base + right] > a[base + child]) {
+          child = right;
+        }
+      }
+      a[base + i] = a[base + child];
+      metrics.moves++;
+      i = child;
     }
+    while (i > 0) {
+      int parent = (i - 1) >>> 1;
+      metrics.comparisons++;
+      if (a[base + parent] >= x) {
+        break;
+      }
+      a[base + i] = a[base + parent];
+      metrics.moves++;
+      i = parent;
+    }
+    a[base + i] = x;
+    metrics.moves++;
   }
 
   /**
-   * Builds a max heap in the {@code int[]} backing this heap instance. A loose upper bound on the
-   * run time of this method is {@code O(n lg(n))} because the max run time of {@code maxHeapify()}
-   * is {@code O(lg(n))} and {@code maxHeapify()} is called {@code n} times. However, a tighter
-   * upper bound is {@code O(n)} (see "Introduction to Algorithms, Second Edition" chapter 6,
-   * section 3).
+   * Move the element at offset {@code i} of the heap {@code a[base, base + size)} down the heap
+   * until it is not smaller than either of its children.
    * 
    * @param a
-   *          The array to build into a max heap.
+   *          The {@code int[]} containing the heap.
+   * @param base
+   *          The index of the root of the heap.
+   * @param i
+   *          The offset from {@code base} of the element to move down.
+   * @param size
+   *          The size of the heap.
    */
-  private static void buildMaxHeap(int[] a) {
-    for (int i = a.length / 2; i >= 0; i--) {
-      maxHeapify(a, i, a.length);
+  private static void siftDown(int[] a, int base, int i, int size) {
+    int x = a[base + i];
+    int half = size >>> 1;
+    while (i < half) {
+      int child = 2 * i + 1;
+      int right = child + 1;
+      if (right < size && a[base + right] > a[base + child]) {
+        child = right;
+      }
+      if (x >= a[base + child]) {
+        break;
+      }
+      a[base + i] = a[base + child];
+      i = child;
+    }
+    a[base + i] = x;
+  }
+
+  /**
+   * Put {@code x} into the heap {@code a[base, base + size)} whose root is vacant, using Floyd's
+   * bottom-up sift: the vacancy is first moved down to a leaf, always taking the larger child's
+   * place, and {@code x} is then moved up from that leaf until its parent is not smaller than it.
+   * 
+   * @param a
+   *          The {@code int[]} containing the heap.
+   * @param base
+   *          The index of the root of the heap.
+   * @param x
+   *          The element to put into the heap.
+   * @param size
+   *          The size of the heap.
+   */
+  private static void siftDownBottomUp(int[] a, int base, int x, int size) {
+    int i = 0;
+    int half = size >>> 1;
+    while (i < half) {
+      int child = 2 * i + 1;
+      int right = child + 1;
+      if (right < size && a[base + right] > a[base + child]) {
+        child = right;
+      }
+      a[base + i] = a[base + child];
+      i = child;
+    }
+    while (i > 0) {
+      int parent = (i - 1) >>> 1;
+      if (a[base + parent] >= x) {
+        break;
+      }
+      a[base + i] = a[base + parent];
+      i = parent;
+    }
+    a[base + i] = x;
+  }
+
+  /**
+   * Sort an {@code int[]} using the heap sort algorithm based on a 4-ary heap, in which the
+   * children of the element at index {@code i} are at indices {@code 4i + 1} to {@code 4i + 4}.
+   * <br>
+   * <br>
+   * A 4-ary heap is half as tall as a binary heap, so each sift visits half as many levels, and the
+   * four children it compares at each level are adjacent in memory and usually share a cache line.
+   * Finding the largest of four children takes three comparisons, so the number of comparisons is
+   * about the same as for the binary heap, but there are half as many cache misses once the heap
+   * no longer fits in the cache. The run time is {@code O(n lg(n))}.
+   * 
+   * @param a
+   *          The {@code int[]} to sort.
+   */
+  public static void quaternaryHeapSort(int[] a) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array!");
+    }
+    int n = a.length;
+    for (int i = (n - 2) >> 2; i >= 0; i--) {
+      siftDown4(a, i, n);
+    }
+    for (int i = n - 1; i > 0; i--) {
+      exchange(a, 0, i);
+      siftDown4(a, 0, i);
     }
   }
 
   /**
-   * Creates a max heap at the specified index in {@code int[] a}. The {@code maxHeapify()} method
-   * takes {@code O(h)} time to complete where {@code h} is the height of the tree rooted at
-   * {@code i} (note, {@code h = n lg n} where {@code n} is the number of elements in the tree
-   * rooted at {@code i}). It takes {@code O(h)} time to complete because it recurses at a maximum
-   * down to its lowest leaf which is at a depth of {@code h}.
+   * Move the element at index {@code i} of the 4-ary heap {@code a[0, size)} down the heap until
+   * it is not smaller than any of its children.
    * 
    * @param a
-   *          The {@code int[]} in which to max heapify an element.
+   *          The {@code int[]} containing the heap.
    * @param i
-   *          The index in {@code a} for which to ensure it is a max heap.
+   *          The index of the element to move down.
    * @param size
-   *          The size of the heap that is to be {@code maxHeapified()}.
+   *          The size of the heap.
+   */
+  private static void siftDown4(int[] a, int i, int size) {
+    int x = a[i];
+    int lastParent = (size - 2) >> 2;
+    while (i <= lastParent) {
+      int child = 4 * i + 1;
+      int end = Math.min(child + 4, size);
+      int max = child;
+      for (int c = child + 1; c < end; c++) {
+        if (a[c] > a[max]) {
+          max = c;
+        }
+      }
+      if (x >= a[max]) {
+        break;
+      }
+      a[i] = a[max];
+      i = max;
+    }
+    a[i] = x;
+  }
+
+  /**
+   * Partially sort an {@code int[]} so that its {@code k} smallest elements are in
+   * {@code a[0, k)} in ascending order. The order of the remaining elements is unspecified. <br>
+   * <br>
+   * {@code a[0, k)} is kept as a bounded max heap of the smallest elements seen so far: each of the
+   * other {@code n - k} elements that is smaller than the root replaces it and is sifted down. The
+   * heap is then sorted in place. The run time is {@code O(n lg(k))} and no extra memory is used.
+   * 
+   * @param a
+   *          The {@code int[]} to partially sort.
+   * @param k
+   *          The number of smallest elements to sort.
+   * @throws IllegalArgumentException
+   *           if {@code k} is negative or greater than {@code a.length}.
    */
-  private static void maxHeapify(int[] a, int i, int size) {
-    int l = left(i);
-    int r = right(i);
+  public static void partialSort(int[] a, int k) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array!");
+    }
+    if (k < 0 || k > a.length) {
+      throw new IllegalArgumentException("k must be between 0 and " + a.length + ": " + k);
+    }
+    if (0 == k) {
+      return;
+    }
+
+    for (int i = (k >>> 1) - 1; i >= 0; i--) {
+      siftDown(a, 0, i, k);
+    }
+    for (int i = k; i < a.length; i++) {
+      if (a[i] < a[0]) {
+        exchange(a, 0, i);
+        siftDown(a, 0, 0, k);
+      }
+    }
+    for (int i = k - 1; i > 0; i--) {
+      exchange(a, 0, i);
+      siftDown(a, 0, 0, i);
+    }
+  }
+
+  /**
+   * Get the {@code k} largest elements of an {@code int[]}, largest first. {@code a} is not
+   * changed. <br>
+   * <br>
+   * The result is built in a bounded min heap of the largest elements seen so far: each element of
+   * {@code a} that is larger than the root replaces it and is sifted down. The heap is then sorted
+   * in place, which leaves it in descending order. The run time is {@code O(n lg(k))} and the only
+   * memory used is the returned array of {@code k} elements.
+   * 
+   * @param a
+   *          The {@code int[]} from which to select the elements.
+   * @param k
+   *          The number of largest elements to return.
+   * @return A new {@code int[]} holding the {@code k} largest elements of {@code a} in descending
+   *         order.
+   * @throws IllegalArgumentException
+   *           if {@code k} is negative or greater than {@code a.length}.
+   */
+  public static int[] topK(int[] a, int k) {
+    if (null == a) {
+      throw new NullPointerException("Can't select from a null array!");
+    }
+    if (k < 0 || k > a.length) {
+      throw new IllegalArgumentException("k must be between 0 and " + a.length + ": " + k);
+    }
+    int[] heap = new int[k];
+    if (0 == k) {
+      return heap;
+    }
 
-    if (l < size && a[l] > a[i]) {
-      if (r < size && a[r] > a[l]) {
-        exchange(a, i, r);
-        maxHeapify(a, r, size);
-      } else {
-        exchange(a, i, l);
-        maxHeapify(a, l, size);
+    System.arraycopy(a, 0, heap, 0, k);
+    for (int i = (k >>> 1) - 1; i >= 0; i--) {
+      siftDownMin(heap, i, k);
+    }
+    for (int i = k; i < a.length; i++) {
+      if (a[i] > heap[0]) {
+        heap[0] = a[i];
+        siftDownMin(heap, 0, k);
       }
-    } else if (r < size && a[r] > a[i]) {
-      exchange(a, i, r);
-      maxHeapify(a, r, size);
     }
+    for (int i = k - 1; i > 0; i--) {
+      exchange(heap, 0, i);
+      siftDownMin(heap, 0, i);
+    }
+    return heap;
+  }
 
+  /**
+   * Move the element at index {@code i} of the min heap {@code a[0, size)} down the heap until it
+   * is not larger than either of its children.
+   */
+  private static void siftDownMin(int[] a, int i, int size) {
+    int x = a[i];
+    int half = size >>> 1;
+    while (i < half) {
+      int child = 2 * i + 1;
+      int right = child + 1;
+      if (right < size && a[right] < a[child]) {
+        child = right;
+      }
+      if (x <= a[child]) {
+        break;
+      }
+      a[i] = a[child];
+      i = child;
+    }
+    a[i] = x;
   }
 
   /**
@@ -128,27 +470,489 @@ public class HeapSort {
   }
 
   /**
-   * The index of the left child of the element at index {@code i} in a binary heap array.
+   * Sort a {@code long[]} using the heap sort algorithm based on a binary heap.
    * 
-   * @param i
-   *          The index of the element for which to get the left child's index.
-   * @return The index of the left child of element {@code i} in a binary heap array. The returned
-   *         value may be greater than the size of the heap or array.
+   * @param a
+   *          The {@code long[]} to sort.
    */
-  private static int left(int i) {
-    return i * 2;
+  public static void heapSort(long[] a) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array!");
+    }
+    int n = a.length;
+    sort(a, 0, n);
   }
 
   /**
-   * The index of the right child of the element at index {@code i} in a binary heap array.
+   * Sort the segment {@code [l, r)} of a {@code long[]} using the heap sort algorithm. The heap is
+   * laid out relative to {@code l}.
    * 
-   * @param i
-   *          The index of the element for which to get the right child's index.
-   * @return The index of the right child of element {@code i} in a binary heap array. The returned
-   *         value may be greater than the size of the heap or array.
+   * @param a
+   *          The {@code long[]} to sort.
+   * @param l
+   *          The index of the first element to sort.
+   * @param r
+   *          One greater than the index of the last element to sort.
+   */
+  static void sort(long[] a, int l, int r) {
+    int n = r - l;
+    for (int i = (n >>> 1) - 1; i >= 0; i--) {
+      siftDown(a, l, i, n);
+    }
+    for (int i = n - 1; i > 0; i--) {
+      long tmp = a[l];
+      a[l] = a[l + i];
+      a[l + i] = tmp;
+      siftDown(a, l, 0, i);
+    }
+  }
+
+  private static void siftDown(long[] a, int base, int i, int size) {
+    long x = a[base + i];
+    int half = size >>> 1;
+    while (i < half) {
+      int child = 2 * i + 1;
+      int right = child + 1;
+      if (right < size && a[base + right] > a[base + child]) {
+        child = right;
+      }
+      if (x >= a[base + child]) {
+        break;
+      }
+      a[base + i] = a[base + child];
+      i = child;
+    }
+    a[base + i] = x;
+  }
+
+  /**
+   * Sort a {@code double[]} using the heap sort algorithm based on a binary heap. <br>
+   * <br>
+   * {@code NaN}s are placed after all other values and {@code -0.0} before {@code 0.0}, the same
+   * order as {@code Double.compare()}.
+   * 
+   * @param a
+   *          The {@code double[]} to sort.
+   */
+  public static void heapSort(double[] a) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array!");
+    }
+    int n = FloatingPoint.moveNaNsToEnd(a, 0, a.length);
+    int negativeZeros = FloatingPoint.clearNegativeZeros(a, 0, n);
+    sort(a, 0, n);
+    FloatingPoint.restoreNegativeZeros(a, 0, n, negativeZeros);
+  }
+
+  static void sort(double[] a, int l, int r) {
+    int n = r - l;
+    for (int i = (n >>> 1) - 1; i >= 0; i--) {
+      siftDown(a, l, i, n);
+    }
+    for (int i = n - 1; i > 0; i--) {
+      double tmp = a[l];
+      a[l] = a[l + i];
+      a[l + i] = tmp;
+      siftDown(a, l, 0, i);
+    }
+  }
+
+  private static void siftDown(double[] a, int base, int i, int size) {
+    double x = a[base + i];
+    int half = size >>> 1;
+    while (i < half) {
+      int child = 2 * i + 1;
+      int right = child + 1;
+      if (right < size && a[base + right] > a[base + child]) {
+        child = right;
+      }
+      if (x >= a[base + child]) {
+        break;
+      }
+      a[base + i] = a[base + child];
+      i = child;
+    }
+    a[base + i] = x;
+  }
+
+  /**
+   * Sort a {@code float[]} using the heap sort algorithm based on a binary heap. <br>
+   * <br>
+   * {@code NaN}s are placed after all other values and {@code -0.0} before {@code 0.0}, the same
+   * order as {@code Float.compare()}.
+   * 
+   * @param a
+   *          The {@code float[]} to sort.
+   */
+  public static void heapSort(float[] a) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array!");
+    }
+    int n = FloatingPoint.moveNaNsToEnd(a, 0, a.length);
+    int negativeZeros = FloatingPoint.clearNegativeZeros(a, 0, n);
+    sort(a, 0, n);
+    FloatingPoint.restoreNegativeZeros(a, 0, n, negativeZeros);
+  }
+
+  static void sort(float[] a, int l, int r) {
+    int n = r - l;
+    for (int i = (n >>> 1) - 1; i >= 0; i--) {
+      siftDown(a, l, i, n);
+    }
+    for (int i = n - 1; i > 0; i--) {
+      float tmp = a[l];
+      a[l] = a[l + i];
+      a[l + i] = tmp;
+      siftDown(a, l, 0, i);
+    }
+  }
+
+  private static void siftDown(float[] a, int base, int i, int size) {
+    float x = a[base + i];
+    int half = size >>> 1;
+    while (i < half) {
+      int child = 2 * i + 1;
+      int right = child + 1;
+      if (right < size && a[base + right] > a[base + child]) {
+        child = right;
+      }
+      if (x >= a[base + child]) {
+        break;
+      }
+      a[base + i] = a[base + child];
+      i = child;
+    }
+    a[base + i] = x;
+  }
+
+  /**
+   * Sort a {@code short[]} using the heap sort algorithm based on a binary heap.
+   * 
+   * @param a
+   *          The {@code short[]} to sort.
+   */
+  public static void heapSort(short[] a) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array!");
+    }
+    int n = a.length;
+    sort(a, 0, n);
+  }
+
+  static void sort(short[] a, int l, int r) {
+    int n = r - l;
+    for (int i = (n >>> 1) - 1; i >= 0; i--) {
+      siftDown(a, l, i, n);
+    }
+    for (int i = n - 1; i > 0; i--) {
+      short tmp = a[l];
+      a[l] = a[l + i];
+      a[l + i] = tmp;
+      siftDown(a, l, 0, i);
+    }
+  }
+
+  private static void siftDown(short[] a, int base, int i, int size) {
+    short x = a[base + i];
+    int half = size >>> 1;
+    while (i < half) {
+      int child = 2 * i + 1;
+      int right = child + 1;
+      if (right < size && a[base + right] > a[base + child]) {
+        child = right;
+      }
+      if (x >= a[base + child]) {
+        break;
+      }
+      a[base + i] = a[base + child];
+      i = child;
+    }
+    a[base + i] = x;
+  }
+
+  /**
+   * Sort a {@code char[]} using the heap sort algorithm based on a binary heap.
+   * 
+   * @param a
+   *          The {@code char[]} to sort.
+   */
+  public static void heapSort(char[] a) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array!");
+    }
+    int n = a.length;
+    sort(a, 0, n);
+  }
+
+  static void sort(char[] a, int l, int r) {
+    int n = r - l;
+    for (int i = (n >>> 1) - 1; i >= 0; i--) {
+      siftDown(a, l, i, n);
+    }
+    for (int i = n - 1; i > 0; i--) {
+      char tmp = a[l];
+      a[l] = a[l + i];
+      a[l + i] = tmp;
+      siftDown(a, l, 0, i);
+    }
+  }
+
+  private static void siftDown(char[] a, int base, int i, int size) {
+    char x = a[base + i];
+    int half = size >>> 1;
+    while (i < half) {
+      int child = 2 * i + 1;
+      int right = child + 1;
+      if (right < size && a[base + right] > a[base + child]) {
+        child = right;
+      }
+      if (x >= a[base + child]) {
+        break;
+      }
+      a[base + i] = a[base + child];
+      i = child;
+    }
+    a[base + i] = x;
+  }
+
+  /**
+   * Sort a {@code byte[]} using the heap sort algorithm based on a binary heap.
+   * 
+   * @param a
+   *          The {@code byte[]} to sort.
+   */
+  public static void heapSort(byte[] a) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array!");
+    }
+    int n = a.length;
+    sort(a, 0, n);
+  }
+
+  static void sort(byte[] a, int l, int r) {
+    int n = r - l;
+    for (int i = (n >>> 1) - 1; i >= 0; i--) {
+      siftDown(a, l, i, n);
+    }
+    for (int i = n - 1; i > 0; i--) {
+      byte tmp = a[l];
+      a[l] = a[l + i];
+      a[l + i] = tmp;
+      siftDown(a, l, 0, i);
+    }
+  }
+
+  private static void siftDown(byte[] a, int base, int i, int size) {
+    byte x = a[base + i];
+    int half = size >>> 1;
+    while (i < half) {
+      int child = 2 * i + 1;
+      int right = child + 1;
+      if (right < size && a[base + right] > a[base + child]) {
+        child = right;
+      }
+      if (x >= a[base + child]) {
+        break;
+      }
+      a[base + i] = a[base + child];
+      i = child;
+    }
+    a[base + i] = x;
+  }
+
+  /**
+   * Sort an array of objects into their natural order using the heap sort algorithm based on a
+   * binary heap.
+   * 
+   * @param a
+   *          The array to sort.
+   */
+  public static <T extends Comparable<? super T>> void heapSort(T[] a) {
+    heapSort(a, Comparator.<T> naturalOrder());
+  }
+
+  /**
+   * Sort an array of objects into the order induced by a {@code Comparator} using the heap sort
+   * algorithm based on a binary heap. The sort is not stable.
+   * 
+   * @param a
+   *          The array to sort.
+   * @param c
+   *          The comparator which defines the order.
+   */
+  public static <T> void heapSort(T[] a, Comparator<? super T> c) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array!");
+    }
+    if (null == c) {
+      throw new NullPointerException("Can't sort without a comparator.");
+    }
+    sort(a, 0, a.length, c);
+  }
+
+  /**
+   * Sort the segment {@code [l, r)} of {@code a} into the order induced by {@code c} using the heap
+   * sort algorithm.
+   */
+  static <T> void sort(T[] a, int l, int r, Comparator<? super T> c) {
+    int n = r - l;
+    for (int i = (n >>> 1) - 1; i >= 0; i--) {
+      siftDown(a, l, i, n, c);
+    }
+    for (int i = n - 1; i > 0; i--) {
+      T tmp = a[l];
+      a[l] = a[l + i];
+      a[l + i] = tmp;
+      siftDown(a, l, 0, i, c);
+    }
+  }
+
+  private static <T> void siftDown(T[] a, int base, int i, int size, Comparator<? super T> c) {
+    T x = a[base + i];
+    int half = size >>> 1;
+    while (i < half) {
+      int child = 2 * i + 1;
+      int right = child + 1;
+      if (right < size && c.compare(a[base + right], a[base + child]) > 0) {
+        child = right;
+      }
+      if (c.compare(x, a[base + child]) >= 0) {
+        break;
+      }
+      a[base + i] = a[base + child];
+      i = child;
+    }
+    a[base + i] = x;
+  }
+
+  /**
+   * Sort the remaining elements of an {@code IntBuffer}, i.e. those between its position and its
+   * limit, using the heap sort algorithm. The sort is in place and uses {@code O(1)} extra memory,
+   * so it can sort a view of a {@link java.nio.MappedByteBuffer} without copying the keys onto the
+   * heap. The buffer's position, limit and mark are not changed.
+   * 
+   * @param b
+   *          The {@code IntBuffer} to sort.
+   * @throws java.nio.ReadOnlyBufferException
+   *           if {@code b} is read-only.
+   */
+  public static void heapSort(IntBuffer b) {
+    if (null == b) {
+      throw new NullPointerException("Can't sort a null buffer!");
+    }
+    sort(b, b.position(), b.limit());
+  }
+
+  /**
+   * Sort the elements {@code [l, r)} of an {@code IntBuffer} using the heap sort algorithm. The
+   * indices are absolute, as in {@code IntBuffer.get(int)}.
+   * 
+   * @param b
+   *          The {@code IntBuffer} to sort.
+   * @param l
+   *          The index of the first element to sort.
+   * @param r
+   *          One greater than the index of the last element to sort.
    */
-  private static int right(int i) {
-    return (i * 2) + 1;
+  static void sort(IntBuffer b, int l, int r) {
+    int n = r - l;
+    for (int i = (n >>> 1) - 1; i >= 0; i--) {
+      siftDown(b, l, i, n);
+    }
+    for (int i = n - 1; i > 0; i--) {
+      int tmp = b.get(l);
+      b.put(l, b.get(l + i));
+      b.put(l + i, tmp);
+      siftDown(b, l, 0, i);
+    }
+  }
+
+  private static void siftDown(IntBuffer b, int base, int i, int size) {
+    int x = b.get(base + i);
+    int half = size >>> 1;
+    while (i < half) {
+      int child = 2 * i + 1;
+      int right = child + 1;
+      int c = b.get(base + child);
+      if (right < size) {
+        int rc = b.get(base + right);
+        if (rc > c) {
+          child = right;
+          c = rc;
+        }
+      }
+      if (x >= c) {
+        break;
+      }
+      b.put(base + i, c);
+      i = child;
+    }
+    b.put(base + i, x);
+  }
+
+  /**
+   * Sort the remaining elements of an {@code LongBuffer}, i.e. those between its position and its
+   * limit, using the heap sort algorithm. The sort is in place and uses {@code O(1)} extra memory,
+   * so it can sort a view of a {@link java.nio.MappedByteBuffer} without copying the keys onto the
+   * heap. The buffer's position, limit and mark are not changed.
+   * 
+   * @param b
+   *          The {@code LongBuffer} to sort.
+   * @throws java.nio.ReadOnlyBufferException
+   *           if {@code b} is read-only.
+   */
+  public static void heapSort(LongBuffer b) {
+    if (null == b) {
+      throw new NullPointerException("Can't sort a null buffer!");
+    }
+    sort(b, b.position(), b.limit());
+  }
+
+  /**
+   * Sort the elements {@code [l, r)} of an {@code LongBuffer} using the heap sort algorithm. The
+   * indices are absolute, as in {@code LongBuffer.get(int)}.
+   * 
+   * @param b
+   *          The {@code LongBuffer} to sort.
+   * @param l
+   *          The index of the first element to sort.
+   * @param r
+   *          One greater than the index of the last element to sort.
+   */
+  static void sort(LongBuffer b, int l, int r) {
+    int n = r - l;
+    for (int i = (n >>> 1) - 1; i >= 0; i--) {
+      siftDown(b, l, i, n);
+    }
+    for (int i = n - 1; i > 0; i--) {
+      long tmp = b.get(l);
+      b.put(l, b.get(l + i));
+      b.put(l + i, tmp);
+      siftDown(b, l, 0, i);
+    }
+  }
+
+  private static void siftDown(LongBuffer b, int base, int i, int size) {
+    long x = b.get(base + i);
+    int half = size >>> 1;
+    while (i < half) {
+      int child = 2 * i + 1;
+      int right = child + 1;
+      long c = b.get(base + child);
+      if (right < size) {
+        long rc = b.get(base + right);
+        if (rc > c) {
+          child = right;
+          c = rc;
+        }
+      }
+      if (x >= c) {
+        break;
+      }
+      b.put(base + i, c);
+      i = child;
+    }
+    b.put(base + i, x);
   }
 
 }
@@ -0,0 +1,393 @@
+/*
+ * Copyright (c) 2009, The Algorithm Study Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright notice,
+ *       this list of conditions and the following disclaimer in the documentation
+ *       and/or other materials provided with the distribution.
+ *     * Neither the name of the Algorithm Study Project, algorithmstudy.com, nor
+ *       the names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+package com.algorithmstudy.sort;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * {@code IncrementalSorter} sorts {@code int} keys which arrive in chunks, such as from a network
+ * reader, without first collecting them into a single array. The keys are kept in sorted runs
+ * which are merged in tiers, the way a log-structured merge tree keeps its tables:
+ * <ul>
+ * <li>Each chunk is copied into fixed size blocks of {@link #BLOCK_SIZE} keys. Whenever a block
+ * fills up it is sorted with {@link IntroSort} and becomes a run of tier 0.</li>
+ * <li>A run of tier {@code i} is {@code FAN_IN^i} blocks long. When a tier holds {@link #FAN_IN}
+ * runs they are merged with a k-way merge into one run of the next tier, which may in turn fill
+ * that tier. Every key is merged once per tier, so adding {@code n} keys takes
+ * {@code O(n lg(n))} time in all, and there are never more than {@code FAN_IN - 1} runs per tier,
+ * {@code O(lg(n))} runs in all.</li>
+ * <li>{@link #iterator()} merges the runs of all tiers, plus the partly filled block, on the fly
+ * using a min heap of their heads. Nothing is copied.</li>
+ * </ul>
+ * Runs are lists of blocks rather than arrays, so a merge frees each block of its input as soon as
+ * it has been read and reuses it for the output. A merge therefore only ever needs
+ * {@code FAN_IN + 1} blocks on top of the blocks of its input, and peak memory use is the size of
+ * the input plus a constant number of blocks. <br>
+ * <br>
+ * An {@code IncrementalSorter} isn't thread safe. Adding keys while an iterator is in use causes
+ * the iterator to throw a {@code ConcurrentModificationException}.
+ */
+public class IncrementalSorter {
+
+  /**
+   * The number of keys in a block.
+   */
+  public static final int BLOCK_SIZE = 1 << 12;
+
+  /**
+   * The number of runs in a tier which are merged into a run of the next tier.
+   */
+  public static final int FAN_IN = 4;
+
+  /**
+   * The most free blocks kept for reuse, enough for the output of a merge and the partly read
+   * block of each of its inputs.
+   */
+  private static final int MAX_FREE_BLOCKS = FAN_IN + 1;
+
+  // The runs of each tier, oldest first
+  private final List<List<Run>> tiers = new ArrayList<List<Run>>();
+
+  // The blocks which are free for reuse
+  private final ArrayDeque<int[]> freeBlocks = new ArrayDeque<int[]>();
+
+  // The partly filled block, which isn't a run yet, and the number of keys in it
+  private int[] pending;
+  private int pendingSize;
+  private boolean pendingSorted;
+
+  // The total number of keys
+  private long size;
+
+  // The number of changes, for detecting concurrent modification by iterators
+  private int modCount;
+
+  /**
+   * Add a chunk of keys. The chunk is copied, so it may be reused as soon as this method returns.
+   * 
+   * @param chunk
+   *          The keys to add.
+   */
+  public void add(int[] chunk) {
+    if (null == chunk) {
+      throw new NullPointerException("Can't add a null chunk.");
+    }
+    add(chunk, 0, chunk.length);
+  }
+
+  /**
+   * Add the range {@code [fromIndex, toIndex)} of a chunk of keys. The chunk is copied, so it may
+   * be reused as soon as this method returns.
+   * 
+   * @param chunk
+   *          The keys to add.
+   * @param fromIndex
+   *          The index of the first key to add.
+   * @param toIndex
+   *          One greater than the index of the last key to add.
+   * @throws IllegalArgumentException
+   *           if {@code fromIndex > toIndex}.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code fromIndex < 0} or {@code toIndex > chunk.length}.
+   */
+  public void add(int[] chunk, int fromIndex, int toIndex) {
+    if (null == chunk) {
+      throw new NullPointerException("Can't add a null chunk.");
+    }
+    RangeCheck.check(chunk.length, fromIndex, toIndex);
+    if (fromIndex == toIndex) {
+      return;
+    }
+    modCount++;
+    pendingSorted = false;
+    size += toIndex - fromIndex;
+    while (fromIndex < toIndex) {
+      if (null == pending) {
+        pending = takeBlock();
+      }
+      int n = Math.min(toIndex - fromIndex, BLOCK_SIZE - pendingSize);
+      System.arraycopy(chunk, fromIndex, pending, pendingSize, n);
+      pendingSize += n;
+      fromIndex += n;
+      if (BLOCK_SIZE == pendingSize) {
+        IntroSort.sort(pending, 0, BLOCK_SIZE);
+        Run run = new Run();
+        run.blocks.add(pending);
+        run.length = BLOCK_SIZE;
+        pending = null;
+        pendingSize = 0;
+        addRun(run);
+      }
+    }
+  }
+
+  /**
+   * Gets the number of keys added so far.
+   * 
+   * @return The number of keys.
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * Gets the number of sorted runs the keys are currently held in, counting the partly filled
+   * block as a run. This is the number of runs {@link #iterator()} merges.
+   * 
+   * @return The number of runs.
+   */
+  public int runCount() {
+    int runs = pendingSize > 0 ? 1 : 0;
+    for (List<Run> tier : tiers) {
+      runs += tier.size();
+    }
+    return runs;
+  }
+
+  /**
+   * Gets an iterator over all of the keys added so far, in ascending order. The runs are merged as
+   * the iterator advances, which takes {@code O(lg(runCount()))} time per key. No keys are copied
+   * and the sorter is left as it is, so the keys may be iterated over any number of times.
+   * 
+   * @return The iterator.
+   */
+  public PrimitiveIterator.OfInt iterator() {
+    if (!pendingSorted && pendingSize > 1) {
+      IntroSort.sort(pending, 0, pendingSize);
+      pendingSorted = true;
+    }
+    return new MergeIterator();
+  }
+
+  /**
+   * Add a run of tier 0, merging full tiers into the next tier.
+   */
+  private void addRun(Run run) {
+    for (int tier = 0;; tier++) {
+      if (tiers.size() == tier) {
+        tiers.add(new ArrayList<Run>(FAN_IN));
+      }
+      List<Run> runs = tiers.get(tier);
+      runs.add(run);
+      if (runs.size() < FAN_IN) {
+        return;
+      }
+      run = merge(runs);
+      runs.clear();
+    }
+  }
+
+  /**
+   * Merge {@code runs}, all of whose blocks are full, into a new run with a k-way merge. The
+   * blocks of the input runs are freed as they are read.
+   */
+  private Run merge(List<Run> runs) {
+    Cursor[] heap = new Cursor[runs.size()];
+    int heapSize = 0;
+    for (Run run : runs) {
+      Cursor cursor = new Cursor(run, true);
+      if (cursor.advance()) {
+        heap[heapSize++] = cursor;
+      }
+    }
+    for (int i = heapSize / 2 - 1; i >= 0; i--) {
+      siftDown(heap, i, heapSize);
+    }
+
+    Run out = new Run();
+    int[] block = null;
+    int i = BLOCK_SIZE;
+    while (heapSize > 0) {
+      Cursor min = heap[0];
+      if (BLOCK_SIZE == i) {
+        block = takeBlock();
+        out.blocks.add(block);
+        i = 0;
+      }
+      block[i++] = min.head;
+      out.length++;
+      if (!min.advance()) {
+        heap[0] = heap[--heapSize];
+        heap[heapSize] = null;
+      }
+      siftDown(heap, 0, heapSize);
+    }
+    return out;
+  }
+
+  /**
+   * Restore the min heap property at index {@code i} of {@code heap[0, size)}.
+   */
+  private static void siftDown(Cursor[] heap, int i, int size) {
+    Cursor x = heap[i];
+    int child;
+    while ((child = 2 * i + 1) < size) {
+      if (child + 1 < size && heap[child + 1].head < heap[child].head) {
+        child++;
+      }
+      if (heap[child].head >= x.head) {
+        break;
+      }
+      heap[i] = heap[child];
+      i = child;
+    }
+    heap[i] = x;
+  }
+
+  private int[] takeBlock() {
+    int[] block = freeBlocks.poll();
+    return null == block ? new int[BLOCK_SIZE] : block;
+  }
+
+  private void freeBlock(int[] block) {
+    if (freeBlocks.size() < MAX_FREE_BLOCKS) {
+      freeBlocks.push(block);
+    }
+  }
+
+  /**
+   * {@code Run} is a sorted run of keys held in blocks of {@link #BLOCK_SIZE} keys. Every block but
+   * the last is full.
+   */
+  private static class Run {
+
+    final List<int[]> blocks = new ArrayList<int[]>();
+
+    // A long, as a run of tier 10 already holds 2^32 keys
+    long length;
+  }
+
+  /**
+   * {@code Cursor} reads the keys of a run in order, exposing the key at its head. A cursor which
+   * consumes its run frees each block once it has been read.
+   */
+  private class Cursor {
+
+    private final Run run;
+    private final boolean consume;
+
+    // The index of the current block, the index of the next key in it and the keys read so far
+    private int block;
+    private int next;
+    private long read;
+
+    // The key at the head of the run
+    int head;
+
+    Cursor(Run run, boolean consume) {
+      this.run = run;
+      this.consume = consume;
+    }
+
+    /**
+     * Move to the next key of the run.
+     * 
+     * @return {@code false} if the run is exhausted.
+     */
+    boolean advance() {
+      if (BLOCK_SIZE == next || read == run.length) {
+        if (consume && block < run.blocks.size()) {
+          freeBlock(run.blocks.set(block, null));
+        }
+        if (read == run.length) {
+          return false;
+        }
+        block++;
+        next = 0;
+      }
+      head = run.blocks.get(block)[next++];
+      read++;
+      return true;
+    }
+  }
+
+  /**
+   * {@code MergeIterator} merges the runs of all tiers and the partly filled block on the fly.
+   */
+  private class MergeIterator implements PrimitiveIterator.OfInt {
+
+    private final int expectedModCount = modCount;
+
+    private final Cursor[] heap;
+
+    private int heapSize;
+
+    MergeIterator() {
+      heap = new Cursor[runCount()];
+      for (List<Run> tier : tiers) {
+        for (Run run : tier) {
+          add(new Cursor(run, false));
+        }
+      }
+      if (pendingSize > 0) {
+        Run run = new Run();
+        run.blocks.add(pending);
+        run.length = pendingSize;
+        add(new Cursor(run, false));
+      }
+      for (int i = heapSize / 2 - 1; i >= 0; i--) {
+        siftDown(heap, i, heapSize);
+      }
+    }
+
+    private void add(Cursor cursor) {
+      if (cursor.advance()) {
+        heap[heapSize++] = cursor;
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return heapSize > 0;
+    }
+
+    @Override
+    public int nextInt() {
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      if (0 == heapSize) {
+        throw new NoSuchElementException();
+      }
+      Cursor min = heap[0];
+      int key = min.head;
+      if (!min.advance()) {
+        heap[0] = heap[--heapSize];
+        heap[heapSize] = null;
+      }
+      siftDown(heap, 0, heapSize);
+      return key;
+    }
+  }
+
+}
@@ -44,12 +44,274 @@ public class InsertionSort {
       throw new NullPointerException("Can't sort a null array.");
     }
 
-    for (int i = 1; i < a.length; i++) {
-      for (int j = i; j > 0 && a[j] < a[j - 1]; j--) {
-        int tmp = a[j];
-        a[j] = a[j - 1];
-        a[j - 1] = tmp;
+    sort(a, 0, a.length);
+  }
+
+  /**
+   * Sort the range {@code [fromIndex, toIndex)} of an {@code int[]} using the insertion sort
+   * algorithm. The elements outside the range are not touched.
+   * 
+   * @param a
+   *          The {@code int[]} to sort.
+   * @param fromIndex
+   *          The index of the first element to sort.
+   * @param toIndex
+   *          One greater than the index of the last element to sort.
+   * @throws IllegalArgumentException
+   *           if {@code fromIndex > toIndex}.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code fromIndex < 0} or {@code toIndex > a.length}.
+   */
+  public static void insertionSort(int[] a, int fromIndex, int toIndex) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array.");
+    }
+    RangeCheck.check(a.length, fromIndex, toIndex);
+    sort(a, fromIndex, toIndex);
+  }
+
+  /**
+   * Sort the segment {@code [l, r)} of an {@code int[]} using the insertion sort algorithm. Rather
+   * than swapping each element down to its position, the elements greater than it are shifted up
+   * one place and it is written once.
+   * 
+   * @param a
+   *          The {@code int[]} to sort.
+   * @param l
+   *          The index of the first element to sort.
+   * @param r
+   *          One greater than the index of the last element to sort.
+   */
+  static void sort(int[] a, int l, int r) {
+    for (int i = l + 1; i < r; i++) {
+      int x = a[i];
+      int j = i - 1;
+      while (j >= l && a[j] > x) {
+        a[j + 1] = a[j];
+        j--;
+      }
+      a[j + 1] = x;
+    }
+  }
+
+  /**
+   * Sort an {@code int[]} using the insertion sort algorithm, recording its cost in
+   * {@code metrics}. Passing {@link SortMetrics#NONE} is the same as calling
+   * {@link #insertionSort(int[])}.
+   * 
+   * @param a
+   *          The {@code int[]} to sort.
+   * @param metrics
+   *          The metrics in which to record the cost of the sort.
+   */
+  public static void insertionSort(int[] a, SortMetrics metrics) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array.");
+    }
+    if (null == metrics) {
+      throw new NullPointerException("Can't record into null metrics.");
+    }
+    if (SortMetrics.NONE == metrics) {
+      sort(a, 0, a.length);
+      return;
+    }
+    long start = System.nanoTime();
+    sort(a, 0, a.length, metrics);
+    metrics.phase("insertionSort", System.nanoTime() - start);
+  }
+
+  /**
+   * Sort the segment {@code [l, r)} of {@code a} using the insertion sort algorithm, recording its
+   * comparisons and moves in {@code metrics}.
+   */
+  static void sort(int[] a, int l, int r, SortMetrics metrics) {
+    long comparisons = 0;
+    long moves = 0;
+    for (int i = l + 1; i < r; i++) {
+      int x = a[i];
+      int j = i - 1;
+      while (j >= l) {
+        comparisons++;
+        if (a[j] <= x) {
+          break;
+        }
+        a[j + 1] = a[j];
+        moves++;
+        j--;
+      }
+      if (j + 1 != i) {
+        a[j + 1] = x;
+        moves++;
+      }
+    }
+    metrics.comparisons += comparisons;
+    metrics.moves += moves;
+    metrics.depth(1);
+  }
+
+  /**
+   * Sort a {@code long[]} using the insertion sort algorithm.
+   * 
+   * @param a
+   *          The {@code long[]} to sort.
+   */
+  public static void insertionSort(long[] a) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array.");
+    }
+    int n = a.length;
+    sort(a, 0, n);
+  }
+
+  static void sort(long[] a, int l, int r) {
+    for (int i = l + 1; i < r; i++) {
+      long x = a[i];
+      int j = i - 1;
+      while (j >= l && a[j] > x) {
+        a[j + 1] = a[j];
+        j--;
+      }
+      a[j + 1] = x;
+    }
+  }
+
+  /**
+   * Sort a {@code double[]} using the insertion sort algorithm. <br>
+   * <br>
+   * {@code NaN}s are placed after all other values and {@code -0.0} before {@code 0.0}, the same
+   * order as {@code Double.compare()}.
+   * 
+   * @param a
+   *          The {@code double[]} to sort.
+   */
+  public static void insertionSort(double[] a) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array.");
+    }
+    int n = FloatingPoint.moveNaNsToEnd(a, 0, a.length);
+    int negativeZeros = FloatingPoint.clearNegativeZeros(a, 0, n);
+    sort(a, 0, n);
+    FloatingPoint.restoreNegativeZeros(a, 0, n, negativeZeros);
+  }
+
+  static void sort(double[] a, int l, int r) {
+    for (int i = l + 1; i < r; i++) {
+      double x = a[i];
+      int j = i - 1;
+      while (j >= l && a[j] > x) {
+        a[j + 1] = a[j];
+        j--;
+      }
+      a[j + 1] = x;
+    }
+  }
+
+  /**
+   * Sort a {@code float[]} using the insertion sort algorithm. <br>
+   * <br>
+   * {@code NaN}s are placed after all other values and {@code -0.0} before {@code 0.0}, the same
+   * order as {@code Float.compare()}.
+   * 
+   * @param a
+   *          The {@code float[]} to sort.
+   */
+  public static void insertionSort(float[] a) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array.");
+    }
+    int n = FloatingPoint.moveNaNsToEnd(a, 0, a.length);
+    int negativeZeros = FloatingPoint.clearNegativeZeros(a, 0, n);
+    sort(a, 0, n);
+    FloatingPoint.restoreNegativeZeros(a, 0, n, negativeZeros);
+  }
+
+  static void sort(float[] a, int l, int r) {
+    for (int i = l + 1; i < r; i++) {
+      float x = a[i];
+      int j = i - 1;
+      while (j >= l && a[j] > x) {
+        a[j + 1] = a[j];
+        j--;
+      }
+      a[j + 1] = x;
+    }
+  }
+
+  /**
+   * Sort a {@code short[]} using the insertion sort algorithm.
+   * 
+   * @param a
+   *          The {@code short[]} to sort.
+   */
+  public static void insertionSort(short[] a) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array.");
+    }
+    int n = a.length;
+    sort(a, 0, n);
+  }
+
+  static void sort(short[] a, int l, int r) {
+    for (int i = l + 1; i < r; i++) {
+      short x = a[i];
+      int j = i - 1;
+      while (j >= l && a[j] > x) {
+        a[j + 1] = a[j];
+        j--;
+      }
+      a[j + 1] = x;
+    }
+  }
+
+  /**
+   * Sort a {@code char[]} using the insertion sort algorithm.
+   * 
+   * @param a
+   *          The {@code char[]} to sort.
+   */
+  public static void insertionSort(char[] a) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array.");
+    }
+    int n = a.length;
+    sort(a, 0, n);
+  }
+
+  static void sort(char[] a, int l, int r) {
+    for (int i = l + 1; i < r; i++) {
+      char x = a[i];
+      int j = i - 1;
+      while (j >= l && a[j] > x) {
+        a[j + 1] = a[j];
+        j--;
+      }
+      a[j + 1] = x;
+    }
+  }
+
+  /**
+   * Sort a {@code byte[]} using the insertion sort algorithm.
+   * 
+   * @param a
+   *          The {@code byte[]} to sort.
+   */
+  public static void insertionSort(byte[] a) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array.");
+    }
+    int n = a.length;
+    sort(a, 0, n);
+  }
+
+  static void sort(byte[] a, int l, int r) {
+    for (int i = l + 1; i < r; i++) {
+      byte x = a[i];
+      int j = i - 1;
+      while (j >= l && a[j] > x) {
+        a[j + 1] = a[j];
+        j--;
       }
+      a[j + 1] = x;
     }
   }
 
@@ -0,0 +1,549 @@
+/*
+ * Copyright (c) 2009, The Algorithm Study Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright notice,
+ *       this list of conditions and the following disclaimer in the documentation
+ *       and/or other materials provided with the distribution.
+ *     * Neither the name of the Algorithm Study Project, algorithmstudy.com, nor
+ *       the names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+package com.algorithmstudy.sort;
+
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * {@code IntroSort} contains an implementation of David Musser's introspective sort. The algorithm:
+ * <ul>
+ * <li>runs in {@code O(n lg(n))} time, both on average and in the worst case</li>
+ * <li>uses {@code O(lg(n))} stack space and otherwise sorts in place</li>
+ * </ul>
+ * Introsort is a quick sort which watches its own recursion depth. The pivot is chosen as the
+ * median of three elements (or, for larger segments, Tukey's "ninther", the median of three
+ * medians of three) which makes the quadratic cases of {@link QuickSort} (sorted, reverse sorted
+ * or all-equal input) run in {@code O(n lg(n))} time. Should the partitioning still go bad and the
+ * depth exceed {@code 2 lg(n)}, the remaining segment is sorted with {@link HeapSort}, which bounds
+ * the worst case. Small segments are finished with a {@link SortingNetworks sorting network}. The
+ * smaller side of each partition is sorted recursively and the larger side iteratively, so the
+ * recursion can't overflow the stack.
+ */
+public class IntroSort {
+
+  /**
+   * Buffer segments of at most this size are sorted with an insertion sort.
+   */
+  private static final int INSERTION_SORT_THRESHOLD = 16;
+
+  /**
+   * Segments larger than this use the ninther rather than the median of three as the pivot.
+   */
+  private static final int NINTHER_THRESHOLD = 128;
+
+  /**
+   * Sort an {@code int[]} using the introsort algorithm.
+   * 
+   * @param a
+   *          The {@code int[]} to sort.
+   */
+  public static void introSort(int[] a) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array.");
+    }
+    sort(a, 0, a.length);
+  }
+
+  /**
+   * Sort the range {@code [fromIndex, toIndex)} of an {@code int[]} using the introsort algorithm.
+   * The elements outside the range are not touched.
+   * 
+   * @param a
+   *          The {@code int[]} to sort.
+   * @param fromIndex
+   *          The index of the first element to sort.
+   * @param toIndex
+   *          One greater than the index of the last element to sort.
+   * @throws IllegalArgumentException
+   *           if {@code fromIndex > toIndex}.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code fromIndex < 0} or {@code toIndex > a.length}.
+   */
+  public static void introSort(int[] a, int fromIndex, int toIndex) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array.");
+    }
+    RangeCheck.check(a.length, fromIndex, toIndex);
+    sort(a, fromIndex, toIndex);
+  }
+
+  /**
+   * Sort an {@code int[]} using the introsort algorithm, recording its cost in {@code metrics}.
+   * Passing {@link SortMetrics#NONE} is the same as calling {@link #introSort(int[])}.
+   * 
+   * @param a
+   *          The {@code int[]} to sort.
+   * @param metrics
+   *          The metrics in which to record the cost of the sort.
+   */
+  public static void introSort(int[] a, SortMetrics metrics) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array.");
+    }
+    if (null == metrics) {
+      throw new NullPointerException("Can't record into null metrics.");
+    }
+    if (SortMetrics.NONE == metrics) {
+      sort(a, 0, a.length);
+      return;
+    }
+    long start = System.nanoTime();
+    sort(a, 0, a.length, metrics);
+    metrics.phase("introSort", System.nanoTime() - start);
+  }
+
+  /**
+   * Sort the segment {@code [l, r)} of {@code a} using the introsort algorithm.
+   * 
+   * @param a
+   *          The array to sort.
+   * @param l
+   *          The index of the first element to sort.
+   * @param r
+   *          One greater than the index of the last element to sort.
+   */
+  static void sort(int[] a, int l, int r) {
+    if (r - l < 2) {
+      return;
+    }
+    introSortR(a, l, r, 2 * floorLog2(r - l));
+  }
+
+  /**
+   * Sort the segment {@code [l, r)} of {@code a}, falling back to a heap sort once
+   * {@code depthLimit} levels of partitioning have been used up.
+   */
+  private static void introSortR(int[] a, int l, int r, int depthLimit) {
+    while (r - l > SortingNetworks.MAX_SIZE) {
+      if (0 == depthLimit) {
+        HeapSort.sort(a, l, r);
+        return;
+      }
+      depthLimit--;
+
+      int p = partition(a, l, r);
+      if (p - l < r - p - 1) {
+        introSortR(a, l, p, depthLimit);
+        l = p + 1;
+      } else {
+        introSortR(a, p + 1, r, depthLimit);
+        r = p;
+      }
+    }
+    SortingNetworks.sort(a, l, r);
+  }
+
+  /**
+   * The instrumented version of {@link #sort(int[], int, int)}, which records its comparisons,
+   * swaps and recursion depth in {@code metrics}.
+   */
+  static void sort(int[] a, int l, int r, SortMetrics metrics) {
+    if (r - l < 2) {
+      return;
+    }
+    introSortR(a, l, r, 2 * floorLog2(r - l), 1, metrics);
+  }
+
+  private static void introSortR(int[] a, int l, int r, int depthLimit, int depth,
+      SortMetrics metrics) {
+    metrics.depth(depth);
+    while (r - l > SortingNetworks.MAX_SIZE) {
+      if (0 == depthLimit) {
+        HeapSort.sort(a, l, r, metrics);
+        return;
+      }
+      depthLimit--;
+
+      int p = partition(a, l, r, metrics);
+      if (p - l < r - p - 1) {
+        introSortR(a, l, p, depthLimit, depth + 1, metrics);
+        l = p + 1;
+      } else {
+        introSortR(a, p + 1, r, depthLimit, depth + 1, metrics);
+        r = p;
+      }
+    }
+    SortingNetworks.sort(a, l, r, metrics);
+  }
+
+  private static int partition(int[] a, int l, int r, SortMetrics metrics) {
+    exchange(a, l, choosePivot(a, l, r, metrics));
+    int x = a[l];
+    int i = l;
+    int j = r;
+    long comparisons = 0;
+    long swaps = 1;
+
+    while (true) {
+      do {
+        i++;
+        comparisons++;
+      } while (i < r && a[i] < x);
+
+      do {
+        j--;
+        comparisons++;
+      } while (a[j] > x);
+
+      if (i >= j) {
+        break;
+      }
+      exchange(a, i, j);
+      swaps++;
+    }
+    exchange(a, l, j);
+    metrics.comparisons += comparisons;
+    metrics.swaps += swaps + 1;
+    return j;
+  }
+
+  static int choosePivot(int[] a, int l, int r, SortMetrics metrics) {
+    int n = r - l;
+    int m = l + (n >>> 1);
+    if (n <= NINTHER_THRESHOLD) {
+      return medianOfThree(a, l, m, r - 1, metrics);
+    }
+    int s = n >>> 3;
+    return medianOfThree(a, medianOfThree(a, l, l + s, l + 2 * s, metrics), medianOfThree(a, m
+        - s, m, m + s, metrics), medianOfThree(a, r - 1 - 2 * s, r - 1 - s, r - 1, metrics),
+        metrics);
+  }
+
+  private static int medianOfThree(int[] a, int i, int j, int k, SortMetrics metrics) {
+    metrics.comparisons += 2;
+    if (a[i] < a[j]) {
+      if (a[j] < a[k]) {
+        return j;
+      }
+      metrics.comparisons++;
+      return a[i] < a[k] ? k : i;
+    }
+    if (a[k] < a[j]) {
+      return j;
+    }
+    metrics.comparisons++;
+    return a[k] < a[i] ? k : i;
+  }
+
+  /**
+   * Partition the segment {@code [l, r)} of {@code a} around a pivot chosen by
+   * {@link #choosePivot(int[], int, int)}. Both scans stop on elements equal to the pivot, so runs
+   * of equal elements are split evenly rather than all ending up on one side.
+   * 
+   * @return The final index of the pivot. All elements to its left are less than or equal to it and
+   *         all elements to its right are greater than or equal to it.
+   */
+  private static int partition(int[] a, int l, int r) {
+    exchange(a, l, choosePivot(a, l, r));
+    int x = a[l];
+    int i = l;
+    int j = r;
+
+    while (true) {
+      do {
+        i++;
+      } while (i < r && a[i] < x);
+
+      do {
+        j--;
+      } while (a[j] > x);
+
+      if (i >= j) {
+        break;
+      }
+      exchange(a, i, j);
+    }
+    exchange(a, l, j);
+    return j;
+  }
+
+  /**
+   * Choose the index of the pivot for the segment {@code [l, r)} of {@code a}: the median of the
+   * first, middle and last elements, or for large segments the median of the medians of three
+   * evenly spaced groups of three.
+   */
+  static int choosePivot(int[] a, int l, int r) {
+    int n = r - l;
+    int m = l + (n >>> 1);
+    if (n <= NINTHER_THRESHOLD) {
+      return medianOfThree(a, l, m, r - 1);
+    }
+    int s = n >>> 3;
+    return medianOfThree(a, medianOfThree(a, l, l + s, l + 2 * s), medianOfThree(a, m - s, m, m
+        + s), medianOfThree(a, r - 1 - 2 * s, r - 1 - s, r - 1));
+  }
+
+  /**
+   * Get the index of the median of the elements at indices {@code i}, {@code j} and {@code k}.
+   */
+  private static int medianOfThree(int[] a, int i, int j, int k) {
+    if (a[i] < a[j]) {
+      return a[j] < a[k] ? j : (a[i] < a[k] ? k : i);
+    }
+    return a[k] < a[j] ? j : (a[k] < a[i] ? k : i);
+  }
+
+  /**
+   * The floor of the base 2 logarithm of {@code n}, which must be positive.
+   */
+  static int floorLog2(int n) {
+    return 31 - Integer.numberOfLeadingZeros(n);
+  }
+
+  /**
+   * Exchange the elements at indices {@code i1} and {@code i2} in the {@code int[] a}.
+   * 
+   * @param a
+   *          The array in which to exchange the elements.
+   * @param i1
+   *          One index which is to be switched.
+   * @param i2
+   *          The second index which is to be switched.
+   */
+  private static void exchange(int[] a, int i1, int i2) {
+    int tmp = a[i1];
+    a[i1] = a[i2];
+    a[i2] = tmp;
+  }
+
+  /**
+   * Sort the remaining elements of an {@code IntBuffer}, i.e. those between its position and its
+   * limit, using the introsort algorithm. The sort is in place and uses only {@code O(lg(n))} stack
+   * space, so it can sort a view of a {@link java.nio.MappedByteBuffer}, such as the one returned
+   * by {@code channel.map(...).order(...).asIntBuffer()}, without copying the keys onto the
+   * heap. The buffer's position, limit and mark are not changed.
+   * 
+   * @param b
+   *          The {@code IntBuffer} to sort.
+   * @throws java.nio.ReadOnlyBufferException
+   *           if {@code b} is read-only.
+   */
+  public static void introSort(IntBuffer b) {
+    if (null == b) {
+      throw new NullPointerException("Can't sort a null buffer.");
+    }
+    int l = b.position();
+    int r = b.limit();
+    if (r - l < 2) {
+      return;
+    }
+    introSortR(b, l, r, 2 * floorLog2(r - l));
+  }
+
+  private static void introSortR(IntBuffer b, int l, int r, int depthLimit) {
+    while (r - l > INSERTION_SORT_THRESHOLD) {
+      if (0 == depthLimit) {
+        HeapSort.sort(b, l, r);
+        return;
+      }
+      depthLimit--;
+
+      int p = partition(b, l, r);
+      if (p - l < r - p - 1) {
+        introSortR(b, l, p, depthLimit);
+        l = p + 1;
+      } else {
+        introSortR(b, p + 1, r, depthLimit);
+        r = p;
+      }
+    }
+    insertionSort(b, l, r);
+  }
+
+  private static int partition(IntBuffer b, int l, int r) {
+    exchange(b, l, choosePivot(b, l, r));
+    int x = b.get(l);
+    int i = l;
+    int j = r;
+
+    while (true) {
+      do {
+        i++;
+      } while (i < r && b.get(i) < x);
+
+      do {
+        j--;
+      } while (b.get(j) > x);
+
+      if (i >= j) {
+        break;
+      }
+      exchange(b, i, j);
+    }
+    exchange(b, l, j);
+    return j;
+  }
+
+  private static int choosePivot(IntBuffer b, int l, int r) {
+    int n = r - l;
+    int m = l + (n >>> 1);
+    if (n <= NINTHER_THRESHOLD) {
+      return medianOfThree(b, l, m, r - 1);
+    }
+    int s = n >>> 3;
+    return medianOfThree(b, medianOfThree(b, l, l + s, l + 2 * s), medianOfThree(b, m - s, m, m
+        + s), medianOfThree(b, r - 1 - 2 * s, r - 1 - s, r - 1));
+  }
+
+  private static int medianOfThree(IntBuffer b, int i, int j, int k) {
+    int x = b.get(i);
+    int y = b.get(j);
+    int z = b.get(k);
+    if (x < y) {
+      return y < z ? j : (x < z ? k : i);
+    }
+    return z < y ? j : (z < x ? k : i);
+  }
+
+  private static void insertionSort(IntBuffer b, int l, int r) {
+    for (int i = l + 1; i < r; i++) {
+      int x = b.get(i);
+      int j = i - 1;
+      while (j >= l && b.get(j) > x) {
+        b.put(j + 1, b.get(j));
+        j--;
+      }
+      b.put(j + 1, x);
+    }
+  }
+
+  private static void exchange(IntBuffer b, int i1, int i2) {
+    int tmp = b.get(i1);
+    b.put(i1, b.get(i2));
+    b.put(i2, tmp);
+  }
+
+  /**
+   * Sort the remaining elements of an {@code LongBuffer}, i.e. those between its position and its
+   * limit, using the introsort algorithm. The sort is in place and uses only {@code O(lg(n))} stack
+   * space, so it can sort a view of a {@link java.nio.MappedByteBuffer}, such as the one returned
+   * by {@code channel.map(...).order(...).asLongBuffer()}, without copying the keys onto the
+   * heap. The buffer's position, limit and mark are not changed.
+   * 
+   * @param b
+   *          The {@code LongBuffer} to sort.
+   * @throws java.nio.ReadOnlyBufferException
+   *           if {@code b} is read-only.
+   */
+  public static void introSort(LongBuffer b) {
+    if (null == b) {
+      throw new NullPointerException("Can't sort a null buffer.");
+    }
+    int l = b.position();
+    int r = b.limit();
+    if (r - l < 2) {
+      return;
+    }
+    introSortR(b, l, r, 2 * floorLog2(r - l));
+  }
+
+  private static void introSortR(LongBuffer b, int l, int r, int depthLimit) {
+    while (r - l > INSERTION_SORT_THRESHOLD) {
+      if (0 == depthLimit) {
+        HeapSort.sort(b, l, r);
+        return;
+      }
+      depthLimit--;
+
+      int p = partition(b, l, r);
+      if (p - l < r - p - 1) {
+        introSortR(b, l, p, depthLimit);
+        l = p + 1;
+      } else {
+        introSortR(b, p + 1, r, depthLimit);
+        r = p;
+      }
+    }
+    insertionSort(b, l, r);
+  }
+
+  private static int partition(LongBuffer b, int l, int r) {
+    exchange(b, l, choosePivot(b, l, r));
+    long x = b.get(l);
+    int i = l;
+    int j = r;
+
+    while (true) {
+      do {
+        i++;
+      } while (i < r && b.get(i) < x);
+
+      do {
+        j--;
+      } while (b.get(j) > x);
+
+      if (i >= j) {
+        break;
+      }
+      exchange(b, i, j);
+    }
+    exchange(b, l, j);
+    return j;
+  }
+
+  private static int choosePivot(LongBuffer b, int l, int r) {
+    int n = r - l;
+    int m = l + (n >>> 1);
+    if (n <= NINTHER_THRESHOLD) {
+      return medianOfThree(b, l, m, r - 1);
+    }
+    int s = n >>> 3;
+    return medianOfThree(b, medianOfThree(b, l, l + s, l + 2 * s), medianOfThree(b, m - s, m, m
+        + s), medianOfThree(b, r - 1 - 2 * s, r - 1 - s, r - 1));
+  }
+
+  private static int medianOfThree(LongBuffer b, int i, int j, int k) {
+    long x = b.get(i);
+    long y = b.get(j);
+    long z = b.get(k);
+    if (x < y) {
+      return y < z ? j : (x < z ? k : i);
+    }
+    return z < y ? j : (z < x ? k : i);
+  }
+
+  private static void insertionSort(LongBuffer b, int l, int r) {
+    for (int i = l + 1; i < r; i++) {
+      long x = b.get(i);
+      int j = i - 1;
+      while (j >= l && b.get(j) > x) {
+        b.put(j + 1, b.get(j));
+        j--;
+      }
+      b.put(j + 1, x);
+    }
+  }
+
+  private static void exchange(LongBuffer b, int i1, int i2) {
+    long tmp = b.get(i1);
+    b.put(i1, b.get(i2));
+    b.put(i2, tmp);
+  }
+
+}
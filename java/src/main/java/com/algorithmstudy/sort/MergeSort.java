@@ -27,6 +27,13 @@
  */
 package com.algorithmstudy.sort;
 
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.algorithmstudy.datastructures.DoublyLinkedList;
+import com.algorithmstudy.datastructures.SinglyLinkedList;
+
 /**
  * {@code MergeSort} contains implementations of the merge sort algorithm. The algorithm is
  * guaranteed to run in {@code O(n lg(n))} time.<br>
@@ -37,7 +44,15 @@ package com.algorithmstudy.sort;
 public class MergeSort {
 
   /**
-   * Sort an int[] using the merge sort algorithm in {@code O(n lg(n))} time.
+   * The default size of an array segment at or below which {@code parallelMergeSort()} stops
+   * forking new tasks and sorts (or merges) the segment on the current thread.
+   */
+  public static final int DEFAULT_PARALLEL_THRESHOLD = 8192;
+
+  /**
+   * Sort an int[] using the merge sort algorithm in {@code O(n lg(n))} time. A single scratch array
+   * of {@code n} elements is allocated for the sort; use a {@link MergeSorter} to reuse the scratch
+   * array across sorts.
    * 
    * @param toSort
    *          The array to sort.
@@ -46,70 +61,1023 @@ public class MergeSort {
     if (null == toSort) {
       throw new NullPointerException("Can't sort null input.");
     }
-    if (toSort.length == 0) {
+    if (toSort.length < 2) {
       return;
     }
-    mergeSortR(toSort, 0, toSort.length);
+    mergeSort(toSort, 0, toSort.length, new int[toSort.length]);
   }
 
   /**
-   * Recursively divide the sorting problem in half and then merge each half together.
+   * Sort the range {@code [fromIndex, toIndex)} of an {@code int[]} using the merge sort algorithm
+   * in {@code O(n lg(n))} time. The elements outside the range are not touched. A scratch array of
+   * {@code toIndex - fromIndex} elements is allocated for the sort.
    * 
    * @param toSort
    *          The array to sort.
+   * @param fromIndex
+   *          The index of the first element to sort.
+   * @param toIndex
+   *          One greater than the index of the last element to sort.
+   * @throws IllegalArgumentException
+   *           if {@code fromIndex > toIndex}.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code fromIndex < 0} or {@code toIndex > toSort.length}.
+   */
+  public static void mergeSort(int[] toSort, int fromIndex, int toIndex) {
+    if (null == toSort) {
+      throw new NullPointerException("Can't sort null input.");
+    }
+    RangeCheck.check(toSort.length, fromIndex, toIndex);
+    if (toIndex - fromIndex < 2) {
+      return;
+    }
+    mergeSort(toSort, fromIndex, toIndex, new int[toIndex - fromIndex]);
+  }
+
+  /**
+   * Sort the segment {@code [l, r)} of {@code toSort} using {@code scratch} as the merge buffer.
+   * Element {@code i} of the segment is mirrored at index {@code i - l} of {@code scratch}, so
+   * {@code scratch} must hold at least {@code r - l} elements. No memory is allocated.
+   * 
+   * @param toSort
+   *          The array to sort.
+   * @param l
+   *          The index of the first element to sort.
+   * @param r
+   *          One greater than the index of the last element to sort.
+   * @param scratch
+   *          The merge buffer. Its contents are overwritten.
+   */
+  static void mergeSort(int[] toSort, int l, int r, int[] scratch) {
+    System.arraycopy(toSort, l, scratch, 0, r - l);
+    mergeSortR(toSort, scratch, l, l, r, true);
+  }
+
+  /**
+   * Recursively divide the sorting problem in half and then merge each half together. Rather than
+   * copying both halves out of the array before each merge, the halves are sorted into the other
+   * array and merged back, so each level of recursion alternates ("ping-pongs") between {@code a}
+   * and {@code b}. On entry, {@code a[l, r)} and {@code b[l - o, r - o)} must hold the same
+   * elements.
+   * 
+   * @param a
+   *          The array to sort.
+   * @param b
+   *          The scratch array; element {@code a[i]} is mirrored at {@code b[i - o]}.
+   * @param o
+   *          The offset of the segment in {@code a} relative to its mirror in {@code b}.
    * @param l
-   *          The index of the left most element in the array to sort in this iteration.
+   *          The index in {@code a} of the left most element to sort in this iteration.
    * @param r
-   *          One more than the index of the right most element in the array to sort in this
+   *          One more than the index in {@code a} of the right most element to sort in this
    *          iteration.
+   * @param toA
+   *          Whether the sorted segment is to end up in {@code a} (or else in {@code b}).
    */
-  private static void mergeSortR(int[] toSort, int l, int r) {
+  private static void mergeSortR(int[] a, int[] b, int o, int l, int r, boolean toA) {
+    if (r - l <= SortingNetworks.MAX_SIZE) {
+      if (toA) {
+        SortingNetworks.sort(a, l, r);
+      } else {
+        SortingNetworks.sort(b, l - o, r - o);
+      }
+      return;
+    }
+    int m = ((r - l) / 2) + l;
+    mergeSortR(a, b, o, l, m, !toA);
+    mergeSortR(a, b, o, m, r, !toA);
+    if (toA) {
+      merge(b, l - o, m - o, m - o, r - o, a, l);
+    } else {
+      merge(a, l, m, m, r, b, l - o);
+    }
+  }
 
-    if (r - l == 1) {
+  /**
+   * Sort an {@code int[]} using the merge sort algorithm, recording its cost in {@code metrics}.
+   * Passing {@link SortMetrics#NONE} is the same as calling {@link #mergeSort(int[])}.
+   * 
+   * @param toSort
+   *          The array to sort.
+   * @param metrics
+   *          The metrics in which to record the cost of the sort.
+   */
+  public static void mergeSort(int[] toSort, SortMetrics metrics) {
+    if (null == toSort) {
+      throw new NullPointerException("Can't sort null input.");
+    }
+    if (null == metrics) {
+      throw new NullPointerException("Can't record into null metrics.");
+    }
+    if (SortMetrics.NONE == metrics) {
+      mergeSort(toSort);
+      return;
+    }
+    int n = toSort.length;
+    if (n < 2) {
+      return;
+    }
+    long start = System.nanoTime();
+    int[] scratch = new int[n];
+    metrics.scratchBytes += 4L * n;
+    System.arraycopy(toSort, 0, scratch, 0, n);
+    metrics.moves += n;
+    mergeSortR(toSort, scratch, 0, 0, n, true, 1, metrics);
+    metrics.phase("mergeSort", System.nanoTime() - start);
+  }
+
+  /**
+   * The instrumented version of {@link #mergeSortR(int[], int[], int, int, int, boolean)}, which
+   * records its comparisons, moves and recursion depth in {@code metrics}.
+   */
+  private static void mergeSortR(int[] a, int[] b, int o, int l, int r, boolean toA, int depth,
+      SortMetrics metrics) {
+    metrics.depth(depth);
+    if (r - l <= SortingNetworks.MAX_SIZE) {
+      if (toA) {
+        SortingNetworks.sort(a, l, r, metrics);
+      } else {
+        SortingNetworks.sort(b, l - o, r - o, metrics);
+      }
       return;
     }
     int m = ((r - l) / 2) + l;
-    mergeSortR(toSort, l, m);
-    mergeSortR(toSort, m, r);
-    merge(toSort, l, m, r);
+    mergeSortR(a, b, o, l, m, !toA, depth + 1, metrics);
+    mergeSortR(a, b, o, m, r, !toA, depth + 1, metrics);
+    if (toA) {
+      metrics.comparisons += countingMerge(b, l - o, m - o, m - o, r - o, a, l);
+    } else {
+      metrics.comparisons += countingMerge(a, l, m, m, r, b, l - o);
+    }
+    metrics.moves += r - l;
   }
 
   /**
-   * Merge two adjoined partitions in an array into a single sorted partition. <br>
+   * Sort an {@code int[]} using a parallel version of the merge sort algorithm. The sort is run in
+   * the common {@code ForkJoinPool} using {@link #DEFAULT_PARALLEL_THRESHOLD} as the sequential
+   * cutoff. See {@link #parallelMergeSort(int[], ForkJoinPool, int)} for details.
+   * 
+   * @param toSort
+   *          The array to sort.
+   */
+  public static void parallelMergeSort(int[] toSort) {
+    parallelMergeSort(toSort, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+  }
+
+  /**
+   * Sort an {@code int[]} using a parallel version of the merge sort algorithm. <br>
    * <br>
-   * The {@code merge()} method runs in {@code O(n)} time where {@code n} is the number of elements
-   * being merged (i.e., {@code r - l}). The amount of memory used is also {@code O(n)}.
+   * Both halves of each segment are sorted as independent fork/join tasks and the two sorted halves
+   * are then merged by a parallel merge: the larger half is split at its middle element, the
+   * matching split point in the other half is found with a binary search and the two resulting
+   * pairs of runs are merged as independent tasks. The work is {@code O(n lg(n))} and the span is
+   * {@code O(lg(n)^3)}, so the sort scales with the number of threads in {@code pool} until memory
+   * bandwidth becomes the limit. A single scratch array of {@code n} elements is used (the sort
+   * alternates between the input and the scratch array at each level of recursion) so the memory
+   * use is {@code O(n)}. The sort is stable.
+   * 
+   * @param toSort
+   *          The array to sort.
+   * @param pool
+   *          The pool in which to run the sort.
+   * @param threshold
+   *          The size of an array segment at or below which no further tasks are forked and the
+   *          segment is sorted (or merged) sequentially. Must be at least 1.
+   */
+  public static void parallelMergeSort(int[] toSort, ForkJoinPool pool, int threshold) {
+    if (null == toSort) {
+      throw new NullPointerException("Can't sort null input.");
+    }
+    if (null == pool) {
+      throw new NullPointerException("Can't sort without a pool.");
+    }
+    if (threshold < 1) {
+      throw new IllegalArgumentException("threshold must be at least 1: " + threshold);
+    }
+    if (toSort.length < 2) {
+      return;
+    }
+    int[] scratch = toSort.clone();
+    if (toSort.length <= threshold) {
+      mergeSortR(toSort, scratch, 0, 0, toSort.length, true);
+      return;
+    }
+    pool.invoke(new MergeSortTask(scratch, toSort, 0, toSort.length, threshold));
+  }
+
+  /**
+   * Find the index of the first element in the sorted segment {@code a[l, r)} which is greater than
+   * or equal to {@code x} (if {@code inclusive} is {@code false}) or greater than {@code x} (if
+   * {@code inclusive} is {@code true}).
    * 
    * @param a
-   *          The array containing the partitions to merge.
+   *          The array to search.
    * @param l
-   *          The index in the array of the beginning of the left partition.
-   * @param m
-   *          The index in the array of the beginning of the right partition. This value is one
-   *          greater than the index of the last element in the left partition.
+   *          The index of the first element of the segment to search.
    * @param r
-   *          One greater than the index of the last element in the right partition.
+   *          One greater than the index of the last element of the segment to search.
+   * @param x
+   *          The value to search for.
+   * @param inclusive
+   *          Whether elements equal to {@code x} are to be skipped over.
+   * @return The index of the first element in the segment not less than (or not less than or equal
+   *         to) {@code x}, or {@code r} if there is no such element.
    */
-  private static void merge(int[] a, int l, int m, int r) {
-    int[] lCopy = new int[m - l];
-    int[] rCopy = new int[r - m];
-    for (int i = l; i < m; i++) {
-      lCopy[i - l] = a[i];
+  private static int binarySearch(int[] a, int l, int r, int x, boolean inclusive) {
+    while (l < r) {
+      int m = (l + r) >>> 1;
+      if (a[m] < x || (inclusive && a[m] == x)) {
+        l = m + 1;
+      } else {
+        r = m;
+      }
     }
-    for (int i = m; i < r; i++) {
-      rCopy[i - m] = a[i];
+    return l;
+  }
+
+  /**
+   * Merge the sorted segments {@code src[l1, r1)} and {@code src[l2, r2)} into {@code dst} starting
+   * at index {@code d}. Elements of the first segment are placed before equal elements of the
+   * second segment. <br>
+   * <br>
+   * The {@code merge()} method runs in {@code O(n)} time where {@code n} is the number of elements
+   * being merged. No memory is allocated.
+   */
+  private static void merge(int[] src, int l1, int r1, int l2, int r2, int[] dst, int d) {
+    while (l1 < r1 && l2 < r2) {
+      if (src[l2] < src[l1]) {
+        dst[d++] = src[l2++];
+      } else {
+        dst[d++] = src[l1++];
+      }
     }
+    System.arraycopy(src, l1, dst, d, r1 - l1);
+    System.arraycopy(src, l2, dst, d + r1 - l1, r2 - l2);
+  }
 
-    int lp = 0;
-    int rp = 0;
-    int s = l;
-    for (; s < r; s++) {
-      if (rCopy.length == rp || (lp < lCopy.length && lCopy[lp] < rCopy[rp])) {
-        a[s] = lCopy[lp++];
+  /**
+   * The version of {@link #merge(int[], int, int, int, int, int[], int)} used by the instrumented
+   * sort, which returns the number of comparisons it made.
+   */
+  private static long countingMerge(int[] src, int l1, int r1, int l2, int r2, int[] dst, int d) {
+    long comparisons = 0;
+    while (l1 < r1 && l2 < r2) {
+      comparisons++;
+      if (src[l2] < src[l1]) {
+        dst[d++] = src[l2++];
       } else {
-        a[s] = rCopy[rp++];
+        dst[d++] = src[l1++];
       }
     }
+    System.arraycopy(src, l1, dst, d, r1 - l1);
+    System.arraycopy(src, l2, dst, d + r1 - l1, r2 - l2);
+    return comparisons;
+  }
+
+  /**
+   * A task which sorts the segment {@code [l, r)} of {@code dst}. On entry {@code src[l, r)} and
+   * {@code dst[l, r)} must hold the same elements; on exit {@code dst[l, r)} is sorted and the
+   * contents of {@code src[l, r)} are undefined.
+   */
+  private static class MergeSortTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1l;
+
+    private final int[] src;
+    private final int[] dst;
+    private final int l;
+    private final int r;
+    private final int threshold;
+
+    MergeSortTask(int[] src, int[] dst, int l, int r, int threshold) {
+      this.src = src;
+      this.dst = dst;
+      this.l = l;
+      this.r = r;
+      this.threshold = threshold;
+    }
+
+    @Override
+    protected void compute() {
+      if (r - l <= threshold) {
+        mergeSortR(dst, src, 0, l, r, true);
+        return;
+      }
+      int m = ((r - l) / 2) + l;
+      // The halves are sorted into src so that they can be merged back into dst.
+      invokeAll(new MergeSortTask(dst, src, l, m, threshold), new MergeSortTask(dst, src, m, r,
+          threshold));
+      new MergeTask(src, l, m, m, r, dst, l, threshold).compute();
+    }
+  }
+
+  /**
+   * A task which merges the sorted segments {@code src[l1, r1)} and {@code src[l2, r2)} into
+   * {@code dst} starting at index {@code d}, splitting the work into independent sub-merges while
+   * the segments are larger than the threshold.
+   */
+  private static class MergeTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1l;
+
+    private final int[] src;
+    private final int l1;
+    private final int r1;
+    private final int l2;
+    private final int r2;
+    private final int[] dst;
+    private final int d;
+    private final int threshold;
+
+    MergeTask(int[] src, int l1, int r1, int l2, int r2, int[] dst, int d, int threshold) {
+      this.src = src;
+      this.l1 = l1;
+      this.r1 = r1;
+      this.l2 = l2;
+      this.r2 = r2;
+      this.dst = dst;
+      this.d = d;
+      this.threshold = threshold;
+    }
+
+    @Override
+    protected void compute() {
+      int n1 = r1 - l1;
+      int n2 = r2 - l2;
+      if (n1 + n2 <= threshold || 0 == n1 || 0 == n2) {
+        merge(src, l1, r1, l2, r2, dst, d);
+        return;
+      }
+
+      // Split the larger segment at its middle element and find the matching split point in the
+      // other segment. The middle element goes straight to its final position. Equal elements from
+      // the first segment always stay ahead of those from the second segment, which keeps the
+      // merge stable.
+      int m1;
+      int m2;
+      int x;
+      if (n1 >= n2) {
+        m1 = (l1 + r1) >>> 1;
+        x = src[m1];
+        m2 = binarySearch(src, l2, r2, x, false);
+      } else {
+        m2 = (l2 + r2) >>> 1;
+        x = src[m2];
+        m1 = binarySearch(src, l1, r1, x, true);
+      }
+      int dm = d + (m1 - l1) + (m2 - l2);
+      dst[dm] = x;
+      if (n1 >= n2) {
+        invokeAll(new MergeTask(src, l1, m1, l2, m2, dst, d, threshold), new MergeTask(src, m1 + 1,
+            r1, m2, r2, dst, dm + 1, threshold));
+      } else {
+        invokeAll(new MergeTask(src, l1, m1, l2, m2, dst, d, threshold), new MergeTask(src, m1, r1,
+            m2 + 1, r2, dst, dm + 1, threshold));
+      }
+    }
+  }
+
+  /**
+   * Sort a {@code long[]} using the merge sort algorithm in {@code O(n lg(n))} time.
+   * 
+   * @param toSort
+   *          The array to sort.
+   */
+  public static void mergeSort(long[] toSort) {
+    if (null == toSort) {
+      throw new NullPointerException("Can't sort null input.");
+    }
+    int n = toSort.length;
+    if (n > 1) {
+      long[] scratch = new long[n];
+      System.arraycopy(toSort, 0, scratch, 0, n);
+      mergeSortR(toSort, scratch, 0, 0, n, true);
+    }
+  }
+
+  /**
+   * Sort the segment {@code [l, r)} of {@code toSort} using {@code scratch} as the merge buffer.
+   * Element {@code i} of the segment is mirrored at index {@code i - l} of {@code scratch}, so
+   * {@code scratch} must hold at least {@code r - l} elements. No memory is allocated.
+   * 
+   * @param toSort
+   *          The array to sort.
+   * @param l
+   *          The index of the first element to sort.
+   * @param r
+   *          One greater than the index of the last element to sort.
+   * @param scratch
+   *          The merge buffer. Its contents are overwritten.
+   */
+  static void mergeSort(long[] toSort, int l, int r, long[] scratch) {
+    if (r - l > 1) {
+      System.arraycopy(toSort, l, scratch, 0, r - l);
+      mergeSortR(toSort, scratch, l, l, r, true);
+    }
+  }
+
+  private static void mergeSortR(long[] a, long[] b, int o, int l, int r, boolean toA) {
+    if (r - l == 1) {
+      return;
+    }
+    int m = ((r - l) / 2) + l;
+    mergeSortR(a, b, o, l, m, !toA);
+    mergeSortR(a, b, o, m, r, !toA);
+    if (toA) {
+      merge(b, l - o, m - o, m - o, r - o, a, l);
+    } else {
+      merge(a, l, m, m, r, b, l - o);
+    }
+  }
+
+  private static void merge(long[] src, int l1, int r1, int l2, int r2, long[] dst, int d) {
+    while (l1 < r1 && l2 < r2) {
+      if (src[l2] < src[l1]) {
+        dst[d++] = src[l2++];
+      } else {
+        dst[d++] = src[l1++];
+      }
+    }
+    System.arraycopy(src, l1, dst, d, r1 - l1);
+    System.arraycopy(src, l2, dst, d + r1 - l1, r2 - l2);
+  }
+
+  /**
+   * Sort an {@code int[]} of keys using the merge sort algorithm in {@code O(n lg(n))} time,
+   * moving the {@code long[]} of values along with them: whenever {@code keys[i]} moves to index
+   * {@code j}, {@code values[i]} moves to index {@code j} as well. The sort is stable, so values
+   * with equal keys keep their relative order. Scratch arrays of {@code n} keys and {@code n}
+   * values are allocated for the sort.
+   * 
+   * @param keys
+   *          The keys to sort.
+   * @param values
+   *          The values to move along with the keys. Must be as long as {@code keys}.
+   * @throws IllegalArgumentException
+   *           if {@code keys} and {@code values} differ in length.
+   */
+  public static void mergeSort(int[] keys, long[] values) {
+    if (null == keys || null == values) {
+      throw new NullPointerException("Can't sort null input.");
+    }
+    mergeSort(keys, values, 0, keys.length);
+  }
+
+  /**
+   * Sort the range {@code [fromIndex, toIndex)} of an {@code int[]} of keys using the merge sort
+   * algorithm in {@code O(n lg(n))} time, moving the same range of the {@code long[]} of values
+   * along with them. The sort is stable. The elements outside the range are not touched.
+   * 
+   * @param keys
+   *          The keys to sort.
+   * @param values
+   *          The values to move along with the keys. Must be as long as {@code keys}.
+   * @param fromIndex
+   *          The index of the first element to sort.
+   * @param toIndex
+   *          One greater than the index of the last element to sort.
+   * @throws IllegalArgumentException
+   *           if {@code keys} and {@code values} differ in length or {@code fromIndex > toIndex}.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code fromIndex < 0} or {@code toIndex > keys.length}.
+   */
+  public static void mergeSort(int[] keys, long[] values, int fromIndex, int toIndex) {
+    if (null == keys || null == values) {
+      throw new NullPointerException("Can't sort null input.");
+    }
+    if (keys.length != values.length) {
+      throw new IllegalArgumentException("keys.length(" + keys.length + ") != values.length("
+          + values.length + ")");
+    }
+    RangeCheck.check(keys.length, fromIndex, toIndex);
+    int n = toIndex - fromIndex;
+    if (n < 2) {
+      return;
+    }
+    int[] keyScratch = new int[n];
+    long[] valueScratch = new long[n];
+    System.arraycopy(keys, fromIndex, keyScratch, 0, n);
+    System.arraycopy(values, fromIndex, valueScratch, 0, n);
+    mergeSortR(keys, values, keyScratch, valueScratch, fromIndex, fromIndex, toIndex, true);
+  }
+
+  /**
+   * The key/value version of {@link #mergeSortR(int[], int[], int, int, int, boolean)}: the keys
+   * ping-pong between {@code a} and {@code b} and the values between {@code va} and {@code vb}
+   * in lockstep. Segments of at most {@link SortingNetworks#MAX_SIZE} elements are finished with
+   * an insertion sort, which (unlike a sorting network) is stable.
+   */
+  private static void mergeSortR(int[] a, long[] va, int[] b, long[] vb, int o, int l, int r,
+      boolean toA) {
+    if (r - l <= SortingNetworks.MAX_SIZE) {
+      if (toA) {
+        insertionSort(a, va, l, r);
+      } else {
+        insertionSort(b, vb, l - o, r - o);
+      }
+      return;
+    }
+    int m = ((r - l) / 2) + l;
+    mergeSortR(a, va, b, vb, o, l, m, !toA);
+    mergeSortR(a, va, b, vb, o, m, r, !toA);
+    if (toA) {
+      merge(b, vb, l - o, m - o, m - o, r - o, a, va, l);
+    } else {
+      merge(a, va, l, m, m, r, b, vb, l - o);
+    }
+  }
+
+  private static void merge(int[] src, long[] vsrc, int l1, int r1, int l2, int r2, int[] dst,
+      long[] vdst, int d) {
+    while (l1 < r1 && l2 < r2) {
+      if (src[l2] < src[l1]) {
+        vdst[d] = vsrc[l2];
+        dst[d++] = src[l2++];
+      } else {
+        vdst[d] = vsrc[l1];
+        dst[d++] = src[l1++];
+      }
+    }
+    System.arraycopy(src, l1, dst, d, r1 - l1);
+    System.arraycopy(vsrc, l1, vdst, d, r1 - l1);
+    d += r1 - l1;
+    System.arraycopy(src, l2, dst, d, r2 - l2);
+    System.arraycopy(vsrc, l2, vdst, d, r2 - l2);
+  }
+
+  private static void insertionSort(int[] a, long[] va, int l, int r) {
+    for (int i = l + 1; i < r; i++) {
+      int key = a[i];
+      long value = va[i];
+      int j = i - 1;
+      while (j >= l && a[j] > key) {
+        a[j + 1] = a[j];
+        va[j + 1] = va[j];
+        j--;
+      }
+      a[j + 1] = key;
+      va[j + 1] = value;
+    }
+  }
+
+  /**
+   * Sort an {@code int[]} of keys using the merge sort algorithm in {@code O(n lg(n))} time,
+   * moving the {@code int[]} of values along with them: whenever {@code keys[i]} moves to index
+   * {@code j}, {@code values[i]} moves to index {@code j} as well. The sort is stable, so values
+   * with equal keys keep their relative order. Scratch arrays of {@code n} keys and {@code n}
+   * values are allocated for the sort.
+   * 
+   * @param keys
+   *          The keys to sort.
+   * @param values
+   *          The values to move along with the keys. Must be as long as {@code keys}.
+   * @throws IllegalArgumentException
+   *           if {@code keys} and {@code values} differ in length.
+   */
+  public static void mergeSort(int[] keys, int[] values) {
+    if (null == keys || null == values) {
+      throw new NullPointerException("Can't sort null input.");
+    }
+    mergeSort(keys, values, 0, keys.length);
+  }
+
+  /**
+   * Sort the range {@code [fromIndex, toIndex)} of an {@code int[]} of keys using the merge sort
+   * algorithm in {@code O(n lg(n))} time, moving the same range of the {@code int[]} of values
+   * along with them. The sort is stable. The elements outside the range are not touched.
+   * 
+   * @param keys
+   *          The keys to sort.
+   * @param values
+   *          The values to move along with the keys. Must be as long as {@code keys}.
+   * @param fromIndex
+   *          The index of the first element to sort.
+   * @param toIndex
+   *          One greater than the index of the last element to sort.
+   * @throws IllegalArgumentException
+   *           if {@code keys} and {@code values} differ in length or {@code fromIndex > toIndex}.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code fromIndex < 0} or {@code toIndex > keys.length}.
+   */
+  public static void mergeSort(int[] keys, int[] values, int fromIndex, int toIndex) {
+    if (null == keys || null == values) {
+      throw new NullPointerException("Can't sort null input.");
+    }
+    if (keys.length != values.length) {
+      throw new IllegalArgumentException("keys.length(" + keys.length + ") != values.length("
+          + values.length + ")");
+    }
+    RangeCheck.check(keys.length, fromIndex, toIndex);
+    int n = toIndex - fromIndex;
+    if (n < 2) {
+      return;
+    }
+    int[] keyScratch = new int[n];
+    int[] valueScratch = new int[n];
+    System.arraycopy(keys, fromIndex, keyScratch, 0, n);
+    System.arraycopy(values, fromIndex, valueScratch, 0, n);
+    mergeSortR(keys, values, keyScratch, valueScratch, fromIndex, fromIndex, toIndex, true);
+  }
+
+  private static void mergeSortR(int[] a, int[] va, int[] b, int[] vb, int o, int l, int r,
+      boolean toA) {
+    if (r - l <= SortingNetworks.MAX_SIZE) {
+      if (toA) {
+        insertionSort(a, va, l, r);
+      } else {
+        insertionSort(b, vb, l - o, r - o);
+      }
+      return;
+    }
+    int m = ((r - l) / 2) + l;
+    mergeSortR(a, va, b, vb, o, l, m, !toA);
+    mergeSortR(a, va, b, vb, o, m, r, !toA);
+    if (toA) {
+      merge(b, vb, l - o, m - o, m - o, r - o, a, va, l);
+    } else {
+      merge(a, va, l, m, m, r, b, vb, l - o);
+    }
+  }
+
+  private static void merge(int[] src, int[] vsrc, int l1, int r1, int l2, int r2, int[] dst,
+      int[] vdst, int d) {
+    while (l1 < r1 && l2 < r2) {
+      if (src[l2] < src[l1]) {
+        vdst[d] = vsrc[l2];
+        dst[d++] = src[l2++];
+      } else {
+        vdst[d] = vsrc[l1];
+        dst[d++] = src[l1++];
+      }
+    }
+    System.arraycopy(src, l1, dst, d, r1 - l1);
+    System.arraycopy(vsrc, l1, vdst, d, r1 - l1);
+    d += r1 - l1;
+    System.arraycopy(src, l2, dst, d, r2 - l2);
+    System.arraycopy(vsrc, l2, vdst, d, r2 - l2);
+  }
+
+  private static void insertionSort(int[] a, int[] va, int l, int r) {
+    for (int i = l + 1; i < r; i++) {
+      int key = a[i];
+      int value = va[i];
+      int j = i - 1;
+      while (j >= l && a[j] > key) {
+        a[j + 1] = a[j];
+        va[j + 1] = va[j];
+        j--;
+      }
+      a[j + 1] = key;
+      va[j + 1] = value;
+    }
+  }
+
+  /**
+   * Sort a {@code double[]} using the merge sort algorithm in {@code O(n lg(n))} time. <br>
+   * <br>
+   * {@code NaN}s are placed after all other values and {@code -0.0} before {@code 0.0}, the same
+   * order as {@code Double.compare()}.
+   * 
+   * @param toSort
+   *          The array to sort.
+   */
+  public static void mergeSort(double[] toSort) {
+    if (null == toSort) {
+      throw new NullPointerException("Can't sort null input.");
+    }
+    int n = FloatingPoint.moveNaNsToEnd(toSort, 0, toSort.length);
+    int negativeZeros = FloatingPoint.clearNegativeZeros(toSort, 0, n);
+    if (n > 1) {
+      double[] scratch = new double[n];
+      System.arraycopy(toSort, 0, scratch, 0, n);
+      mergeSortR(toSort, scratch, 0, 0, n, true);
+    }
+    FloatingPoint.restoreNegativeZeros(toSort, 0, n, negativeZeros);
+  }
+
+  private static void mergeSortR(double[] a, double[] b, int o, int l, int r, boolean toA) {
+    if (r - l == 1) {
+      return;
+    }
+    int m = ((r - l) / 2) + l;
+    mergeSortR(a, b, o, l, m, !toA);
+    mergeSortR(a, b, o, m, r, !toA);
+    if (toA) {
+      merge(b, l - o, m - o, m - o, r - o, a, l);
+    } else {
+      merge(a, l, m, m, r, b, l - o);
+    }
+  }
+
+  private static void merge(double[] src, int l1, int r1, int l2, int r2, double[] dst, int d) {
+    while (l1 < r1 && l2 < r2) {
+      if (src[l2] < src[l1]) {
+        dst[d++] = src[l2++];
+      } else {
+        dst[d++] = src[l1++];
+      }
+    }
+    System.arraycopy(src, l1, dst, d, r1 - l1);
+    System.arraycopy(src, l2, dst, d + r1 - l1, r2 - l2);
+  }
+
+  /**
+   * Sort a {@code float[]} using the merge sort algorithm in {@code O(n lg(n))} time. <br>
+   * <br>
+   * {@code NaN}s are placed after all other values and {@code -0.0} before {@code 0.0}, the same
+   * order as {@code Float.compare()}.
+   * 
+   * @param toSort
+   *          The array to sort.
+   */
+  public static void mergeSort(float[] toSort) {
+    if (null == toSort) {
+      throw new NullPointerException("Can't sort null input.");
+    }
+    int n = FloatingPoint.moveNaNsToEnd(toSort, 0, toSort.length);
+    int negativeZeros = FloatingPoint.clearNegativeZeros(toSort, 0, n);
+    if (n > 1) {
+      float[] scratch = new float[n];
+      System.arraycopy(toSort, 0, scratch, 0, n);
+      mergeSortR(toSort, scratch, 0, 0, n, true);
+    }
+    FloatingPoint.restoreNegativeZeros(toSort, 0, n, negativeZeros);
+  }
+
+  private static void mergeSortR(float[] a, float[] b, int o, int l, int r, boolean toA) {
+    if (r - l == 1) {
+      return;
+    }
+    int m = ((r - l) / 2) + l;
+    mergeSortR(a, b, o, l, m, !toA);
+    mergeSortR(a, b, o, m, r, !toA);
+    if (toA) {
+      merge(b, l - o, m - o, m - o, r - o, a, l);
+    } else {
+      merge(a, l, m, m, r, b, l - o);
+    }
+  }
+
+  private static void merge(float[] src, int l1, int r1, int l2, int r2, float[] dst, int d) {
+    while (l1 < r1 && l2 < r2) {
+      if (src[l2] < src[l1]) {
+        dst[d++] = src[l2++];
+      } else {
+        dst[d++] = src[l1++];
+      }
+    }
+    System.arraycopy(src, l1, dst, d, r1 - l1);
+    System.arraycopy(src, l2, dst, d + r1 - l1, r2 - l2);
+  }
+
+  /**
+   * Sort a {@code short[]} using the merge sort algorithm in {@code O(n lg(n))} time.
+   * 
+   * @param toSort
+   *          The array to sort.
+   */
+  public static void mergeSort(short[] toSort) {
+    if (null == toSort) {
+      throw new NullPointerException("Can't sort null input.");
+    }
+    int n = toSort.length;
+    if (n > 1) {
+      short[] scratch = new short[n];
+      System.arraycopy(toSort, 0, scratch, 0, n);
+      mergeSortR(toSort, scratch, 0, 0, n, true);
+    }
+  }
+
+  private static void mergeSortR(short[] a, short[] b, int o, int l, int r, boolean toA) {
+    if (r - l == 1) {
+      return;
+    }
+    int m = ((r - l) / 2) + l;
+    mergeSortR(a, b, o, l, m, !toA);
+    mergeSortR(a, b, o, m, r, !toA);
+    if (toA) {
+      merge(b, l - o, m - o, m - o, r - o, a, l);
+    } else {
+      merge(a, l, m, m, r, b, l - o);
+    }
+  }
+
+  private static void merge(short[] src, int l1, int r1, int l2, int r2, short[] dst, int d) {
+    while (l1 < r1 && l2 < r2) {
+      if (src[l2] < src[l1]) {
+        dst[d++] = src[l2++];
+      } else {
+        dst[d++] = src[l1++];
+      }
+    }
+    System.arraycopy(src, l1, dst, d, r1 - l1);
+    System.arraycopy(src, l2, dst, d + r1 - l1, r2 - l2);
+  }
+
+  /**
+   * Sort a {@code char[]} using the merge sort algorithm in {@code O(n lg(n))} time.
+   * 
+   * @param toSort
+   *          The array to sort.
+   */
+  public static void mergeSort(char[] toSort) {
+    if (null == toSort) {
+      throw new NullPointerException("Can't sort null input.");
+    }
+    int n = toSort.length;
+    if (n > 1) {
+      char[] scratch = new char[n];
+      System.arraycopy(toSort, 0, scratch, 0, n);
+      mergeSortR(toSort, scratch, 0, 0, n, true);
+    }
+  }
+
+  private static void mergeSortR(char[] a, char[] b, int o, int l, int r, boolean toA) {
+    if (r - l == 1) {
+      return;
+    }
+    int m = ((r - l) / 2) + l;
+    mergeSortR(a, b, o, l, m, !toA);
+    mergeSortR(a, b, o, m, r, !toA);
+    if (toA) {
+      merge(b, l - o, m - o, m - o, r - o, a, l);
+    } else {
+      merge(a, l, m, m, r, b, l - o);
+    }
+  }
+
+  private static void merge(char[] src, int l1, int r1, int l2, int r2, char[] dst, int d) {
+    while (l1 < r1 && l2 < r2) {
+      if (src[l2] < src[l1]) {
+        dst[d++] = src[l2++];
+      } else {
+        dst[d++] = src[l1++];
+      }
+    }
+    System.arraycopy(src, l1, dst, d, r1 - l1);
+    System.arraycopy(src, l2, dst, d + r1 - l1, r2 - l2);
+  }
+
+  /**
+   * Sort a {@code byte[]} using the merge sort algorithm in {@code O(n lg(n))} time.
+   * 
+   * @param toSort
+   *          The array to sort.
+   */
+  public static void mergeSort(byte[] toSort) {
+    if (null == toSort) {
+      throw new NullPointerException("Can't sort null input.");
+    }
+    int n = toSort.length;
+    if (n > 1) {
+      byte[] scratch = new byte[n];
+      System.arraycopy(toSort, 0, scratch, 0, n);
+      mergeSortR(toSort, scratch, 0, 0, n, true);
+    }
+  }
+
+  private static void mergeSortR(byte[] a, byte[] b, int o, int l, int r, boolean toA) {
+    if (r - l == 1) {
+      return;
+    }
+    int m = ((r - l) / 2) + l;
+    mergeSortR(a, b, o, l, m, !toA);
+    mergeSortR(a, b, o, m, r, !toA);
+    if (toA) {
+      merge(b, l - o, m - o, m - o, r - o, a, l);
+    } else {
+      merge(a, l, m, m, r, b, l - o);
+    }
+  }
+
+  private static void merge(byte[] src, int l1, int r1, int l2, int r2, byte[] dst, int d) {
+    while (l1 < r1 && l2 < r2) {
+      if (src[l2] < src[l1]) {
+        dst[d++] = src[l2++];
+      } else {
+        dst[d++] = src[l1++];
+      }
+    }
+    System.arraycopy(src, l1, dst, d, r1 - l1);
+    System.arraycopy(src, l2, dst, d + r1 - l1, r2 - l2);
+  }
+
+  /**
+   * Sort an array of objects into their natural order using the merge sort algorithm in
+   * {@code O(n lg(n))} time. The sort is stable.
+   * 
+   * @param toSort
+   *          The array to sort.
+   */
+  public static <T extends Comparable<? super T>> void mergeSort(T[] toSort) {
+    mergeSort(toSort, Comparator.<T> naturalOrder());
+  }
+
+  /**
+   * Sort an array of objects into the order induced by a {@code Comparator} using the merge sort
+   * algorithm in {@code O(n lg(n))} time. The sort is stable, so objects which compare as equal
+   * keep their relative order.
+   * 
+   * @param toSort
+   *          The array to sort.
+   * @param c
+   *          The comparator which defines the order.
+   */
+  public static <T> void mergeSort(T[] toSort, Comparator<? super T> c) {
+    if (null == toSort) {
+      throw new NullPointerException("Can't sort null input.");
+    }
+    if (null == c) {
+      throw new NullPointerException("Can't sort without a comparator.");
+    }
+    if (toSort.length > 1) {
+      T[] scratch = toSort.clone();
+      mergeSortR(toSort, scratch, 0, toSort.length, true, c);
+    }
+  }
+
+  private static <T> void mergeSortR(T[] a, T[] b, int l, int r, boolean toA,
+      Comparator<? super T> c) {
+    if (r - l == 1) {
+      return;
+    }
+    int m = ((r - l) / 2) + l;
+    mergeSortR(a, b, l, m, !toA, c);
+    mergeSortR(a, b, m, r, !toA, c);
+    if (toA) {
+      merge(b, l, m, r, a, c);
+    } else {
+      merge(a, l, m, r, b, c);
+    }
+  }
+
+  private static <T> void merge(T[] src, int l, int m, int r, T[] dst, Comparator<? super T> c) {
+    int l1 = l;
+    int l2 = m;
+    int d = l;
+    while (l1 < m && l2 < r) {
+      if (c.compare(src[l2], src[l1]) < 0) {
+        dst[d++] = src[l2++];
+      } else {
+        dst[d++] = src[l1++];
+      }
+    }
+    System.arraycopy(src, l1, dst, d, m - l1);
+    System.arraycopy(src, l2, dst, d + m - l1, r - l2);
+  }
+
+  /**
+   * Sort a {@code SinglyLinkedList} into the natural order of its elements using the merge sort
+   * algorithm. See {@link SinglyLinkedList#sort(Comparator)}.
+   * 
+   * @param list
+   *          The list to sort.
+   */
+  public static <T extends Comparable<? super T>> void mergeSort(SinglyLinkedList<T> list) {
+    mergeSort(list, Comparator.<T> naturalOrder());
+  }
+
+  /**
+   * Sort a {@code SinglyLinkedList} into the order induced by a {@code Comparator} using the merge
+   * sort algorithm. See {@link SinglyLinkedList#sort(Comparator)}.
+   * 
+   * @param list
+   *          The list to sort.
+   * @param c
+   *          The comparator which defines the order.
+   */
+  public static <T> void mergeSort(SinglyLinkedList<T> list, Comparator<? super T> c) {
+    if (null == list) {
+      throw new NullPointerException("Can't sort null input.");
+    }
+    list.sort(c);
+  }
+
+  /**
+   * Sort a {@code DoublyLinkedList} into the natural order of its elements using the merge sort
+   * algorithm. See {@link DoublyLinkedList#sort(Comparator)}.
+   * 
+   * @param list
+   *          The list to sort.
+   */
+  public static <T extends Comparable<? super T>> void mergeSort(DoublyLinkedList<T> list) {
+    mergeSort(list, Comparator.<T> naturalOrder());
+  }
+
+  /**
+   * Sort a {@code DoublyLinkedList} into the order induced by a {@code Comparator} using the merge
+   * sort algorithm. See {@link DoublyLinkedList#sort(Comparator)}.
+   * 
+   * @param list
+   *          The list to sort.
+   * @param c
+   *          The comparator which defines the order.
+   */
+  public static <T> void mergeSort(DoublyLinkedList<T> list, Comparator<? super T> c) {
+    if (null == list) {
+      throw new NullPointerException("Can't sort null input.");
+    }
+    list.sort(c);
   }
 
 }
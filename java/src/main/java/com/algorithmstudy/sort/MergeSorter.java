@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2009, The Algorithm Study Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright notice,
+ *       this list of conditions and the following disclaimer in the documentation
+ *       and/or other materials provided with the distribution.
+ *     * Neither the name of the Algorithm Study Project, algorithmstudy.com, nor
+ *       the names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+package com.algorithmstudy.sort;
+
+/**
+ * {@code MergeSorter} sorts {@code int[]}s using the merge sort algorithm of {@link MergeSort} with
+ * a scratch buffer that is owned by the instance and reused across sorts. The buffer grows as
+ * needed to fit the largest array sorted so far, so once it has reached its working size a sort
+ * allocates no memory at all. This makes a {@code MergeSorter} a good fit for sorting many batches
+ * in a row. <br>
+ * <br>
+ * A {@code MergeSorter} is not thread safe; use one instance per thread.
+ */
+public class MergeSorter {
+
+  // The scratch buffer used by the sort
+  private int[] buffer;
+
+  /**
+   * Construct a new {@code MergeSorter} with an empty scratch buffer. The buffer is grown on the
+   * first sort.
+   */
+  public MergeSorter() {
+    this(0);
+  }
+
+  /**
+   * Construct a new {@code MergeSorter} with a scratch buffer that starts at the specified size.
+   * 
+   * @param capacity
+   *          The starting size of the scratch buffer, i.e. the largest array that can be sorted
+   *          without growing the buffer.
+   */
+  public MergeSorter(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("capacity must not be negative: " + capacity);
+    }
+    buffer = new int[capacity];
+  }
+
+  /**
+   * Construct a new {@code MergeSorter} that uses the provided array as its scratch buffer. The
+   * array is replaced by a larger one if an array longer than it is sorted.
+   * 
+   * @param buffer
+   *          The array to use as the scratch buffer. Its contents are overwritten by each sort.
+   */
+  public MergeSorter(int[] buffer) {
+    if (null == buffer) {
+      throw new NullPointerException("Can't use a null buffer.");
+    }
+    this.buffer = buffer;
+  }
+
+  /**
+   * Gets the size of the scratch buffer.
+   * 
+   * @return The largest number of elements that can be sorted without growing the buffer.
+   */
+  public int capacity() {
+    return buffer.length;
+  }
+
+  /**
+   * Sort an {@code int[]} using the merge sort algorithm in {@code O(n lg(n))} time. No memory is
+   * allocated unless {@code toSort} is longer than the scratch buffer.
+   * 
+   * @param toSort
+   *          The array to sort.
+   */
+  public void sort(int[] toSort) {
+    if (null == toSort) {
+      throw new NullPointerException("Can't sort null input.");
+    }
+    if (toSort.length < 2) {
+      return;
+    }
+    grow(toSort.length);
+    MergeSort.mergeSort(toSort, 0, toSort.length, buffer);
+  }
+
+  /**
+   * Sort the range {@code [fromIndex, toIndex)} of an {@code int[]} using the merge sort algorithm
+   * in {@code O(n lg(n))} time. The elements outside the range are not touched. No memory is
+   * allocated unless the range is longer than the scratch buffer.
+   * 
+   * @param toSort
+   *          The array to sort.
+   * @param fromIndex
+   *          The index of the first element to sort.
+   * @param toIndex
+   *          One greater than the index of the last element to sort.
+   * @throws IllegalArgumentException
+   *           if {@code fromIndex > toIndex}.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code fromIndex < 0} or {@code toIndex > toSort.length}.
+   */
+  public void sort(int[] toSort, int fromIndex, int toIndex) {
+    if (null == toSort) {
+      throw new NullPointerException("Can't sort null input.");
+    }
+    RangeCheck.check(toSort.length, fromIndex, toIndex);
+    if (toIndex - fromIndex < 2) {
+      return;
+    }
+    grow(toIndex - fromIndex);
+    MergeSort.mergeSort(toSort, fromIndex, toIndex, buffer);
+  }
+
+  /**
+   * Grows the scratch buffer if it can't hold {@code size} elements.
+   * 
+   * @param size
+   *          The number of elements the buffer must be able to hold.
+   */
+  private void grow(int size) {
+    if (buffer.length < size) {
+      int newSize = buffer.length + (buffer.length / 2);
+      if (newSize < size) {
+        newSize = size;
+      }
+      buffer = new int[newSize];
+    }
+  }
+
+}
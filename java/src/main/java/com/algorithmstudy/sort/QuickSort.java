@@ -27,6 +27,10 @@
  */
 package com.algorithmstudy.sort;
 
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 /**
  * {@code QuickSort} contains implementations of the quick sort algorithm. The average running time
  * of quick sort is {@code O(n lg(n))} time but in certain cases (such as where the array/list is
@@ -37,6 +41,29 @@ package com.algorithmstudy.sort;
  */
 public class QuickSort {
 
+  /**
+   * The default size of a segment at or below which {@code parallelQuickSort()} stops forking new
+   * tasks and sorts the segment on the current thread.
+   */
+  public static final int DEFAULT_PARALLEL_THRESHOLD = 8192;
+
+  /**
+   * Segments of the arrays of the other primitive types and of objects of at most this size are
+   * sorted with an insertion sort.
+   */
+  private static final int INSERTION_SORT_THRESHOLD = 16;
+
+  /**
+   * Segments larger than this use the ninther rather than the median of three as the pivot.
+   */
+  private static final int NINTHER_THRESHOLD = 128;
+
+  /**
+   * The smallest segment {@code parallelQuickSort()} partitions in parallel rather than on the
+   * current thread.
+   */
+  private static final int MIN_PARALLEL_PARTITION = 1 << 16;
+
   /**
    * Sort an {@code int[]} using the standard quick sort algorithm.
    * 
@@ -50,8 +77,33 @@ public class QuickSort {
     quickSortR(toSort, 0, toSort.length - 1);
   }
 
+  /**
+   * Sort the range {@code [fromIndex, toIndex)} of an {@code int[]} using the standard quick sort
+   * algorithm. The elements outside the range are not touched.
+   * 
+   * @param toSort
+   *          The {@code int[]} to sort.
+   * @param fromIndex
+   *          The index of the first element to sort.
+   * @param toIndex
+   *          One greater than the index of the last element to sort.
+   * @throws IllegalArgumentException
+   *           if {@code fromIndex > toIndex}.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code fromIndex < 0} or {@code toIndex > toSort.length}.
+   */
+  public static void quickSort(int[] toSort, int fromIndex, int toIndex) {
+    if (null == toSort) {
+      throw new NullPointerException("Can't sort null.");
+    }
+    RangeCheck.check(toSort.length, fromIndex, toIndex);
+    quickSortR(toSort, fromIndex, toIndex - 1);
+  }
+
   private static void quickSortR(int[] a, int l, int r) {
-    if (r - l > 0) {
+    if (r - l < SortingNetworks.MAX_SIZE) {
+      SortingNetworks.sort(a, l, r + 1);
+    } else {
       int p = partition(a, l, r);
       quickSortR(a, l, p);
       quickSortR(a, p + 1, r);
@@ -93,8 +145,33 @@ public class QuickSort {
     randomizedQuickSortR(toSort, 0, toSort.length - 1);
   }
 
+  /**
+   * Sort the range {@code [fromIndex, toIndex)} of an {@code int[]} using the randomized quick sort
+   * algorithm. The elements outside the range are not touched.
+   * 
+   * @param toSort
+   *          The {@code int[]} to sort.
+   * @param fromIndex
+   *          The index of the first element to sort.
+   * @param toIndex
+   *          One greater than the index of the last element to sort.
+   * @throws IllegalArgumentException
+   *           if {@code fromIndex > toIndex}.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code fromIndex < 0} or {@code toIndex > toSort.length}.
+   */
+  public static void randomizedQuickSort(int[] toSort, int fromIndex, int toIndex) {
+    if (null == toSort) {
+      throw new NullPointerException("Can't sort null.");
+    }
+    RangeCheck.check(toSort.length, fromIndex, toIndex);
+    randomizedQuickSortR(toSort, fromIndex, toIndex - 1);
+  }
+
   private static void randomizedQuickSortR(int[] a, int l, int r) {
-    if (r - l > 0) {
+    if (r - l < SortingNetworks.MAX_SIZE) {
+      SortingNetworks.sort(a, l, r + 1);
+    } else {
       int p = randomizedPartition(a, l, r);
       randomizedQuickSortR(a, l, p);
       randomizedQuickSortR(a, p + 1, r);
@@ -155,8 +232,33 @@ public class QuickSort {
     hoareQuickSortR(toSort, 0, toSort.length - 1);
   }
 
+  /**
+   * Sort the range {@code [fromIndex, toIndex)} of an {@code int[]} using the quick sort algorithm
+   * with Hoare's partitioning scheme. The elements outside the range are not touched.
+   * 
+   * @param toSort
+   *          The {@code int[]} to sort.
+   * @param fromIndex
+   *          The index of the first element to sort.
+   * @param toIndex
+   *          One greater than the index of the last element to sort.
+   * @throws IllegalArgumentException
+   *           if {@code fromIndex > toIndex}.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code fromIndex < 0} or {@code toIndex > toSort.length}.
+   */
+  public static void hoareQuickSort(int[] toSort, int fromIndex, int toIndex) {
+    if (null == toSort) {
+      throw new NullPointerException("Can't sort null.");
+    }
+    RangeCheck.check(toSort.length, fromIndex, toIndex);
+    hoareQuickSortR(toSort, fromIndex, toIndex - 1);
+  }
+
   private static void hoareQuickSortR(int[] a, int l, int r) {
-    if (r - l > 0) {
+    if (r - l < SortingNetworks.MAX_SIZE) {
+      SortingNetworks.sort(a, l, r + 1);
+    } else {
       int p = hoarePartition(a, l, r);
       hoareQuickSortR(a, l, p);
       hoareQuickSortR(a, p + 1, r);
@@ -185,6 +287,771 @@ public class QuickSort {
     }
   }
 
+  /**
+   * Sort an {@code int[]} using the dual-pivot quick sort algorithm introduced by Vladimir
+   * Yaroslavskiy. <br>
+   * <br>
+   * Each segment is partitioned around two pivots {@code p <= q} into three parts: elements less
+   * than {@code p}, elements between {@code p} and {@code q}, and elements greater than {@code q}.
+   * Splitting into three parts per pass means fewer passes over the data than with a single pivot,
+   * which makes better use of the memory bandwidth and the caches; the expected running time is
+   * still {@code O(n lg(n))}. The pivots are taken from the one-third and two-thirds positions of
+   * each segment, which handles sorted and reverse sorted input but can still be defeated by other
+   * orderings, so only the two smaller parts are sorted recursively and a segment still unsorted
+   * after {@code 2 lg(n)} levels of partitioning is finished with {@link HeapSort}; the worst case
+   * is {@code O(n lg(n))} time and {@code O(lg(n))} stack. When the two pivots are equal the
+   * middle part holds only elements equal to them and isn't sorted any further.
+   * 
+   * @param toSort
+   *          The {@code int[]} to sort.
+   */
+  public static void dualPivotQuickSort(int[] toSort) {
+    if (null == toSort) {
+      throw new NullPointerException("Can't sort null.");
+    }
+    dualPivotQuickSortR(toSort, 0, toSort.length - 1, depthLimit(toSort.length));
+  }
+
+  /**
+   * Sort the range {@code [fromIndex, toIndex)} of an {@code int[]} using the dual-pivot quick sort
+   * algorithm. The elements outside the range are not touched.
+   * 
+   * @param toSort
+   *          The {@code int[]} to sort.
+   * @param fromIndex
+   *          The index of the first element to sort.
+   * @param toIndex
+   *          One greater than the index of the last element to sort.
+   * @throws IllegalArgumentException
+   *           if {@code fromIndex > toIndex}.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code fromIndex < 0} or {@code toIndex > toSort.length}.
+   */
+  public static void dualPivotQuickSort(int[] toSort, int fromIndex, int toIndex) {
+    if (null == toSort) {
+      throw new NullPointerException("Can't sort null.");
+    }
+    RangeCheck.check(toSort.length, fromIndex, toIndex);
+    dualPivotQuickSortR(toSort, fromIndex, toIndex - 1, depthLimit(toIndex - fromIndex));
+  }
+
+  private static void dualPivotQuickSortR(int[] a, int l, int r, int depthLimit) {
+    while (r - l >= SortingNetworks.MAX_SIZE) {
+      if (0 == depthLimit) {
+        HeapSort.sort(a, l, r + 1);
+        return;
+      }
+      depthLimit--;
+
+      int third = (r - l) / 3;
+      exchange(a, l, l + third);
+      exchange(a, r, r - third);
+      if (a[l] > a[r]) {
+        exchange(a, l, r);
+      }
+      int p = a[l];
+      int q = a[r];
+
+      // a[l + 1, lt) < p, p <= a[lt, k) <= q, a(gt, r - 1] > q
+      int lt = l + 1;
+      int gt = r - 1;
+      for (int k = lt; k <= gt; k++) {
+        if (a[k] < p) {
+          exchange(a, k, lt++);
+        } else if (a[k] > q) {
+          while (a[gt] > q && k < gt) {
+            gt--;
+          }
+          exchange(a, k, gt--);
+          if (a[k] < p) {
+            exchange(a, k, lt++);
+          }
+        }
+      }
+      lt--;
+      gt++;
+      exchange(a, l, lt);
+      exchange(a, r, gt);
+
+      // Sort the two smaller parts recursively and the largest one iteratively
+      int lower = lt - l;
+      int middle = p < q ? gt - lt - 1 : 0;
+      int upper = r - gt;
+      if (lower >= middle && lower >= upper) {
+        if (p < q) {
+          dualPivotQuickSortR(a, lt + 1, gt - 1, depthLimit);
+        }
+        dualPivotQuickSortR(a, gt + 1, r, depthLimit);
+        r = lt - 1;
+      } else if (upper >= middle) {
+        dualPivotQuickSortR(a, l, lt - 1, depthLimit);
+        if (p < q) {
+          dualPivotQuickSortR(a, lt + 1, gt - 1, depthLimit);
+        }
+        l = gt + 1;
+      } else {
+        dualPivotQuickSortR(a, l, lt - 1, depthLimit);
+        dualPivotQuickSortR(a, gt + 1, r, depthLimit);
+        l = lt + 1;
+        r = gt - 1;
+      }
+    }
+    SortingNetworks.sort(a, l, r + 1);
+  }
+
+  /**
+   * Sort an {@code int[]} using a quick sort algorithm with three-way partitioning as described by
+   * Jon Bentley and Douglas McIlroy in "Engineering a Sort Function". <br>
+   * <br>
+   * Each segment is partitioned into elements less than, equal to and greater than the pivot, and
+   * only the first and last parts are sorted further. While scanning, elements equal to the pivot
+   * are swapped out to both ends of the segment and are swapped into the middle once the scans
+   * meet, so when there are no duplicates hardly any extra work is done. All copies of a key are
+   * put in place by one partitioning pass, so an array with {@code k} distinct keys sorts in
+   * {@code O(n k)} time, i.e. close to {@code O(n)} when there are only a handful of distinct keys.
+   * The pivot is chosen as in {@link IntroSort} (the median of three, or the ninther for large
+   * segments), only the smaller of the less than and greater than parts is sorted recursively, and
+   * a segment still unsorted after {@code 2 lg(n)} levels of partitioning is finished with
+   * {@link HeapSort}, so the worst case is {@code O(n lg(n))} time and {@code O(lg(n))} stack.
+   * 
+   * @param toSort
+   *          The {@code int[]} to sort.
+   */
+  public static void threeWayQuickSort(int[] toSort) {
+    if (null == toSort) {
+      throw new NullPointerException("Can't sort null.");
+    }
+    threeWayQuickSortR(toSort, 0, toSort.length - 1, depthLimit(toSort.length));
+  }
+
+  /**
+   * Sort the range {@code [fromIndex, toIndex)} of an {@code int[]} using the quick sort algorithm
+   * with three-way partitioning. The elements outside the range are not touched.
+   * 
+   * @param toSort
+   *          The {@code int[]} to sort.
+   * @param fromIndex
+   *          The index of the first element to sort.
+   * @param toIndex
+   *          One greater than the index of the last element to sort.
+   * @throws IllegalArgumentException
+   *           if {@code fromIndex > toIndex}.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code fromIndex < 0} or {@code toIndex > toSort.length}.
+   */
+  public static void threeWayQuickSort(int[] toSort, int fromIndex, int toIndex) {
+    if (null == toSort) {
+      throw new NullPointerException("Can't sort null.");
+    }
+    RangeCheck.check(toSort.length, fromIndex, toIndex);
+    threeWayQuickSortR(toSort, fromIndex, toIndex - 1, depthLimit(toIndex - fromIndex));
+  }
+
+  /**
+   * The depth of partitioning after which a segment of {@code n} elements is heap sorted:
+   * {@code 2 lg(n)}, as in {@link IntroSort}.
+   */
+  private static int depthLimit(int n) {
+    return n < 2 ? 0 : 2 * IntroSort.floorLog2(n);
+  }
+
+  private static void threeWayQuickSortR(int[] a, int l, int r, int depthLimit) {
+    while (r - l >= SortingNetworks.MAX_SIZE) {
+      if (0 == depthLimit) {
+        HeapSort.sort(a, l, r + 1);
+        return;
+      }
+      depthLimit--;
+
+      exchange(a, l, IntroSort.choosePivot(a, l, r + 1));
+      int x = a[l];
+
+      // a[l, p] == x, a(p, i) < x, a(j, q) > x, a[q, r] == x
+      int i = l;
+      int j = r + 1;
+      int p = l;
+      int q = r + 1;
+      while (true) {
+        while (a[++i] < x) {
+          if (i == r) {
+            break;
+          }
+        }
+        while (x < a[--j]) {
+          if (j == l) {
+            break;
+          }
+        }
+        if (i == j && a[i] == x) {
+          exchange(a, ++p, i);
+        }
+        if (i >= j) {
+          break;
+        }
+        exchange(a, i, j);
+        if (a[i] == x) {
+          exchange(a, ++p, i);
+        }
+        if (a[j] == x) {
+          exchange(a, --q, j);
+        }
+      }
+
+      // Swap the elements equal to x from the ends into the middle
+      i = j + 1;
+      for (int k = l; k <= p; k++) {
+        exchange(a, k, j--);
+      }
+      for (int k = r; k >= q; k--) {
+        exchange(a, k, i++);
+      }
+
+      // Recurse into the smaller of a[l, j] and a[i, r] and loop on the larger
+      if (j - l < r - i) {
+        threeWayQuickSortR(a, l, j, depthLimit);
+        l = i;
+      } else {
+        threeWayQuickSortR(a, i, r, depthLimit);
+        r = j;
+      }
+    }
+    SortingNetworks.sort(a, l, r + 1);
+  }
+
+  /**
+   * Sort an {@code int[]} using the quick sort algorithm with three-way partitioning, recording its
+   * cost in {@code metrics}. Passing {@link SortMetrics#NONE} is the same as calling
+   * {@link #threeWayQuickSort(int[])}.
+   * 
+   * @param toSort
+   *          The {@code int[]} to sort.
+   * @param metrics
+   *          The metrics in which to record the cost of the sort.
+   */
+  public static void threeWayQuickSort(int[] toSort, SortMetrics metrics) {
+    if (null == toSort) {
+      throw new NullPointerException("Can't sort null.");
+    }
+    if (null == metrics) {
+      throw new NullPointerException("Can't record into null metrics.");
+    }
+    if (SortMetrics.NONE == metrics) {
+      threeWayQuickSortR(toSort, 0, toSort.length - 1, depthLimit(toSort.length));
+      return;
+    }
+    long start = System.nanoTime();
+    threeWayQuickSort(toSort, 0, toSort.length, metrics);
+    metrics.phase("threeWayQuickSort", System.nanoTime() - start);
+  }
+
+  /**
+   * The instrumented version of the three-way quick sort of the segment {@code [l, r)} of
+   * {@code a}, which records its comparisons, swaps and recursion depth in {@code metrics}.
+   */
+  static void threeWayQuickSort(int[] a, int l, int r, SortMetrics metrics) {
+    threeWayQuickSortR(a, l, r - 1, depthLimit(r - l), 1, metrics);
+  }
+
+  private static void threeWayQuickSortR(int[] a, int l, int r, int depthLimit, int depth,
+      SortMetrics metrics) {
+    metrics.depth(depth);
+    while (r - l >= SortingNetworks.MAX_SIZE) {
+      if (0 == depthLimit) {
+        HeapSort.sort(a, l, r + 1, metrics);
+        return;
+      }
+      depthLimit--;
+
+      exchange(a, l, IntroSort.choosePivot(a, l, r + 1, metrics));
+      int x = a[l];
+      long comparisons = 0;
+      long swaps = 1;
+
+      // a[l, p] == x, a(p, i) < x, a(j, q) > x, a[q, r] == x
+      int i = l;
+      int j = r + 1;
+      int p = l;
+      int q = r + 1;
+      while (true) {
+        do {
+          i++;
+          comparisons++;
+        } while (a[i] < x && i != r);
+        do {
+          j--;
+          comparisons++;
+        } while (x < a[j] && j != l);
+        if (i == j) {
+          comparisons++;
+          if (a[i] == x) {
+            exchange(a, ++p, i);
+            swaps++;
+          }
+        }
+        if (i >= j) {
+          break;
+        }
+        exchange(a, i, j);
+        swaps++;
+        comparisons += 2;
+        if (a[i] == x) {
+          exchange(a, ++p, i);
+          swaps++;
+        }
+        if (a[j] == x) {
+          exchange(a, --q, j);
+          swaps++;
+        }
+      }
+
+      // Swap the elements equal to x from the ends into the middle
+      i = j + 1;
+      for (int k = l; k <= p; k++) {
+        exchange(a, k, j--);
+      }
+      for (int k = r; k >= q; k--) {
+        exchange(a, k, i++);
+      }
+      metrics.comparisons += comparisons;
+      metrics.swaps += swaps + (p - l + 1) + (r - q + 1);
+
+      // Recurse into the smaller of a[l, j] and a[i, r] and loop on the larger
+      if (j - l < r - i) {
+        threeWayQuickSortR(a, l, j, depthLimit, depth + 1, metrics);
+        l = i;
+      } else {
+        threeWayQuickSortR(a, i, r, depthLimit, depth + 1, metrics);
+        r = j;
+      }
+    }
+    SortingNetworks.sort(a, l, r + 1, metrics);
+  }
+
+  /**
+   * Find the {@code k}th smallest element (counting from zero) of an {@code int[]}, i.e. the
+   * element that would be at index {@code k} were the array sorted. The array is partially
+   * partitioned so that afterwards {@code a[k]} holds that element, every element before it is
+   * less than or equal to it and every element after it is greater than or equal to it. With
+   * {@code k = n / 2} this gives the median, with {@code k = (int) (0.99 * (n - 1))} the 99th
+   * percentile. <br>
+   * <br>
+   * The selection is Musser's introselect: a quick sort which, after each partitioning, only
+   * continues into the side containing index {@code k}. Each segment is split with
+   * {@link #hoareQuickSort(int[]) Hoare's partitioning} around the pivot {@link IntroSort} would
+   * choose, giving an expected running time of {@code O(n)}. If the segment fails to halve in size
+   * within two partitionings, the remaining selection switches to the median of medians pivot of
+   * Blum, Floyd, Pratt, Rivest and Tarjan with a three-way partition, which bounds the worst case
+   * at {@code O(n)} as well (see chapter 9 of "Introduction to Algorithms" by Cormen et. al.).
+   * 
+   * @param a
+   *          The {@code int[]} from which to select.
+   * @param k
+   *          The index of the element to select.
+   * @return The {@code k}th smallest element of {@code a}.
+   * @throws IllegalArgumentException
+   *           if {@code k} is negative or not less than {@code a.length}.
+   */
+  public static int select(int[] a, int k) {
+    if (null == a) {
+      throw new NullPointerException("Can't select from null.");
+    }
+    if (k < 0 || k >= a.length) {
+      throw new IllegalArgumentException("k must be between 0 and " + (a.length - 1) + ": " + k);
+    }
+    introSelect(a, 0, a.length - 1, k, false);
+    return a[k];
+  }
+
+  /**
+   * Find several order statistics of an {@code int[]} at once, for example a set of quantiles.
+   * The array is partially partitioned so that afterwards each index {@code ks[i]} holds the
+   * element that would be there were the array sorted, and the elements between any two selected
+   * indices lie between the two selected elements. <br>
+   * <br>
+   * The median of the requested indices is selected first with {@link #select(int[], int)}, which
+   * splits both the array and the indices in two; each half is then selected from independently.
+   * Each level of this recursion costs {@code O(n)} in total, so finding {@code m} order statistics
+   * takes {@code O(n lg(m))} time rather than the {@code O(n m)} of {@code m} separate selections
+   * or the {@code O(n lg(n))} of a full sort.
+   * 
+   * @param a
+   *          The {@code int[]} from which to select.
+   * @param ks
+   *          The indices of the elements to select, in any order and possibly repeated.
+   * @return The selected elements, where element {@code i} is the {@code ks[i]}th smallest element
+   *         of {@code a}.
+   * @throws IllegalArgumentException
+   *           if any of {@code ks} is negative or not less than {@code a.length}.
+   */
+  public static int[] select(int[] a, int[] ks) {
+    if (null == a) {
+      throw new NullPointerException("Can't select from null.");
+    }
+    if (null == ks) {
+      throw new NullPointerException("Can't select null indices.");
+    }
+    int[] sorted = ks.clone();
+    IntroSort.sort(sorted, 0, sorted.length);
+    if (sorted.length > 0 && (sorted[0] < 0 || sorted[sorted.length - 1] >= a.length)) {
+      int bad = sorted[0] < 0 ? sorted[0] : sorted[sorted.length - 1];
+      throw new IllegalArgumentException("k must be between 0 and " + (a.length - 1) + ": " + bad);
+    }
+    multiSelect(a, 0, a.length - 1, sorted, 0, sorted.length - 1);
+
+    int[] selected = new int[ks.length];
+    for (int i = 0; i < ks.length; i++) {
+      selected[i] = a[ks[i]];
+    }
+    return selected;
+  }
+
+  /**
+   * Select the elements at the sorted indices {@code ks[kl, kr]}, all of which lie in the segment
+   * {@code [l, r]} of {@code a}.
+   */
+  private static void multiSelect(int[] a, int l, int r, int[] ks, int kl, int kr) {
+    while (kl <= kr) {
+      int m = (kl + kr) >>> 1;
+      int k = ks[m];
+      introSelect(a, l, r, k, false);
+
+      // Indices equal to k are already done
+      int ml = m;
+      while (ml > kl && ks[ml - 1] == k) {
+        ml--;
+      }
+      int mr = m;
+      while (mr < kr && ks[mr + 1] == k) {
+        mr++;
+      }
+      if (ml - kl < kr - mr) {
+        multiSelect(a, l, k - 1, ks, kl, ml - 1);
+        l = k + 1;
+        kl = mr + 1;
+      } else {
+        multiSelect(a, k + 1, r, ks, mr + 1, kr);
+        r = k - 1;
+        kr = ml - 1;
+      }
+    }
+  }
+
+  /**
+   * Move the {@code k}th smallest element of {@code a} into place within the segment
+   * {@code [l, r]}, which must contain index {@code k}.
+   * 
+   * @param medianOfMedians
+   *          Whether to use the median of medians pivot from the start rather than only when the
+   *          segment stops shrinking quickly enough.
+   */
+  private static void introSelect(int[] a, int l, int r, int k, boolean medianOfMedians) {
+    int lastSize = r - l + 1;
+    int steps = 0;
+    while (r - l >= SortingNetworks.MAX_SIZE) {
+      if (!medianOfMedians) {
+        exchange(a, l, IntroSort.choosePivot(a, l, r + 1));
+        int j = hoarePartition(a, l, r);
+        if (k <= j) {
+          r = j;
+        } else {
+          l = j + 1;
+        }
+        if (2 == ++steps) {
+          int size = r - l + 1;
+          medianOfMedians = size > lastSize / 2;
+          lastSize = size;
+          steps = 0;
+        }
+      } else {
+        int x = a[medianOfMedians(a, l, r)];
+
+        // Dijkstra's three-way partition: a[l, lt) < x, a[lt, i) == x and a(gt, r] > x
+        int lt = l;
+        int i = l;
+        int gt = r;
+        while (i <= gt) {
+          if (a[i] < x) {
+            exchange(a, lt++, i++);
+          } else if (a[i] > x) {
+            exchange(a, i, gt--);
+          } else {
+            i++;
+          }
+        }
+        if (k < lt) {
+          r = lt - 1;
+        } else if (k > gt) {
+          l = gt + 1;
+        } else {
+          return;
+        }
+      }
+    }
+    SortingNetworks.sort(a, l, r + 1);
+  }
+
+  /**
+   * Find the median of medians of the segment {@code [l, r]} of {@code a}: the segment is split
+   * into groups of five, the median of each group is moved to the front of the segment, and the
+   * median of those medians is selected recursively. At least {@code 3n / 10 - 6} elements of the
+   * segment are less than or equal to it, and as many are greater than or equal to it.
+   * 
+   * @return The index of the median of medians.
+   */
+  private static int medianOfMedians(int[] a, int l, int r) {
+    int m = l;
+    for (int g = l; g <= r; g += 5) {
+      int e = Math.min(g + 4, r);
+      SortingNetworks.sort(a, g, e + 1);
+      exchange(a, m++, g + ((e - g) >>> 1));
+    }
+    int mid = l + ((m - l - 1) >>> 1);
+    introSelect(a, l, m - 1, mid, true);
+    return mid;
+  }
+
+  /**
+   * Sort an {@code int[]} using a parallel version of the quick sort algorithm. The sort is run in
+   * the common {@code ForkJoinPool} using {@link #DEFAULT_PARALLEL_THRESHOLD} as the sequential
+   * cutoff. See {@link #parallelQuickSort(int[], ForkJoinPool, int)} for details.
+   * 
+   * @param toSort
+   *          The {@code int[]} to sort.
+   */
+  public static void parallelQuickSort(int[] toSort) {
+    parallelQuickSort(toSort, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+  }
+
+  /**
+   * Sort an {@code int[]} using a parallel version of the quick sort algorithm. <br>
+   * <br>
+   * The two segments produced by each partitioning step are sorted as independent fork/join tasks,
+   * so idle threads in {@code pool} steal the pending segments. Segments at or below
+   * {@code threshold} are sorted on the current thread with {@link IntroSort}. <br>
+   * <br>
+   * At the top levels of the recursion there are fewer segments than threads, so the partitioning
+   * itself is done in parallel, which keeps the first {@code O(n)} pass from being a serial
+   * bottleneck: the segment is split into blocks, each block counts its elements which are less
+   * than, equal to and greater than the pivot, a prefix sum over the counts gives each block its
+   * output positions, and the blocks then scatter their elements into a scratch array which is
+   * copied back. This three-way split also puts all copies of the pivot in place at once, so
+   * inputs with few distinct keys don't degrade. The scratch array ({@code n} elements) is only
+   * allocated for arrays large enough to be partitioned in parallel. <br>
+   * <br>
+   * Pivots are chosen as in {@link IntroSort}, and a segment which is still being partitioned after
+   * {@code 2 lg(n)} levels is handed to {@link IntroSort} as well, so the worst case run time is
+   * {@code O(n lg(n))}. The sort is not stable.
+   * 
+   * @param toSort
+   *          The {@code int[]} to sort.
+   * @param pool
+   *          The pool in which to run the sort.
+   * @param threshold
+   *          The size of a segment at or below which no further tasks are forked and the segment
+   *          is sorted sequentially. Must be at least 1.
+   */
+  public static void parallelQuickSort(int[] toSort, ForkJoinPool pool, int threshold) {
+    if (null == toSort) {
+      throw new NullPointerException("Can't sort null.");
+    }
+    if (null == pool) {
+      throw new NullPointerException("Can't sort without a pool.");
+    }
+    if (threshold < 1) {
+      throw new IllegalArgumentException("threshold must be at least 1: " + threshold);
+    }
+    int n = toSort.length;
+    if (n <= threshold) {
+      IntroSort.sort(toSort, 0, n);
+      return;
+    }
+
+    int parallelism = pool.getParallelism();
+    int partitionThreshold = Math.max(MIN_PARALLEL_PARTITION, n / parallelism);
+    int blockSize = Math.max(threshold, partitionThreshold / (4 * parallelism));
+    int[] scratch = n > partitionThreshold ? new int[n] : null;
+    int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(n));
+    pool.invoke(new QuickSortTask(toSort, scratch, 0, n - 1, depthLimit, threshold,
+        partitionThreshold, blockSize));
+  }
+
+  /**
+   * A task which sorts the segment {@code [l, r]} of {@code a}.
+   */
+  private static class QuickSortTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1l;
+
+    private final int[] a;
+    private final int[] scratch;
+    private final int l;
+    private final int r;
+    private final int depthLimit;
+    private final int threshold;
+    private final int partitionThreshold;
+    private final int blockSize;
+
+    QuickSortTask(int[] a, int[] scratch, int l, int r, int depthLimit, int threshold,
+        int partitionThreshold, int blockSize) {
+      this.a = a;
+      this.scratch = scratch;
+      this.l = l;
+      this.r = r;
+      this.depthLimit = depthLimit;
+      this.threshold = threshold;
+      this.partitionThreshold = partitionThreshold;
+      this.blockSize = blockSize;
+    }
+
+    @Override
+    protected void compute() {
+      int n = r - l + 1;
+      if (n <= threshold || 0 == depthLimit) {
+        IntroSort.sort(a, l, r + 1);
+        return;
+      }
+
+      exchange(a, l, IntroSort.choosePivot(a, l, r + 1));
+      int leftEnd;
+      int rightStart;
+      if (n > partitionThreshold) {
+        long bounds = parallelPartition();
+        leftEnd = (int) (bounds >>> 32);
+        rightStart = (int) bounds;
+      } else {
+        leftEnd = hoarePartition(a, l, r);
+        rightStart = leftEnd + 1;
+      }
+
+      invokeAll(new QuickSortTask(a, scratch, l, leftEnd, depthLimit - 1, threshold,
+          partitionThreshold, blockSize), new QuickSortTask(a, scratch, rightStart, r,
+          depthLimit - 1, threshold, partitionThreshold, blockSize));
+    }
+
+    /**
+     * Partition the segment in parallel into elements less than, equal to and greater than the
+     * pivot {@code a[l]}.
+     * 
+     * @return The index of the last element less than the pivot in the high 32 bits and the index
+     *         of the first element greater than the pivot in the low 32 bits.
+     */
+    private long parallelPartition() {
+      int x = a[l];
+      int blocks = (r - l + blockSize) / blockSize;
+      PartitionBlockTask[] tasks = new PartitionBlockTask[blocks];
+      for (int b = 0; b < blocks; b++) {
+        int from = l + b * blockSize;
+        tasks[b] = new PartitionBlockTask(a, scratch, from, Math.min(from + blockSize, r + 1), x);
+      }
+      invokeAll(tasks);
+
+      int lessTotal = 0;
+      int equalTotal = 0;
+      for (PartitionBlockTask task : tasks) {
+        lessTotal += task.less;
+        equalTotal += task.equal;
+      }
+      int lessOffset = l;
+      int equalOffset = l + lessTotal;
+      int greaterOffset = l + lessTotal + equalTotal;
+      for (PartitionBlockTask task : tasks) {
+        task.scatter(lessOffset, equalOffset, greaterOffset);
+        lessOffset += task.less;
+        equalOffset += task.equal;
+        greaterOffset += task.to - task.from - task.less - task.equal;
+      }
+      invokeAll(tasks);
+
+      for (PartitionBlockTask task : tasks) {
+        task.copyBack();
+      }
+      invokeAll(tasks);
+
+      return ((long) (l + lessTotal - 1) << 32) | (l + lessTotal + equalTotal);
+    }
+  }
+
+  /**
+   * A task which carries out one step of the parallel partitioning for the block
+   * {@code [from, to)}. The task is invoked three times: first it counts the elements of the block
+   * less than and equal to the pivot, then it scatters the elements of the block into the scratch
+   * array at the offsets it was given, and finally it copies its range of the scratch array back.
+   */
+  private static class PartitionBlockTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1l;
+
+    private static final int COUNT = 0;
+    private static final int SCATTER = 1;
+    private static final int COPY = 2;
+
+    private final int[] a;
+    private final int[] scratch;
+    private final int from;
+    private final int to;
+    private final int x;
+    private int step = COUNT;
+    private int less;
+    private int equal;
+    private int lessOffset;
+    private int equalOffset;
+    private int greaterOffset;
+
+    PartitionBlockTask(int[] a, int[] scratch, int from, int to, int x) {
+      this.a = a;
+      this.scratch = scratch;
+      this.from = from;
+      this.to = to;
+      this.x = x;
+    }
+
+    void scatter(int lessOffset, int equalOffset, int greaterOffset) {
+      this.lessOffset = lessOffset;
+      this.equalOffset = equalOffset;
+      this.greaterOffset = greaterOffset;
+      step = SCATTER;
+      reinitialize();
+    }
+
+    void copyBack() {
+      step = COPY;
+      reinitialize();
+    }
+
+    @Override
+    protected void compute() {
+      if (COUNT == step) {
+        int lt = 0;
+        int eq = 0;
+        for (int i = from; i < to; i++) {
+          if (a[i] < x) {
+            lt++;
+          } else if (a[i] == x) {
+            eq++;
+          }
+        }
+        less = lt;
+        equal = eq;
+      } else if (SCATTER == step) {
+        int lt = lessOffset;
+        int eq = equalOffset;
+        int gt = greaterOffset;
+        for (int i = from; i < to; i++) {
+          int v = a[i];
+          if (v < x) {
+            scratch[lt++] = v;
+          } else if (v == x) {
+            scratch[eq++] = v;
+          } else {
+            scratch[gt++] = v;
+          }
+        }
+      } else {
+        System.arraycopy(scratch, from, a, from, to - from);
+      }
+    }
+  }
+
   /**
    * Exchange the elements at indices {@code i1} and {@code i2} in the {@code int[] a}.
    * 
@@ -201,4 +1068,907 @@ public class QuickSort {
     a[i2] = tmp;
   }
 
+  /**
+   * Sort an {@code int[]} of keys using the quick sort algorithm, moving the {@code long[]} of
+   * values along with them: whenever {@code keys[i]} moves to index {@code j}, {@code values[i]}
+   * moves to index {@code j} as well. The sort is not stable, so values with equal keys may end up
+   * in any order. No memory is allocated.
+   * 
+   * @param keys
+   *          The keys to sort.
+   * @param values
+   *          The values to move along with the keys. Must be as long as {@code keys}.
+   * @throws IllegalArgumentException
+   *           if {@code keys} and {@code values} differ in length.
+   */
+  public static void quickSort(int[] keys, long[] values) {
+    if (null == keys || null == values) {
+      throw new NullPointerException("Can't sort null.");
+    }
+    quickSort(keys, values, 0, keys.length);
+  }
+
+  /**
+   * Sort the range {@code [fromIndex, toIndex)} of an {@code int[]} of keys using the quick sort
+   * algorithm, moving the same range of the {@code long[]} of values along with them. The sort is
+   * not stable. The elements outside the range are not touched.
+   * 
+   * @param keys
+   *          The keys to sort.
+   * @param values
+   *          The values to move along with the keys. Must be as long as {@code keys}.
+   * @param fromIndex
+   *          The index of the first element to sort.
+   * @param toIndex
+   *          One greater than the index of the last element to sort.
+   * @throws IllegalArgumentException
+   *           if {@code keys} and {@code values} differ in length or {@code fromIndex > toIndex}.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code fromIndex < 0} or {@code toIndex > keys.length}.
+   */
+  public static void quickSort(int[] keys, long[] values, int fromIndex, int toIndex) {
+    if (null == keys || null == values) {
+      throw new NullPointerException("Can't sort null.");
+    }
+    if (keys.length != values.length) {
+      throw new IllegalArgumentException("keys.length(" + keys.length + ") != values.length("
+          + values.length + ")");
+    }
+    RangeCheck.check(keys.length, fromIndex, toIndex);
+    quickSortR(keys, values, fromIndex, toIndex - 1, depthLimit(toIndex - fromIndex));
+  }
+
+  /**
+   * Sort the segment {@code [l, r]} of the keys {@code a} and the values {@code va} in lockstep.
+   * The pivot is the median of three (or of three medians of three for large segments, see
+   * {@link IntroSort#choosePivot(int[], int, int)}), so sorted and reverse sorted input partition
+   * evenly, and Hoare's scheme splits runs of equal keys evenly between the halves. Only the
+   * smaller half is recursed into, which bounds the stack depth by {@code lg(n)}, and a segment
+   * still unsorted after {@code depthLimit} levels of partitioning is finished with a heap sort
+   * which moves the values along, which bounds the time by {@code O(n lg(n))}.
+   */
+  static void quickSortR(int[] a, long[] va, int l, int r, int depthLimit) {
+    while (r - l >= SortingNetworks.MAX_SIZE) {
+      if (0 == depthLimit) {
+        heapSort(a, va, l, r);
+        return;
+      }
+      depthLimit--;
+      exchange(a, va, l, IntroSort.choosePivot(a, l, r + 1));
+      int p = hoarePartition(a, va, l, r);
+      if (p - l < r - p) {
+        quickSortR(a, va, l, p, depthLimit);
+        l = p + 1;
+      } else {
+        quickSortR(a, va, p + 1, r, depthLimit);
+        r = p;
+      }
+    }
+    insertionSort(a, va, l, r);
+  }
+
+  private static int hoarePartition(int[] a, long[] va, int p, int r) {
+    int x = a[p];
+    int i = p - 1;
+    int j = r + 1;
+
+    while (true) {
+      do {
+        j--;
+      } while (a[j] > x);
+
+      do {
+        i++;
+      } while (a[i] < x);
+
+      if (i < j) {
+        exchange(a, va, i, j);
+      } else {
+        return j;
+      }
+    }
+  }
+
+  private static void insertionSort(int[] a, long[] va, int l, int r) {
+    for (int i = l + 1; i <= r; i++) {
+      int key = a[i];
+      long value = va[i];
+      int j = i - 1;
+      while (j >= l && a[j] > key) {
+        a[j + 1] = a[j];
+        va[j + 1] = va[j];
+        j--;
+      }
+      a[j + 1] = key;
+      va[j + 1] = value;
+    }
+  }
+
+  private static void heapSort(int[] a, long[] va, int l, int r) {
+    int n = r - l + 1;
+    for (int i = (n >>> 1) - 1; i >= 0; i--) {
+      siftDown(a, va, l, i, n);
+    }
+    for (int i = n - 1; i > 0; i--) {
+      exchange(a, va, l, l + i);
+      siftDown(a, va, l, 0, i);
+    }
+  }
+
+  private static void siftDown(int[] a, long[] va, int base, int i, int n) {
+    while (i < (n >>> 1)) {
+      int child = 2 * i + 1;
+      if (child + 1 < n && a[base + child + 1] > a[base + child]) {
+        child++;
+      }
+      if (a[base + child] <= a[base + i]) {
+        return;
+      }
+      exchange(a, va, base + i, base + child);
+      i = child;
+    }
+  }
+
+  private static void exchange(int[] a, long[] va, int i1, int i2) {
+    int tmp = a[i1];
+    a[i1] = a[i2];
+    a[i2] = tmp;
+    long vtmp = va[i1];
+    va[i1] = va[i2];
+    va[i2] = vtmp;
+  }
+
+  /**
+   * Sort an {@code int[]} of keys using the quick sort algorithm, moving the {@code int[]} of
+   * values along with them: whenever {@code keys[i]} moves to index {@code j}, {@code values[i]}
+   * moves to index {@code j} as well. The sort is not stable, so values with equal keys may end up
+   * in any order. No memory is allocated.
+   * 
+   * @param keys
+   *          The keys to sort.
+   * @param values
+   *          The values to move along with the keys. Must be as long as {@code keys}.
+   * @throws IllegalArgumentException
+   *           if {@code keys} and {@code values} differ in length.
+   */
+  public static void quickSort(int[] keys, int[] values) {
+    if (null == keys || null == values) {
+      throw new NullPointerException("Can't sort null.");
+    }
+    quickSort(keys, values, 0, keys.length);
+  }
+
+  /**
+   * Sort the range {@code [fromIndex, toIndex)} of an {@code int[]} of keys using the quick sort
+   * algorithm, moving the same range of the {@code int[]} of values along with them. The sort is
+   * not stable. The elements outside the range are not touched.
+   * 
+   * @param keys
+   *          The keys to sort.
+   * @param values
+   *          The values to move along with the keys. Must be as long as {@code keys}.
+   * @param fromIndex
+   *          The index of the first element to sort.
+   * @param toIndex
+   *          One greater than the index of the last element to sort.
+   * @throws IllegalArgumentException
+   *           if {@code keys} and {@code values} differ in length or {@code fromIndex > toIndex}.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code fromIndex < 0} or {@code toIndex > keys.length}.
+   */
+  public static void quickSort(int[] keys, int[] values, int fromIndex, int toIndex) {
+    if (null == keys || null == values) {
+      throw new NullPointerException("Can't sort null.");
+    }
+    if (keys.length != values.length) {
+      throw new IllegalArgumentException("keys.length(" + keys.length + ") != values.length("
+          + values.length + ")");
+    }
+    RangeCheck.check(keys.length, fromIndex, toIndex);
+    quickSortR(keys, values, fromIndex, toIndex - 1, depthLimit(toIndex - fromIndex));
+  }
+
+  static void quickSortR(int[] a, int[] va, int l, int r, int depthLimit) {
+    while (r - l >= SortingNetworks.MAX_SIZE) {
+      if (0 == depthLimit) {
+        heapSort(a, va, l, r);
+        return;
+      }
+      depthLimit--;
+      exchange(a, va, l, IntroSort.choosePivot(a, l, r + 1));
+      int p = hoarePartition(a, va, l, r);
+      if (p - l < r - p) {
+        quickSortR(a, va, l, p, depthLimit);
+        l = p + 1;
+      } else {
+        quickSortR(a, va, p + 1, r, depthLimit);
+        r = p;
+      }
+    }
+    insertionSort(a, va, l, r);
+  }
+
+  private static int hoarePartition(int[] a, int[] va, int p, int r) {
+    int x = a[p];
+    int i = p - 1;
+    int j = r + 1;
+
+    while (true) {
+      do {
+        j--;
+      } while (a[j] > x);
+
+      do {
+        i++;
+      } while (a[i] < x);
+
+      if (i < j) {
+        exchange(a, va, i, j);
+      } else {
+        return j;
+      }
+    }
+  }
+
+  private static void insertionSort(int[] a, int[] va, int l, int r) {
+    for (int i = l + 1; i <= r; i++) {
+      int key = a[i];
+      int value = va[i];
+      int j = i - 1;
+      while (j >= l && a[j] > key) {
+        a[j + 1] = a[j];
+        va[j + 1] = va[j];
+        j--;
+      }
+      a[j + 1] = key;
+      va[j + 1] = value;
+    }
+  }
+
+  private static void heapSort(int[] a, int[] va, int l, int r) {
+    int n = r - l + 1;
+    for (int i = (n >>> 1) - 1; i >= 0; i--) {
+      siftDown(a, va, l, i, n);
+    }
+    for (int i = n - 1; i > 0; i--) {
+      exchange(a, va, l, l + i);
+      siftDown(a, va, l, 0, i);
+    }
+  }
+
+  private static void siftDown(int[] a, int[] va, int base, int i, int n) {
+    while (i < (n >>> 1)) {
+      int child = 2 * i + 1;
+      if (child + 1 < n && a[base + child + 1] > a[base + child]) {
+        child++;
+      }
+      if (a[base + child] <= a[base + i]) {
+        return;
+      }
+      exchange(a, va, base + i, base + child);
+      i = child;
+    }
+  }
+
+  private static void exchange(int[] a, int[] va, int i1, int i2) {
+    int tmp = a[i1];
+    a[i1] = a[i2];
+    a[i2] = tmp;
+    int vtmp = va[i1];
+    va[i1] = va[i2];
+    va[i2] = vtmp;
+  }
+
+  /**
+   * Sort a {@code long[]} using the quick sort algorithm in {@code O(n lg(n))} time.
+   * 
+   * @param toSort
+   *          The {@code long[]} to sort.
+   */
+  public static void quickSort(long[] toSort) {
+    if (null == toSort) {
+      throw new NullPointerException("Can't sort null.");
+    }
+    int n = toSort.length;
+    quickSortR(toSort, 0, n - 1, depthLimit(n));
+  }
+
+  /**
+   * Sort the segment {@code [l, r]} of {@code a} the way {@link IntroSort} does: the pivot is the
+   * median of three (or the ninther for large segments), Hoare's partitioning splits runs of equal
+   * keys evenly, only the smaller side is sorted recursively, and a segment which is still unsorted
+   * after {@code depthLimit} levels of partitioning is finished with {@link HeapSort}. Small
+   * segments are finished with an insertion sort. The sorts of the other primitive types below
+   * work the same way.
+   */
+  private static void quickSortR(long[] a, int l, int r, int depthLimit) {
+    while (r - l >= INSERTION_SORT_THRESHOLD) {
+      if (0 == depthLimit) {
+        HeapSort.sort(a, l, r + 1);
+        return;
+      }
+      depthLimit--;
+
+      exchange(a, l, choosePivot(a, l, r + 1));
+      int p = hoarePartition(a, l, r);
+      if (p - l < r - p) {
+        quickSortR(a, l, p, depthLimit);
+        l = p + 1;
+      } else {
+        quickSortR(a, p + 1, r, depthLimit);
+        r = p;
+      }
+    }
+    InsertionSort.sort(a, l, r + 1);
+  }
+
+  private static int hoarePartition(long[] a, int p, int r) {
+    long x = a[p];
+    int i = p - 1;
+    int j = r + 1;
+
+    while (true) {
+      do {
+        j--;
+      } while (a[j] > x);
+
+      do {
+        i++;
+      } while (a[i] < x);
+
+      if (i < j) {
+        exchange(a, i, j);
+      } else {
+        return j;
+      }
+    }
+  }
+
+  private static int choosePivot(long[] a, int l, int r) {
+    int n = r - l;
+    int m = l + (n >>> 1);
+    if (n <= NINTHER_THRESHOLD) {
+      return medianOfThree(a, l, m, r - 1);
+    }
+    int s = n >>> 3;
+    return medianOfThree(a, medianOfThree(a, l, l + s, l + 2 * s), medianOfThree(a, m - s, m, m
+        + s), medianOfThree(a, r - 1 - 2 * s, r - 1 - s, r - 1));
+  }
+
+  private static int medianOfThree(long[] a, int i, int j, int k) {
+    if (a[i] < a[j]) {
+      return a[j] < a[k] ? j : (a[i] < a[k] ? k : i);
+    }
+    return a[k] < a[j] ? j : (a[k] < a[i] ? k : i);
+  }
+
+  private static void exchange(long[] a, int i1, int i2) {
+    long tmp = a[i1];
+    a[i1] = a[i2];
+    a[i2] = tmp;
+  }
+
+  /**
+   * Sort a {@code double[]} using the quick sort algorithm in {@code O(n lg(n))} time. <br>
+   * <br>
+   * {@code NaN}s are placed after all other values and {@code -0.0} before {@code 0.0}, the same
+   * order as {@code Double.compare()}.
+   * 
+   * @param toSort
+   *          The {@code double[]} to sort.
+   */
+  public static void quickSort(double[] toSort) {
+    if (null == toSort) {
+      throw new NullPointerException("Can't sort null.");
+    }
+    int n = FloatingPoint.moveNaNsToEnd(toSort, 0, toSort.length);
+    int negativeZeros = FloatingPoint.clearNegativeZeros(toSort, 0, n);
+    quickSortR(toSort, 0, n - 1, depthLimit(n));
+    FloatingPoint.restoreNegativeZeros(toSort, 0, n, negativeZeros);
+  }
+
+  private static void quickSortR(double[] a, int l, int r, int depthLimit) {
+    while (r - l >= INSERTION_SORT_THRESHOLD) {
+      if (0 == depthLimit) {
+        HeapSort.sort(a, l, r + 1);
+        return;
+      }
+      depthLimit--;
+
+      exchange(a, l, choosePivot(a, l, r + 1));
+      int p = hoarePartition(a, l, r);
+      if (p - l < r - p) {
+        quickSortR(a, l, p, depthLimit);
+        l = p + 1;
+      } else {
+        quickSortR(a, p + 1, r, depthLimit);
+        r = p;
+      }
+    }
+    InsertionSort.sort(a, l, r + 1);
+  }
+
+  private static int hoarePartition(double[] a, int p, int r) {
+    double x = a[p];
+    int i = p - 1;
+    int j = r + 1;
+
+    while (true) {
+      do {
+        j--;
+      } while (a[j] > x);
+
+      do {
+        i++;
+      } while (a[i] < x);
+
+      if (i < j) {
+        exchange(a, i, j);
+      } else {
+        return j;
+      }
+    }
+  }
+
+  private static int choosePivot(double[] a, int l, int r) {
+    int n = r - l;
+    int m = l + (n >>> 1);
+    if (n <= NINTHER_THRESHOLD) {
+      return medianOfThree(a, l, m, r - 1);
+    }
+    int s = n >>> 3;
+    return medianOfThree(a, medianOfThree(a, l, l + s, l + 2 * s), medianOfThree(a, m - s, m, m
+        + s), medianOfThree(a, r - 1 - 2 * s, r - 1 - s, r - 1));
+  }
+
+  private static int medianOfThree(double[] a, int i, int j, int k) {
+    if (a[i] < a[j]) {
+      return a[j] < a[k] ? j : (a[i] < a[k] ? k : i);
+    }
+    return a[k] < a[j] ? j : (a[k] < a[i] ? k : i);
+  }
+
+  private static void exchange(double[] a, int i1, int i2) {
+    double tmp = a[i1];
+    a[i1] = a[i2];
+    a[i2] = tmp;
+  }
+
+  /**
+   * Sort a {@code float[]} using the quick sort algorithm in {@code O(n lg(n))} time. <br>
+   * <br>
+   * {@code NaN}s are placed after all other values and {@code -0.0} before {@code 0.0}, the same
+   * order as {@code Float.compare()}.
+   * 
+   * @param toSort
+   *          The {@code float[]} to sort.
+   */
+  public static void quickSort(float[] toSort) {
+    if (null == toSort) {
+      throw new NullPointerException("Can't sort null.");
+    }
+    int n = FloatingPoint.moveNaNsToEnd(toSort, 0, toSort.length);
+    int negativeZeros = FloatingPoint.clearNegativeZeros(toSort, 0, n);
+    quickSortR(toSort, 0, n - 1, depthLimit(n));
+    FloatingPoint.restoreNegativeZeros(toSort, 0, n, negativeZeros);
+  }
+
+  private static void quickSortR(float[] a, int l, int r, int depthLimit) {
+    while (r - l >= INSERTION_SORT_THRESHOLD) {
+      if (0 == depthLimit) {
+        HeapSort.sort(a, l, r + 1);
+        return;
+      }
+      depthLimit--;
+
+      exchange(a, l, choosePivot(a, l, r + 1));
+      int p = hoarePartition(a, l, r);
+      if (p - l < r - p) {
+        quickSortR(a, l, p, depthLimit);
+        l = p + 1;
+      } else {
+        quickSortR(a, p + 1, r, depthLimit);
+        r = p;
+      }
+    }
+    InsertionSort.sort(a, l, r + 1);
+  }
+
+  private static int hoarePartition(float[] a, int p, int r) {
+    float x = a[p];
+    int i = p - 1;
+    int j = r + 1;
+
+    while (true) {
+      do {
+        j--;
+      } while (a[j] > x);
+
+      do {
+        i++;
+      } while (a[i] < x);
+
+      if (i < j) {
+        exchange(a, i, j);
+      } else {
+        return j;
+      }
+    }
+  }
+
+  private static int choosePivot(float[] a, int l, int r) {
+    int n = r - l;
+    int m = l + (n >>> 1);
+    if (n <= NINTHER_THRESHOLD) {
+      return medianOfThree(a, l, m, r - 1);
+    }
+    int s = n >>> 3;
+    return medianOfThree(a, medianOfThree(a, l, l + s, l + 2 * s), medianOfThree(a, m - s, m, m
+        + s), medianOfThree(a, r - 1 - 2 * s, r - 1 - s, r - 1));
+  }
+
+  private static int medianOfThree(float[] a, int i, int j, int k) {
+    if (a[i] < a[j]) {
+      return a[j] < a[k] ? j : (a[i] < a[k] ? k : i);
+    }
+    return a[k] < a[j] ? j : (a[k] < a[i] ? k : i);
+  }
+
+  private static void exchange(float[] a, int i1, int i2) {
+    float tmp = a[i1];
+    a[i1] = a[i2];
+    a[i2] = tmp;
+  }
+
+  /**
+   * Sort a {@code short[]} using the quick sort algorithm in {@code O(n lg(n))} time.
+   * 
+   * @param toSort
+   *          The {@code short[]} to sort.
+   */
+  public static void quickSort(short[] toSort) {
+    if (null == toSort) {
+      throw new NullPointerException("Can't sort null.");
+    }
+    int n = toSort.length;
+    quickSortR(toSort, 0, n - 1, depthLimit(n));
+  }
+
+  private static void quickSortR(short[] a, int l, int r, int depthLimit) {
+    while (r - l >= INSERTION_SORT_THRESHOLD) {
+      if (0 == depthLimit) {
+        HeapSort.sort(a, l, r + 1);
+        return;
+      }
+      depthLimit--;
+
+      exchange(a, l, choosePivot(a, l, r + 1));
+      int p = hoarePartition(a, l, r);
+      if (p - l < r - p) {
+        quickSortR(a, l, p, depthLimit);
+        l = p + 1;
+      } else {
+        quickSortR(a, p + 1, r, depthLimit);
+        r = p;
+      }
+    }
+    InsertionSort.sort(a, l, r + 1);
+  }
+
+  private static int hoarePartition(short[] a, int p, int r) {
+    short x = a[p];
+    int i = p - 1;
+    int j = r + 1;
+
+    while (true) {
+      do {
+        j--;
+      } while (a[j] > x);
+
+      do {
+        i++;
+      } while (a[i] < x);
+
+      if (i < j) {
+        exchange(a, i, j);
+      } else {
+        return j;
+      }
+    }
+  }
+
+  private static int choosePivot(short[] a, int l, int r) {
+    int n = r - l;
+    int m = l + (n >>> 1);
+    if (n <= NINTHER_THRESHOLD) {
+      return medianOfThree(a, l, m, r - 1);
+    }
+    int s = n >>> 3;
+    return medianOfThree(a, medianOfThree(a, l, l + s, l + 2 * s), medianOfThree(a, m - s, m, m
+        + s), medianOfThree(a, r - 1 - 2 * s, r - 1 - s, r - 1));
+  }
+
+  private static int medianOfThree(short[] a, int i, int j, int k) {
+    if (a[i] < a[j]) {
+      return a[j] < a[k] ? j : (a[i] < a[k] ? k : i);
+    }
+    return a[k] < a[j] ? j : (a[k] < a[i] ? k : i);
+  }
+
+  private static void exchange(short[] a, int i1, int i2) {
+    short tmp = a[i1];
+    a[i1] = a[i2];
+    a[i2] = tmp;
+  }
+
+  /**
+   * Sort a {@code char[]} using the quick sort algorithm in {@code O(n lg(n))} time.
+   * 
+   * @param toSort
+   *          The {@code char[]} to sort.
+   */
+  public static void quickSort(char[] toSort) {
+    if (null == toSort) {
+      throw new NullPointerException("Can't sort null.");
+    }
+    int n = toSort.length;
+    quickSortR(toSort, 0, n - 1, depthLimit(n));
+  }
+
+  private static void quickSortR(char[] a, int l, int r, int depthLimit) {
+    while (r - l >= INSERTION_SORT_THRESHOLD) {
+      if (0 == depthLimit) {
+        HeapSort.sort(a, l, r + 1);
+        return;
+      }
+      depthLimit--;
+
+      exchange(a, l, choosePivot(a, l, r + 1));
+      int p = hoarePartition(a, l, r);
+      if (p - l < r - p) {
+        quickSortR(a, l, p, depthLimit);
+        l = p + 1;
+      } else {
+        quickSortR(a, p + 1, r, depthLimit);
+        r = p;
+      }
+    }
+    InsertionSort.sort(a, l, r + 1);
+  }
+
+  private static int hoarePartition(char[] a, int p, int r) {
+    char x = a[p];
+    int i = p - 1;
+    int j = r + 1;
+
+    while (true) {
+      do {
+        j--;
+      } while (a[j] > x);
+
+      do {
+        i++;
+      } while (a[i] < x);
+
+      if (i < j) {
+        exchange(a, i, j);
+      } else {
+        return j;
+      }
+    }
+  }
+
+  private static int choosePivot(char[] a, int l, int r) {
+    int n = r - l;
+    int m = l + (n >>> 1);
+    if (n <= NINTHER_THRESHOLD) {
+      return medianOfThree(a, l, m, r - 1);
+    }
+    int s = n >>> 3;
+    return medianOfThree(a, medianOfThree(a, l, l + s, l + 2 * s), medianOfThree(a, m - s, m, m
+        + s), medianOfThree(a, r - 1 - 2 * s, r - 1 - s, r - 1));
+  }
+
+  private static int medianOfThree(char[] a, int i, int j, int k) {
+    if (a[i] < a[j]) {
+      return a[j] < a[k] ? j : (a[i] < a[k] ? k : i);
+    }
+    return a[k] < a[j] ? j : (a[k] < a[i] ? k : i);
+  }
+
+  private static void exchange(char[] a, int i1, int i2) {
+    char tmp = a[i1];
+    a[i1] = a[i2];
+    a[i2] = tmp;
+  }
+
+  /**
+   * Sort a {@code byte[]} using the quick sort algorithm in {@code O(n lg(n))} time.
+   * 
+   * @param toSort
+   *          The {@code byte[]} to sort.
+   */
+  public static void quickSort(byte[] toSort) {
+    if (null == toSort) {
+      throw new NullPointerException("Can't sort null.");
+    }
+    int n = toSort.length;
+    quickSortR(toSort, 0, n - 1, depthLimit(n));
+  }
+
+  private static void quickSortR(byte[] a, int l, int r, int depthLimit) {
+    while (r - l >= INSERTION_SORT_THRESHOLD) {
+      if (0 == depthLimit) {
+        HeapSort.sort(a, l, r + 1);
+        return;
+      }
+      depthLimit--;
+
+      exchange(a, l, choosePivot(a, l, r + 1));
+      int p = hoarePartition(a, l, r);
+      if (p - l < r - p) {
+        quickSortR(a, l, p, depthLimit);
+        l = p + 1;
+      } else {
+        quickSortR(a, p + 1, r, depthLimit);
+        r = p;
+      }
+    }
+    InsertionSort.sort(a, l, r + 1);
+  }
+
+  private static int hoarePartition(byte[] a, int p, int r) {
+    byte x = a[p];
+    int i = p - 1;
+    int j = r + 1;
+
+    while (true) {
+      do {
+        j--;
+      } while (a[j] > x);
+
+      do {
+        i++;
+      } while (a[i] < x);
+
+      if (i < j) {
+        exchange(a, i, j);
+      } else {
+        return j;
+      }
+    }
+  }
+
+  private static int choosePivot(byte[] a, int l, int r) {
+    int n = r - l;
+    int m = l + (n >>> 1);
+    if (n <= NINTHER_THRESHOLD) {
+      return medianOfThree(a, l, m, r - 1);
+    }
+    int s = n >>> 3;
+    return medianOfThree(a, medianOfThree(a, l, l + s, l + 2 * s), medianOfThree(a, m - s, m, m
+        + s), medianOfThree(a, r - 1 - 2 * s, r - 1 - s, r - 1));
+  }
+
+  private static int medianOfThree(byte[] a, int i, int j, int k) {
+    if (a[i] < a[j]) {
+      return a[j] < a[k] ? j : (a[i] < a[k] ? k : i);
+    }
+    return a[k] < a[j] ? j : (a[k] < a[i] ? k : i);
+  }
+
+  private static void exchange(byte[] a, int i1, int i2) {
+    byte tmp = a[i1];
+    a[i1] = a[i2];
+    a[i2] = tmp;
+  }
+
+  /**
+   * Sort an array of objects into their natural order using the quick sort algorithm in
+   * {@code O(n lg(n))} time.
+   * 
+   * @param toSort
+   *          The array to sort.
+   */
+  public static <T extends Comparable<? super T>> void quickSort(T[] toSort) {
+    quickSort(toSort, Comparator.<T> naturalOrder());
+  }
+
+  /**
+   * Sort an array of objects into the order induced by a {@code Comparator} using the quick sort
+   * algorithm in {@code O(n lg(n))} time. It works the same way as the sorts of the primitive types
+   * other than {@code int}, so many equal keys, such as enums or status strings, partition evenly.
+   * The sort is not stable.
+   * 
+   * @param toSort
+   *          The array to sort.
+   * @param c
+   *          The comparator which defines the order.
+   */
+  public static <T> void quickSort(T[] toSort, Comparator<? super T> c) {
+    if (null == toSort) {
+      throw new NullPointerException("Can't sort null.");
+    }
+    if (null == c) {
+      throw new NullPointerException("Can't sort without a comparator.");
+    }
+    quickSortR(toSort, 0, toSort.length - 1, depthLimit(toSort.length), c);
+  }
+
+  private static <T> void quickSortR(T[] a, int l, int r, int depthLimit,
+      Comparator<? super T> c) {
+    while (r - l >= INSERTION_SORT_THRESHOLD) {
+      if (0 == depthLimit) {
+        HeapSort.sort(a, l, r + 1, c);
+        return;
+      }
+      depthLimit--;
+
+      exchange(a, l, choosePivot(a, l, r + 1, c));
+      int p = hoarePartition(a, l, r, c);
+      if (p - l < r - p) {
+        quickSortR(a, l, p, depthLimit, c);
+        l = p + 1;
+      } else {
+        quickSortR(a, p + 1, r, depthLimit, c);
+        r = p;
+      }
+    }
+    for (int i = l + 1; i <= r; i++) {
+      T x = a[i];
+      int j = i - 1;
+      while (j >= l && c.compare(a[j], x) > 0) {
+        a[j + 1] = a[j];
+        j--;
+      }
+      a[j + 1] = x;
+    }
+  }
+
+  private static <T> int hoarePartition(T[] a, int p, int r, Comparator<? super T> c) {
+    T x = a[p];
+    int i = p - 1;
+    int j = r + 1;
+
+    while (true) {
+      do {
+        j--;
+      } while (c.compare(a[j], x) > 0);
+
+      do {
+        i++;
+      } while (c.compare(a[i], x) < 0);
+
+      if (i < j) {
+        exchange(a, i, j);
+      } else {
+        return j;
+      }
+    }
+  }
+
+  private static <T> int choosePivot(T[] a, int l, int r, Comparator<? super T> c) {
+    int n = r - l;
+    int m = l + (n >>> 1);
+    if (n <= NINTHER_THRESHOLD) {
+      return medianOfThree(a, l, m, r - 1, c);
+    }
+    int s = n >>> 3;
+    return medianOfThree(a, medianOfThree(a, l, l + s, l + 2 * s, c), medianOfThree(a, m - s, m,
+        m + s, c), medianOfThree(a, r - 1 - 2 * s, r - 1 - s, r - 1, c), c);
+  }
+
+  private static <T> int medianOfThree(T[] a, int i, int j, int k, Comparator<? super T> c) {
+    if (c.compare(a[i], a[j]) < 0) {
+      return c.compare(a[j], a[k]) < 0 ? j : (c.compare(a[i], a[k]) < 0 ? k : i);
+    }
+    return c.compare(a[k], a[j]) < 0 ? j : (c.compare(a[k], a[i]) < 0 ? k : i);
+  }
+
+  private static <T> void exchange(T[] a, int i1, int i2) {
+    T tmp = a[i1];
+    a[i1] = a[i2];
+    a[i2] = tmp;
+  }
+
 }
@@ -0,0 +1,613 @@
+/*
+ * Copyright (c) 2009, The Algorithm Study Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright notice,
+ *       this list of conditions and the following disclaimer in the documentation
+ *       and/or other materials provided with the distribution.
+ *     * Neither the name of the Algorithm Study Project, algorithmstudy.com, nor
+ *       the names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+package com.algorithmstudy.sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * {@code RadixSort} contains implementations of the least significant digit (LSD) radix sort
+ * algorithm for fixed width integer keys. The algorithm:
+ * <ul>
+ * <li>runs in {@code O(w/d (n + 2^d))} time, where {@code w} is the width of the key in bits and
+ * {@code d} the width of a digit, i.e. in {@code O(n)} time for fixed width keys</li>
+ * <li>has memory use of {@code O(n)} for a single scratch array the size of the input</li>
+ * <li>is stable</li>
+ * </ul>
+ * Radix sort doesn't compare keys at all. Each pass distributes the elements by one 8 bit digit,
+ * starting with the least significant digit, using a counting sort: a histogram of the digit is
+ * turned into starting offsets by a prefix sum and the elements are scattered to their offsets.
+ * Because each pass is stable the order established by the earlier (less significant) digits is
+ * kept for elements with the same digit. <br>
+ * <br>
+ * The histograms for all digits are built in a single pass over the input before any elements are
+ * moved. A pass whose digit is the same for every element wouldn't change anything and is skipped,
+ * so small non-negative keys only cost a pass per significant digit. Signed keys are handled by
+ * flipping the sign bit of the most significant digit, which maps the two's complement order onto
+ * the unsigned order. The passes alternate between the input and a single scratch array. <br>
+ * <br>
+ * For further discussion of radix sort, see chapter 8, section 3 of "Introduction to Algorithms"
+ * by Cormen et. al.
+ */
+public class RadixSort {
+
+  /**
+   * The number of bits in each digit.
+   */
+  private static final int DIGIT_BITS = 8;
+
+  /**
+   * The number of possible values of a digit.
+   */
+  private static final int RADIX = 1 << DIGIT_BITS;
+
+  /**
+   * The mask for extracting a digit.
+   */
+  private static final int DIGIT_MASK = RADIX - 1;
+
+  /**
+   * Arrays shorter than this are sorted with an insertion sort; the histograms cost more than the
+   * sort itself.
+   */
+  private static final int INSERTION_SORT_THRESHOLD = 64;
+
+  /**
+   * The default size of a bucket at or below which {@code parallelRadixSort()} stops splitting it
+   * up in parallel and sorts it with a sequential LSD radix sort.
+   */
+  public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 16;
+
+  /**
+   * The smallest block of elements for which a histogram is built by a separate task.
+   */
+  private static final int MIN_BLOCK_SIZE = 1 << 12;
+
+  /**
+   * Sort an {@code int[]} using the LSD radix sort algorithm.
+   * 
+   * @param a
+   *          The {@code int[]} to sort.
+   */
+  public static void radixSort(int[] a) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array.");
+    }
+    sort(a, 0, a.length, null, 0);
+  }
+
+  /**
+   * Sort a {@code long[]} using the LSD radix sort algorithm.
+   * 
+   * @param a
+   *          The {@code long[]} to sort.
+   */
+  public static void radixSort(long[] a) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array.");
+    }
+    sort(a, 0, a.length, null);
+  }
+
+  /**
+   * Sort the range {@code [fromIndex, toIndex)} of an {@code int[]} using the LSD radix sort
+   * algorithm. The elements outside the range are not touched.
+   * 
+   * @param a
+   *          The {@code int[]} to sort.
+   * @param fromIndex
+   *          The index of the first element to sort.
+   * @param toIndex
+   *          One greater than the index of the last element to sort.
+   * @throws IllegalArgumentException
+   *           if {@code fromIndex > toIndex}.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code fromIndex < 0} or {@code toIndex > a.length}.
+   */
+  public static void radixSort(int[] a, int fromIndex, int toIndex) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array.");
+    }
+    RangeCheck.check(a.length, fromIndex, toIndex);
+    sort(a, fromIndex, toIndex, null, 0);
+  }
+
+  /**
+   * Sort the range {@code [fromIndex, toIndex)} of a {@code long[]} using the LSD radix sort
+   * algorithm. The elements outside the range are not touched.
+   * 
+   * @param a
+   *          The {@code long[]} to sort.
+   * @param fromIndex
+   *          The index of the first element to sort.
+   * @param toIndex
+   *          One greater than the index of the last element to sort.
+   * @throws IllegalArgumentException
+   *           if {@code fromIndex > toIndex}.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code fromIndex < 0} or {@code toIndex > a.length}.
+   */
+  public static void radixSort(long[] a, int fromIndex, int toIndex) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array.");
+    }
+    RangeCheck.check(a.length, fromIndex, toIndex);
+    sort(a, fromIndex, toIndex, null);
+  }
+
+  /**
+   * Sort an {@code int[]} using the LSD radix sort algorithm, recording its cost in
+   * {@code metrics}, with the time spent building the histograms and scattering the elements as
+   * separate phases. Passing {@link SortMetrics#NONE} is the same as calling
+   * {@link #radixSort(int[])}.
+   * 
+   * @param a
+   *          The {@code int[]} to sort.
+   * @param metrics
+   *          The metrics in which to record the cost of the sort.
+   */
+  public static void radixSort(int[] a, SortMetrics metrics) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array.");
+    }
+    if (null == metrics) {
+      throw new NullPointerException("Can't record into null metrics.");
+    }
+    if (SortMetrics.NONE == metrics) {
+      sort(a, 0, a.length, null, 0);
+      return;
+    }
+    sort(a, 0, a.length, metrics);
+  }
+
+  /**
+   * Sort the segment {@code [l, r)} of {@code a} using the LSD radix sort algorithm.
+   * 
+   * @param a
+   *          The array to sort.
+   * @param l
+   *          The index of the first element to sort.
+   * @param r
+   *          One greater than the index of the last element to sort.
+   * @param scratch
+   *          The scratch array, or {@code null} to have one allocated if needed.
+   * @param scratchOff
+   *          The index in {@code scratch} of the first of the {@code r - l} elements which may be
+   *          used.
+   */
+  static void sort(int[] a, int l, int r, int[] scratch, int scratchOff) {
+    int n = r - l;
+    if (n <= SortingNetworks.MAX_SIZE) {
+      SortingNetworks.sort(a, l, r);
+      return;
+    }
+    if (n < INSERTION_SORT_THRESHOLD) {
+      InsertionSort.sort(a, l, r);
+      return;
+    }
+
+    final int digits = Integer.SIZE / DIGIT_BITS;
+    int[][] counts = new int[digits][RADIX];
+    for (int i = l; i < r; i++) {
+      int key = a[i] ^ Integer.MIN_VALUE;
+      for (int d = 0; d < digits; d++) {
+        counts[d][(key >>> (d * DIGIT_BITS)) & DIGIT_MASK]++;
+      }
+    }
+
+    // src[srcOff, srcOff + n) holds the elements at the start of each pass
+    int[] src = a;
+    int srcOff = l;
+    int[] dst = scratch;
+    int dstOff = null == scratch ? 0 : scratchOff;
+    for (int d = 0; d < digits; d++) {
+      int[] count = counts[d];
+      if (isTrivial(count, n)) {
+        continue;
+      }
+      if (null == dst) {
+        dst = new int[n];
+      }
+
+      int shift = d * DIGIT_BITS;
+      toOffsets(count, dstOff);
+      for (int i = srcOff, end = srcOff + n; i < end; i++) {
+        int v = src[i];
+        dst[count[((v ^ Integer.MIN_VALUE) >>> shift) & DIGIT_MASK]++] = v;
+      }
+
+      int[] t = src;
+      src = dst;
+      dst = t;
+      int o = srcOff;
+      srcOff = dstOff;
+      dstOff = o;
+    }
+
+    if (src != a) {
+      System.arraycopy(src, srcOff, a, l, n);
+    }
+  }
+
+  /**
+   * Sort the segment {@code [l, r)} of {@code a} using the LSD radix sort algorithm.
+   * 
+   * @param a
+   *          The array to sort.
+   * @param l
+   *          The index of the first element to sort.
+   * @param r
+   *          One greater than the index of the last element to sort.
+   * @param scratch
+   *          The scratch array, which must hold at least {@code r - l} elements, or {@code null}
+   *          to have one allocated if needed.
+   */
+  static void sort(long[] a, int l, int r, long[] scratch) {
+    int n = r - l;
+    if (n < INSERTION_SORT_THRESHOLD) {
+      InsertionSort.sort(a, l, r);
+      return;
+    }
+
+    final int digits = Long.SIZE / DIGIT_BITS;
+    int[][] counts = new int[digits][RADIX];
+    for (int i = l; i < r; i++) {
+      long key = a[i] ^ Long.MIN_VALUE;
+      for (int d = 0; d < digits; d++) {
+        counts[d][(int) (key >>> (d * DIGIT_BITS)) & DIGIT_MASK]++;
+      }
+    }
+
+    // src[srcOff, srcOff + n) holds the elements at the start of each pass
+    long[] src = a;
+    int srcOff = l;
+    long[] dst = scratch;
+    int dstOff = 0;
+    for (int d = 0; d < digits; d++) {
+      int[] count = counts[d];
+      if (isTrivial(count, n)) {
+        continue;
+      }
+      if (null == dst) {
+        dst = new long[n];
+      }
+
+      int shift = d * DIGIT_BITS;
+      toOffsets(count, dstOff);
+      for (int i = srcOff, end = srcOff + n; i < end; i++) {
+        long v = src[i];
+        dst[count[(int) ((v ^ Long.MIN_VALUE) >>> shift) & DIGIT_MASK]++] = v;
+      }
+
+      long[] t = src;
+      src = dst;
+      dst = t;
+      int o = srcOff;
+      srcOff = dstOff;
+      dstOff = o;
+    }
+
+    if (src != a) {
+      System.arraycopy(src, srcOff, a, l, n);
+    }
+  }
+
+  /**
+   * The instrumented version of {@link #sort(int[], int, int, int[], int)}, which records its
+   * moves and scratch memory in {@code metrics}. A scratch array is allocated if needed.
+   */
+  static void sort(int[] a, int l, int r, SortMetrics metrics) {
+    int n = r - l;
+    metrics.depth(1);
+    if (n <= SortingNetworks.MAX_SIZE) {
+      SortingNetworks.sort(a, l, r, metrics);
+      return;
+    }
+    if (n < INSERTION_SORT_THRESHOLD) {
+      InsertionSort.sort(a, l, r, metrics);
+      return;
+    }
+
+    long start = System.nanoTime();
+    final int digits = Integer.SIZE / DIGIT_BITS;
+    int[][] counts = new int[digits][RADIX];
+    metrics.scratchBytes += 4L * digits * RADIX;
+    for (int i = l; i < r; i++) {
+      int key = a[i] ^ Integer.MIN_VALUE;
+      for (int d = 0; d < digits; d++) {
+        counts[d][(key >>> (d * DIGIT_BITS)) & DIGIT_MASK]++;
+      }
+    }
+    long counted = System.nanoTime();
+    metrics.phase("histogram", counted - start);
+
+    int[] src = a;
+    int srcOff = l;
+    int[] dst = null;
+    int dstOff = 0;
+    for (int d = 0; d < digits; d++) {
+      int[] count = counts[d];
+      if (isTrivial(count, n)) {
+        continue;
+      }
+      if (null == dst) {
+        dst = new int[n];
+        metrics.scratchBytes += 4L * n;
+      }
+
+      int shift = d * DIGIT_BITS;
+      toOffsets(count, dstOff);
+      for (int i = srcOff, end = srcOff + n; i < end; i++) {
+        int v = src[i];
+        dst[count[((v ^ Integer.MIN_VALUE) >>> shift) & DIGIT_MASK]++] = v;
+      }
+      metrics.moves += n;
+
+      int[] t = src;
+      src = dst;
+      dst = t;
+      int o = srcOff;
+      srcOff = dstOff;
+      dstOff = o;
+    }
+
+    if (src != a) {
+      System.arraycopy(src, srcOff, a, l, n);
+      metrics.moves += n;
+    }
+    metrics.phase("scatter", System.nanoTime() - counted);
+  }
+
+  /**
+   * Sort an {@code int[]} using a parallel most significant digit (MSD) radix sort. The sort is run
+   * in the common {@code ForkJoinPool} using {@link #DEFAULT_PARALLEL_THRESHOLD} as the sequential
+   * cutoff. See {@link #parallelRadixSort(int[], ForkJoinPool, int)} for details.
+   * 
+   * @param a
+   *          The {@code int[]} to sort.
+   */
+  public static void parallelRadixSort(int[] a) {
+    parallelRadixSort(a, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+  }
+
+  /**
+   * Sort an {@code int[]} using a parallel most significant digit (MSD) radix sort. <br>
+   * <br>
+   * The array is split into blocks and each block builds a histogram of the most significant 8 bit
+   * digit in its own task. A prefix sum over all of the histograms gives every block the offset at
+   * which to write its elements for each digit value, so the blocks then scatter their elements
+   * into a scratch array in parallel without any synchronization, and the scratch array is copied
+   * back in parallel. Each of the (up to 256) resulting buckets is then sorted independently by
+   * the next digit in the same way. Buckets at or below {@code threshold} elements are finished
+   * with the sequential LSD radix sort, which skips the digits that are already the same for the
+   * whole bucket. A digit which is the same for every element of a bucket isn't scattered at all.
+   * <br>
+   * <br>
+   * The run time is {@code O(n)} and a single scratch array of {@code n} elements is used. The sort
+   * is stable.
+   * 
+   * @param a
+   *          The {@code int[]} to sort.
+   * @param pool
+   *          The pool in which to run the sort.
+   * @param threshold
+   *          The size of a bucket at or below which it is sorted sequentially. Must be at least 1.
+   */
+  public static void parallelRadixSort(int[] a, ForkJoinPool pool, int threshold) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array.");
+    }
+    if (null == pool) {
+      throw new NullPointerException("Can't sort without a pool.");
+    }
+    if (threshold < 1) {
+      throw new IllegalArgumentException("threshold must be at least 1: " + threshold);
+    }
+    if (a.length <= threshold) {
+      sort(a, 0, a.length, null, 0);
+      return;
+    }
+    pool.invoke(new MsdTask(a, new int[a.length], 0, a.length, Integer.SIZE - DIGIT_BITS,
+        threshold, pool.getParallelism()));
+  }
+
+  /**
+   * A task which sorts the segment {@code [l, r)} of {@code a}, all elements of which agree on the
+   * digits above the one at {@code shift}. The matching segment of {@code scratch} is used as the
+   * scratch space.
+   */
+  private static class MsdTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1l;
+
+    private final int[] a;
+    private final int[] scratch;
+    private final int l;
+    private final int r;
+    private final int shift;
+    private final int threshold;
+    private final int parallelism;
+
+    MsdTask(int[] a, int[] scratch, int l, int r, int shift, int threshold, int parallelism) {
+      this.a = a;
+      this.scratch = scratch;
+      this.l = l;
+      this.r = r;
+      this.shift = shift;
+      this.threshold = threshold;
+      this.parallelism = parallelism;
+    }
+
+    @Override
+    protected void compute() {
+      int n = r - l;
+      if (n <= threshold) {
+        sort(a, l, r, scratch, l);
+        return;
+      }
+
+      int blockSize = Math.max(MIN_BLOCK_SIZE, n / (4 * parallelism));
+      int blocks = (n + blockSize - 1) / blockSize;
+      HistogramBlockTask[] tasks = new HistogramBlockTask[blocks];
+      for (int b = 0; b < blocks; b++) {
+        int from = l + b * blockSize;
+        tasks[b] = new HistogramBlockTask(a, scratch, from, Math.min(from + blockSize, r), shift);
+      }
+      invokeAll(tasks);
+
+      // Turn the per block histograms into per block offsets, bucket by bucket
+      int[] bucketStart = new int[RADIX + 1];
+      int offset = l;
+      for (int d = 0; d < RADIX; d++) {
+        bucketStart[d] = offset;
+        for (HistogramBlockTask task : tasks) {
+          int c = task.count[d];
+          task.count[d] = offset;
+          offset += c;
+        }
+      }
+      bucketStart[RADIX] = r;
+
+      boolean trivial = false;
+      for (int d = 0; d < RADIX; d++) {
+        if (bucketStart[d + 1] - bucketStart[d] == n) {
+          trivial = true;
+        }
+      }
+
+      if (!trivial) {
+        for (HistogramBlockTask task : tasks) {
+          task.nextStep();
+        }
+        invokeAll(tasks);
+        for (HistogramBlockTask task : tasks) {
+          task.nextStep();
+        }
+        invokeAll(tasks);
+      }
+
+      if (0 == shift) {
+        return;
+      }
+      List<MsdTask> buckets = new ArrayList<MsdTask>();
+      for (int d = 0; d < RADIX; d++) {
+        if (bucketStart[d + 1] - bucketStart[d] > 1) {
+          buckets.add(new MsdTask(a, scratch, bucketStart[d], bucketStart[d + 1], shift
+              - DIGIT_BITS, threshold, parallelism));
+        }
+      }
+      invokeAll(buckets);
+    }
+  }
+
+  /**
+   * A task which carries out one step of an MSD pass for the block {@code [from, to)}. The task is
+   * invoked up to three times: first it builds the histogram of the digit at {@code shift} for its
+   * block, then (once the histogram has been replaced by the block's output offsets) it scatters
+   * the elements of the block into the scratch array, and finally it copies its range of the
+   * scratch array back.
+   */
+  private static class HistogramBlockTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1l;
+
+    private static final int COUNT = 0;
+    private static final int SCATTER = 1;
+    private static final int COPY = 2;
+
+    private final int[] a;
+    private final int[] scratch;
+    private final int from;
+    private final int to;
+    private final int shift;
+    private final int[] count = new int[RADIX];
+    private int step = COUNT;
+
+    HistogramBlockTask(int[] a, int[] scratch, int from, int to, int shift) {
+      this.a = a;
+      this.scratch = scratch;
+      this.from = from;
+      this.to = to;
+      this.shift = shift;
+    }
+
+    void nextStep() {
+      step++;
+      reinitialize();
+    }
+
+    @Override
+    protected void compute() {
+      if (COUNT == step) {
+        for (int i = from; i < to; i++) {
+          count[((a[i] ^ Integer.MIN_VALUE) >>> shift) & DIGIT_MASK]++;
+        }
+      } else if (SCATTER == step) {
+        for (int i = from; i < to; i++) {
+          int v = a[i];
+          scratch[count[((v ^ Integer.MIN_VALUE) >>> shift) & DIGIT_MASK]++] = v;
+        }
+      } else {
+        System.arraycopy(scratch, from, a, from, to - from);
+      }
+    }
+  }
+
+  /**
+   * Check whether a digit histogram has all {@code n} elements in a single bucket, in which case a
+   * pass over the digit wouldn't move anything.
+   */
+  private static boolean isTrivial(int[] count, int n) {
+    for (int c : count) {
+      if (c != 0) {
+        return c == n;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Turn a digit histogram into the starting offset of each bucket (an exclusive prefix sum).
+   * 
+   * @param count
+   *          The histogram, which is replaced by the offsets.
+   * @param base
+   *          The offset of the first bucket.
+   */
+  private static void toOffsets(int[] count, int base) {
+    int sum = base;
+    for (int i = 0; i < RADIX; i++) {
+      int c = count[i];
+      count[i] = sum;
+      sum += c;
+    }
+  }
+
+}
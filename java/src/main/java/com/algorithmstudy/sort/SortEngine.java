@@ -0,0 +1,494 @@
+/*
+ * Copyright (c) 2009, The Algorithm Study Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright notice,
+ *       this list of conditions and the following disclaimer in the documentation
+ *       and/or other materials provided with the distribution.
+ *     * Neither the name of the Algorithm Study Project, algorithmstudy.com, nor
+ *       the names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+package com.algorithmstudy.sort;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * {@code SortEngine} is a facade which picks the sorting algorithm for an {@code int[]} from the
+ * data itself, so that callers don't have to know whether their input is presorted, full of
+ * duplicates or large enough to be worth sorting in parallel. <br>
+ * <br>
+ * Before sorting, the engine makes one pass over the input which counts its runs (maximal
+ * non-descending or strictly descending stretches, as {@link TimSort} finds them) and finds its
+ * minimum and maximum, and it sorts an evenly spaced sample of {@link #SAMPLE_SIZE} elements to
+ * estimate the ratio of distinct keys. The resulting {@link Plan} names the chosen
+ * {@link Strategy} along with the statistics it was chosen from, so it can be logged. The rules,
+ * in order:
+ * <ol>
+ * <li>a single non-descending run is already sorted: {@link Strategy#NONE}</li>
+ * <li>at most {@link SortingNetworks#MAX_SIZE} elements: {@link Strategy#SORTING_NETWORK}</li>
+ * <li>runs averaging at least {@link #MIN_AVERAGE_RUN} elements, which includes sorted, reverse
+ * sorted and appended-to input: {@link Strategy#TIM_SORT}, whose merges take
+ * {@code O(n lg(runs))} time</li>
+ * <li>a key range {@code max - min + 1} no wider than the number of elements nor
+ * {@link CountingSort#MAX_RANGE}: {@link Strategy#COUNTING_SORT}, in {@code O(n)} time, or
+ * {@link Strategy#PARALLEL_COUNTING_SORT} for a whole array of more than
+ * {@link CountingSort#DEFAULT_PARALLEL_THRESHOLD} elements with more than one thread in the pool
+ * </li>
+ * <li>a whole array of at least {@link RadixSort#DEFAULT_PARALLEL_THRESHOLD} elements with more
+ * than one thread in the pool: {@link Strategy#PARALLEL_RADIX_SORT}</li>
+ * <li>at least {@link #RADIX_SORT_THRESHOLD} elements: {@link Strategy#RADIX_SORT}, in
+ * {@code O(n)} time</li>
+ * <li>at most one distinct key in {@link #MAX_DUPLICATE_RATIO} of the sample:
+ * {@link Strategy#THREE_WAY_QUICK_SORT}, which settles every copy of a pivot in one pass</li>
+ * <li>otherwise: {@link Strategy#INTRO_SORT}</li>
+ * </ol>
+ * Every strategy runs in {@code O(n lg(n))} time or better in the worst case; the comparison
+ * sorts ({@link IntroSort} and the three-way quick sort) fall back to {@link HeapSort} if their
+ * partitioning goes bad. A {@code SortEngine} holds no state between sorts, so one instance can be
+ * shared by several threads.
+ */
+public class SortEngine {
+
+  /**
+   * The number of elements sampled to estimate the ratio of distinct keys.
+   */
+  public static final int SAMPLE_SIZE = 256;
+
+  /**
+   * The smallest average run length for which the input is sorted with {@link TimSort}.
+   */
+  public static final int MIN_AVERAGE_RUN = 32;
+
+  /**
+   * The smallest input which is sorted with {@link RadixSort} rather than a comparison sort.
+   */
+  public static final int RADIX_SORT_THRESHOLD = 1024;
+
+  /**
+   * The sample must have at least this many elements per distinct key for the input to be sorted
+   * with {@link QuickSort#threeWayQuickSort(int[])}.
+   */
+  public static final int MAX_DUPLICATE_RATIO = 8;
+
+  /**
+   * The algorithms a {@code SortEngine} chooses from.
+   */
+  public enum Strategy {
+    /** The input is already sorted. */
+    NONE,
+    /** {@link SortingNetworks#networkSort(int[], int, int)}. */
+    SORTING_NETWORK,
+    /** {@link TimSort#timSort(int[], int, int)}. */
+    TIM_SORT,
+    /** {@link QuickSort#threeWayQuickSort(int[], int, int)}. */
+    THREE_WAY_QUICK_SORT,
+    /** {@link IntroSort#introSort(int[], int, int)}. */
+    INTRO_SORT,
+    /** {@link RadixSort#radixSort(int[], int, int)}. */
+    RADIX_SORT,
+    /** {@link RadixSort#parallelRadixSort(int[], ForkJoinPool, int)}. */
+    PARALLEL_RADIX_SORT,
+    /** {@link CountingSort#countingSort(int[], int, int, int, int)}. */
+    COUNTING_SORT,
+    /** {@link CountingSort#parallelCountingSort(int[], ForkJoinPool, int)}. */
+    PARALLEL_COUNTING_SORT
+  }
+
+  // The pool for the parallel strategies
+  private final ForkJoinPool pool;
+
+  /**
+   * Construct a new {@code SortEngine} whose parallel strategies run in the common
+   * {@code ForkJoinPool}.
+   */
+  public SortEngine() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Construct a new {@code SortEngine} whose parallel strategies run in {@code pool}. A pool with
+   * a parallelism of one turns them off.
+   * 
+   * @param pool
+   *          The pool in which to run parallel sorts.
+   */
+  public SortEngine(ForkJoinPool pool) {
+    if (null == pool) {
+      throw new NullPointerException("Can't use a null pool.");
+    }
+    this.pool = pool;
+  }
+
+  /**
+   * Sort an {@code int[]} with the strategy chosen by {@link #plan(int[])}.
+   * 
+   * @param a
+   *          The {@code int[]} to sort.
+   * @return The plan that was carried out.
+   */
+  public Plan sort(int[] a) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array.");
+    }
+    return sort(a, 0, a.length);
+  }
+
+  /**
+   * Sort the range {@code [fromIndex, toIndex)} of an {@code int[]} with the strategy chosen by
+   * {@link #plan(int[], int, int)}. The elements outside the range are not touched.
+   * 
+   * @param a
+   *          The {@code int[]} to sort.
+   * @param fromIndex
+   *          The index of the first element to sort.
+   * @param toIndex
+   *          One greater than the index of the last element to sort.
+   * @return The plan that was carried out.
+   * @throws IllegalArgumentException
+   *           if {@code fromIndex > toIndex}.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code fromIndex < 0} or {@code toIndex > a.length}.
+   */
+  public Plan sort(int[] a, int fromIndex, int toIndex) {
+    return sort(a, fromIndex, toIndex, SortMetrics.NONE);
+  }
+
+  /**
+   * Sort an {@code int[]} with the strategy chosen by {@link #plan(int[])}, recording the cost of
+   * the sort in {@code metrics}. See {@link #sort(int[], int, int, SortMetrics)}.
+   * 
+   * @param a
+   *          The {@code int[]} to sort.
+   * @param metrics
+   *          The metrics in which to record the cost of the sort.
+   * @return The plan that was carried out.
+   */
+  public Plan sort(int[] a, SortMetrics metrics) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array.");
+    }
+    return sort(a, 0, a.length, metrics);
+  }
+
+  /**
+   * Sort the range {@code [fromIndex, toIndex)} of an {@code int[]} with the strategy chosen by
+   * {@link #plan(int[], int, int)}, recording the cost of the sort in {@code metrics}. The time
+   * spent planning and sorting is recorded as the phases {@code "plan"} and {@code "sort"}. The
+   * {@link Strategy#SORTING_NETWORK}, {@link Strategy#TIM_SORT},
+   * {@link Strategy#THREE_WAY_QUICK_SORT}, {@link Strategy#RADIX_SORT} and
+   * {@link Strategy#INTRO_SORT} strategies also record their comparisons, moves and so on; the
+   * counting and parallel sorts only record their time.
+   * Passing {@link SortMetrics#NONE} is the same as calling {@link #sort(int[], int, int)}.
+   * 
+   * @param a
+   *          The {@code int[]} to sort.
+   * @param fromIndex
+   *          The index of the first element to sort.
+   * @param toIndex
+   *          One greater than the index of the last element to sort.
+   * @param metrics
+   *          The metrics in which to record the cost of the sort.
+   * @return The plan that was carried out.
+   * @throws IllegalArgumentException
+   *           if {@code fromIndex > toIndex}.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code fromIndex < 0} or {@code toIndex > a.length}.
+   */
+  public Plan sort(int[] a, int fromIndex, int toIndex, SortMetrics metrics) {
+    if (null == metrics) {
+      throw new NullPointerException("Can't record into null metrics.");
+    }
+    boolean instrumented = SortMetrics.NONE != metrics;
+    long start = instrumented ? System.nanoTime() : 0;
+    Plan plan = plan(a, fromIndex, toIndex);
+    if (instrumented) {
+      long planned = System.nanoTime();
+      metrics.phase("plan", planned - start);
+      if (plan.size > 1) {
+        metrics.scratchBytes += 4L * Math.min(plan.size, SAMPLE_SIZE);
+      }
+      start = planned;
+    }
+    switch (plan.strategy) {
+    case NONE:
+      break;
+    case SORTING_NETWORK:
+      if (instrumented) {
+        SortingNetworks.sort(a, fromIndex, toIndex, metrics);
+      } else {
+        SortingNetworks.sort(a, fromIndex, toIndex);
+      }
+      break;
+    case TIM_SORT:
+      if (instrumented) {
+        TimSort.sort(a, fromIndex, toIndex, metrics);
+      } else {
+        TimSort.sort(a, fromIndex, toIndex);
+      }
+      break;
+    case THREE_WAY_QUICK_SORT:
+      if (instrumented) {
+        QuickSort.threeWayQuickSort(a, fromIndex, toIndex, metrics);
+      } else {
+        QuickSort.threeWayQuickSort(a, fromIndex, toIndex);
+      }
+      break;
+    case RADIX_SORT:
+      if (instrumented) {
+        RadixSort.sort(a, fromIndex, toIndex, metrics);
+      } else {
+        RadixSort.sort(a, fromIndex, toIndex, null, 0);
+      }
+      break;
+    case PARALLEL_RADIX_SORT:
+      RadixSort.parallelRadixSort(a, pool, RadixSort.DEFAULT_PARALLEL_THRESHOLD);
+      break;
+    case COUNTING_SORT:
+      CountingSort.sort(a, fromIndex, toIndex, plan.min, plan.max);
+      break;
+    case PARALLEL_COUNTING_SORT:
+      CountingSort.parallelSort(a, plan.min, plan.max, pool,
+          CountingSort.DEFAULT_PARALLEL_THRESHOLD);
+      break;
+    default:
+      if (instrumented) {
+        IntroSort.sort(a, fromIndex, toIndex, metrics);
+      } else {
+        IntroSort.sort(a, fromIndex, toIndex);
+      }
+      break;
+    }
+    if (instrumented) {
+      metrics.phase("sort", System.nanoTime() - start);
+    }
+    return plan;
+  }
+
+  /**
+   * Choose the strategy for sorting an {@code int[]} without sorting it.
+   * 
+   * @param a
+   *          The {@code int[]} to examine.
+   * @return The plan for sorting {@code a}.
+   */
+  public Plan plan(int[] a) {
+    if (null == a) {
+      throw new NullPointerException("Can't plan for a null array.");
+    }
+    return plan(a, 0, a.length);
+  }
+
+  /**
+   * Choose the strategy for sorting the range {@code [fromIndex, toIndex)} of an {@code int[]}
+   * without sorting it.
+   * 
+   * @param a
+   *          The {@code int[]} to examine.
+   * @param fromIndex
+   *          The index of the first element of the range.
+   * @param toIndex
+   *          One greater than the index of the last element of the range.
+   * @return The plan for sorting the range.
+   * @throws IllegalArgumentException
+   *           if {@code fromIndex > toIndex}.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code fromIndex < 0} or {@code toIndex > a.length}.
+   */
+  public Plan plan(int[] a, int fromIndex, int toIndex) {
+    if (null == a) {
+      throw new NullPointerException("Can't plan for a null array.");
+    }
+    RangeCheck.check(a.length, fromIndex, toIndex);
+    int n = toIndex - fromIndex;
+    if (0 == n) {
+      return new Plan(Strategy.NONE, 0, 0, 0, 0, 1.0);
+    }
+    if (1 == n) {
+      return new Plan(Strategy.NONE, 1, 1, a[fromIndex], a[fromIndex], 1.0);
+    }
+
+    // One pass for the runs and the range
+    int min = a[fromIndex];
+    int max = min;
+    int runs = 1;
+    boolean descending = a[fromIndex + 1] < a[fromIndex];
+    for (int i = fromIndex + 1; i < toIndex; i++) {
+      int x = a[i];
+      if (x < min) {
+        min = x;
+      } else if (x > max) {
+        max = x;
+      }
+      int prev = a[i - 1];
+      if (descending ? x >= prev : x < prev) {
+        // Start a new run, whose direction is set by its first two elements
+        runs++;
+        descending = i + 1 < toIndex && a[i + 1] < x;
+        i++;
+        if (i < toIndex) {
+          x = a[i];
+          if (x < min) {
+            min = x;
+          } else if (x > max) {
+            max = x;
+          }
+        }
+      }
+    }
+    boolean sorted = 1 == runs && a[fromIndex] <= a[toIndex - 1];
+
+    double distinctRatio = sampleDistinctRatio(a, fromIndex, toIndex);
+
+    Strategy strategy;
+    if (sorted) {
+      strategy = Strategy.NONE;
+    } else if (n <= SortingNetworks.MAX_SIZE) {
+      strategy = Strategy.SORTING_NETWORK;
+    } else if ((long) runs * MIN_AVERAGE_RUN <= n) {
+      strategy = Strategy.TIM_SORT;
+    } else if ((long) max - min < Math.min(n, CountingSort.MAX_RANGE)) {
+      strategy = n > CountingSort.DEFAULT_PARALLEL_THRESHOLD && n == a.length
+          && pool.getParallelism() > 1 ? Strategy.PARALLEL_COUNTING_SORT
+          : Strategy.COUNTING_SORT;
+    } else if (n >= RadixSort.DEFAULT_PARALLEL_THRESHOLD && n == a.length
+        && pool.getParallelism() > 1) {
+      strategy = Strategy.PARALLEL_RADIX_SORT;
+    } else if (n >= RADIX_SORT_THRESHOLD) {
+      strategy = Strategy.RADIX_SORT;
+    } else if (distinctRatio * MAX_DUPLICATE_RATIO <= 1.0) {
+      strategy = Strategy.THREE_WAY_QUICK_SORT;
+    } else {
+      strategy = Strategy.INTRO_SORT;
+    }
+    return new Plan(strategy, n, runs, min, max, distinctRatio);
+  }
+
+  /**
+   * Estimate the ratio of distinct keys to elements in {@code a[l, r)} from a sorted sample of at
+   * most {@link #SAMPLE_SIZE} evenly spaced elements.
+   */
+  private static double sampleDistinctRatio(int[] a, int l, int r) {
+    int n = r - l;
+    int size = Math.min(n, SAMPLE_SIZE);
+    int[] sample = new int[size];
+    for (int i = 0; i < size; i++) {
+      sample[i] = a[l + (int) ((long) i * n / size)];
+    }
+    IntroSort.sort(sample, 0, size);
+    int distinct = 1;
+    for (int i = 1; i < size; i++) {
+      if (sample[i] != sample[i - 1]) {
+        distinct++;
+      }
+    }
+    return (double) distinct / size;
+  }
+
+  /**
+   * {@code Plan} records the strategy a {@code SortEngine} chose for an input and the statistics
+   * it chose it from.
+   */
+  public static class Plan {
+
+    private final Strategy strategy;
+
+    private final int size;
+
+    private final int runs;
+
+    private final int min;
+
+    private final int max;
+
+    private final double distinctRatio;
+
+    Plan(Strategy strategy, int size, int runs, int min, int max, double distinctRatio) {
+      this.strategy = strategy;
+      this.size = size;
+      this.runs = runs;
+      this.min = min;
+      this.max = max;
+      this.distinctRatio = distinctRatio;
+    }
+
+    /**
+     * Gets the chosen strategy.
+     * 
+     * @return The strategy.
+     */
+    public Strategy strategy() {
+      return strategy;
+    }
+
+    /**
+     * Gets the number of elements to sort.
+     * 
+     * @return The number of elements.
+     */
+    public int size() {
+      return size;
+    }
+
+    /**
+     * Gets the number of runs in the input: maximal non-descending or strictly descending
+     * stretches, as {@link TimSort} finds them.
+     * 
+     * @return The number of runs.
+     */
+    public int runs() {
+      return runs;
+    }
+
+    /**
+     * Gets the smallest key. It is zero if there are no elements.
+     * 
+     * @return The smallest key.
+     */
+    public int min() {
+      return min;
+    }
+
+    /**
+     * Gets the largest key. It is zero if there are no elements.
+     * 
+     * @return The largest key.
+     */
+    public int max() {
+      return max;
+    }
+
+    /**
+     * Gets the estimated ratio of distinct keys to elements, from {@code 1 / SAMPLE_SIZE} (nearly
+     * all duplicates) to {@code 1} (no duplicates).
+     * 
+     * @return The estimated ratio of distinct keys.
+     */
+    public double distinctRatio() {
+      return distinctRatio;
+    }
+
+    @Override
+    public String toString() {
+      return strategy + " (size=" + size + ", runs=" + runs + ", min=" + min + ", max=" + max
+          + ", distinctRatio=" + distinctRatio + ")";
+    }
+  }
+
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2009, The Algorithm Study Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright notice,
+ *       this list of conditions and the following disclaimer in the documentation
+ *       and/or other materials provided with the distribution.
+ *     * Neither the name of the Algorithm Study Project, algorithmstudy.com, nor
+ *       the names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+package com.algorithmstudy.sort;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code SortMetrics} collects the cost of sorts: the number of key comparisons, swaps and other
+ * element moves, the deepest level of recursion reached, the number of bytes of scratch memory
+ * allocated and the wall time spent in each phase. It is meant for explaining why a sort in
+ * production takes as long as it does. <br>
+ * <br>
+ * The sorts which accept a {@code SortMetrics} ({@link InsertionSort}, {@link HeapSort},
+ * {@link MergeSort}, {@link IntroSort}, {@link TimSort}, the three-way {@link QuickSort},
+ * {@link RadixSort} and {@link SortEngine}) have an instrumented copy of the algorithm which
+ * records into it. Passing {@link #NONE} runs the plain,
+ * uninstrumented algorithm instead, so code which takes a {@code SortMetrics} from its
+ * configuration costs nothing when metrics are turned off. <br>
+ * <br>
+ * The counts are defined as follows:
+ * <ul>
+ * <li>a comparison is one comparison of two keys; each compare-exchange of a
+ * {@link SortingNetworks sorting network} counts as one</li>
+ * <li>a swap is one exchange of two elements</li>
+ * <li>a move is one write of an element other than as part of a swap, such as a shift in an
+ * insertion sort, a copy during a merge or a scatter during a radix sort pass; the branch free
+ * compare-exchanges of sorting networks aren't counted</li>
+ * <li>the depth is the number of nested recursive calls (partitions or halvings) active at once,
+ * starting from one for the top level call</li>
+ * </ul>
+ * The metrics accumulate over all of the sorts they are passed to until {@link #reset()} is
+ * called. A {@code SortMetrics} isn't thread safe, so concurrent sorts need one each.
+ */
+public class SortMetrics {
+
+  /**
+   * The metrics which turn instrumentation off. Nothing is ever recorded in them.
+   */
+  public static final SortMetrics NONE = new SortMetrics();
+
+  long comparisons;
+
+  long swaps;
+
+  long moves;
+
+  int maxDepth;
+
+  long scratchBytes;
+
+  private final Map<String, Long> phaseNanos = new LinkedHashMap<String, Long>();
+
+  /**
+   * Gets the number of key comparisons.
+   * 
+   * @return The number of comparisons.
+   */
+  public long comparisons() {
+    return comparisons;
+  }
+
+  /**
+   * Gets the number of exchanges of two elements.
+   * 
+   * @return The number of swaps.
+   */
+  public long swaps() {
+    return swaps;
+  }
+
+  /**
+   * Gets the number of element writes other than swaps.
+   * 
+   * @return The number of moves.
+   */
+  public long moves() {
+    return moves;
+  }
+
+  /**
+   * Gets the deepest level of recursion reached.
+   * 
+   * @return The maximum recursion depth.
+   */
+  public int maxDepth() {
+    return maxDepth;
+  }
+
+  /**
+   * Gets the number of bytes of scratch arrays allocated.
+   * 
+   * @return The number of bytes of scratch memory.
+   */
+  public long scratchBytes() {
+    return scratchBytes;
+  }
+
+  /**
+   * Gets the wall time spent in each phase, in nanoseconds, keyed by the name of the phase in the
+   * order the phases were first entered. Phases may nest: the {@code "sort"} phase of a
+   * {@link SortEngine} includes the phases of the algorithm it runs.
+   * 
+   * @return An unmodifiable copy of the time spent in each phase.
+   */
+  public Map<String, Long> phaseNanos() {
+    return Collections.unmodifiableMap(new LinkedHashMap<String, Long>(phaseNanos));
+  }
+
+  /**
+   * Clear all of the metrics.
+   */
+  public void reset() {
+    comparisons = 0;
+    swaps = 0;
+    moves = 0;
+    maxDepth = 0;
+    scratchBytes = 0;
+    phaseNanos.clear();
+  }
+
+  /**
+   * Record that recursion has reached {@code depth}.
+   */
+  void depth(int depth) {
+    if (depth > maxDepth) {
+      maxDepth = depth;
+    }
+  }
+
+  /**
+   * Record {@code nanos} of wall time spent in the phase {@code name}.
+   */
+  void phase(String name, long nanos) {
+    Long total = phaseNanos.get(name);
+    phaseNanos.put(name, null == total ? nanos : total + nanos);
+  }
+
+  @Override
+  public String toString() {
+    return "comparisons=" + comparisons + ", swaps=" + swaps + ", moves=" + moves + ", maxDepth="
+        + maxDepth + ", scratchBytes=" + scratchBytes + ", phaseNanos=" + phaseNanos;
+  }
+
+}
@@ -0,0 +1,728 @@
+/*
+ * Copyright (c) 2009, The Algorithm Study Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright notice,
+ *       this list of conditions and the following disclaimer in the documentation
+ *       and/or other materials provided with the distribution.
+ *     * Neither the name of the Algorithm Study Project, algorithmstudy.com, nor
+ *       the names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+package com.algorithmstudy.sort;
+
+/**
+ * {@code SortingNetworks} sorts arrays of at most {@link #MAX_SIZE} elements with sorting networks:
+ * fixed sequences of compare-exchange operations, each of which puts the smaller of two elements
+ * at the lower index. The sequence depends only on the number of elements, never on their values,
+ * so there are no loops and no data dependent branches: each compare-exchange is a {@code min} and
+ * a {@code max}, which the JIT compiles to conditional moves. For tiny arrays this is much faster
+ * than an insertion sort, whose branches are mispredicted on random input about once per element.
+ * <br>
+ * <br>
+ * The networks use the fewest compare-exchanges known for each size (see section 5.3.4 of "The Art
+ * of Computer Programming, Volume 3" by Knuth): 1, 3, 5, 9, 12, 16, 19, 25, 29, 35, 39, 45, 51, 56
+ * and 60 for 2 to 16 elements. The 14 and 15 element networks are Green's 16 element network with
+ * the top wires removed. By the 0-1 principle, a network sorts every input if it sorts every input
+ * of zeros and ones, which is how {@code TestSortingNetworks} checks them. <br>
+ * <br>
+ * The divide and conquer sorters in this package ({@link IntroSort}, {@link QuickSort},
+ * {@link MergeSort}, {@link TimSort} and {@link RadixSort}) use these networks to finish their
+ * {@code int[]} segments of at most {@link #MAX_SIZE} elements.
+ */
+public class SortingNetworks {
+
+  /**
+   * The largest number of elements a sorting network is provided for.
+   */
+  public static final int MAX_SIZE = 16;
+
+  /**
+   * The number of compare-exchanges in the network for each number of elements.
+   */
+  private static final int[] COMPARATORS = { 0, 0, 1, 3, 5, 9, 12, 16, 19, 25, 29, 35, 39, 45, 51,
+      56, 60 };
+
+  /**
+   * Sort an {@code int[]} of at most {@link #MAX_SIZE} elements using a sorting network.
+   * 
+   * @param a
+   *          The {@code int[]} to sort.
+   * @throws IllegalArgumentException
+   *           if {@code a} has more than {@link #MAX_SIZE} elements.
+   */
+  public static void networkSort(int[] a) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array.");
+    }
+    networkSort(a, 0, a.length);
+  }
+
+  /**
+   * Sort the range {@code [fromIndex, toIndex)} of an {@code int[]}, which must hold at most
+   * {@link #MAX_SIZE} elements, using a sorting network. The elements outside the range are not
+   * touched.
+   * 
+   * @param a
+   *          The {@code int[]} to sort.
+   * @param fromIndex
+   *          The index of the first element to sort.
+   * @param toIndex
+   *          One greater than the index of the last element to sort.
+   * @throws IllegalArgumentException
+   *           if {@code fromIndex > toIndex} or the range has more than {@link #MAX_SIZE}
+   *           elements.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code fromIndex < 0} or {@code toIndex > a.length}.
+   */
+  public static void networkSort(int[] a, int fromIndex, int toIndex) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array.");
+    }
+    RangeCheck.check(a.length, fromIndex, toIndex);
+    if (toIndex - fromIndex > MAX_SIZE) {
+      throw new IllegalArgumentException("Can't sort more than " + MAX_SIZE
+          + " elements with a sorting network: " + (toIndex - fromIndex));
+    }
+    sort(a, fromIndex, toIndex);
+  }
+
+  /**
+   * Sort the segment {@code [l, r)} of {@code a}, which must hold at most {@link #MAX_SIZE}
+   * elements, using a sorting network.
+   * 
+   * @param a
+   *          The array to sort.
+   * @param l
+   *          The index of the first element to sort.
+   * @param r
+   *          One greater than the index of the last element to sort.
+   */
+  static void sort(int[] a, int l, int r) {
+    switch (r - l) {
+    case 2:
+      sort2(a, l);
+      break;
+    case 3:
+      sort3(a, l);
+      break;
+    case 4:
+      sort4(a, l);
+      break;
+    case 5:
+      sort5(a, l);
+      break;
+    case 6:
+      sort6(a, l);
+      break;
+    case 7:
+      sort7(a, l);
+      break;
+    case 8:
+      sort8(a, l);
+      break;
+    case 9:
+      sort9(a, l);
+      break;
+    case 10:
+      sort10(a, l);
+      break;
+    case 11:
+      sort11(a, l);
+      break;
+    case 12:
+      sort12(a, l);
+      break;
+    case 13:
+      sort13(a, l);
+      break;
+    case 14:
+      sort14(a, l);
+      break;
+    case 15:
+      sort15(a, l);
+      break;
+    case 16:
+      sort16(a, l);
+      break;
+    default:
+      // Zero or one element is already sorted
+      break;
+    }
+  }
+
+  /**
+   * Sort the segment {@code [l, r)} of {@code a}, which must hold at most {@link #MAX_SIZE}
+   * elements, using a sorting network, and record its compare-exchanges in {@code metrics}.
+   */
+  static void sort(int[] a, int l, int r, SortMetrics metrics) {
+    metrics.comparisons += COMPARATORS[r - l];
+    sort(a, l, r);
+  }
+
+  /**
+   * Compare-exchange the elements at indices {@code i} and {@code j}, where {@code i < j}, so that
+   * the smaller one ends up at {@code i}.
+   */
+  private static void cx(int[] a, int i, int j) {
+    int x = a[i];
+    int y = a[j];
+    a[i] = Math.min(x, y);
+    a[j] = Math.max(x, y);
+  }
+
+  // The networks below sort a[o, o + n) for n = 2 to 16. Each blank line separates a layer of
+  // independent compare-exchanges.
+
+  private static void sort2(int[] a, int o) {
+    cx(a, o, o + 1);
+  }
+
+  private static void sort3(int[] a, int o) {
+    cx(a, o, o + 2);
+
+    cx(a, o, o + 1);
+
+    cx(a, o + 1, o + 2);
+  }
+
+  private static void sort4(int[] a, int o) {
+    cx(a, o, o + 2);
+    cx(a, o + 1, o + 3);
+
+    cx(a, o, o + 1);
+    cx(a, o + 2, o + 3);
+
+    cx(a, o + 1, o + 2);
+  }
+
+  private static void sort5(int[] a, int o) {
+    cx(a, o, o + 3);
+    cx(a, o + 1, o + 4);
+
+    cx(a, o, o + 2);
+    cx(a, o + 1, o + 3);
+
+    cx(a, o, o + 1);
+    cx(a, o + 2, o + 4);
+
+    cx(a, o + 1, o + 2);
+    cx(a, o + 3, o + 4);
+
+    cx(a, o + 2, o + 3);
+  }
+
+  private static void sort6(int[] a, int o) {
+    cx(a, o, o + 5);
+    cx(a, o + 1, o + 3);
+    cx(a, o + 2, o + 4);
+
+    cx(a, o + 1, o + 2);
+    cx(a, o + 3, o + 4);
+
+    cx(a, o, o + 3);
+    cx(a, o + 2, o + 5);
+
+    cx(a, o, o + 1);
+    cx(a, o + 2, o + 3);
+    cx(a, o + 4, o + 5);
+
+    cx(a, o + 1, o + 2);
+    cx(a, o + 3, o + 4);
+  }
+
+  private static void sort7(int[] a, int o) {
+    cx(a, o, o + 6);
+    cx(a, o + 2, o + 3);
+    cx(a, o + 4, o + 5);
+
+    cx(a, o, o + 2);
+    cx(a, o + 1, o + 4);
+    cx(a, o + 3, o + 6);
+
+    cx(a, o, o + 1);
+    cx(a, o + 2, o + 5);
+    cx(a, o + 3, o + 4);
+
+    cx(a, o + 1, o + 2);
+    cx(a, o + 4, o + 6);
+
+    cx(a, o + 2, o + 3);
+    cx(a, o + 4, o + 5);
+
+    cx(a, o + 1, o + 2);
+    cx(a, o + 3, o + 4);
+    cx(a, o + 5, o + 6);
+  }
+
+  private static void sort8(int[] a, int o) {
+    cx(a, o, o + 2);
+    cx(a, o + 1, o + 3);
+    cx(a, o + 4, o + 6);
+    cx(a, o + 5, o + 7);
+
+    cx(a, o, o + 4);
+    cx(a, o + 1, o + 5);
+    cx(a, o + 2, o + 6);
+    cx(a, o + 3, o + 7);
+
+    cx(a, o, o + 1);
+    cx(a, o + 2, o + 3);
+    cx(a, o + 4, o + 5);
+    cx(a, o + 6, o + 7);
+
+    cx(a, o + 2, o + 4);
+    cx(a, o + 3, o + 5);
+
+    cx(a, o + 1, o + 4);
+    cx(a, o + 3, o + 6);
+
+    cx(a, o + 1, o + 2);
+    cx(a, o + 3, o + 4);
+    cx(a, o + 5, o + 6);
+  }
+
+  private static void sort9(int[] a, int o) {
+    cx(a, o, o + 3);
+    cx(a, o + 1, o + 7);
+    cx(a, o + 2, o + 5);
+    cx(a, o + 4, o + 8);
+
+    cx(a, o, o + 7);
+    cx(a, o + 2, o + 4);
+    cx(a, o + 3, o + 8);
+    cx(a, o + 5, o + 6);
+
+    cx(a, o, o + 2);
+    cx(a, o + 1, o + 3);
+    cx(a, o + 4, o + 5);
+    cx(a, o + 7, o + 8);
+
+    cx(a, o + 1, o + 4);
+    cx(a, o + 3, o + 6);
+    cx(a, o + 5, o + 7);
+
+    cx(a, o, o + 1);
+    cx(a, o + 2, o + 4);
+    cx(a, o + 3, o + 5);
+    cx(a, o + 6, o + 8);
+
+    cx(a, o + 2, o + 3);
+    cx(a, o + 4, o + 5);
+    cx(a, o + 6, o + 7);
+
+    cx(a, o + 1, o + 2);
+    cx(a, o + 3, o + 4);
+    cx(a, o + 5, o + 6);
+  }
+
+  private static void sort10(int[] a, int o) {
+    cx(a, o, o + 8);
+    cx(a, o + 1, o + 9);
+    cx(a, o + 2, o + 7);
+    cx(a, o + 3, o + 5);
+    cx(a, o + 4, o + 6);
+
+    cx(a, o, o + 2);
+    cx(a, o + 1, o + 4);
+    cx(a, o + 5, o + 8);
+    cx(a, o + 7, o + 9);
+
+    cx(a, o, o + 3);
+    cx(a, o + 2, o + 4);
+    cx(a, o + 5, o + 7);
+    cx(a, o + 6, o + 9);
+
+    cx(a, o, o + 1);
+    cx(a, o + 3, o + 6);
+    cx(a, o + 8, o + 9);
+
+    cx(a, o + 1, o + 5);
+    cx(a, o + 2, o + 3);
+    cx(a, o + 4, o + 8);
+    cx(a, o + 6, o + 7);
+
+    cx(a, o + 1, o + 2);
+    cx(a, o + 3, o + 5);
+    cx(a, o + 4, o + 6);
+    cx(a, o + 7, o + 8);
+
+    cx(a, o + 2, o + 3);
+    cx(a, o + 4, o + 5);
+    cx(a, o + 6, o + 7);
+
+    cx(a, o + 3, o + 4);
+    cx(a, o + 5, o + 6);
+  }
+
+  private static void sort11(int[] a, int o) {
+    cx(a, o, o + 9);
+    cx(a, o + 1, o + 6);
+    cx(a, o + 2, o + 4);
+    cx(a, o + 3, o + 7);
+    cx(a, o + 5, o + 8);
+
+    cx(a, o, o + 1);
+    cx(a, o + 3, o + 5);
+    cx(a, o + 4, o + 10);
+    cx(a, o + 6, o + 9);
+    cx(a, o + 7, o + 8);
+
+    cx(a, o + 1, o + 3);
+    cx(a, o + 2, o + 5);
+    cx(a, o + 4, o + 7);
+    cx(a, o + 8, o + 10);
+
+    cx(a, o, o + 4);
+    cx(a, o + 1, o + 2);
+    cx(a, o + 3, o + 7);
+    cx(a, o + 5, o + 9);
+    cx(a, o + 6, o + 8);
+
+    cx(a, o, o + 1);
+    cx(a, o + 2, o + 6);
+    cx(a, o + 4, o + 5);
+    cx(a, o + 7, o + 8);
+    cx(a, o + 9, o + 10);
+
+    cx(a, o + 2, o + 4);
+    cx(a, o + 3, o + 6);
+    cx(a, o + 5, o + 7);
+    cx(a, o + 8, o + 9);
+
+    cx(a, o + 1, o + 2);
+    cx(a, o + 3, o + 4);
+    cx(a, o + 5, o + 6);
+    cx(a, o + 7, o + 8);
+
+    cx(a, o + 2, o + 3);
+    cx(a, o + 4, o + 5);
+    cx(a, o + 6, o + 7);
+  }
+
+  private static void sort12(int[] a, int o) {
+    cx(a, o, o + 8);
+    cx(a, o + 1, o + 7);
+    cx(a, o + 2, o + 6);
+    cx(a, o + 3, o + 11);
+    cx(a, o + 4, o + 10);
+    cx(a, o + 5, o + 9);
+
+    cx(a, o, o + 1);
+    cx(a, o + 2, o + 5);
+    cx(a, o + 3, o + 4);
+    cx(a, o + 6, o + 9);
+    cx(a, o + 7, o + 8);
+    cx(a, o + 10, o + 11);
+
+    cx(a, o, o + 2);
+    cx(a, o + 1, o + 6);
+    cx(a, o + 5, o + 10);
+    cx(a, o + 9, o + 11);
+
+    cx(a, o, o + 3);
+    cx(a, o + 1, o + 2);
+    cx(a, o + 4, o + 6);
+    cx(a, o + 5, o + 7);
+    cx(a, o + 8, o + 11);
+    cx(a, o + 9, o + 10);
+
+    cx(a, o + 1, o + 4);
+    cx(a, o + 3, o + 5);
+    cx(a, o + 6, o + 8);
+    cx(a, o + 7, o + 10);
+
+    cx(a, o + 1, o + 3);
+    cx(a, o + 2, o + 5);
+    cx(a, o + 6, o + 9);
+    cx(a, o + 8, o + 10);
+
+    cx(a, o + 2, o + 3);
+    cx(a, o + 4, o + 5);
+    cx(a, o + 6, o + 7);
+    cx(a, o + 8, o + 9);
+
+    cx(a, o + 4, o + 6);
+    cx(a, o + 5, o + 7);
+
+    cx(a, o + 3, o + 4);
+    cx(a, o + 5, o + 6);
+    cx(a, o + 7, o + 8);
+  }
+
+  private static void sort13(int[] a, int o) {
+    cx(a, o, o + 12);
+    cx(a, o + 1, o + 10);
+    cx(a, o + 2, o + 9);
+    cx(a, o + 3, o + 7);
+    cx(a, o + 5, o + 11);
+    cx(a, o + 6, o + 8);
+
+    cx(a, o + 1, o + 6);
+    cx(a, o + 2, o + 3);
+    cx(a, o + 4, o + 11);
+    cx(a, o + 7, o + 9);
+    cx(a, o + 8, o + 10);
+
+    cx(a, o, o + 4);
+    cx(a, o + 1, o + 2);
+    cx(a, o + 3, o + 6);
+    cx(a, o + 7, o + 8);
+    cx(a, o + 9, o + 10);
+    cx(a, o + 11, o + 12);
+
+    cx(a, o + 4, o + 6);
+    cx(a, o + 5, o + 9);
+    cx(a, o + 8, o + 11);
+    cx(a, o + 10, o + 12);
+
+    cx(a, o, o + 5);
+    cx(a, o + 3, o + 8);
+    cx(a, o + 4, o + 7);
+    cx(a, o + 6, o + 11);
+    cx(a, o + 9, o + 10);
+
+    cx(a, o, o + 1);
+    cx(a, o + 2, o + 5);
+    cx(a, o + 6, o + 9);
+    cx(a, o + 7, o + 8);
+    cx(a, o + 10, o + 11);
+
+    cx(a, o + 1, o + 3);
+    cx(a, o + 2, o + 4);
+    cx(a, o + 5, o + 6);
+    cx(a, o + 9, o + 10);
+
+    cx(a, o + 1, o + 2);
+    cx(a, o + 3, o + 4);
+    cx(a, o + 5, o + 7);
+    cx(a, o + 6, o + 8);
+
+    cx(a, o + 2, o + 3);
+    cx(a, o + 4, o + 5);
+    cx(a, o + 6, o + 7);
+    cx(a, o + 8, o + 9);
+
+    cx(a, o + 3, o + 4);
+    cx(a, o + 5, o + 6);
+  }
+
+  private static void sort14(int[] a, int o) {
+    cx(a, o, o + 13);
+    cx(a, o + 1, o + 12);
+    cx(a, o + 4, o + 8);
+    cx(a, o + 5, o + 6);
+    cx(a, o + 7, o + 11);
+    cx(a, o + 9, o + 10);
+
+    cx(a, o, o + 5);
+    cx(a, o + 1, o + 7);
+    cx(a, o + 2, o + 9);
+    cx(a, o + 3, o + 4);
+    cx(a, o + 6, o + 13);
+    cx(a, o + 11, o + 12);
+
+    cx(a, o, o + 1);
+    cx(a, o + 2, o + 3);
+    cx(a, o + 4, o + 5);
+    cx(a, o + 6, o + 8);
+    cx(a, o + 7, o + 9);
+    cx(a, o + 10, o + 11);
+    cx(a, o + 12, o + 13);
+
+    cx(a, o, o + 2);
+    cx(a, o + 1, o + 3);
+    cx(a, o + 4, o + 10);
+    cx(a, o + 5, o + 11);
+    cx(a, o + 6, o + 7);
+    cx(a, o + 8, o + 9);
+
+    cx(a, o + 1, o + 2);
+    cx(a, o + 3, o + 12);
+    cx(a, o + 4, o + 6);
+    cx(a, o + 5, o + 7);
+    cx(a, o + 8, o + 10);
+    cx(a, o + 9, o + 11);
+
+    cx(a, o + 1, o + 4);
+    cx(a, o + 2, o + 6);
+    cx(a, o + 5, o + 8);
+    cx(a, o + 7, o + 10);
+    cx(a, o + 9, o + 13);
+
+    cx(a, o + 2, o + 4);
+    cx(a, o + 3, o + 6);
+    cx(a, o + 9, o + 12);
+    cx(a, o + 11, o + 13);
+
+    cx(a, o + 3, o + 5);
+    cx(a, o + 6, o + 8);
+    cx(a, o + 7, o + 9);
+    cx(a, o + 10, o + 12);
+
+    cx(a, o + 3, o + 4);
+    cx(a, o + 5, o + 6);
+    cx(a, o + 7, o + 8);
+    cx(a, o + 9, o + 10);
+    cx(a, o + 11, o + 12);
+
+    cx(a, o + 6, o + 7);
+    cx(a, o + 8, o + 9);
+  }
+
+  private static void sort15(int[] a, int o) {
+    cx(a, o, o + 13);
+    cx(a, o + 1, o + 12);
+    cx(a, o + 3, o + 14);
+    cx(a, o + 4, o + 8);
+    cx(a, o + 5, o + 6);
+    cx(a, o + 7, o + 11);
+    cx(a, o + 9, o + 10);
+
+    cx(a, o, o + 5);
+    cx(a, o + 1, o + 7);
+    cx(a, o + 2, o + 9);
+    cx(a, o + 3, o + 4);
+    cx(a, o + 6, o + 13);
+    cx(a, o + 8, o + 14);
+    cx(a, o + 11, o + 12);
+
+    cx(a, o, o + 1);
+    cx(a, o + 2, o + 3);
+    cx(a, o + 4, o + 5);
+    cx(a, o + 6, o + 8);
+    cx(a, o + 7, o + 9);
+    cx(a, o + 10, o + 11);
+    cx(a, o + 12, o + 13);
+
+    cx(a, o, o + 2);
+    cx(a, o + 1, o + 3);
+    cx(a, o + 4, o + 10);
+    cx(a, o + 5, o + 11);
+    cx(a, o + 6, o + 7);
+    cx(a, o + 8, o + 9);
+    cx(a, o + 12, o + 14);
+
+    cx(a, o + 1, o + 2);
+    cx(a, o + 3, o + 12);
+    cx(a, o + 4, o + 6);
+    cx(a, o + 5, o + 7);
+    cx(a, o + 8, o + 10);
+    cx(a, o + 9, o + 11);
+    cx(a, o + 13, o + 14);
+
+    cx(a, o + 1, o + 4);
+    cx(a, o + 2, o + 6);
+    cx(a, o + 5, o + 8);
+    cx(a, o + 7, o + 10);
+    cx(a, o + 9, o + 13);
+    cx(a, o + 11, o + 14);
+
+    cx(a, o + 2, o + 4);
+    cx(a, o + 3, o + 6);
+    cx(a, o + 9, o + 12);
+    cx(a, o + 11, o + 13);
+
+    cx(a, o + 3, o + 5);
+    cx(a, o + 6, o + 8);
+    cx(a, o + 7, o + 9);
+    cx(a, o + 10, o + 12);
+
+    cx(a, o + 3, o + 4);
+    cx(a, o + 5, o + 6);
+    cx(a, o + 7, o + 8);
+    cx(a, o + 9, o + 10);
+    cx(a, o + 11, o + 12);
+
+    cx(a, o + 6, o + 7);
+    cx(a, o + 8, o + 9);
+  }
+
+  private static void sort16(int[] a, int o) {
+    cx(a, o, o + 13);
+    cx(a, o + 1, o + 12);
+    cx(a, o + 2, o + 15);
+    cx(a, o + 3, o + 14);
+    cx(a, o + 4, o + 8);
+    cx(a, o + 5, o + 6);
+    cx(a, o + 7, o + 11);
+    cx(a, o + 9, o + 10);
+
+    cx(a, o, o + 5);
+    cx(a, o + 1, o + 7);
+    cx(a, o + 2, o + 9);
+    cx(a, o + 3, o + 4);
+    cx(a, o + 6, o + 13);
+    cx(a, o + 8, o + 14);
+    cx(a, o + 10, o + 15);
+    cx(a, o + 11, o + 12);
+
+    cx(a, o, o + 1);
+    cx(a, o + 2, o + 3);
+    cx(a, o + 4, o + 5);
+    cx(a, o + 6, o + 8);
+    cx(a, o + 7, o + 9);
+    cx(a, o + 10, o + 11);
+    cx(a, o + 12, o + 13);
+    cx(a, o + 14, o + 15);
+
+    cx(a, o, o + 2);
+    cx(a, o + 1, o + 3);
+    cx(a, o + 4, o + 10);
+    cx(a, o + 5, o + 11);
+    cx(a, o + 6, o + 7);
+    cx(a, o + 8, o + 9);
+    cx(a, o + 12, o + 14);
+    cx(a, o + 13, o + 15);
+
+    cx(a, o + 1, o + 2);
+    cx(a, o + 3, o + 12);
+    cx(a, o + 4, o + 6);
+    cx(a, o + 5, o + 7);
+    cx(a, o + 8, o + 10);
+    cx(a, o + 9, o + 11);
+    cx(a, o + 13, o + 14);
+
+    cx(a, o + 1, o + 4);
+    cx(a, o + 2, o + 6);
+    cx(a, o + 5, o + 8);
+    cx(a, o + 7, o + 10);
+    cx(a, o + 9, o + 13);
+    cx(a, o + 11, o + 14);
+
+    cx(a, o + 2, o + 4);
+    cx(a, o + 3, o + 6);
+    cx(a, o + 9, o + 12);
+    cx(a, o + 11, o + 13);
+
+    cx(a, o + 3, o + 5);
+    cx(a, o + 6, o + 8);
+    cx(a, o + 7, o + 9);
+    cx(a, o + 10, o + 12);
+
+    cx(a, o + 3, o + 4);
+    cx(a, o + 5, o + 6);
+    cx(a, o + 7, o + 8);
+    cx(a, o + 9, o + 10);
+    cx(a, o + 11, o + 12);
+
+    cx(a, o + 6, o + 7);
+    cx(a, o + 8, o + 9);
+  }
+}
@@ -0,0 +1,879 @@
+/*
+ * Copyright (c) 2009, The Algorithm Study Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright notice,
+ *       this list of conditions and the following disclaimer in the documentation
+ *       and/or other materials provided with the distribution.
+ *     * Neither the name of the Algorithm Study Project, algorithmstudy.com, nor
+ *       the names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+package com.algorithmstudy.sort;
+
+/**
+ * {@code TimSort} contains an implementation of Tim Peters' adaptive, stable merge sort. The
+ * algorithm:
+ * <ul>
+ * <li>runs in {@code O(n lg(n))} time in the worst case and in {@code O(n)} time on input which is
+ * already sorted (ascending or descending)</li>
+ * <li>in general runs in {@code O(n lg(r))} time where {@code r} is the number of runs in the
+ * input, so partially ordered input (appended time series, mostly sorted lists) is sorted far
+ * faster than by {@link MergeSort}</li>
+ * <li>has memory use of {@code O(n)}; at most {@code n/2} elements of scratch space are needed</li>
+ * </ul>
+ * The array is scanned left to right for natural runs: maximal non-descending runs are used as
+ * they are, strictly descending runs are reversed in place. Runs shorter than a minimum length
+ * (between 32 and 64, chosen so that the number of runs is a power of two or slightly less) are
+ * extended with a binary insertion sort. <br>
+ * <br>
+ * Which runs to merge is decided by the "powersort" rule: every boundary between two adjacent
+ * runs gets a power, the depth at which the boundary would sit in a perfectly balanced merge tree
+ * over the whole array, and a pending merge is done as soon as a boundary of lower power turns
+ * up to its right. This keeps the merges nearly balanced and the stack of pending runs no deeper
+ * than {@code lg(n) + 2}. When merging, the shorter run is moved to the scratch space, and once
+ * one run keeps supplying the next element the merge switches to "galloping": an exponential
+ * search finds how many elements in a row can be moved in one block. <br>
+ * <br>
+ * For further discussion, see Tim Peters' description of the algorithm, "listsort.txt", in the
+ * CPython source distribution, and J. Ian Munro and Sebastian Wild, "Nearly-Optimal Mergesorts:
+ * Fast, Practical Sorting Methods That Optimally Adapt to Existing Runs" (ESA 2018) for the merge
+ * rule.
+ */
+public class TimSort {
+
+  /**
+   * The number of leading bits of the array length kept when computing the minimum run length, so
+   * that the minimum run length is between {@code 2^(MIN_RUN_BITS - 1)} and
+   * {@code 2^MIN_RUN_BITS}.
+   */
+  private static final int MIN_RUN_BITS = 6;
+
+  /**
+   * The number of consecutive elements one run must supply during a galloping step for the merge
+   * to stay in galloping mode.
+   */
+  private static final int GALLOP_PAYOFF = 7;
+
+  /**
+   * The capacity of the stack of pending runs. The boundary powers on the stack strictly increase
+   * from the bottom and none exceeds 32 for an array of at most {@code Integer.MAX_VALUE}
+   * elements, so the stack never holds more than 33 runs.
+   */
+  private static final int STACK_CAPACITY = 33;
+
+  // The array being sorted and the segment [lo, lo + n) of it which is sorted
+  private final int[] a;
+  private final int lo;
+  private final int n;
+
+  // The pending runs, run i being a[starts[i], ends[i]); powers[i] is the power of the boundary
+  // between runs i - 1 and i
+  private final int[] starts = new int[STACK_CAPACITY];
+  private final int[] ends = new int[STACK_CAPACITY];
+  private final int[] powers = new int[STACK_CAPACITY];
+  private int pending = 0;
+
+  // The number of consecutive wins which start galloping, adapted as the merges go along
+  private int gallopAfter = GALLOP_PAYOFF;
+
+  // The scratch space for merges, grown on demand
+  private int[] buffer = new int[0];
+
+  // The metrics to record the cost of the merges in, or null for an uninstrumented sort
+  private final SortMetrics metrics;
+
+  /**
+   * Construct a {@code TimSort} instance to hold the state of a single sort.
+   * 
+   * @param a
+   *          The array to sort.
+   * @param lo
+   *          The index of the first element to sort.
+   * @param n
+   *          The number of elements to sort.
+   * @param metrics
+   *          The metrics in which to record the cost of the merges, or {@code null}.
+   */
+  private TimSort(int[] a, int lo, int n, SortMetrics metrics) {
+    this.a = a;
+    this.lo = lo;
+    this.n = n;
+    this.metrics = metrics;
+  }
+
+  /**
+   * Sort an {@code int[]} using the tim sort algorithm.
+   * 
+   * @param a
+   *          The {@code int[]} to sort.
+   */
+  public static void timSort(int[] a) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array.");
+    }
+    sort(a, 0, a.length);
+  }
+
+  /**
+   * Sort the range {@code [fromIndex, toIndex)} of an {@code int[]} using the tim sort algorithm.
+   * The elements outside the range are not touched.
+   * 
+   * @param a
+   *          The {@code int[]} to sort.
+   * @param fromIndex
+   *          The index of the first element to sort.
+   * @param toIndex
+   *          One greater than the index of the last element to sort.
+   * @throws IllegalArgumentException
+   *           if {@code fromIndex > toIndex}.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code fromIndex < 0} or {@code toIndex > a.length}.
+   */
+  public static void timSort(int[] a, int fromIndex, int toIndex) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array.");
+    }
+    RangeCheck.check(a.length, fromIndex, toIndex);
+    sort(a, fromIndex, toIndex);
+  }
+
+  /**
+   * Sort an {@code int[]} using the tim sort algorithm, recording its cost in {@code metrics}.
+   * Passing {@link SortMetrics#NONE} is the same as calling {@link #timSort(int[])}.
+   * 
+   * @param a
+   *          The {@code int[]} to sort.
+   * @param metrics
+   *          The metrics in which to record the cost of the sort.
+   */
+  public static void timSort(int[] a, SortMetrics metrics) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array.");
+    }
+    if (null == metrics) {
+      throw new NullPointerException("Can't record into null metrics.");
+    }
+    if (SortMetrics.NONE == metrics) {
+      sort(a, 0, a.length);
+      return;
+    }
+    long start = System.nanoTime();
+    sort(a, 0, a.length, metrics);
+    metrics.phase("timSort", System.nanoTime() - start);
+  }
+
+  /**
+   * Sort the segment {@code [lo, hi)} of {@code a} using the tim sort algorithm.
+   * 
+   * @param a
+   *          The array to sort.
+   * @param lo
+   *          The index of the first element to sort.
+   * @param hi
+   *          One greater than the index of the last element to sort.
+   */
+  static void sort(int[] a, int lo, int hi) {
+    int n = hi - lo;
+    if (n <= SortingNetworks.MAX_SIZE) {
+      SortingNetworks.sort(a, lo, hi);
+      return;
+    }
+
+    TimSort ts = new TimSort(a, lo, n, null);
+    int minRun = minRunLength(n);
+    int start = lo;
+    while (start < hi) {
+      int end = nextRun(a, start, hi);
+      if (end - start < minRun) {
+        int extended = hi - start <= minRun ? hi : start + minRun;
+        binaryInsertionSort(a, start, extended, end);
+        end = extended;
+      }
+      ts.addRun(start, end);
+      start = end;
+    }
+    ts.mergeAll();
+  }
+
+  /**
+   * Find the natural run starting at index {@code start} and make it ascending. A run is either a
+   * non-descending sequence or a strictly descending sequence; a descending run is reversed in
+   * place. Descending runs must be strict so that reversing them can't reorder equal elements.
+   * 
+   * @param a
+   *          The array in which to find the run.
+   * @param start
+   *          The index of the first element of the run.
+   * @param hi
+   *          One greater than the index of the last element which may be part of the run.
+   * @return One greater than the index of the last element of the run.
+   */
+  private static int nextRun(int[] a, int start, int hi) {
+    int end = start + 1;
+    if (end < hi && a[end] < a[start]) {
+      do {
+        end++;
+      } while (end < hi && a[end] < a[end - 1]);
+      for (int i = start, j = end - 1; i < j; i++, j--) {
+        int t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+      }
+    } else {
+      while (end < hi && a[end] >= a[end - 1]) {
+        end++;
+      }
+    }
+    return end;
+  }
+
+  /**
+   * Sort the segment {@code [start, end)} of {@code a} using a binary insertion sort, given that
+   * the elements in {@code [start, sorted)} are already sorted. Finding the insertion point with a
+   * binary search takes {@code O(lg(n))} comparisons per element; shifting the elements still
+   * takes {@code O(n)} moves but is done with a single block copy.
+   * 
+   * @param a
+   *          The array to sort.
+   * @param start
+   *          The index of the first element to sort.
+   * @param end
+   *          One greater than the index of the last element to sort.
+   * @param sorted
+   *          The index of the first element not known to be sorted; greater than {@code start}.
+   */
+  private static void binaryInsertionSort(int[] a, int start, int end, int sorted) {
+    for (int i = sorted; i < end; i++) {
+      int v = a[i];
+
+      // Insert after all elements <= v, which keeps the sort stable
+      int left = start;
+      int right = i;
+      while (left < right) {
+        int mid = (left + right) >>> 1;
+        if (a[mid] <= v) {
+          left = mid + 1;
+        } else {
+          right = mid;
+        }
+      }
+
+      System.arraycopy(a, left, a, left + 1, i - left);
+      a[left] = v;
+    }
+  }
+
+  /**
+   * Compute the minimum run length for an array of {@code n} elements: the leading
+   * {@code MIN_RUN_BITS} bits of {@code n}, plus one if any of the remaining bits are set. Dividing
+   * {@code n} into runs of this length gives a number of runs which is a power of two or slightly
+   * less, so that the final merges are balanced. For short arrays this is {@code n} itself.
+   */
+  private static int minRunLength(int n) {
+    int shift = Math.max(0, Integer.SIZE - MIN_RUN_BITS - Integer.numberOfLeadingZeros(n));
+    int leading = n >>> shift;
+    return (n & ((1 << shift) - 1)) == 0 ? leading : leading + 1;
+  }
+
+  /**
+   * Compute the power of the boundary between the adjacent runs {@code [start1, start2)} and
+   * {@code [start2, end2)}: one more than the number of leading bits the binary fractions of their
+   * midpoints (relative to the segment being sorted) have in common.
+   */
+  private int power(int start1, int start2, int end2) {
+    // Twice the midpoints relative to lo, so the fractions are x / 2n and y / 2n
+    long x = (long) (start1 - lo) + (start2 - lo);
+    long y = (long) (start2 - lo) + (end2 - lo);
+    int p = 0;
+    while (true) {
+      p++;
+      if (x >= n) {
+        x -= n;
+        y -= n;
+      } else if (y >= n) {
+        return p;
+      }
+      x <<= 1;
+      y <<= 1;
+    }
+  }
+
+  /**
+   * Push the run {@code [start, end)}, which directly follows the topmost pending run, onto the
+   * stack, first merging the pending runs whose boundaries have a higher power than the new one.
+   */
+  private void addRun(int start, int end) {
+    if (pending > 0) {
+      int p = power(starts[pending - 1], start, end);
+      while (pending > 1 && powers[pending - 1] > p) {
+        mergeTop();
+      }
+      powers[pending] = p;
+    }
+    starts[pending] = start;
+    ends[pending] = end;
+    pending++;
+  }
+
+  /**
+   * Merge all pending runs, from the top of the stack down, until only one remains.
+   */
+  private void mergeAll() {
+    while (pending > 1) {
+      mergeTop();
+    }
+  }
+
+  /**
+   * Merge the two topmost pending runs into one. Elements at the start of the left run which are
+   * not greater than the first element of the right run, and elements at the end of the right run
+   * which are not less than the last element of the left run, are already in place and are left
+   * out of the merge.
+   */
+  private void mergeTop() {
+    int start1 = starts[pending - 2];
+    int start2 = starts[pending - 1];
+    int end2 = ends[pending - 1];
+    ends[pending - 2] = end2;
+    pending--;
+    if (null != metrics) {
+      merge(start1, start2, end2, metrics);
+      return;
+    }
+
+    start1 += countFromLeft(a, start1, start2, a[start2], true);
+    if (start1 == start2) {
+      return;
+    }
+    end2 -= countFromRight(a, start2, end2, a[start2 - 1], true);
+    if (end2 == start2) {
+      return;
+    }
+
+    if (start2 - start1 <= end2 - start2) {
+      mergeForward(start1, start2, end2);
+    } else {
+      mergeBackward(start1, start2, end2);
+    }
+  }
+
+  /**
+   * Count the elements at the start of the sorted segment {@code x[from, to)} which belong before
+   * {@code key}: those less than {@code key}, or if {@code inclusive} those not greater than it.
+   * Prefixes of length 1, 2, 4, ... are probed until one reaches past the answer, which is then
+   * found with a binary search, so it takes {@code O(lg(k))} comparisons for a result of
+   * {@code k}.
+   */
+  private static int countFromLeft(int[] x, int from, int to, int key, boolean inclusive) {
+    int length = to - from;
+    int low = 0; // the first low elements belong before key
+    int high = length; // the elements from index high on don't
+    int probe = 1;
+    while (low < length) {
+      int v = x[from + probe - 1];
+      if (v < key || (inclusive && v == key)) {
+        low = probe;
+        probe = probe <= (length >>> 1) ? probe << 1 : length;
+      } else {
+        high = probe - 1;
+        break;
+      }
+    }
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      int v = x[from + mid - 1];
+      if (v < key || (inclusive && v == key)) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Count the elements at the end of the sorted segment {@code x[from, to)} which belong after
+   * {@code key}: those greater than {@code key}, or if {@code inclusive} those not less than it.
+   * This is the mirror image of {@link #countFromLeft(int[], int, int, int, boolean)}, probing
+   * suffixes of length 1, 2, 4, ...
+   */
+  private static int countFromRight(int[] x, int from, int to, int key, boolean inclusive) {
+    int length = to - from;
+    int low = 0; // the last low elements belong after key
+    int high = length; // the elements before the last high don't
+    int probe = 1;
+    while (low < length) {
+      int v = x[to - probe];
+      if (v > key || (inclusive && v == key)) {
+        low = probe;
+        probe = probe <= (length >>> 1) ? probe << 1 : length;
+      } else {
+        high = probe - 1;
+        break;
+      }
+    }
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      int v = x[to - mid];
+      if (v > key || (inclusive && v == key)) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Merge the adjacent runs {@code a[start1, start2)} and {@code a[start2, end2)} left to right,
+   * moving the left run, which must be the shorter one, to the scratch space. The last element of
+   * the left run must be greater than every element of the right run, so the right run is always
+   * used up first.
+   */
+  private void mergeForward(int start1, int start2, int end2) {
+    int[] a = this.a;
+    int length1 = start2 - start1;
+    int[] left = scratch(length1);
+    System.arraycopy(a, start1, left, 0, length1);
+
+    int i = 0; // next element of the left run, in left
+    int j = start2; // next element of the right run, in a
+    int dest = start1;
+    int wins1 = 0;
+    int wins2 = 0;
+    boolean galloping = false;
+    while (j < end2) {
+      if (!galloping) {
+        if (a[j] < left[i]) {
+          a[dest++] = a[j++];
+          wins2++;
+          wins1 = 0;
+        } else {
+          a[dest++] = left[i++];
+          wins1++;
+          wins2 = 0;
+        }
+        galloping = wins1 >= gallopAfter || wins2 >= gallopAfter;
+        continue;
+      }
+
+      // Move the block of left elements not greater than a[j], then a[j] itself
+      int count1 = countFromLeft(left, i, length1, a[j], true);
+      System.arraycopy(left, i, a, dest, count1);
+      i += count1;
+      dest += count1;
+      a[dest++] = a[j++];
+
+      // Move the block of right elements less than left[i], then left[i] itself
+      int count2 = 0;
+      if (j < end2) {
+        count2 = countFromLeft(a, j, end2, left[i], false);
+        System.arraycopy(a, j, a, dest, count2);
+        j += count2;
+        dest += count2;
+        a[dest++] = left[i++];
+      }
+
+      if (count1 >= GALLOP_PAYOFF || count2 >= GALLOP_PAYOFF) {
+        if (gallopAfter > 1) {
+          gallopAfter--;
+        }
+      } else {
+        // Galloping didn't pay off; make it harder to start again
+        gallopAfter++;
+        galloping = false;
+        wins1 = 0;
+        wins2 = 0;
+      }
+    }
+    System.arraycopy(left, i, a, dest, length1 - i);
+  }
+
+  /**
+   * Merge the adjacent runs {@code a[start1, start2)} and {@code a[start2, end2)} right to left,
+   * moving the right run, which must be the shorter one, to the scratch space. The first element
+   * of the right run must be less than every element of the left run, so the left run is always
+   * used up first.
+   */
+  private void mergeBackward(int start1, int start2, int end2) {
+    int[] a = this.a;
+    int length2 = end2 - start2;
+    int[] right = scratch(length2);
+    System.arraycopy(a, start2, right, 0, length2);
+
+    int i = start2 - 1; // last remaining element of the left run, in a
+    int j = length2 - 1; // last remaining element of the right run, in right
+    int dest = end2 - 1;
+    int wins1 = 0;
+    int wins2 = 0;
+    boolean galloping = false;
+    while (i >= start1) {
+      if (!galloping) {
+        if (right[j] < a[i]) {
+          a[dest--] = a[i--];
+          wins1++;
+          wins2 = 0;
+        } else {
+          a[dest--] = right[j--];
+          wins2++;
+          wins1 = 0;
+        }
+        galloping = wins1 >= gallopAfter || wins2 >= gallopAfter;
+        continue;
+      }
+
+      // Move the block of left elements greater than right[j], then right[j] itself
+      int count1 = countFromRight(a, start1, i + 1, right[j], false);
+      System.arraycopy(a, i + 1 - count1, a, dest + 1 - count1, count1);
+      i -= count1;
+      dest -= count1;
+      a[dest--] = right[j--];
+
+      // Move the block of right elements not less than a[i], then a[i] itself
+      int count2 = 0;
+      if (i >= start1) {
+        count2 = countFromRight(right, 0, j + 1, a[i], true);
+        System.arraycopy(right, j + 1 - count2, a, dest + 1 - count2, count2);
+        j -= count2;
+        dest -= count2;
+        a[dest--] = a[i--];
+      }
+
+      if (count1 >= GALLOP_PAYOFF || count2 >= GALLOP_PAYOFF) {
+        if (gallopAfter > 1) {
+          gallopAfter--;
+        }
+      } else {
+        // Galloping didn't pay off; make it harder to start again
+        gallopAfter++;
+        galloping = false;
+        wins1 = 0;
+        wins2 = 0;
+      }
+    }
+    System.arraycopy(right, 0, a, start1, j + 1);
+  }
+
+  /**
+   * Get scratch space for at least {@code length} elements, growing it geometrically (but never
+   * beyond half the segment being sorted, which is the most a merge needs) if it is too small.
+   */
+  private int[] scratch(int length) {
+    if (buffer.length < length) {
+      buffer = new int[Math.max(length, Math.min(2 * buffer.length, n >>> 1))];
+      if (null != metrics) {
+        metrics.scratchBytes += 4L * buffer.length;
+      }
+    }
+    return buffer;
+  }
+
+  /**
+   * The instrumented version of {@link #sort(int[], int, int)}, which records its comparisons,
+   * swaps, moves and scratch space in {@code metrics}. The sort doesn't recurse, so the depth
+   * recorded is one.
+   */
+  static void sort(int[] a, int lo, int hi, SortMetrics metrics) {
+    int n = hi - lo;
+    metrics.depth(1);
+    if (n <= SortingNetworks.MAX_SIZE) {
+      SortingNetworks.sort(a, lo, hi, metrics);
+      return;
+    }
+
+    TimSort ts = new TimSort(a, lo, n, metrics);
+    int minRun = minRunLength(n);
+    int start = lo;
+    while (start < hi) {
+      int end = nextRun(a, start, hi, metrics);
+      if (end - start < minRun) {
+        int extended = hi - start <= minRun ? hi : start + minRun;
+        binaryInsertionSort(a, start, extended, end, metrics);
+        end = extended;
+      }
+      ts.addRun(start, end);
+      start = end;
+    }
+    ts.mergeAll();
+  }
+
+  private static int nextRun(int[] a, int start, int hi, SortMetrics metrics) {
+    int end = start + 1;
+    if (end == hi) {
+      return end;
+    }
+    long comparisons = 1;
+    if (a[end] < a[start]) {
+      end++;
+      while (end < hi) {
+        comparisons++;
+        if (a[end] >= a[end - 1]) {
+          break;
+        }
+        end++;
+      }
+      for (int i = start, j = end - 1; i < j; i++, j--) {
+        int t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+      }
+      metrics.swaps += (end - start) >>> 1;
+    } else {
+      end++;
+      while (end < hi) {
+        comparisons++;
+        if (a[end] < a[end - 1]) {
+          break;
+        }
+        end++;
+      }
+    }
+    metrics.comparisons += comparisons;
+    return end;
+  }
+
+  private static void binaryInsertionSort(int[] a, int start, int end, int sorted,
+      SortMetrics metrics) {
+    for (int i = sorted; i < end; i++) {
+      int v = a[i];
+      int left = start;
+      int right = i;
+      while (left < right) {
+        int mid = (left + right) >>> 1;
+        metrics.comparisons++;
+        if (a[mid] <= v) {
+          left = mid + 1;
+        } else {
+          right = mid;
+        }
+      }
+
+      System.arraycopy(a, left, a, left + 1, i - left);
+      a[left] = v;
+      metrics.moves += i - left + 1;
+    }
+  }
+
+  private void merge(int start1, int start2, int end2, SortMetrics metrics) {
+    start1 += countFromLeft(a, start1, start2, a[start2], true, metrics);
+    if (start1 == start2) {
+      return;
+    }
+    end2 -= countFromRight(a, start2, end2, a[start2 - 1], true, metrics);
+    if (end2 == start2) {
+      return;
+    }
+
+    if (start2 - start1 <= end2 - start2) {
+      mergeForward(start1, start2, end2, metrics);
+    } else {
+      mergeBackward(start1, start2, end2, metrics);
+    }
+  }
+
+  private static int countFromLeft(int[] x, int from, int to, int key, boolean inclusive,
+      SortMetrics metrics) {
+    int length = to - from;
+    int low = 0;
+    int high = length;
+    int probe = 1;
+    long comparisons = 0;
+    while (low < length) {
+      int v = x[from + probe - 1];
+      comparisons++;
+      if (v < key || (inclusive && v == key)) {
+        low = probe;
+        probe = probe <= (length >>> 1) ? probe << 1 : length;
+      } else {
+        high = probe - 1;
+        break;
+      }
+    }
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      int v = x[from + mid - 1];
+      comparisons++;
+      if (v < key || (inclusive && v == key)) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    metrics.comparisons += comparisons;
+    return low;
+  }
+
+  private static int countFromRight(int[] x, int from, int to, int key, boolean inclusive,
+      SortMetrics metrics) {
+    int length = to - from;
+    int low = 0;
+    int high = length;
+    int probe = 1;
+    long comparisons = 0;
+    while (low < length) {
+      int v = x[to - probe];
+      comparisons++;
+      if (v > key || (inclusive && v == key)) {
+        low = probe;
+        probe = probe <= (length >>> 1) ? probe << 1 : length;
+      } else {
+        high = probe - 1;
+        break;
+      }
+    }
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      int v = x[to - mid];
+      comparisons++;
+      if (v > key || (inclusive && v == key)) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    metrics.comparisons += comparisons;
+    return low;
+  }
+
+  private void mergeForward(int start1, int start2, int end2, SortMetrics metrics) {
+    int[] a = this.a;
+    int length1 = start2 - start1;
+    int[] left = scratch(length1);
+    System.arraycopy(a, start1, left, 0, length1);
+    metrics.moves += length1;
+
+    int i = 0;
+    int j = start2;
+    int dest = start1;
+    int wins1 = 0;
+    int wins2 = 0;
+    boolean galloping = false;
+    while (j < end2) {
+      if (!galloping) {
+        metrics.comparisons++;
+        if (a[j] < left[i]) {
+          a[dest++] = a[j++];
+          wins2++;
+          wins1 = 0;
+        } else {
+          a[dest++] = left[i++];
+          wins1++;
+          wins2 = 0;
+        }
+        metrics.moves++;
+        galloping = wins1 >= gallopAfter || wins2 >= gallopAfter;
+        continue;
+      }
+
+      int count1 = countFromLeft(left, i, length1, a[j], true, metrics);
+      System.arraycopy(left, i, a, dest, count1);
+      i += count1;
+      dest += count1;
+      a[dest++] = a[j++];
+      metrics.moves += count1 + 1;
+
+      int count2 = 0;
+      if (j < end2) {
+        count2 = countFromLeft(a, j, end2, left[i], false, metrics);
+        System.arraycopy(a, j, a, dest, count2);
+        j += count2;
+        dest += count2;
+        a[dest++] = left[i++];
+        metrics.moves += count2 + 1;
+      }
+
+      if (count1 >= GALLOP_PAYOFF || count2 >= GALLOP_PAYOFF) {
+        if (gallopAfter > 1) {
+          gallopAfter--;
+        }
+      } else {
+        gallopAfter++;
+        galloping = false;
+        wins1 = 0;
+        wins2 = 0;
+      }
+    }
+    System.arraycopy(left, i, a, dest, length1 - i);
+    metrics.moves += length1 - i;
+  }
+
+  private void mergeBackward(int start1, int start2, int end2, SortMetrics metrics) {
+    int[] a = this.a;
+    int length2 = end2 - start2;
+    int[] right = scratch(length2);
+    System.arraycopy(a, start2, right, 0, length2);
+    metrics.moves += length2;
+
+    int i = start2 - 1;
+    int j = length2 - 1;
+    int dest = end2 - 1;
+    int wins1 = 0;
+    int wins2 = 0;
+    boolean galloping = false;
+    while (i >= start1) {
+      if (!galloping) {
+        metrics.comparisons++;
+        if (right[j] < a[i]) {
+          a[dest--] = a[i--];
+          wins1++;
+          wins2 = 0;
+        } else {
+          a[dest--] = right[j--];
+          wins2++;
+          wins1 = 0;
+        }
+        metrics.moves++;
+        galloping = wins1 >= gallopAfter || wins2 >= gallopAfter;
+        continue;
+      }
+
+      int count1 = countFromRight(a, start1, i + 1, right[j], false, metrics);
+      System.arraycopy(a, i + 1 - count1, a, dest + 1 - count1, count1);
+      i -= count1;
+      dest -= count1;
+      a[dest--] = right[j--];
+      metrics.moves += count1 + 1;
+
+      int count2 = 0;
+      if (i >= start1) {
+        count2 = countFromRight(right, 0, j + 1, a[i], true, metrics);
+        System.arraycopy(right, j + 1 - count2, a, dest + 1 - count2, count2);
+        j -= count2;
+        dest -= count2;
+        a[dest--] = a[i--];
+        metrics.moves += count2 + 1;
+      }
+
+      if (count1 >= GALLOP_PAYOFF || count2 >= GALLOP_PAYOFF) {
+        if (gallopAfter > 1) {
+          gallopAfter--;
+        }
+      } else {
+        gallopAfter++;
+        galloping = false;
+        wins1 = 0;
+        wins2 = 0;
+      }
+    }
+    System.arraycopy(right, 0, a, start1, j + 1);
+    metrics.moves += j + 1;
+  }
+
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2009, The Algorithm Study Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright notice,
+ *       this list of conditions and the following disclaimer in the documentation
+ *       and/or other materials provided with the distribution.
+ *     * Neither the name of the Algorithm Study Project, algorithmstudy.com, nor
+ *       the names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+package com.algorithmstudy.sort;
+
+/**
+ * {@code VectorSort} sorts {@code int[]}s and {@code long[]}s with SIMD instructions through the
+ * JDK's incubating Vector API ({@code jdk.incubator.vector}). The vectorized sort is a quick sort:
+ * <ul>
+ * <li>the top levels partition a whole vector of elements at a time, using a lookup table of
+ * shuffles that pack the lanes which are less than the pivot to the front of the vector</li>
+ * <li>segments of at most eight vectors are padded to a power of two and sorted with a bitonic
+ * sorting network which runs in the vector registers, with lane permutations for the compare
+ * exchanges within a vector and element-wise {@code min}/{@code max} between vectors</li>
+ * </ul>
+ * As in {@link IntroSort}, a segment which is still being partitioned after {@code 2 lg(n)} levels
+ * is handed to {@link HeapSort}, so the worst case is {@code O(n lg(n))}. The partitioning uses a
+ * scratch array of {@code n} elements. <br>
+ * <br>
+ * The Vector API is opt-in. Its kernel lives in {@code src/main/vector} and is only compiled by
+ * the {@code vector} Maven profile ({@code mvn -Pvector package}, which needs JDK 17 or later),
+ * and it is only usable when the JVM runs with {@code --add-modules jdk.incubator.vector}. When
+ * either is missing, {@code VectorSort} falls back to {@link IntroSort} for {@code int[]}s and
+ * {@link MergeSort} for {@code long[]}s; {@link #isVectorized()} tells which path is taken.
+ */
+public class VectorSort {
+
+  // The name of the class implementing the kernel, compiled from src/main/vector
+  private static final String KERNEL_CLASS = "com.algorithmstudy.sort.IncubatorVectorSortKernel";
+
+  // The SIMD kernel, or null if it is not available
+  private static final VectorSortKernel KERNEL = loadKernel();
+
+  /**
+   * Whether the SIMD kernel is available, i.e. whether it was compiled in and the
+   * {@code jdk.incubator.vector} module is present at run time.
+   * 
+   * @return {@code true} if the sorts are vectorized, {@code false} if they fall back to the scalar
+   *         sorts.
+   */
+  public static boolean isVectorized() {
+    return null != KERNEL;
+  }
+
+  /**
+   * Sort an {@code int[]} using the vectorized quick sort.
+   * 
+   * @param a
+   *          The {@code int[]} to sort.
+   */
+  public static void vectorSort(int[] a) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array.");
+    }
+    sort(a, 0, a.length);
+  }
+
+  /**
+   * Sort the range {@code [fromIndex, toIndex)} of an {@code int[]} using the vectorized quick
+   * sort. The elements outside the range are not touched.
+   * 
+   * @param a
+   *          The {@code int[]} to sort.
+   * @param fromIndex
+   *          The index of the first element to sort.
+   * @param toIndex
+   *          One greater than the index of the last element to sort.
+   * @throws IllegalArgumentException
+   *           if {@code fromIndex > toIndex}.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code fromIndex < 0} or {@code toIndex > a.length}.
+   */
+  public static void vectorSort(int[] a, int fromIndex, int toIndex) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array.");
+    }
+    RangeCheck.check(a.length, fromIndex, toIndex);
+    sort(a, fromIndex, toIndex);
+  }
+
+  /**
+   * Sort a {@code long[]} using the vectorized quick sort.
+   * 
+   * @param a
+   *          The {@code long[]} to sort.
+   */
+  public static void vectorSort(long[] a) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array.");
+    }
+    sort(a, 0, a.length);
+  }
+
+  /**
+   * Sort the range {@code [fromIndex, toIndex)} of a {@code long[]} using the vectorized quick
+   * sort. The elements outside the range are not touched.
+   * 
+   * @param a
+   *          The {@code long[]} to sort.
+   * @param fromIndex
+   *          The index of the first element to sort.
+   * @param toIndex
+   *          One greater than the index of the last element to sort.
+   * @throws IllegalArgumentException
+   *           if {@code fromIndex > toIndex}.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code fromIndex < 0} or {@code toIndex > a.length}.
+   */
+  public static void vectorSort(long[] a, int fromIndex, int toIndex) {
+    if (null == a) {
+      throw new NullPointerException("Can't sort a null array.");
+    }
+    RangeCheck.check(a.length, fromIndex, toIndex);
+    sort(a, fromIndex, toIndex);
+  }
+
+  private static void sort(int[] a, int l, int r) {
+    if (null != KERNEL) {
+      KERNEL.sort(a, l, r);
+    } else {
+      IntroSort.sort(a, l, r);
+    }
+  }
+
+  private static void sort(long[] a, int l, int r) {
+    if (null != KERNEL) {
+      KERNEL.sort(a, l, r);
+    } else if (r - l > 1) {
+      MergeSort.mergeSort(a, l, r, new long[r - l]);
+    }
+  }
+
+  /**
+   * Load the SIMD kernel.
+   * 
+   * @return The kernel, or {@code null} if it wasn't compiled in or the
+   *         {@code jdk.incubator.vector} module isn't available.
+   */
+  private static VectorSortKernel loadKernel() {
+    try {
+      Class<?> c = Class.forName(KERNEL_CLASS);
+      return (VectorSortKernel) c.getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException e) {
+      return null;
+    } catch (LinkageError e) {
+      // The kernel was compiled in but the module is missing at run time
+      return null;
+    }
+  }
+
+}
@@ -0,0 +1,467 @@
+/*
+ * Copyright (c) 2009, The Algorithm Study Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright notice,
+ *       this list of conditions and the following disclaimer in the documentation
+ *       and/or other materials provided with the distribution.
+ *     * Neither the name of the Algorithm Study Project, algorithmstudy.com, nor
+ *       the names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+package com.algorithmstudy.sort;
+
+import java.util.Arrays;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@code IncubatorVectorSortKernel} implements {@link VectorSort}'s SIMD quick sort with the
+ * incubating Vector API. It is compiled only by the {@code vector} Maven profile, and is loaded
+ * reflectively so that the rest of the package doesn't depend on the {@code jdk.incubator.vector}
+ * module. <br>
+ * <br>
+ * The species are the preferred ones of the platform, capped at eight lanes so that the tables of
+ * packing shuffles, which have one entry per lane mask, stay at 256 entries.
+ */
+class IncubatorVectorSortKernel implements VectorSortKernel {
+
+  private static final VectorSpecies<Integer> INT_SPECIES =
+      IntVector.SPECIES_PREFERRED.length() <= 8 ? IntVector.SPECIES_PREFERRED
+          : IntVector.SPECIES_256;
+
+  private static final VectorSpecies<Long> LONG_SPECIES =
+      LongVector.SPECIES_PREFERRED.length() <= 8 ? LongVector.SPECIES_PREFERRED
+          : LongVector.SPECIES_512;
+
+  // Segments of at most this many elements (eight vectors) are sorted by the bitonic network
+  private static final int INT_BLOCK_SIZE = 8 * INT_SPECIES.length();
+
+  private static final int LONG_BLOCK_SIZE = 8 * LONG_SPECIES.length();
+
+  // For each lane mask, the shuffle which packs the set lanes, in order, to the front
+  private static final VectorShuffle<Integer>[] INT_PACK = packShuffles(INT_SPECIES);
+
+  private static final VectorShuffle<Long>[] LONG_PACK = packShuffles(LONG_SPECIES);
+
+  // For each j = 2^b, the shuffle which swaps each lane with lane i ^ j
+  private static final VectorShuffle<Integer>[] INT_PARTNER = partnerShuffles(INT_SPECIES);
+
+  private static final VectorShuffle<Long>[] LONG_PARTNER = partnerShuffles(LONG_SPECIES);
+
+  // For each j = 2^b, the lanes i with i & j set, and with it clear
+  private static final VectorMask<Integer>[] INT_LANE_BIT = laneBitMasks(INT_SPECIES, false);
+
+  private static final VectorMask<Integer>[] INT_LANE_BIT_CLEAR = laneBitMasks(INT_SPECIES, true);
+
+  private static final VectorMask<Long>[] LONG_LANE_BIT = laneBitMasks(LONG_SPECIES, false);
+
+  private static final VectorMask<Long>[] LONG_LANE_BIT_CLEAR = laneBitMasks(LONG_SPECIES, true);
+
+  // For j = 2^jb and k = 2^kb both less than the vector length, the lanes that take the larger
+  // element of a compare-exchange: those in the upper half of their pair in an ascending run of k,
+  // or in the lower half in a descending one
+  private static final VectorMask<Integer>[][] INT_TAKE_MAX = takeMaxMasks(INT_SPECIES);
+
+  private static final VectorMask<Long>[][] LONG_TAKE_MAX = takeMaxMasks(LONG_SPECIES);
+
+  /**
+   * Sort the segment {@code [l, r)} of {@code a}: partition it with {@link #partition(int[], int,
+   * int, int, boolean, int[])} until the segments are small enough for
+   * {@link #blockSort(int[], int, int, int[])}.
+   */
+  @Override
+  public void sort(int[] a, int l, int r) {
+    int n = r - l;
+    if (n < 2) {
+      return;
+    }
+    int[] scratch = new int[n];
+    int[] block = new int[INT_BLOCK_SIZE];
+    int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(n));
+    sortR(a, l, r, depthLimit, scratch, block);
+  }
+
+  private static void sortR(int[] a, int l, int r, int depthLimit, int[] scratch,
+      int[] block) {
+    while (r - l > INT_BLOCK_SIZE) {
+      if (0 == depthLimit) {
+        HeapSort.sort(a, l, r);
+        return;
+      }
+      depthLimit--;
+
+      int x = a[IntroSort.choosePivot(a, l, r)];
+      int m = partition(a, l, r, x, false, scratch);
+      if (m == l) {
+        // Nothing is less than the pivot, so split off the elements equal to it
+        l = partition(a, l, r, x, true, scratch);
+        continue;
+      }
+      if (m - l < r - m) {
+        sortR(a, l, m, depthLimit, scratch, block);
+        l = m;
+      } else {
+        sortR(a, m, r, depthLimit, scratch, block);
+        r = m;
+      }
+    }
+    blockSort(a, l, r, block);
+  }
+
+  /**
+   * Partition the segment {@code [l, r)} of {@code a} around {@code x}, a vector at a time. The
+   * lanes of each vector which belong on the left are packed to its front by a shuffle from
+   * {@code INT_PACK} and stored at the left end of the segment, which never overtakes the
+   * vectors still to be read; the remaining lanes are packed and stored in {@code scratch}, which
+   * is copied back behind the left side at the end.
+   * 
+   * @param inclusive
+   *          Whether elements equal to {@code x} go to the left side.
+   * @return The index of the first element of the right side.
+   */
+  private static int partition(int[] a, int l, int r, int x, boolean inclusive,
+      int[] scratch) {
+    VectorOperators.Comparison op = inclusive ? VectorOperators.LE : VectorOperators.LT;
+    int lanes = INT_SPECIES.length();
+    int all = (1 << lanes) - 1;
+    int w = l;
+    int s = 0;
+    int i = l;
+    for (int bound = l + INT_SPECIES.loopBound(r - l); i < bound; i += lanes) {
+      IntVector v = IntVector.fromArray(INT_SPECIES, a, i);
+      int bits = (int) v.compare(op, x).toLong();
+      int count = Integer.bitCount(bits);
+      v.rearrange(INT_PACK[bits]).intoArray(a, w);
+      v.rearrange(INT_PACK[~bits & all]).intoArray(scratch, s);
+      w += count;
+      s += lanes - count;
+    }
+    for (; i < r; i++) {
+      int y = a[i];
+      if (y < x || (inclusive && y == x)) {
+        a[w++] = y;
+      } else {
+        scratch[s++] = y;
+      }
+    }
+    System.arraycopy(scratch, 0, a, w, s);
+    return w;
+  }
+
+  /**
+   * Sort the segment {@code [l, r)} of {@code a}, which holds at most {@code INT_BLOCK_SIZE}
+   * elements, by copying it into {@code block}, padding it with {@code Integer.MAX_VALUE} to a
+   * power of two of at least one vector, and running a bitonic sorting network over it.
+   */
+  private static void blockSort(int[] a, int l, int r, int[] block) {
+    int n = r - l;
+    if (n < 2) {
+      return;
+    }
+    int lanes = INT_SPECIES.length();
+    int size = lanes;
+    while (size < n) {
+      size <<= 1;
+    }
+    System.arraycopy(a, l, block, 0, n);
+    Arrays.fill(block, n, size, Integer.MAX_VALUE);
+
+    for (int k = 2; k <= size; k <<= 1) {
+      for (int j = k >>> 1; j > 0; j >>>= 1) {
+        if (j >= lanes) {
+          // Compare-exchange whole vectors
+          for (int p = 0; p < size; p += lanes) {
+            int q = p ^ j;
+            if (q > p) {
+              IntVector u = IntVector.fromArray(INT_SPECIES, block, p);
+              IntVector v = IntVector.fromArray(INT_SPECIES, block, q);
+              IntVector min = u.min(v);
+              IntVector max = u.max(v);
+              if (0 == (p & k)) {
+                min.intoArray(block, p);
+                max.intoArray(block, q);
+              } else {
+                max.intoArray(block, p);
+                min.intoArray(block, q);
+              }
+            }
+          }
+        } else {
+          // Compare-exchange the lanes of each vector with their partners j lanes away
+          int jb = Integer.numberOfTrailingZeros(j);
+          for (int p = 0; p < size; p += lanes) {
+            VectorMask<Integer> takeMax;
+            if (k < lanes) {
+              takeMax = INT_TAKE_MAX[jb][Integer.numberOfTrailingZeros(k)];
+            } else if (0 == (p & k)) {
+              takeMax = INT_LANE_BIT[jb];
+            } else {
+              takeMax = INT_LANE_BIT_CLEAR[jb];
+            }
+            IntVector u = IntVector.fromArray(INT_SPECIES, block, p);
+            IntVector v = u.rearrange(INT_PARTNER[jb]);
+            u.min(v).blend(u.max(v), takeMax).intoArray(block, p);
+          }
+        }
+      }
+    }
+    System.arraycopy(block, 0, a, l, n);
+  }
+
+  /**
+   * Sort the segment {@code [l, r)} of {@code a}: partition it with {@link #partition(long[], int,
+   * int, long, boolean, long[])} until the segments are small enough for
+   * {@link #blockSort(long[], int, int, long[])}.
+   */
+  @Override
+  public void sort(long[] a, int l, int r) {
+    int n = r - l;
+    if (n < 2) {
+      return;
+    }
+    long[] scratch = new long[n];
+    long[] block = new long[LONG_BLOCK_SIZE];
+    int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(n));
+    sortR(a, l, r, depthLimit, scratch, block);
+  }
+
+  private static void sortR(long[] a, int l, int r, int depthLimit, long[] scratch,
+      long[] block) {
+    while (r - l > LONG_BLOCK_SIZE) {
+      if (0 == depthLimit) {
+        HeapSort.sort(a, l, r);
+        return;
+      }
+      depthLimit--;
+
+      long x = a[choosePivot(a, l, r)];
+      int m = partition(a, l, r, x, false, scratch);
+      if (m == l) {
+        // Nothing is less than the pivot, so split off the elements equal to it
+        l = partition(a, l, r, x, true, scratch);
+        continue;
+      }
+      if (m - l < r - m) {
+        sortR(a, l, m, depthLimit, scratch, block);
+        l = m;
+      } else {
+        sortR(a, m, r, depthLimit, scratch, block);
+        r = m;
+      }
+    }
+    blockSort(a, l, r, block);
+  }
+
+  /**
+   * Partition the segment {@code [l, r)} of {@code a} around {@code x}, a vector at a time. The
+   * lanes of each vector which belong on the left are packed to its front by a shuffle from
+   * {@code LONG_PACK} and stored at the left end of the segment, which never overtakes the
+   * vectors still to be read; the remaining lanes are packed and stored in {@code scratch}, which
+   * is copied back behind the left side at the end.
+   * 
+   * @param inclusive
+   *          Whether elements equal to {@code x} go to the left side.
+   * @return The index of the first element of the right side.
+   */
+  private static int partition(long[] a, int l, int r, long x, boolean inclusive,
+      long[] scratch) {
+    VectorOperators.Comparison op = inclusive ? VectorOperators.LE : VectorOperators.LT;
+    int lanes = LONG_SPECIES.length();
+    int all = (1 << lanes) - 1;
+    int w = l;
+    int s = 0;
+    int i = l;
+    for (int bound = l + LONG_SPECIES.loopBound(r - l); i < bound; i += lanes) {
+      LongVector v = LongVector.fromArray(LONG_SPECIES, a, i);
+      int bits = (int) v.compare(op, x).toLong();
+      int count = Integer.bitCount(bits);
+      v.rearrange(LONG_PACK[bits]).intoArray(a, w);
+      v.rearrange(LONG_PACK[~bits & all]).intoArray(scratch, s);
+      w += count;
+      s += lanes - count;
+    }
+    for (; i < r; i++) {
+      long y = a[i];
+      if (y < x || (inclusive && y == x)) {
+        a[w++] = y;
+      } else {
+        scratch[s++] = y;
+      }
+    }
+    System.arraycopy(scratch, 0, a, w, s);
+    return w;
+  }
+
+  /**
+   * Sort the segment {@code [l, r)} of {@code a}, which holds at most {@code LONG_BLOCK_SIZE}
+   * elements, by copying it into {@code block}, padding it with {@code Long.MAX_VALUE} to a power
+   * of two of at least one vector, and running a bitonic sorting network over it.
+   */
+  private static void blockSort(long[] a, int l, int r, long[] block) {
+    int n = r - l;
+    if (n < 2) {
+      return;
+    }
+    int lanes = LONG_SPECIES.length();
+    int size = lanes;
+    while (size < n) {
+      size <<= 1;
+    }
+    System.arraycopy(a, l, block, 0, n);
+    Arrays.fill(block, n, size, Long.MAX_VALUE);
+
+    for (int k = 2; k <= size; k <<= 1) {
+      for (int j = k >>> 1; j > 0; j >>>= 1) {
+        if (j >= lanes) {
+          // Compare-exchange whole vectors
+          for (int p = 0; p < size; p += lanes) {
+            int q = p ^ j;
+            if (q > p) {
+              LongVector u = LongVector.fromArray(LONG_SPECIES, block, p);
+              LongVector v = LongVector.fromArray(LONG_SPECIES, block, q);
+              LongVector min = u.min(v);
+              LongVector max = u.max(v);
+              if (0 == (p & k)) {
+                min.intoArray(block, p);
+                max.intoArray(block, q);
+              } else {
+                max.intoArray(block, p);
+                min.intoArray(block, q);
+              }
+            }
+          }
+        } else {
+          // Compare-exchange the lanes of each vector with their partners j lanes away
+          int jb = Integer.numberOfTrailingZeros(j);
+          for (int p = 0; p < size; p += lanes) {
+            VectorMask<Long> takeMax;
+            if (k < lanes) {
+              takeMax = LONG_TAKE_MAX[jb][Integer.numberOfTrailingZeros(k)];
+            } else if (0 == (p & k)) {
+              takeMax = LONG_LANE_BIT[jb];
+            } else {
+              takeMax = LONG_LANE_BIT_CLEAR[jb];
+            }
+            LongVector u = LongVector.fromArray(LONG_SPECIES, block, p);
+            LongVector v = u.rearrange(LONG_PARTNER[jb]);
+            u.min(v).blend(u.max(v), takeMax).intoArray(block, p);
+          }
+        }
+      }
+    }
+    System.arraycopy(block, 0, a, l, n);
+  }
+
+  /**
+   * Choose the index of the pivot for the segment {@code [l, r)} of {@code a}: the median of the
+   * first, middle and last elements.
+   */
+  private static int choosePivot(long[] a, int l, int r) {
+    int i = l;
+    int j = l + ((r - l) >>> 1);
+    int k = r - 1;
+    if (a[i] < a[j]) {
+      return a[j] < a[k] ? j : (a[i] < a[k] ? k : i);
+    }
+    return a[k] < a[j] ? j : (a[k] < a[i] ? k : i);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <E> VectorShuffle<E>[] packShuffles(VectorSpecies<E> species) {
+    int lanes = species.length();
+    VectorShuffle<E>[] shuffles = new VectorShuffle[1 << lanes];
+    int[] order = new int[lanes];
+    for (int bits = 0; bits < shuffles.length; bits++) {
+      int n = 0;
+      for (int i = 0; i < lanes; i++) {
+        if (0 != (bits & (1 << i))) {
+          order[n++] = i;
+        }
+      }
+      for (int i = 0; i < lanes; i++) {
+        if (0 == (bits & (1 << i))) {
+          order[n++] = i;
+        }
+      }
+      shuffles[bits] = VectorShuffle.fromArray(species, order, 0);
+    }
+    return shuffles;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <E> VectorShuffle<E>[] partnerShuffles(VectorSpecies<E> species) {
+    int bits = Integer.numberOfTrailingZeros(species.length());
+    VectorShuffle<E>[] shuffles = new VectorShuffle[bits];
+    for (int b = 0; b < bits; b++) {
+      final int j = 1 << b;
+      shuffles[b] = VectorShuffle.fromOp(species, i -> i ^ j);
+    }
+    return shuffles;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <E> VectorMask<E>[] laneBitMasks(VectorSpecies<E> species, boolean clear) {
+    int bits = Integer.numberOfTrailingZeros(species.length());
+    VectorMask<E>[] masks = new VectorMask[bits];
+    for (int b = 0; b < bits; b++) {
+      masks[b] = VectorMask.fromLong(species, laneBits(species.length(), b, -1, clear));
+    }
+    return masks;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <E> VectorMask<E>[][] takeMaxMasks(VectorSpecies<E> species) {
+    int bits = Integer.numberOfTrailingZeros(species.length());
+    VectorMask<E>[][] masks = new VectorMask[bits][bits];
+    for (int jb = 0; jb < bits; jb++) {
+      for (int kb = jb + 1; kb < bits; kb++) {
+        masks[jb][kb] = VectorMask.fromLong(species, laneBits(species.length(), jb, kb, false));
+      }
+    }
+    return masks;
+  }
+
+  /**
+   * The lanes {@code i} for which bit {@code jb} of {@code i} is set (or clear, if {@code clear}),
+   * flipped for the lanes with bit {@code kb} set when {@code kb} isn't negative.
+   */
+  private static long laneBits(int lanes, int jb, int kb, boolean clear) {
+    long mask = 0;
+    for (int i = 0; i < lanes; i++) {
+      boolean set = 0 != (i & (1 << jb));
+      if (clear) {
+        set = !set;
+      }
+      if (kb >= 0 && 0 != (i & (1 << kb))) {
+        set = !set;
+      }
+      if (set) {
+        mask |= 1L << i;
+      }
+    }
+    return mask;
+  }
+
+}
@@ -35,6 +35,34 @@ import org.junit.Test;
 
 public class TestSinglyLinkedList extends TestCase {
 
+  @Test
+  public void testSort() {
+    SinglyLinkedList<String> l = new SinglyLinkedList<String>();
+    try {
+      l.sort(null);
+      fail();
+    } catch (NullPointerException e) {
+    }
+    l.sort(String.CASE_INSENSITIVE_ORDER);
+    assertEquals(0, l.size());
+
+    l.append("b");
+    l.sort(String.CASE_INSENSITIVE_ORDER);
+    assertEquals("b", l.get(0));
+
+    // "A" and "a" compare as equal and must keep their order
+    String[] values = { "d", "A", "c", "b", "a", "B", "e" };
+    for (String v : values) {
+      l.append(v);
+    }
+    l.sort(String.CASE_INSENSITIVE_ORDER);
+    String[] expected = { "A", "a", "b", "b", "B", "c", "d", "e" };
+    assertEquals(expected.length, l.size());
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(expected[i], l.get(i));
+    }
+  }
+
   @Test
   public void testSinglyLinkedList() {
 
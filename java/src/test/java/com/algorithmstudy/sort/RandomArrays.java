@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2009, The Algorithm Study Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright notice,
+ *       this list of conditions and the following disclaimer in the documentation
+ *       and/or other materials provided with the distribution.
+ *     * Neither the name of the Algorithm Study Project, algorithmstudy.com, nor
+ *       the names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+package com.algorithmstudy.sort;
+
+import java.util.Random;
+
+/**
+ * Builds random arrays of each primitive type for the sort tests. The arrays contain duplicates and
+ * the extreme values of each type; the floating point arrays also contain {@code NaN}s, infinities
+ * and both zeros.
+ */
+class RandomArrays {
+
+  private RandomArrays() {
+  }
+
+  static int[] ints(Random random, int size) {
+    int[] a = new int[size];
+    for (int i = 0; i < size; i++) {
+      a[i] = random.nextInt();
+    }
+    return a;
+  }
+
+  static long[] longs(Random random, int size) {
+    long[] a = new long[size];
+    for (int i = 0; i < size; i++) {
+      switch (random.nextInt(8)) {
+      case 0:
+        a[i] = Long.MIN_VALUE;
+        break;
+      case 1:
+        a[i] = Long.MAX_VALUE;
+        break;
+      case 2:
+        a[i] = random.nextInt(5);
+        break;
+      default:
+        a[i] = random.nextLong();
+      }
+    }
+    return a;
+  }
+
+  static double[] doubles(Random random, int size) {
+    double[] a = new double[size];
+    for (int i = 0; i < size; i++) {
+      switch (random.nextInt(10)) {
+      case 0:
+        a[i] = Double.NaN;
+        break;
+      case 1:
+        a[i] = -0.0d;
+        break;
+      case 2:
+        a[i] = 0.0d;
+        break;
+      case 3:
+        a[i] = random.nextBoolean() ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        break;
+      case 4:
+        a[i] = random.nextBoolean() ? -Double.MAX_VALUE : Double.MIN_VALUE;
+        break;
+      default:
+        a[i] = random.nextGaussian() * 100;
+      }
+    }
+    return a;
+  }
+
+  static float[] floats(Random random, int size) {
+    float[] a = new float[size];
+    for (int i = 0; i < size; i++) {
+      switch (random.nextInt(10)) {
+      case 0:
+        a[i] = Float.NaN;
+        break;
+      case 1:
+        a[i] = -0.0f;
+        break;
+      case 2:
+        a[i] = 0.0f;
+        break;
+      case 3:
+        a[i] = random.nextBoolean() ? Float.NEGATIVE_INFINITY : Float.POSITIVE_INFINITY;
+        break;
+      case 4:
+        a[i] = random.nextBoolean() ? -Float.MAX_VALUE : Float.MIN_VALUE;
+        break;
+      default:
+        a[i] = (float) random.nextGaussian() * 100;
+      }
+    }
+    return a;
+  }
+
+  static short[] shorts(Random random, int size) {
+    short[] a = new short[size];
+    for (int i = 0; i < size; i++) {
+      a[i] = (short) random.nextInt();
+    }
+    return a;
+  }
+
+  static char[] chars(Random random, int size) {
+    char[] a = new char[size];
+    for (int i = 0; i < size; i++) {
+      a[i] = (char) random.nextInt();
+    }
+    return a;
+  }
+
+  static byte[] bytes(Random random, int size) {
+    byte[] a = new byte[size];
+    for (int i = 0; i < size; i++) {
+      a[i] = (byte) random.nextInt();
+    }
+    return a;
+  }
+
+}
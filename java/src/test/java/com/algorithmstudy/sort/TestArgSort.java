@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2009, The Algorithm Study Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright notice,
+ *       this list of conditions and the following disclaimer in the documentation
+ *       and/or other materials provided with the distribution.
+ *     * Neither the name of the Algorithm Study Project, algorithmstudy.com, nor
+ *       the names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+package com.algorithmstudy.sort;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+public class TestArgSort extends TestCase {
+
+  @Test
+  public void testArgSortInts() {
+    try {
+      ArgSort.argSort((int[]) null);
+      fail();
+    } catch (NullPointerException e) {
+    }
+
+    assertEquals(0, ArgSort.argSort(new int[0]).length);
+
+    int[] keys = { 5, -3, 5, Integer.MIN_VALUE, 0, Integer.MAX_VALUE, -3 };
+    int[] perm = ArgSort.argSort(keys);
+    assertTrue(Arrays.equals(new int[] { 3, 1, 6, 4, 0, 2, 5 }, perm));
+
+    Random random = new Random(59);
+    for (int size = 1; size <= 100000; size *= 10) {
+      keys = new int[size];
+      for (int i = 0; i < size; i++) {
+        keys[i] = random.nextInt(size);
+      }
+      int[] original = keys.clone();
+      perm = ArgSort.argSort(keys);
+      assertTrue(Arrays.equals(original, keys));
+      verifyStablePermutation(keys, perm);
+    }
+  }
+
+  @Test
+  public void testArgSortLongs() {
+    try {
+      ArgSort.argSort((long[]) null);
+      fail();
+    } catch (NullPointerException e) {
+    }
+
+    assertEquals(0, ArgSort.argSort(new long[0]).length);
+
+    // the range of these keys is too wide to pack
+    long[] keys = { 5, Long.MIN_VALUE, 5, Long.MAX_VALUE, -3, 0 };
+    int[] perm = ArgSort.argSort(keys);
+    assertTrue(Arrays.equals(new int[] { 1, 4, 5, 0, 2, 3 }, perm));
+
+    Random random = new Random(61);
+    long now = 1700000000000L;
+    for (int size = 1; size <= 100000; size *= 10) {
+      long[] narrow = new long[size];
+      long[] wide = new long[size];
+      for (int i = 0; i < size; i++) {
+        narrow[i] = now + random.nextInt(size);
+        wide[i] = random.nextBoolean() ? random.nextLong() : narrow[i];
+      }
+      verifyStablePermutation(narrow, ArgSort.argSort(narrow));
+      verifyStablePermutation(wide, ArgSort.argSort(wide));
+    }
+  }
+
+  @Test
+  public void testApplyPermutation() {
+    int[] ids = { 30, 10, 20, 10 };
+    long[] scores = { 300L, 100L, 200L, 101L };
+    double[] prices = { 3.0, 1.0, 2.0, 1.1 };
+    char[] grades = { 'c', 'a', 'b', 'A' };
+
+    int[] perm = ArgSort.argSort(ids);
+    int[] permCopy = perm.clone();
+    ArgSort.applyPermutation(perm, ids);
+    ArgSort.applyPermutation(perm, scores);
+    ArgSort.applyPermutation(perm, prices);
+    ArgSort.applyPermutation(perm, grades);
+    assertTrue(Arrays.equals(permCopy, perm));
+    assertTrue(Arrays.equals(new int[] { 10, 10, 20, 30 }, ids));
+    assertTrue(Arrays.equals(new long[] { 100L, 101L, 200L, 300L }, scores));
+    assertTrue(Arrays.equals(new double[] { 1.0, 1.1, 2.0, 3.0 }, prices));
+    assertTrue(Arrays.equals(new char[] { 'a', 'A', 'b', 'c' }, grades));
+
+    Random random = new Random(67);
+    int[] keys = new int[10000];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = random.nextInt();
+    }
+    int[] expected = keys.clone();
+    Arrays.sort(expected);
+    ArgSort.applyPermutation(ArgSort.argSort(keys), keys);
+    assertTrue(Arrays.equals(expected, keys));
+
+    try {
+      ArgSort.applyPermutation(new int[] { 0, 1 }, new byte[3]);
+      fail();
+    } catch (IllegalArgumentException e) {
+    }
+
+    int[] notAPermutation = { 1, 2, 1 };
+    try {
+      ArgSort.applyPermutation(notAPermutation, new short[3]);
+      fail();
+    } catch (IllegalArgumentException e) {
+    }
+    assertTrue(Arrays.equals(new int[] { 1, 2, 1 }, notAPermutation));
+
+    try {
+      ArgSort.applyPermutation(new int[] { 0, 3, 1 }, new float[3]);
+      fail();
+    } catch (IllegalArgumentException e) {
+    }
+  }
+
+  @Test
+  public void testApplyPermutationRejectedLeavesArraysUnchanged() {
+    // the first cycle (0 1 2) is valid; the duplicate only shows up after it
+    int[][] invalid = { { 1, 2, 0, 3, 3 }, { 1, 2, 0, 4, 5 }, { 1, 2, 0, -1, 3 },
+        { 4, 3, 2, 1, 1 } };
+    for (int[] perm : invalid) {
+      int[] permCopy = perm.clone();
+      int[] ints = { 10, 20, 30, 40, 50 };
+      try {
+        ArgSort.applyPermutation(perm, ints);
+        fail();
+      } catch (IllegalArgumentException e) {
+      }
+      assertTrue(Arrays.equals(permCopy, perm));
+      assertTrue(Arrays.equals(new int[] { 10, 20, 30, 40, 50 }, ints));
+
+      long[] longs = { 1L, 2L, 3L, 4L, 5L };
+      try {
+        ArgSort.applyPermutation(perm, longs);
+        fail();
+      } catch (IllegalArgumentException e) {
+      }
+      assertTrue(Arrays.equals(permCopy, perm));
+      assertTrue(Arrays.equals(new long[] { 1L, 2L, 3L, 4L, 5L }, longs));
+
+      double[] doubles = { 1.0, 2.0, 3.0, 4.0, 5.0 };
+      try {
+        ArgSort.applyPermutation(perm, doubles);
+        fail();
+      } catch (IllegalArgumentException e) {
+      }
+      assertTrue(Arrays.equals(permCopy, perm));
+      assertTrue(Arrays.equals(new double[] { 1.0, 2.0, 3.0, 4.0, 5.0 }, doubles));
+
+      float[] floats = { 1f, 2f, 3f, 4f, 5f };
+      try {
+        ArgSort.applyPermutation(perm, floats);
+        fail();
+      } catch (IllegalArgumentException e) {
+      }
+      assertTrue(Arrays.equals(permCopy, perm));
+      assertTrue(Arrays.equals(new float[] { 1f, 2f, 3f, 4f, 5f }, floats));
+
+      short[] shorts = { 1, 2, 3, 4, 5 };
+      try {
+        ArgSort.applyPermutation(perm, shorts);
+        fail();
+      } catch (IllegalArgumentException e) {
+      }
+      assertTrue(Arrays.equals(permCopy, perm));
+      assertTrue(Arrays.equals(new short[] { 1, 2, 3, 4, 5 }, shorts));
+
+      char[] chars = { 'a', 'b', 'c', 'd', 'e' };
+      try {
+        ArgSort.applyPermutation(perm, chars);
+        fail();
+      } catch (IllegalArgumentException e) {
+      }
+      assertTrue(Arrays.equals(permCopy, perm));
+      assertTrue(Arrays.equals(new char[] { 'a', 'b', 'c', 'd', 'e' }, chars));
+
+      byte[] bytes = { 1, 2, 3, 4, 5 };
+      try {
+        ArgSort.applyPermutation(perm, bytes);
+        fail();
+      } catch (IllegalArgumentException e) {
+      }
+      assertTrue(Arrays.equals(permCopy, perm));
+      assertTrue(Arrays.equals(new byte[] { 1, 2, 3, 4, 5 }, bytes));
+    }
+  }
+
+  private void verifyStablePermutation(int[] keys, int[] perm) {
+    assertEquals(keys.length, perm.length);
+    boolean[] seen = new boolean[keys.length];
+    for (int i = 0; i < perm.length; i++) {
+      assertFalse(seen[perm[i]]);
+      seen[perm[i]] = true;
+      if (i > 0) {
+        int prev = keys[perm[i - 1]];
+        int cur = keys[perm[i]];
+        assertTrue(prev < cur || (prev == cur && perm[i - 1] < perm[i]));
+      }
+    }
+  }
+
+  private void verifyStablePermutation(long[] keys, int[] perm) {
+    assertEquals(keys.length, perm.length);
+    boolean[] seen = new boolean[keys.length];
+    for (int i = 0; i < perm.length; i++) {
+      assertFalse(seen[perm[i]]);
+      seen[perm[i]] = true;
+      if (i > 0) {
+        long prev = keys[perm[i - 1]];
+        long cur = keys[perm[i]];
+        assertTrue(prev < cur || (prev == cur && perm[i - 1] < perm[i]));
+      }
+    }
+  }
+
+}
@@ -27,6 +27,9 @@
  */
 package com.algorithmstudy.sort;
 
+import java.util.Arrays;
+import java.util.Random;
+
 import org.junit.Test;
 
 import com.algorithmstudy.sort.BubbleSort;
@@ -38,7 +41,7 @@ public class TestBubbleSort extends TestCase {
   @Test
   public void testBubbleSort() {
     try {
-      BubbleSort.bubbleSort(null);
+      BubbleSort.bubbleSort((int[]) null);
       fail();
     } catch (NullPointerException e) {
     }
@@ -76,6 +79,81 @@ public class TestBubbleSort extends TestCase {
     verifySorted(s);
   }
 
+  @Test
+  public void testOtherPrimitiveTypes() {
+    Random random = new Random(43);
+    int[] sizes = { 0, 1, 2, 10, 100, 1000 };
+    for (int size : sizes) {
+      long[] l = RandomArrays.longs(random, size);
+      long[] le = l.clone();
+      Arrays.sort(le);
+      BubbleSort.bubbleSort(l);
+      assertTrue(Arrays.equals(le, l));
+
+      double[] d = RandomArrays.doubles(random, size);
+      double[] de = d.clone();
+      Arrays.sort(de);
+      BubbleSort.bubbleSort(d);
+      assertTrue(Arrays.equals(de, d));
+
+      float[] f = RandomArrays.floats(random, size);
+      float[] fe = f.clone();
+      Arrays.sort(fe);
+      BubbleSort.bubbleSort(f);
+      assertTrue(Arrays.equals(fe, f));
+
+      short[] s = RandomArrays.shorts(random, size);
+      short[] se = s.clone();
+      Arrays.sort(se);
+      BubbleSort.bubbleSort(s);
+      assertTrue(Arrays.equals(se, s));
+
+      char[] c = RandomArrays.chars(random, size);
+      char[] ce = c.clone();
+      Arrays.sort(ce);
+      BubbleSort.bubbleSort(c);
+      assertTrue(Arrays.equals(ce, c));
+
+      byte[] b = RandomArrays.bytes(random, size);
+      byte[] be = b.clone();
+      Arrays.sort(be);
+      BubbleSort.bubbleSort(b);
+      assertTrue(Arrays.equals(be, b));
+    }
+  }
+
+  @Test
+  public void testBubbleSortRange() {
+    Random random = new Random(61);
+    int[] s = new int[1000];
+    for (int i = 0; i < s.length; i++) {
+      s[i] = random.nextInt();
+    }
+    int[] expected = s.clone();
+    Arrays.sort(expected, 100, 900);
+    BubbleSort.bubbleSort(s, 100, 900);
+    assertTrue(Arrays.equals(expected, s));
+
+    BubbleSort.bubbleSort(s, 500, 500);
+    assertTrue(Arrays.equals(expected, s));
+
+    try {
+      BubbleSort.bubbleSort(s, 2, 1);
+      fail();
+    } catch (IllegalArgumentException e) {
+    }
+    try {
+      BubbleSort.bubbleSort(s, -1, 10);
+      fail();
+    } catch (ArrayIndexOutOfBoundsException e) {
+    }
+    try {
+      BubbleSort.bubbleSort(s, 0, s.length + 1);
+      fail();
+    } catch (ArrayIndexOutOfBoundsException e) {
+    }
+  }
+
   private void verifySorted(int[] s) {
     for (int i = 1; i < s.length; i++) {
       assertTrue("elements are not sorted.  index=[" + i + "]", s[i - 1] <= s[i]);
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2009, The Algorithm Study Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright notice,
+ *       this list of conditions and the following disclaimer in the documentation
+ *       and/or other materials provided with the distribution.
+ *     * Neither the name of the Algorithm Study Project, algorithmstudy.com, nor
+ *       the names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+package com.algorithmstudy.sort;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+public class TestCountingSort extends TestCase {
+
+  @Test
+  public void testCountingSort() {
+    try {
+      CountingSort.countingSort(null);
+      fail();
+    } catch (NullPointerException e) {
+    }
+
+    int[] s = {};
+    CountingSort.countingSort(s);
+    verifySorted(s);
+
+    s = new int[] { 0 };
+    CountingSort.countingSort(s);
+    verifySorted(s);
+
+    s = new int[] { 1, 0 };
+    CountingSort.countingSort(s);
+    verifySorted(s);
+
+    s = new int[] { 10, 10, 8, 9, 7, 3, 4, 5, 6, 2, 1, 0 };
+    CountingSort.countingSort(s);
+    verifySorted(s);
+
+    Random random = new Random(43);
+    int[] sizes = { 17, 100, 10000 };
+    int[] ranges = { 1, 101, 4096, CountingSort.MAX_RANGE, CountingSort.MAX_RANGE + 1 };
+    for (int size : sizes) {
+      for (int range : ranges) {
+        s = new int[size];
+        for (int i = 0; i < size; i++) {
+          s[i] = random.nextInt(range) - range / 2;
+        }
+        s[0] = -(range / 2);
+        s[size - 1] = range - 1 - range / 2;
+        checkCountingSort(s);
+      }
+
+      // the widest range, which is radix sorted
+      s = new int[size];
+      for (int i = 0; i < size; i++) {
+        s[i] = random.nextInt();
+      }
+      s[0] = Integer.MIN_VALUE;
+      s[size - 1] = Integer.MAX_VALUE;
+      checkCountingSort(s);
+    }
+  }
+
+  @Test
+  public void testCountingSortRange() {
+    try {
+      CountingSort.countingSort(null, 0, 0);
+      fail();
+    } catch (NullPointerException e) {
+    }
+
+    int[] s = { 5, 4, 3, 2, 1 };
+    try {
+      CountingSort.countingSort(s, 2, 1);
+      fail();
+    } catch (IllegalArgumentException e) {
+    }
+    try {
+      CountingSort.countingSort(s, -1, 1);
+      fail();
+    } catch (ArrayIndexOutOfBoundsException e) {
+    }
+    try {
+      CountingSort.countingSort(s, 0, 6, 0, 10);
+      fail();
+    } catch (ArrayIndexOutOfBoundsException e) {
+    }
+    try {
+      CountingSort.countingSort(s, 0, 5, 10, 0);
+      fail();
+    } catch (IllegalArgumentException e) {
+    }
+
+    Random random = new Random(44);
+    s = new int[1000];
+    for (int i = 0; i < s.length; i++) {
+      s[i] = 200 + random.nextInt(101);
+    }
+    s[500] = 301;
+    int[] copy = s.clone();
+    try {
+      CountingSort.countingSort(s, 0, s.length, 200, 300);
+      fail();
+    } catch (IllegalArgumentException e) {
+    }
+    assertTrue(Arrays.equals(copy, s));
+
+    // the out of range key is outside the sorted range
+    CountingSort.countingSort(s, 501, 990, 200, 300);
+    Arrays.sort(copy, 501, 990);
+    assertTrue(Arrays.equals(copy, s));
+
+    CountingSort.countingSort(s, 10, 500);
+    Arrays.sort(copy, 10, 500);
+    assertTrue(Arrays.equals(copy, s));
+
+    CountingSort.countingSort(s, 0, s.length, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    verifySorted(s);
+  }
+
+  @Test
+  public void testParallelCountingSort() {
+    try {
+      CountingSort.parallelCountingSort(null);
+      fail();
+    } catch (NullPointerException e) {
+    }
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      try {
+        CountingSort.parallelCountingSort(new int[] { 1, 0 }, pool, 0);
+        fail();
+      } catch (IllegalArgumentException e) {
+      }
+      try {
+        CountingSort.parallelCountingSort(new int[] { 1, 0 }, null, 1);
+        fail();
+      } catch (NullPointerException e) {
+      }
+
+      int[] s = {};
+      CountingSort.parallelCountingSort(s);
+      verifySorted(s);
+
+      s = new int[] { 10, 10, 8, 9, 7, 3, 4, 5, 6, 2, 1, 0 };
+      CountingSort.parallelCountingSort(s, pool, 1);
+      verifySorted(s);
+
+      Random random = new Random(45);
+      int[] sizes = { 100, 10000, 1000000 };
+      int[] ranges = { 1, 3, 4096, 1 << 18, CountingSort.MAX_RANGE, CountingSort.MAX_RANGE + 1 };
+      int[] thresholds = { 1, 5000, CountingSort.DEFAULT_PARALLEL_THRESHOLD };
+      for (int size : sizes) {
+        for (int threshold : thresholds) {
+          for (int range : ranges) {
+            s = new int[size];
+            for (int i = 0; i < size; i++) {
+              s[i] = random.nextInt(range) - 7;
+            }
+            checkParallelCountingSort(s, pool, threshold);
+          }
+
+          for (int i = 0; i < size; i++) {
+            s[i] = random.nextInt();
+          }
+          checkParallelCountingSort(s, pool, threshold);
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private void checkParallelCountingSort(int[] s, ForkJoinPool pool, int threshold) {
+    int[] expected = s.clone();
+    Arrays.sort(expected);
+    CountingSort.parallelCountingSort(s, pool, threshold);
+    assertTrue(Arrays.equals(expected, s));
+  }
+
+  private void checkCountingSort(int[] s) {
+    int[] expected = s.clone();
+    Arrays.sort(expected);
+    CountingSort.countingSort(s);
+    assertTrue(Arrays.equals(expected, s));
+  }
+
+  private void verifySorted(int[] s) {
+    for (int i = 1; i < s.length; i++) {
+      assertTrue("elements are not sorted.  index=[" + i + "]", s[i - 1] <= s[i]);
+    }
+  }
+
+}
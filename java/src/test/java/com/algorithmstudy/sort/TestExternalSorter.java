@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2009, The Algorithm Study Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright notice,
+ *       this list of conditions and the following disclaimer in the documentation
+ *       and/or other materials provided with the distribution.
+ *     * Neither the name of the Algorithm Study Project, algorithmstudy.com, nor
+ *       the names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+package com.algorithmstudy.sort;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+public class TestExternalSorter extends TestCase {
+
+  private Path dir;
+
+  @Override
+  protected void setUp() throws IOException {
+    dir = Files.createTempDirectory("external");
+  }
+
+  @Override
+  protected void tearDown() throws IOException {
+    String[] left = dir.toFile().list();
+    for (String name : left) {
+      Files.delete(dir.resolve(name));
+    }
+    Files.delete(dir);
+  }
+
+  @Test
+  public void testArguments() throws IOException {
+    try {
+      new ExternalSorter(ExternalSorter.MIN_MEMORY_BUDGET - 1);
+      fail();
+    } catch (IllegalArgumentException e) {
+    }
+    try {
+      new ExternalSorter(ExternalSorter.MIN_MEMORY_BUDGET, dir, null);
+      fail();
+    } catch (NullPointerException e) {
+    }
+
+    ExternalSorter sorter = new ExternalSorter();
+    try {
+      sorter.sortInts(null, dir.resolve("out"));
+      fail();
+    } catch (NullPointerException e) {
+    }
+
+    Path in = dir.resolve("in");
+    Files.write(in, new byte[6]);
+    try {
+      sorter.sortInts(in, dir.resolve("out"));
+      fail();
+    } catch (IllegalArgumentException e) {
+    }
+    try {
+      sorter.sortLongs(in, dir.resolve("out"));
+      fail();
+    } catch (IllegalArgumentException e) {
+    }
+  }
+
+  @Test
+  public void testSortInts() throws IOException {
+    ExternalSorter sorter = new ExternalSorter(ExternalSorter.MIN_MEMORY_BUDGET, dir,
+        ByteOrder.BIG_ENDIAN);
+    Random random = new Random(71);
+    // Runs are 8192 keys long; the last size needs more runs than fit in one merge
+    int[] sizes = { 0, 1, 2, 100, 8192, 8193, 50000, 200000 };
+    for (int size : sizes) {
+      int[] keys = new int[size];
+      for (int i = 0; i < size; i++) {
+        keys[i] = size > 100 ? random.nextInt() : random.nextInt(10) - 5;
+      }
+      Path in = writeInts(keys, ByteOrder.BIG_ENDIAN);
+      Path out = dir.resolve("out");
+      ExternalSorter.Stats stats = sorter.sortInts(in, out);
+
+      int[] expected = keys.clone();
+      Arrays.sort(expected);
+      assertTrue(Arrays.equals(expected, readInts(out, ByteOrder.BIG_ENDIAN)));
+      assertTrue(Arrays.equals(keys, readInts(in, ByteOrder.BIG_ENDIAN)));
+
+      int runs = (size + 8191) / 8192;
+      assertEquals(runs, stats.runCount());
+      if (runs <= 1) {
+        assertEquals(0, stats.mergePasses());
+        assertEquals(4L * size, stats.bytesRead());
+        assertEquals(4L * size, stats.bytesWritten());
+      } else if (runs <= 15) {
+        assertEquals(1, stats.mergePasses());
+        assertEquals(8L * size, stats.bytesRead());
+        assertEquals(8L * size, stats.bytesWritten());
+      } else {
+        assertEquals(2, stats.mergePasses());
+        assertEquals(12L * size, stats.bytesRead());
+        assertEquals(12L * size, stats.bytesWritten());
+      }
+      Files.delete(in);
+      Files.delete(out);
+      // Only the input and output are left behind
+      assertEquals(0, dir.toFile().list().length);
+    }
+  }
+
+  @Test
+  public void testSortLongs() throws IOException {
+    ExternalSorter sorter = new ExternalSorter(ExternalSorter.MIN_MEMORY_BUDGET, dir,
+        ByteOrder.LITTLE_ENDIAN);
+    Random random = new Random(73);
+    // Runs are 4096 keys long
+    int[] sizes = { 0, 1, 4096, 4097, 30000, 100000 };
+    for (int size : sizes) {
+      long[] keys = new long[size];
+      for (int i = 0; i < size; i++) {
+        keys[i] = i % 7 == 0 ? random.nextInt(3) : random.nextLong();
+      }
+      Path in = writeLongs(keys, ByteOrder.LITTLE_ENDIAN);
+      ExternalSorter.Stats stats = sorter.sortLongs(in, in);
+
+      long[] expected = keys.clone();
+      Arrays.sort(expected);
+      assertTrue(Arrays.equals(expected, readLongs(in, ByteOrder.LITTLE_ENDIAN)));
+      assertEquals((size + 4095) / 4096, stats.runCount());
+      Files.delete(in);
+      assertEquals(0, dir.toFile().list().length);
+    }
+  }
+
+  private Path writeInts(int[] keys, ByteOrder order) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(keys.length * 4).order(order);
+    buffer.asIntBuffer().put(keys);
+    return Files.write(dir.resolve("in"), buffer.array());
+  }
+
+  private int[] readInts(Path file, ByteOrder order) throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file)).order(order);
+    int[] keys = new int[buffer.remaining() / 4];
+    buffer.asIntBuffer().get(keys);
+    return keys;
+  }
+
+  private Path writeLongs(long[] keys, ByteOrder order) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(keys.length * 8).order(order);
+    buffer.asLongBuffer().put(keys);
+    return Files.write(dir.resolve("in"), buffer.array());
+  }
+
+  private long[] readLongs(Path file, ByteOrder order) throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file)).order(order);
+    long[] keys = new long[buffer.remaining() / 8];
+    buffer.asLongBuffer().get(keys);
+    return keys;
+  }
+
+}
@@ -27,6 +27,15 @@
  */
 package com.algorithmstudy.sort;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
 import org.junit.Test;
 
 import com.algorithmstudy.sort.BubbleSort;
@@ -39,7 +48,7 @@ public class TestHeapSort extends TestCase {
   @Test
   public void testHeapSort() {
     try {
-      BubbleSort.bubbleSort(null);
+      BubbleSort.bubbleSort((int[]) null);
       fail();
     } catch (NullPointerException e) {
     }
@@ -77,6 +86,292 @@ public class TestHeapSort extends TestCase {
     verifySorted(s);
   }
 
+  @Test
+  public void testQuaternaryHeapSort() {
+    try {
+      HeapSort.quaternaryHeapSort(null);
+      fail();
+    } catch (NullPointerException e) {
+    }
+
+    int[] s = {};
+    HeapSort.quaternaryHeapSort(s);
+    verifySorted(s);
+
+    Random random = new Random(107);
+    for (int size = 1; size <= 70; size++) {
+      s = new int[size];
+      for (int i = 0; i < size; i++) {
+        s[i] = random.nextInt(size);
+      }
+      int[] expected = s.clone();
+      Arrays.sort(expected);
+      HeapSort.quaternaryHeapSort(s);
+      assertTrue(Arrays.equals(expected, s));
+    }
+
+    s = new int[100000];
+    for (int i = 0; i < s.length; i++) {
+      s[i] = random.nextInt();
+    }
+    int[] expected = s.clone();
+    Arrays.sort(expected);
+    HeapSort.quaternaryHeapSort(s);
+    assertTrue(Arrays.equals(expected, s));
+  }
+
+  @Test
+  public void testHeapSortSizes() {
+    Random random = new Random(109);
+    for (int size = 1; size <= 70; size++) {
+      int[] s = new int[size];
+      for (int i = 0; i < size; i++) {
+        s[i] = random.nextInt(size);
+      }
+      int[] expected = s.clone();
+      Arrays.sort(expected);
+      HeapSort.heapSort(s);
+      assertTrue(Arrays.equals(expected, s));
+    }
+  }
+
+  @Test
+  public void testHeapSortRange() {
+    Random random = new Random(5);
+    for (int size = 0; size < 50; size++) {
+      int[] s = new int[size + 4];
+      for (int i = 0; i < s.length; i++) {
+        s[i] = random.nextInt(20);
+      }
+      int[] expected = s.clone();
+      Arrays.sort(expected, 2, size + 2);
+      HeapSort.heapSort(s, 2, size + 2);
+      assertTrue(Arrays.equals(expected, s));
+    }
+  }
+
+  @Test
+  public void testGenericSort() {
+    try {
+      HeapSort.heapSort(new String[] { "b", "a" }, null);
+      fail();
+    } catch (NullPointerException e) {
+    }
+
+    Random random = new Random(53);
+    for (int size = 0; size <= 1000; size = size * 3 + 1) {
+      Integer[] s = new Integer[size];
+      for (int i = 0; i < size; i++) {
+        s[i] = random.nextInt(size + 1);
+      }
+      Integer[] expected = s.clone();
+      Arrays.sort(expected);
+      HeapSort.heapSort(s);
+      assertTrue(Arrays.equals(expected, s));
+
+      Arrays.sort(expected, Collections.reverseOrder());
+      HeapSort.heapSort(s, Collections.reverseOrder());
+      assertTrue(Arrays.equals(expected, s));
+    }
+  }
+
+  @Test
+  public void testOtherPrimitiveTypes() {
+    Random random = new Random(43);
+    int[] sizes = { 0, 1, 2, 10, 100, 1000 };
+    for (int size : sizes) {
+      long[] l = RandomArrays.longs(random, size);
+      long[] le = l.clone();
+      Arrays.sort(le);
+      HeapSort.heapSort(l);
+      assertTrue(Arrays.equals(le, l));
+
+      double[] d = RandomArrays.doubles(random, size);
+      double[] de = d.clone();
+      Arrays.sort(de);
+      HeapSort.heapSort(d);
+      assertTrue(Arrays.equals(de, d));
+
+      float[] f = RandomArrays.floats(random, size);
+      float[] fe = f.clone();
+      Arrays.sort(fe);
+      HeapSort.heapSort(f);
+      assertTrue(Arrays.equals(fe, f));
+
+      short[] s = RandomArrays.shorts(random, size);
+      short[] se = s.clone();
+      Arrays.sort(se);
+      HeapSort.heapSort(s);
+      assertTrue(Arrays.equals(se, s));
+
+      char[] c = RandomArrays.chars(random, size);
+      char[] ce = c.clone();
+      Arrays.sort(ce);
+      HeapSort.heapSort(c);
+      assertTrue(Arrays.equals(ce, c));
+
+      byte[] b = RandomArrays.bytes(random, size);
+      byte[] be = b.clone();
+      Arrays.sort(be);
+      HeapSort.heapSort(b);
+      assertTrue(Arrays.equals(be, b));
+    }
+  }
+
+  @Test
+  public void testHeapSortRangeBounds() {
+    Random random = new Random(65);
+    int[] s = new int[1000];
+    for (int i = 0; i < s.length; i++) {
+      s[i] = random.nextInt();
+    }
+    int[] expected = s.clone();
+    Arrays.sort(expected, 100, 900);
+    HeapSort.heapSort(s, 100, 900);
+    assertTrue(Arrays.equals(expected, s));
+
+    HeapSort.heapSort(s, 500, 500);
+    assertTrue(Arrays.equals(expected, s));
+
+    try {
+      HeapSort.heapSort(s, 2, 1);
+      fail();
+    } catch (IllegalArgumentException e) {
+    }
+    try {
+      HeapSort.heapSort(s, -1, 10);
+      fail();
+    } catch (ArrayIndexOutOfBoundsException e) {
+    }
+    try {
+      HeapSort.heapSort(s, 0, s.length + 1);
+      fail();
+    } catch (ArrayIndexOutOfBoundsException e) {
+    }
+  }
+
+  @Test
+  public void testHeapSortBuffer() throws IOException {
+    try {
+      HeapSort.heapSort((IntBuffer) null);
+      fail();
+    } catch (NullPointerException e) {
+    }
+    try {
+      HeapSort.heapSort(IntBuffer.wrap(new int[] { 2, 1 }).asReadOnlyBuffer());
+      fail();
+    } catch (ReadOnlyBufferException e) {
+    }
+
+    Random random = new Random(83);
+    int[] sizes = { 0, 1, 2, 17, 1000, 10000 };
+    for (int size : sizes) {
+      int[] s = new int[size + 20];
+      long[] l = new long[size + 20];
+      for (int i = 0; i < s.length; i++) {
+        s[i] = random.nextInt(size / 4 + 1);
+        l[i] = random.nextLong();
+      }
+      int[] expected = s.clone();
+      Arrays.sort(expected, 10, size + 10);
+      IntBuffer b = IntBuffer.wrap(s);
+      b.position(10);
+      b.limit(size + 10);
+      HeapSort.heapSort(b);
+      assertEquals(10, b.position());
+      assertEquals(size + 10, b.limit());
+      assertTrue(Arrays.equals(expected, s));
+
+      long[] expectedLongs = l.clone();
+      Arrays.sort(expectedLongs, 10, size + 10);
+      LongBuffer lb = ByteBuffer.allocateDirect(l.length * 8).asLongBuffer();
+      lb.put(l);
+      lb.position(10);
+      lb.limit(size + 10);
+      HeapSort.heapSort(lb);
+      long[] sorted = new long[l.length];
+      lb.clear();
+      lb.get(sorted);
+      assertTrue(Arrays.equals(expectedLongs, sorted));
+    }
+  }
+
+  @Test
+  public void testPartialSort() {
+    try {
+      HeapSort.partialSort(null, 0);
+      fail();
+    } catch (NullPointerException e) {
+    }
+    try {
+      HeapSort.partialSort(new int[3], 4);
+      fail();
+    } catch (IllegalArgumentException e) {
+    }
+    try {
+      HeapSort.partialSort(new int[3], -1);
+      fail();
+    } catch (IllegalArgumentException e) {
+    }
+
+    Random random = new Random(89);
+    int[] sizes = { 0, 1, 2, 10, 1000 };
+    for (int size : sizes) {
+      int[] ks = { 0, Math.min(1, size), size / 3, size };
+      for (int k : ks) {
+        int[] s = new int[size];
+        for (int i = 0; i < size; i++) {
+          s[i] = random.nextInt(size + 1);
+        }
+        int[] expected = s.clone();
+        Arrays.sort(expected);
+        HeapSort.partialSort(s, k);
+        assertTrue(Arrays.equals(Arrays.copyOf(expected, k), Arrays.copyOf(s, k)));
+        Arrays.sort(s);
+        assertTrue(Arrays.equals(expected, s));
+      }
+    }
+  }
+
+  @Test
+  public void testTopK() {
+    try {
+      HeapSort.topK(null, 0);
+      fail();
+    } catch (NullPointerException e) {
+    }
+    try {
+      HeapSort.topK(new int[3], 4);
+      fail();
+    } catch (IllegalArgumentException e) {
+    }
+
+    assertTrue(Arrays.equals(new int[] { 9, 7, 7 }, HeapSort.topK(new int[] { 7, 1, 9, 3, 7 },
+        3)));
+
+    Random random = new Random(97);
+    int[] sizes = { 0, 1, 2, 10, 1000 };
+    for (int size : sizes) {
+      int[] ks = { 0, Math.min(1, size), size / 3, size };
+      for (int k : ks) {
+        int[] s = new int[size];
+        for (int i = 0; i < size; i++) {
+          s[i] = random.nextInt();
+        }
+        int[] original = s.clone();
+        int[] top = HeapSort.topK(s, k);
+        assertTrue(Arrays.equals(original, s));
+
+        int[] expected = new int[k];
+        Arrays.sort(original);
+        for (int i = 0; i < k; i++) {
+          expected[i] = original[size - 1 - i];
+        }
+        assertTrue(Arrays.equals(expected, top));
+      }
+    }
+  }
+
   private void verifySorted(int[] s) {
     for (int i = 1; i < s.length; i++) {
       assertTrue("elements are not sorted.  index=[" + i + "]", s[i - 1] <= s[i]);
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2009, The Algorithm Study Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright notice,
+ *       this list of conditions and the following disclaimer in the documentation
+ *       and/or other materials provided with the distribution.
+ *     * Neither the name of the Algorithm Study Project, algorithmstudy.com, nor
+ *       the names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+package com.algorithmstudy.sort;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+public class TestIncrementalSorter extends TestCase {
+
+  @Test
+  public void testIncrementalSorter() {
+    IncrementalSorter sorter = new IncrementalSorter();
+    try {
+      sorter.add(null);
+      fail();
+    } catch (NullPointerException e) {
+    }
+    try {
+      sorter.add(new int[2], 2, 1);
+      fail();
+    } catch (IllegalArgumentException e) {
+    }
+    try {
+      sorter.add(new int[2], 0, 3);
+      fail();
+    } catch (ArrayIndexOutOfBoundsException e) {
+    }
+
+    PrimitiveIterator.OfInt it = sorter.iterator();
+    assertFalse(it.hasNext());
+    try {
+      it.nextInt();
+      fail();
+    } catch (NoSuchElementException e) {
+    }
+    assertEquals(0, sorter.size());
+    assertEquals(0, sorter.runCount());
+
+    sorter.add(new int[] { 10, 10, 8, 9, 7 });
+    sorter.add(new int[] {});
+    sorter.add(new int[] { 99, 3, 4, 5, 6, 2, 1, 0, -1 }, 1, 8);
+    verify(new int[] { 10, 10, 8, 9, 7, 3, 4, 5, 6, 2, 1, 0 }, sorter);
+    assertEquals(12, sorter.size());
+    assertEquals(1, sorter.runCount());
+
+    // adding keys invalidates an iterator
+    it = sorter.iterator();
+    it.nextInt();
+    sorter.add(new int[] { 5 });
+    try {
+      it.nextInt();
+      fail();
+    } catch (ConcurrentModificationException e) {
+    }
+  }
+
+  @Test
+  public void testIncrementalSorterChunks() {
+    Random random = new Random(47);
+    int[] maxChunks = { 1, 100, IncrementalSorter.BLOCK_SIZE, 3 * IncrementalSorter.BLOCK_SIZE };
+    int[] sizes = { 1000, 100000, 500000 };
+    for (int maxChunk : maxChunks) {
+      for (int size : sizes) {
+        int[] all = new int[size];
+        for (int i = 0; i < size; i++) {
+          all[i] = random.nextInt(size);
+        }
+        IncrementalSorter sorter = new IncrementalSorter();
+        int added = 0;
+        int checkpoint = size / 3;
+        while (added < size) {
+          int n = Math.min(size - added, random.nextInt(maxChunk + 1));
+          sorter.add(Arrays.copyOfRange(all, added, added + n));
+          added += n;
+
+          // a few iterations part way through
+          if (added >= checkpoint) {
+            verify(Arrays.copyOf(all, added), sorter);
+            checkpoint += size / 3;
+          }
+        }
+        verify(all, sorter);
+
+        // at most FAN_IN - 1 runs per tier, and the partly filled block
+        int tiers = 0;
+        for (long n = IncrementalSorter.BLOCK_SIZE; n <= size; n *= IncrementalSorter.FAN_IN) {
+          tiers++;
+        }
+        assertTrue(sorter.runCount() <= tiers * (IncrementalSorter.FAN_IN - 1) + 1);
+      }
+    }
+  }
+
+  private void verify(int[] expected, IncrementalSorter sorter) {
+    expected = expected.clone();
+    Arrays.sort(expected);
+    assertEquals(expected.length, sorter.size());
+    PrimitiveIterator.OfInt it = sorter.iterator();
+    for (int i = 0; i < expected.length; i++) {
+      assertTrue(it.hasNext());
+      assertEquals(expected[i], it.nextInt());
+    }
+    assertFalse(it.hasNext());
+  }
+
+}
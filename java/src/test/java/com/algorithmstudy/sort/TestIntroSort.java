@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2009, The Algorithm Study Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright notice,
+ *       this list of conditions and the following disclaimer in the documentation
+ *       and/or other materials provided with the distribution.
+ *     * Neither the name of the Algorithm Study Project, algorithmstudy.com, nor
+ *       the names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+package com.algorithmstudy.sort;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+public class TestIntroSort extends TestCase {
+
+  @Test
+  public void testIntroSort() {
+    try {
+      IntroSort.introSort((int[]) null);
+      fail();
+    } catch (NullPointerException e) {
+    }
+
+    int[] s = {};
+    IntroSort.introSort(s);
+    verifySorted(s);
+
+    s = new int[] { 0 };
+    IntroSort.introSort(s);
+    verifySorted(s);
+
+    s = new int[] { 0, 1 };
+    IntroSort.introSort(s);
+    verifySorted(s);
+
+    s = new int[] { 1, 0 };
+    IntroSort.introSort(s);
+    verifySorted(s);
+
+    s = new int[] { 5, 5 };
+    IntroSort.introSort(s);
+    verifySorted(s);
+
+    s = new int[] { 5, 4, 3, 2, 1 };
+    IntroSort.introSort(s);
+    verifySorted(s);
+
+    s = new int[] { 10, 8, 9, 7, 3, 4, 5, 6, 2, 1, 0 };
+    IntroSort.introSort(s);
+    verifySorted(s);
+
+    s = new int[] { 10, 10, 8, 9, 7, 3, 4, 5, 6, 2, 1, 0 };
+    IntroSort.introSort(s);
+    verifySorted(s);
+  }
+
+  @Test
+  public void testIntroSortPatterns() {
+    Random random = new Random(3);
+    int[] sizes = { 17, 100, 129, 1000, 1000000 };
+    for (int size : sizes) {
+      int[] s = new int[size];
+      for (int i = 0; i < size; i++) {
+        s[i] = random.nextInt();
+      }
+      checkIntroSort(s);
+
+      for (int i = 0; i < size; i++) {
+        s[i] = i;
+      }
+      checkIntroSort(s);
+
+      for (int i = 0; i < size; i++) {
+        s[i] = size - i;
+      }
+      checkIntroSort(s);
+
+      Arrays.fill(s, 42);
+      checkIntroSort(s);
+
+      // organ pipe
+      for (int i = 0; i < size; i++) {
+        s[i] = Math.min(i, size - i);
+      }
+      checkIntroSort(s);
+
+      for (int i = 0; i < size; i++) {
+        s[i] = random.nextInt(3);
+      }
+      checkIntroSort(s);
+    }
+  }
+
+  private void checkIntroSort(int[] s) {
+    int[] expected = s.clone();
+    Arrays.sort(expected);
+    IntroSort.introSort(s);
+    assertTrue(Arrays.equals(expected, s));
+  }
+
+  @Test
+  public void testIntroSortRange() {
+    Random random = new Random(67);
+    int[] s = new int[1000];
+    for (int i = 0; i < s.length; i++) {
+      s[i] = random.nextInt(100);
+    }
+    int[] expected = s.clone();
+    Arrays.sort(expected, 100, 900);
+    IntroSort.introSort(s, 100, 900);
+    assertTrue(Arrays.equals(expected, s));
+
+    IntroSort.introSort(s, 500, 500);
+    assertTrue(Arrays.equals(expected, s));
+
+    try {
+      IntroSort.introSort(s, 2, 1);
+      fail();
+    } catch (IllegalArgumentException e) {
+    }
+    try {
+      IntroSort.introSort(s, -1, 10);
+      fail();
+    } catch (ArrayIndexOutOfBoundsException e) {
+    }
+    try {
+      IntroSort.introSort(s, 0, s.length + 1);
+      fail();
+    } catch (ArrayIndexOutOfBoundsException e) {
+    }
+  }
+
+  @Test
+  public void testIntroSortBuffer() throws IOException {
+    try {
+      IntroSort.introSort((IntBuffer) null);
+      fail();
+    } catch (NullPointerException e) {
+    }
+    try {
+      IntroSort.introSort(IntBuffer.wrap(new int[] { 2, 1 }).asReadOnlyBuffer());
+      fail();
+    } catch (ReadOnlyBufferException e) {
+    }
+
+    Random random = new Random(79);
+    int[] sizes = { 0, 1, 2, 17, 1000, 10000 };
+    for (int size : sizes) {
+      int[] s = new int[size + 20];
+      long[] l = new long[size + 20];
+      for (int i = 0; i < s.length; i++) {
+        s[i] = random.nextInt(size / 4 + 1);
+        l[i] = random.nextLong();
+      }
+      int[] expected = s.clone();
+      Arrays.sort(expected, 10, size + 10);
+      IntBuffer b = IntBuffer.wrap(s);
+      b.position(10);
+      b.limit(size + 10);
+      IntroSort.introSort(b);
+      assertEquals(10, b.position());
+      assertEquals(size + 10, b.limit());
+      assertTrue(Arrays.equals(expected, s));
+
+      long[] expectedLongs = l.clone();
+      Arrays.sort(expectedLongs, 10, size + 10);
+      LongBuffer lb = ByteBuffer.allocateDirect(l.length * 8).asLongBuffer();
+      lb.put(l);
+      lb.position(10);
+      lb.limit(size + 10);
+      IntroSort.introSort(lb);
+      long[] sorted = new long[l.length];
+      lb.clear();
+      lb.get(sorted);
+      assertTrue(Arrays.equals(expectedLongs, sorted));
+    }
+
+    // Sort a memory-mapped file of little-endian keys in place
+    int[] s = new int[50000];
+    for (int i = 0; i < s.length; i++) {
+      s[i] = random.nextInt();
+    }
+    ByteBuffer bytes = ByteBuffer.allocate(s.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+    bytes.asIntBuffer().put(s);
+    Path file = Files.createTempFile("keys", ".bin");
+    try {
+      Files.write(file, bytes.array());
+      FileChannel channel = FileChannel.open(file, StandardOpenOption.READ,
+          StandardOpenOption.WRITE);
+      try {
+        MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        IntroSort.introSort(map.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer());
+        map.force();
+      } finally {
+        channel.close();
+      }
+      int[] sorted = new int[s.length];
+      ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(
+          sorted);
+      Arrays.sort(s);
+      assertTrue(Arrays.equals(s, sorted));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  private void verifySorted(int[] s) {
+    for (int i = 1; i < s.length; i++) {
+      assertTrue("elements are not sorted.  index=[" + i + "]", s[i - 1] <= s[i]);
+    }
+  }
+
+}
@@ -27,8 +27,17 @@
  */
 package com.algorithmstudy.sort;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
 import org.junit.Test;
 
+import com.algorithmstudy.datastructures.DoublyLinkedList;
+import com.algorithmstudy.datastructures.SinglyLinkedList;
+
 import com.algorithmstudy.sort.MergeSort;
 
 import junit.framework.TestCase;
@@ -39,7 +48,7 @@ public class TestMergeSort extends TestCase {
   public void testMergeSort() {
 
     try {
-      MergeSort.mergeSort(null);
+      MergeSort.mergeSort((int[]) null);
       fail();
     } catch (NullPointerException e) {
     }
@@ -77,6 +86,263 @@ public class TestMergeSort extends TestCase {
     verifySorted(s);
   }
 
+  @Test
+  public void testParallelMergeSort() {
+    try {
+      MergeSort.parallelMergeSort(null);
+      fail();
+    } catch (NullPointerException e) {
+    }
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      try {
+        MergeSort.parallelMergeSort(new int[] { 1, 0 }, pool, 0);
+        fail();
+      } catch (IllegalArgumentException e) {
+      }
+
+      int[] s = {};
+      MergeSort.parallelMergeSort(s);
+      verifySorted(s);
+
+      s = new int[] { 10, 10, 8, 9, 7, 3, 4, 5, 6, 2, 1, 0 };
+      MergeSort.parallelMergeSort(s, pool, 1);
+      verifySorted(s);
+
+      Random random = new Random(42);
+      int[] sizes = { 2, 3, 17, 1000, 100000 };
+      int[] thresholds = { 1, 2, 7, 64, MergeSort.DEFAULT_PARALLEL_THRESHOLD };
+      for (int size : sizes) {
+        for (int threshold : thresholds) {
+          s = new int[size];
+          for (int i = 0; i < size; i++) {
+            s[i] = random.nextInt(size / 2 + 1) - size / 4;
+          }
+          int[] expected = s.clone();
+          Arrays.sort(expected);
+          MergeSort.parallelMergeSort(s, pool, threshold);
+          assertTrue(Arrays.equals(expected, s));
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testGenericMergeSort() {
+    try {
+      MergeSort.mergeSort(new String[] { "b", "a" }, null);
+      fail();
+    } catch (NullPointerException e) {
+    }
+
+    Random random = new Random(47);
+    for (int size = 0; size <= 1000; size = size * 3 + 1) {
+      Integer[] s = new Integer[size];
+      for (int i = 0; i < size; i++) {
+        s[i] = random.nextInt(size + 1);
+      }
+      Integer[] expected = s.clone();
+      Arrays.sort(expected);
+      MergeSort.mergeSort(s);
+      assertTrue(Arrays.equals(expected, s));
+    }
+
+    // Strings of the same length must keep their order
+    String[] s = { "ccc", "a", "bb", "b", "aaa", "c", "aa", "bbb", "cc" };
+    MergeSort.mergeSort(s, new Comparator<String>() {
+      public int compare(String o1, String o2) {
+        return o1.length() - o2.length();
+      }
+    });
+    assertTrue(Arrays.equals(new String[] { "a", "b", "c", "bb", "aa", "cc", "ccc", "aaa", "bbb" },
+        s));
+  }
+
+  @Test
+  public void testLinkedListMergeSort() {
+    SinglyLinkedList<Integer> sl = new SinglyLinkedList<Integer>();
+    DoublyLinkedList<Integer> dl = new DoublyLinkedList<Integer>();
+    int[] values = { 10, 10, 8, 9, 7, 3, 4, 5, 6, 2, 1, 0 };
+    for (int v : values) {
+      sl.append(v);
+      dl.append(v);
+    }
+    MergeSort.mergeSort(sl);
+    MergeSort.mergeSort(dl, Collections.reverseOrder());
+    Arrays.sort(values);
+    for (int i = 0; i < values.length; i++) {
+      assertEquals((Integer) values[i], sl.get(i));
+      assertEquals((Integer) values[values.length - 1 - i], dl.get(i));
+    }
+  }
+
+  @Test
+  public void testOtherPrimitiveTypes() {
+    Random random = new Random(43);
+    int[] sizes = { 0, 1, 2, 10, 100, 1000 };
+    for (int size : sizes) {
+      long[] l = RandomArrays.longs(random, size);
+      long[] le = l.clone();
+      Arrays.sort(le);
+      MergeSort.mergeSort(l);
+      assertTrue(Arrays.equals(le, l));
+
+      double[] d = RandomArrays.doubles(random, size);
+      double[] de = d.clone();
+      Arrays.sort(de);
+      MergeSort.mergeSort(d);
+      assertTrue(Arrays.equals(de, d));
+
+      float[] f = RandomArrays.floats(random, size);
+      float[] fe = f.clone();
+      Arrays.sort(fe);
+      MergeSort.mergeSort(f);
+      assertTrue(Arrays.equals(fe, f));
+
+      short[] s = RandomArrays.shorts(random, size);
+      short[] se = s.clone();
+      Arrays.sort(se);
+      MergeSort.mergeSort(s);
+      assertTrue(Arrays.equals(se, s));
+
+      char[] c = RandomArrays.chars(random, size);
+      char[] ce = c.clone();
+      Arrays.sort(ce);
+      MergeSort.mergeSort(c);
+      assertTrue(Arrays.equals(ce, c));
+
+      byte[] b = RandomArrays.bytes(random, size);
+      byte[] be = b.clone();
+      Arrays.sort(be);
+      MergeSort.mergeSort(b);
+      assertTrue(Arrays.equals(be, b));
+    }
+  }
+
+  @Test
+  public void testMergeSortRange() {
+    Random random = new Random(71);
+    int[] s = new int[1000];
+    for (int i = 0; i < s.length; i++) {
+      s[i] = random.nextInt();
+    }
+    int[] expected = s.clone();
+    Arrays.sort(expected, 100, 900);
+    MergeSort.mergeSort(s, 100, 900);
+    assertTrue(Arrays.equals(expected, s));
+
+    MergeSort.mergeSort(s, 500, 500);
+    assertTrue(Arrays.equals(expected, s));
+
+    try {
+      MergeSort.mergeSort(s, 2, 1);
+      fail();
+    } catch (IllegalArgumentException e) {
+    }
+    try {
+      MergeSort.mergeSort(s, -1, 10);
+      fail();
+    } catch (ArrayIndexOutOfBoundsException e) {
+    }
+    try {
+      MergeSort.mergeSort(s, 0, s.length + 1);
+      fail();
+    } catch (ArrayIndexOutOfBoundsException e) {
+    }
+  }
+
+  @Test
+  public void testMergeSortKeyValues() {
+    try {
+      MergeSort.mergeSort(null, new long[0]);
+      fail();
+    } catch (NullPointerException e) {
+    }
+    try {
+      MergeSort.mergeSort(new int[0], (long[]) null);
+      fail();
+    } catch (NullPointerException e) {
+    }
+    try {
+      MergeSort.mergeSort(new int[2], new int[3]);
+      fail();
+    } catch (IllegalArgumentException e) {
+    }
+    try {
+      MergeSort.mergeSort(new int[2], new long[2], 2, 1);
+      fail();
+    } catch (IllegalArgumentException e) {
+    }
+    try {
+      MergeSort.mergeSort(new int[2], new int[2], 0, 3);
+      fail();
+    } catch (ArrayIndexOutOfBoundsException e) {
+    }
+
+    Random random = new Random(46);
+    int[] sizes = { 0, 1, 2, 16, 17, 100, 10000 };
+    int[] bounds = { 4, 1000, Integer.MAX_VALUE };
+    for (int size : sizes) {
+      for (int bound : bounds) {
+        int[] keys = new int[size];
+        for (int i = 0; i < size; i++) {
+          keys[i] = random.nextInt(bound);
+        }
+        // each value is its key's original index
+        long[] longValues = new long[size];
+        int[] intValues = new int[size];
+        for (int i = 0; i < size; i++) {
+          longValues[i] = i;
+          intValues[i] = i;
+        }
+        int[] original = keys.clone();
+
+        MergeSort.mergeSort(keys, longValues);
+        verifyKeyValues(original, keys, longValues, 0, size);
+
+        keys = original.clone();
+        MergeSort.mergeSort(keys, intValues);
+        for (int i = 0; i < size; i++) {
+          longValues[i] = intValues[i];
+        }
+        verifyKeyValues(original, keys, longValues, 0, size);
+
+        // a range of a reverse sorted copy
+        keys = original.clone();
+        Arrays.sort(keys);
+        for (int i = 0; i < size / 2; i++) {
+          int tmp = keys[i];
+          keys[i] = keys[size - 1 - i];
+          keys[size - 1 - i] = tmp;
+        }
+        original = keys.clone();
+        for (int i = 0; i < size; i++) {
+          longValues[i] = i;
+        }
+        int from = size / 4;
+        int to = size - size / 4;
+        MergeSort.mergeSort(keys, longValues, from, to);
+        verifyKeyValues(original, keys, longValues, from, to);
+      }
+    }
+  }
+
+  private void verifyKeyValues(int[] original, int[] keys, long[] values, int from, int to) {
+    for (int i = 0; i < keys.length; i++) {
+      assertEquals(original[(int) values[i]], keys[i]);
+      if (i < from || i >= to) {
+        assertEquals(i, values[i]);
+      } else if (i > from) {
+        assertTrue(keys[i - 1] <= keys[i]);
+        assertTrue("equal keys must keep their order", keys[i - 1] < keys[i]
+            || values[i - 1] < values[i]);
+      }
+    }
+  }
+
   private void verifySorted(int[] s) {
     for (int i = 1; i < s.length; i++) {
       assertTrue("elements are not sorted.  index=[" + i + "]", s[i - 1] <= s[i]);
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2009, The Algorithm Study Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright notice,
+ *       this list of conditions and the following disclaimer in the documentation
+ *       and/or other materials provided with the distribution.
+ *     * Neither the name of the Algorithm Study Project, algorithmstudy.com, nor
+ *       the names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+package com.algorithmstudy.sort;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+public class TestMergeSorter extends TestCase {
+
+  @Test
+  public void testSort() {
+    MergeSorter sorter = new MergeSorter();
+    try {
+      sorter.sort(null);
+      fail();
+    } catch (NullPointerException e) {
+    }
+
+    try {
+      new MergeSorter(-1);
+      fail();
+    } catch (IllegalArgumentException e) {
+    }
+
+    int[] s = {};
+    sorter.sort(s);
+    verifySorted(s);
+
+    s = new int[] { 0 };
+    sorter.sort(s);
+    verifySorted(s);
+
+    s = new int[] { 1, 0 };
+    sorter.sort(s);
+    verifySorted(s);
+
+    s = new int[] { 10, 10, 8, 9, 7, 3, 4, 5, 6, 2, 1, 0 };
+    sorter.sort(s);
+    verifySorted(s);
+  }
+
+  @Test
+  public void testBufferReuse() {
+    int[] buffer = new int[100];
+    MergeSorter sorter = new MergeSorter(buffer);
+    assertEquals(100, sorter.capacity());
+
+    Random random = new Random(7);
+    for (int size = 0; size <= 100; size++) {
+      int[] s = RandomArrays.ints(random, size);
+      int[] expected = s.clone();
+      Arrays.sort(expected);
+      sorter.sort(s);
+      assertTrue(Arrays.equals(expected, s));
+      assertEquals(100, sorter.capacity());
+    }
+
+    int[] s = RandomArrays.ints(random, 1000);
+    int[] expected = s.clone();
+    Arrays.sort(expected);
+    sorter.sort(s);
+    assertTrue(Arrays.equals(expected, s));
+    assertEquals(1000, sorter.capacity());
+  }
+
+  @Test
+  public void testSortRange() {
+    Random random = new Random(73);
+    int[] s = new int[1000];
+    for (int i = 0; i < s.length; i++) {
+      s[i] = random.nextInt();
+    }
+    int[] expected = s.clone();
+    Arrays.sort(expected, 100, 900);
+    new MergeSorter(16).sort(s, 100, 900);
+    assertTrue(Arrays.equals(expected, s));
+
+    new MergeSorter(16).sort(s, 500, 500);
+    assertTrue(Arrays.equals(expected, s));
+
+    try {
+      new MergeSorter(16).sort(s, 2, 1);
+      fail();
+    } catch (IllegalArgumentException e) {
+    }
+    try {
+      new MergeSorter(16).sort(s, -1, 10);
+      fail();
+    } catch (ArrayIndexOutOfBoundsException e) {
+    }
+    try {
+      new MergeSorter(16).sort(s, 0, s.length + 1);
+      fail();
+    } catch (ArrayIndexOutOfBoundsException e) {
+    }
+  }
+
+  private void verifySorted(int[] s) {
+    for (int i = 1; i < s.length; i++) {
+      assertTrue("elements are not sorted.  index=[" + i + "]", s[i - 1] <= s[i]);
+    }
+  }
+
+}
@@ -27,6 +27,11 @@
  */
 package com.algorithmstudy.sort;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
 import org.junit.Test;
 
 import com.algorithmstudy.sort.QuickSort;
@@ -128,6 +133,760 @@ public class TestQuickSort extends TestCase {
     verifySorted(s);
   }
 
+  @Test
+  public void testDualPivotQuickSort() {
+    try {
+      QuickSort.dualPivotQuickSort(null);
+      fail();
+    } catch (NullPointerException e) {
+    }
+
+    int[] s = {};
+    QuickSort.dualPivotQuickSort(s);
+    verifySorted(s);
+
+    s = new int[] { 0 };
+    QuickSort.dualPivotQuickSort(s);
+    verifySorted(s);
+
+    s = new int[] { 0, 1 };
+    QuickSort.dualPivotQuickSort(s);
+    verifySorted(s);
+
+    s = new int[] { 1, 0 };
+    QuickSort.dualPivotQuickSort(s);
+    verifySorted(s);
+
+    s = new int[] { 5, 5 };
+    QuickSort.dualPivotQuickSort(s);
+    verifySorted(s);
+
+    s = new int[] { 5, 4, 3, 2, 1 };
+    QuickSort.dualPivotQuickSort(s);
+    verifySorted(s);
+
+    s = new int[] { 10, 8, 9, 7, 3, 4, 5, 6, 2, 1, 0 };
+    QuickSort.dualPivotQuickSort(s);
+    verifySorted(s);
+
+    s = new int[] { 10, 10, 8, 9, 7, 3, 4, 5, 6, 2, 1, 0 };
+    QuickSort.dualPivotQuickSort(s);
+    verifySorted(s);
+
+    Random random = new Random(17);
+    for (int size = 1; size <= 100000; size *= 10) {
+      s = new int[size];
+      for (int i = 0; i < size; i++) {
+        s[i] = random.nextInt();
+      }
+      checkDualPivotQuickSort(s);
+      for (int i = 0; i < size; i++) {
+        s[i] = random.nextInt(5);
+      }
+      checkDualPivotQuickSort(s);
+      for (int i = 0; i < size; i++) {
+        s[i] = i;
+      }
+      checkDualPivotQuickSort(s);
+      for (int i = 0; i < size; i++) {
+        s[i] = size - i;
+      }
+      checkDualPivotQuickSort(s);
+    }
+  }
+
+  @Test
+  public void testDualPivotQuickSortAdversary() {
+    // Build an input on which the fixed one-third and two-thirds pivot positions always pick the
+    // minimum and maximum of the segment, so every pass only peels off those two elements. The
+    // partitioning moves nothing else, so tracking the two pivot exchanges per pass is enough.
+    int size = 200000;
+    int[] slot = new int[size];
+    for (int i = 0; i < size; i++) {
+      slot[i] = i;
+    }
+    int[] s = new int[size];
+    int low = 0;
+    int high = size - 1;
+    int l = 0;
+    int r = size - 1;
+    while (r - l >= SortingNetworks.MAX_SIZE) {
+      int third = (r - l) / 3;
+      int t = slot[l];
+      slot[l] = slot[l + third];
+      slot[l + third] = t;
+      t = slot[r];
+      slot[r] = slot[r - third];
+      slot[r - third] = t;
+      s[slot[l++]] = low++;
+      s[slot[r--]] = high--;
+    }
+    for (int i = l; i <= r; i++) {
+      s[slot[i]] = low++;
+    }
+    checkDualPivotQuickSort(s);
+  }
+
+  private void checkDualPivotQuickSort(int[] s) {
+    int[] expected = s.clone();
+    Arrays.sort(expected);
+    QuickSort.dualPivotQuickSort(s);
+    assertTrue(Arrays.equals(expected, s));
+  }
+
+  @Test
+  public void testThreeWayQuickSort() {
+    try {
+      QuickSort.threeWayQuickSort(null);
+      fail();
+    } catch (NullPointerException e) {
+    }
+
+    int[] s = {};
+    QuickSort.threeWayQuickSort(s);
+    verifySorted(s);
+
+    s = new int[] { 0 };
+    QuickSort.threeWayQuickSort(s);
+    verifySorted(s);
+
+    s = new int[] { 0, 1 };
+    QuickSort.threeWayQuickSort(s);
+    verifySorted(s);
+
+    s = new int[] { 1, 0 };
+    QuickSort.threeWayQuickSort(s);
+    verifySorted(s);
+
+    s = new int[] { 5, 5 };
+    QuickSort.threeWayQuickSort(s);
+    verifySorted(s);
+
+    s = new int[] { 5, 4, 3, 2, 1 };
+    QuickSort.threeWayQuickSort(s);
+    verifySorted(s);
+
+    s = new int[] { 10, 8, 9, 7, 3, 4, 5, 6, 2, 1, 0 };
+    QuickSort.threeWayQuickSort(s);
+    verifySorted(s);
+
+    s = new int[] { 10, 10, 8, 9, 7, 3, 4, 5, 6, 2, 1, 0 };
+    QuickSort.threeWayQuickSort(s);
+    verifySorted(s);
+
+    Random random = new Random(23);
+    for (int size = 1; size <= 100000; size *= 10) {
+      for (int distinct = 1; distinct <= 8; distinct *= 2) {
+        s = new int[size];
+        for (int i = 0; i < size; i++) {
+          s[i] = random.nextInt(distinct);
+        }
+        checkThreeWayQuickSort(s);
+      }
+      for (int i = 0; i < size; i++) {
+        s[i] = random.nextInt();
+      }
+      checkThreeWayQuickSort(s);
+      for (int i = 0; i < size; i++) {
+        s[i] = i;
+      }
+      checkThreeWayQuickSort(s);
+    }
+  }
+
+  @Test
+  public void testThreeWayQuickSortOrganPipe() {
+    int[] sizes = { 70000, 200000, 1000000 };
+    for (int size : sizes) {
+      // ascending then descending
+      int[] s = new int[size];
+      for (int i = 0; i < size; i++) {
+        s[i] = i < size / 2 ? i : size - i;
+      }
+      checkThreeWayQuickSort(s);
+
+      // descending then ascending, and a sawtooth
+      for (int i = 0; i < size; i++) {
+        s[i] = i < size / 2 ? size / 2 - i : i - size / 2;
+      }
+      checkThreeWayQuickSort(s);
+      for (int i = 0; i < size; i++) {
+        s[i] = i % 1000;
+      }
+      checkThreeWayQuickSort(s);
+    }
+  }
+
+  private void checkThreeWayQuickSort(int[] s) {
+    int[] expected = s.clone();
+    Arrays.sort(expected);
+    QuickSort.threeWayQuickSort(s);
+    assertTrue(Arrays.equals(expected, s));
+  }
+
+  @Test
+  public void testParallelQuickSort() {
+    try {
+      QuickSort.parallelQuickSort(null);
+      fail();
+    } catch (NullPointerException e) {
+    }
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      try {
+        QuickSort.parallelQuickSort(new int[] { 1, 0 }, pool, 0);
+        fail();
+      } catch (IllegalArgumentException e) {
+      }
+
+      int[] s = {};
+      QuickSort.parallelQuickSort(s);
+      verifySorted(s);
+
+      s = new int[] { 10, 10, 8, 9, 7, 3, 4, 5, 6, 2, 1, 0 };
+      QuickSort.parallelQuickSort(s, pool, 1);
+      verifySorted(s);
+
+      Random random = new Random(29);
+      int[] sizes = { 2, 17, 1000, 1000000 };
+      int[] thresholds = { 1, 16, QuickSort.DEFAULT_PARALLEL_THRESHOLD };
+      for (int size : sizes) {
+        for (int threshold : thresholds) {
+          s = new int[size];
+          for (int i = 0; i < size; i++) {
+            s[i] = random.nextInt();
+          }
+          checkParallelQuickSort(s, pool, threshold);
+          for (int i = 0; i < size; i++) {
+            s[i] = random.nextInt(3);
+          }
+          checkParallelQuickSort(s, pool, threshold);
+          for (int i = 0; i < size; i++) {
+            s[i] = i;
+          }
+          checkParallelQuickSort(s, pool, threshold);
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private void checkParallelQuickSort(int[] s, ForkJoinPool pool, int threshold) {
+    int[] expected = s.clone();
+    Arrays.sort(expected);
+    QuickSort.parallelQuickSort(s, pool, threshold);
+    assertTrue(Arrays.equals(expected, s));
+  }
+
+  @Test
+  public void testOtherPrimitiveTypesOrdered() {
+    int size = 100000;
+    // ascending, descending, organ pipe and all equal
+    for (int pattern = 0; pattern < 4; pattern++) {
+      long[] l = new long[size];
+      double[] d = new double[size];
+      float[] f = new float[size];
+      short[] s = new short[size];
+      char[] c = new char[size];
+      byte[] b = new byte[size];
+      for (int i = 0; i < size; i++) {
+        int v = 0 == pattern ? i : 1 == pattern ? size - i : 2 == pattern ? Math.min(i, size - i)
+            : 7;
+        l[i] = v;
+        d[i] = v;
+        f[i] = v;
+        s[i] = (short) (v >> 2);
+        c[i] = (char) (v >> 2);
+        b[i] = (byte) (v >> 10);
+      }
+
+      long[] le = l.clone();
+      Arrays.sort(le);
+      QuickSort.quickSort(l);
+      assertTrue(Arrays.equals(le, l));
+
+      double[] de = d.clone();
+      Arrays.sort(de);
+      QuickSort.quickSort(d);
+      assertTrue(Arrays.equals(de, d));
+
+      float[] fe = f.clone();
+      Arrays.sort(fe);
+      QuickSort.quickSort(f);
+      assertTrue(Arrays.equals(fe, f));
+
+      short[] se = s.clone();
+      Arrays.sort(se);
+      QuickSort.quickSort(s);
+      assertTrue(Arrays.equals(se, s));
+
+      char[] ce = c.clone();
+      Arrays.sort(ce);
+      QuickSort.quickSort(c);
+      assertTrue(Arrays.equals(ce, c));
+
+      byte[] be = b.clone();
+      Arrays.sort(be);
+      QuickSort.quickSort(b);
+      assertTrue(Arrays.equals(be, b));
+    }
+  }
+
+  @Test
+  public void testGenericSort() {
+    try {
+      QuickSort.quickSort(new String[] { "b", "a" }, null);
+      fail();
+    } catch (NullPointerException e) {
+    }
+
+    Random random = new Random(53);
+    for (int size = 0; size <= 1000; size = size * 3 + 1) {
+      Integer[] s = new Integer[size];
+      for (int i = 0; i < size; i++) {
+        s[i] = random.nextInt(size + 1);
+      }
+      Integer[] expected = s.clone();
+      Arrays.sort(expected);
+      QuickSort.quickSort(s);
+      assertTrue(Arrays.equals(expected, s));
+
+      Arrays.sort(expected, Collections.reverseOrder());
+      QuickSort.quickSort(s, Collections.reverseOrder());
+      assertTrue(Arrays.equals(expected, s));
+    }
+  }
+
+  @Test
+  public void testGenericSortDuplicates() {
+    Random random = new Random(54);
+    String[] keys = { "ACTIVE", "DELETED", "SUSPENDED" };
+    int size = 100000;
+    String[] s = new String[size];
+    for (int i = 0; i < size; i++) {
+      s[i] = keys[random.nextInt(keys.length)];
+    }
+    String[] expected = s.clone();
+    Arrays.sort(expected);
+    QuickSort.quickSort(s);
+    assertTrue(Arrays.equals(expected, s));
+
+    // sorted, reverse sorted and all equal
+    QuickSort.quickSort(s);
+    assertTrue(Arrays.equals(expected, s));
+    QuickSort.quickSort(s, Collections.reverseOrder());
+    Arrays.sort(expected, Collections.reverseOrder());
+    assertTrue(Arrays.equals(expected, s));
+    Arrays.fill(s, "ACTIVE");
+    QuickSort.quickSort(s);
+    for (String key : s) {
+      assertEquals("ACTIVE", key);
+    }
+  }
+
+  @Test
+  public void testOtherPrimitiveTypes() {
+    Random random = new Random(43);
+    int[] sizes = { 0, 1, 2, 10, 100, 1000 };
+    for (int size : sizes) {
+      long[] l = RandomArrays.longs(random, size);
+      long[] le = l.clone();
+      Arrays.sort(le);
+      QuickSort.quickSort(l);
+      assertTrue(Arrays.equals(le, l));
+
+      double[] d = RandomArrays.doubles(random, size);
+      double[] de = d.clone();
+      Arrays.sort(de);
+      QuickSort.quickSort(d);
+      assertTrue(Arrays.equals(de, d));
+
+      float[] f = RandomArrays.floats(random, size);
+      float[] fe = f.clone();
+      Arrays.sort(fe);
+      QuickSort.quickSort(f);
+      assertTrue(Arrays.equals(fe, f));
+
+      short[] s = RandomArrays.shorts(random, size);
+      short[] se = s.clone();
+      Arrays.sort(se);
+      QuickSort.quickSort(s);
+      assertTrue(Arrays.equals(se, s));
+
+      char[] c = RandomArrays.chars(random, size);
+      char[] ce = c.clone();
+      Arrays.sort(ce);
+      QuickSort.quickSort(c);
+      assertTrue(Arrays.equals(ce, c));
+
+      byte[] b = RandomArrays.bytes(random, size);
+      byte[] be = b.clone();
+      Arrays.sort(be);
+      QuickSort.quickSort(b);
+      assertTrue(Arrays.equals(be, b));
+    }
+  }
+
+  @Test
+  public void testQuickSortRange() {
+    Random random = new Random(77);
+    {
+      int[] s = new int[1000];
+      for (int i = 0; i < s.length; i++) {
+        s[i] = random.nextInt(100);
+      }
+      int[] expected = s.clone();
+      Arrays.sort(expected, 100, 900);
+      QuickSort.quickSort(s, 100, 900);
+      assertTrue(Arrays.equals(expected, s));
+
+      QuickSort.quickSort(s, 500, 500);
+      assertTrue(Arrays.equals(expected, s));
+
+      try {
+        QuickSort.quickSort(s, 2, 1);
+        fail();
+      } catch (IllegalArgumentException e) {
+      }
+      try {
+        QuickSort.quickSort(s, -1, 10);
+        fail();
+      } catch (ArrayIndexOutOfBoundsException e) {
+      }
+      try {
+        QuickSort.quickSort(s, 0, s.length + 1);
+        fail();
+      } catch (ArrayIndexOutOfBoundsException e) {
+      }
+    }
+
+    {
+      int[] s = new int[1000];
+      for (int i = 0; i < s.length; i++) {
+        s[i] = random.nextInt(100);
+      }
+      int[] expected = s.clone();
+      Arrays.sort(expected, 100, 900);
+      QuickSort.randomizedQuickSort(s, 100, 900);
+      assertTrue(Arrays.equals(expected, s));
+
+      QuickSort.randomizedQuickSort(s, 500, 500);
+      assertTrue(Arrays.equals(expected, s));
+
+      try {
+        QuickSort.randomizedQuickSort(s, 2, 1);
+        fail();
+      } catch (IllegalArgumentException e) {
+      }
+      try {
+        QuickSort.randomizedQuickSort(s, -1, 10);
+        fail();
+      } catch (ArrayIndexOutOfBoundsException e) {
+      }
+      try {
+        QuickSort.randomizedQuickSort(s, 0, s.length + 1);
+        fail();
+      } catch (ArrayIndexOutOfBoundsException e) {
+      }
+    }
+
+    {
+      int[] s = new int[1000];
+      for (int i = 0; i < s.length; i++) {
+        s[i] = random.nextInt(100);
+      }
+      int[] expected = s.clone();
+      Arrays.sort(expected, 100, 900);
+      QuickSort.hoareQuickSort(s, 100, 900);
+      assertTrue(Arrays.equals(expected, s));
+
+      QuickSort.hoareQuickSort(s, 500, 500);
+      assertTrue(Arrays.equals(expected, s));
+
+      try {
+        QuickSort.hoareQuickSort(s, 2, 1);
+        fail();
+      } catch (IllegalArgumentException e) {
+      }
+      try {
+        QuickSort.hoareQuickSort(s, -1, 10);
+        fail();
+      } catch (ArrayIndexOutOfBoundsException e) {
+      }
+      try {
+        QuickSort.hoareQuickSort(s, 0, s.length + 1);
+        fail();
+      } catch (ArrayIndexOutOfBoundsException e) {
+      }
+    }
+
+    {
+      int[] s = new int[1000];
+      for (int i = 0; i < s.length; i++) {
+        s[i] = random.nextInt(100);
+      }
+      int[] expected = s.clone();
+      Arrays.sort(expected, 100, 900);
+      QuickSort.dualPivotQuickSort(s, 100, 900);
+      assertTrue(Arrays.equals(expected, s));
+
+      QuickSort.dualPivotQuickSort(s, 500, 500);
+      assertTrue(Arrays.equals(expected, s));
+
+      try {
+        QuickSort.dualPivotQuickSort(s, 2, 1);
+        fail();
+      } catch (IllegalArgumentException e) {
+      }
+      try {
+        QuickSort.dualPivotQuickSort(s, -1, 10);
+        fail();
+      } catch (ArrayIndexOutOfBoundsException e) {
+      }
+      try {
+        QuickSort.dualPivotQuickSort(s, 0, s.length + 1);
+        fail();
+      } catch (ArrayIndexOutOfBoundsException e) {
+      }
+    }
+
+    {
+      int[] s = new int[1000];
+      for (int i = 0; i < s.length; i++) {
+        s[i] = random.nextInt(100);
+      }
+      int[] expected = s.clone();
+      Arrays.sort(expected, 100, 900);
+      QuickSort.threeWayQuickSort(s, 100, 900);
+      assertTrue(Arrays.equals(expected, s));
+
+      QuickSort.threeWayQuickSort(s, 500, 500);
+      assertTrue(Arrays.equals(expected, s));
+
+      try {
+        QuickSort.threeWayQuickSort(s, 2, 1);
+        fail();
+      } catch (IllegalArgumentException e) {
+      }
+      try {
+        QuickSort.threeWayQuickSort(s, -1, 10);
+        fail();
+      } catch (ArrayIndexOutOfBoundsException e) {
+      }
+      try {
+        QuickSort.threeWayQuickSort(s, 0, s.length + 1);
+        fail();
+      } catch (ArrayIndexOutOfBoundsException e) {
+      }
+    }
+  }
+
+  @Test
+  public void testSelect() {
+    try {
+      QuickSort.select(null, 0);
+      fail();
+    } catch (NullPointerException e) {
+    }
+    try {
+      QuickSort.select(new int[0], 0);
+      fail();
+    } catch (IllegalArgumentException e) {
+    }
+    try {
+      QuickSort.select(new int[3], 3);
+      fail();
+    } catch (IllegalArgumentException e) {
+    }
+
+    Random random = new Random(101);
+    int[] sizes = { 1, 2, 5, 17, 100, 1000, 100000 };
+    for (int size : sizes) {
+      int[][] inputs = new int[4][size];
+      for (int i = 0; i < size; i++) {
+        inputs[0][i] = random.nextInt();
+        inputs[1][i] = random.nextInt(3);
+        inputs[2][i] = i;
+        inputs[3][i] = i % 2 == 0 ? i : size - i;
+      }
+      for (int[] input : inputs) {
+        int[] expected = input.clone();
+        Arrays.sort(expected);
+        int[] ks = { 0, size / 2, (int) (0.99 * (size - 1)), size - 1, random.nextInt(size) };
+        for (int k : ks) {
+          int[] s = input.clone();
+          assertEquals(expected[k], QuickSort.select(s, k));
+          verifySelected(s, k);
+          Arrays.sort(s);
+          assertTrue(Arrays.equals(expected, s));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testMultiSelect() {
+    try {
+      QuickSort.select(new int[3], new int[] { 1, 3 });
+      fail();
+    } catch (IllegalArgumentException e) {
+    }
+    try {
+      QuickSort.select(new int[3], new int[] { -1, 1 });
+      fail();
+    } catch (IllegalArgumentException e) {
+    }
+    assertEquals(0, QuickSort.select(new int[0], new int[0]).length);
+
+    Random random = new Random(103);
+    int[] sizes = { 1, 10, 1000, 100000 };
+    for (int size : sizes) {
+      int[] s = new int[size];
+      for (int i = 0; i < size; i++) {
+        s[i] = random.nextInt(size);
+      }
+      int[] expected = s.clone();
+      Arrays.sort(expected);
+
+      int[] ks = { size - 1, 0, size / 2, size / 4, (size * 3) / 4, size / 2,
+          (int) (0.99 * (size - 1)), (int) (0.999 * (size - 1)) };
+      int[] selected = QuickSort.select(s, ks);
+      for (int i = 0; i < ks.length; i++) {
+        assertEquals(expected[ks[i]], selected[i]);
+        verifySelected(s, ks[i]);
+      }
+      Arrays.sort(s);
+      assertTrue(Arrays.equals(expected, s));
+    }
+  }
+
+  private void verifySelected(int[] s, int k) {
+    for (int i = 0; i < k; i++) {
+      assertTrue(s[i] <= s[k]);
+    }
+    for (int i = k + 1; i < s.length; i++) {
+      assertTrue(s[i] >= s[k]);
+    }
+  }
+
+  @Test
+  public void testQuickSortKeyValues() {
+    try {
+      QuickSort.quickSort(null, new long[0]);
+      fail();
+    } catch (NullPointerException e) {
+    }
+    try {
+      QuickSort.quickSort(new int[0], (long[]) null);
+      fail();
+    } catch (NullPointerException e) {
+    }
+    try {
+      QuickSort.quickSort(new int[2], new int[3]);
+      fail();
+    } catch (IllegalArgumentException e) {
+    }
+    try {
+      QuickSort.quickSort(new int[2], new long[2], 2, 1);
+      fail();
+    } catch (IllegalArgumentException e) {
+    }
+    try {
+      QuickSort.quickSort(new int[2], new int[2], 0, 3);
+      fail();
+    } catch (ArrayIndexOutOfBoundsException e) {
+    }
+
+    Random random = new Random(46);
+    int[] sizes = { 0, 1, 2, 16, 17, 100, 10000 };
+    int[] bounds = { 4, 1000, Integer.MAX_VALUE };
+    for (int size : sizes) {
+      for (int bound : bounds) {
+        int[] keys = new int[size];
+        for (int i = 0; i < size; i++) {
+          keys[i] = random.nextInt(bound);
+        }
+        // each value is its key's original index
+        long[] longValues = new long[size];
+        int[] intValues = new int[size];
+        for (int i = 0; i < size; i++) {
+          longValues[i] = i;
+          intValues[i] = i;
+        }
+        int[] original = keys.clone();
+
+        QuickSort.quickSort(keys, longValues);
+        verifyKeyValues(original, keys, longValues, 0, size);
+
+        keys = original.clone();
+        QuickSort.quickSort(keys, intValues);
+        for (int i = 0; i < size; i++) {
+          longValues[i] = intValues[i];
+        }
+        verifyKeyValues(original, keys, longValues, 0, size);
+
+        // a range of a reverse sorted copy
+        keys = original.clone();
+        Arrays.sort(keys);
+        for (int i = 0; i < size / 2; i++) {
+          int tmp = keys[i];
+          keys[i] = keys[size - 1 - i];
+          keys[size - 1 - i] = tmp;
+        }
+        original = keys.clone();
+        for (int i = 0; i < size; i++) {
+          longValues[i] = i;
+        }
+        int from = size / 4;
+        int to = size - size / 4;
+        QuickSort.quickSort(keys, longValues, from, to);
+        verifyKeyValues(original, keys, longValues, from, to);
+      }
+    }
+  }
+
+  @Test
+  public void testQuickSortKeyValuesHeapSortFallback() {
+    // a depth limit of 0 sorts the whole segment with the pair-aware heap sort, a small one
+    // switches to it part way down
+    Random random = new Random(47);
+    int size = 10000;
+    for (int depthLimit = 0; depthLimit <= 3; depthLimit++) {
+      int[] keys = new int[size];
+      long[] longValues = new long[size];
+      int[] intValues = new int[size];
+      for (int i = 0; i < size; i++) {
+        keys[i] = random.nextInt(depthLimit == 1 ? 10 : size);
+        longValues[i] = i;
+        intValues[i] = i;
+      }
+      int[] original = keys.clone();
+
+      QuickSort.quickSortR(keys, longValues, 100, size - 101, depthLimit);
+      verifyKeyValues(original, keys, longValues, 100, size - 100);
+
+      keys = original.clone();
+      QuickSort.quickSortR(keys, intValues, 0, size - 1, depthLimit);
+      for (int i = 0; i < size; i++) {
+        longValues[i] = intValues[i];
+      }
+      verifyKeyValues(original, keys, longValues, 0, size);
+    }
+  }
+
+  private void verifyKeyValues(int[] original, int[] keys, long[] values, int from, int to) {
+    for (int i = 0; i < keys.length; i++) {
+      assertEquals(original[(int) values[i]], keys[i]);
+      if (i < from || i >= to) {
+        assertEquals(i, values[i]);
+      } else if (i > from) {
+        assertTrue(keys[i - 1] <= keys[i]);
+      }
+    }
+  }
+
   private void verifySorted(int[] s) {
     for (int i = 1; i < s.length; i++) {
       assertTrue("elements are not sorted.  index=[" + i + "]", s[i - 1] <= s[i]);
@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2009, The Algorithm Study Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright notice,
+ *       this list of conditions and the following disclaimer in the documentation
+ *       and/or other materials provided with the distribution.
+ *     * Neither the name of the Algorithm Study Project, algorithmstudy.com, nor
+ *       the names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+package com.algorithmstudy.sort;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+public class TestRadixSort extends TestCase {
+
+  @Test
+  public void testRadixSortInts() {
+    try {
+      RadixSort.radixSort((int[]) null);
+      fail();
+    } catch (NullPointerException e) {
+    }
+
+    int[] s = {};
+    RadixSort.radixSort(s);
+    verifySorted(s);
+
+    s = new int[] { 0 };
+    RadixSort.radixSort(s);
+    verifySorted(s);
+
+    s = new int[] { 1, 0 };
+    RadixSort.radixSort(s);
+    verifySorted(s);
+
+    s = new int[] { 10, 10, 8, 9, 7, 3, 4, 5, 6, 2, 1, 0 };
+    RadixSort.radixSort(s);
+    verifySorted(s);
+
+    Random random = new Random(31);
+    int[] sizes = { 63, 64, 65, 1000, 100000 };
+    for (int size : sizes) {
+      s = new int[size];
+      for (int i = 0; i < size; i++) {
+        s[i] = random.nextInt();
+      }
+      checkRadixSort(s);
+
+      // small non-negative keys skip the upper passes
+      for (int i = 0; i < size; i++) {
+        s[i] = random.nextInt(200);
+      }
+      checkRadixSort(s);
+
+      // small keys around zero need every pass
+      for (int i = 0; i < size; i++) {
+        s[i] = random.nextInt(200) - 100;
+      }
+      checkRadixSort(s);
+
+      // extremes, and a single distinct key (every pass skipped)
+      for (int i = 0; i < size; i++) {
+        s[i] = random.nextBoolean() ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+      }
+      checkRadixSort(s);
+      Arrays.fill(s, -7);
+      checkRadixSort(s);
+
+      // keys differing only in the middle digits (an odd number of passes)
+      for (int i = 0; i < size; i++) {
+        s[i] = random.nextInt(256) << 8;
+      }
+      checkRadixSort(s);
+    }
+  }
+
+  @Test
+  public void testRadixSortLongs() {
+    try {
+      RadixSort.radixSort((long[]) null);
+      fail();
+    } catch (NullPointerException e) {
+    }
+
+    long[] s = {};
+    RadixSort.radixSort(s);
+
+    Random random = new Random(37);
+    int[] sizes = { 1, 63, 64, 65, 1000, 100000 };
+    for (int size : sizes) {
+      s = new long[size];
+      for (int i = 0; i < size; i++) {
+        s[i] = random.nextLong();
+      }
+      checkRadixSort(s);
+
+      for (int i = 0; i < size; i++) {
+        s[i] = random.nextInt(1000) - 500;
+      }
+      checkRadixSort(s);
+
+      for (int i = 0; i < size; i++) {
+        s[i] = random.nextBoolean() ? Long.MIN_VALUE : Long.MAX_VALUE;
+      }
+      checkRadixSort(s);
+
+      for (int i = 0; i < size; i++) {
+        s[i] = System.currentTimeMillis() + random.nextInt(100000);
+      }
+      checkRadixSort(s);
+    }
+  }
+
+  @Test
+  public void testParallelRadixSort() {
+    try {
+      RadixSort.parallelRadixSort(null);
+      fail();
+    } catch (NullPointerException e) {
+    }
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      try {
+        RadixSort.parallelRadixSort(new int[] { 1, 0 }, pool, 0);
+        fail();
+      } catch (IllegalArgumentException e) {
+      }
+
+      int[] s = {};
+      RadixSort.parallelRadixSort(s);
+      verifySorted(s);
+
+      s = new int[] { 10, 10, 8, 9, 7, 3, 4, 5, 6, 2, 1, 0 };
+      RadixSort.parallelRadixSort(s, pool, 1);
+      verifySorted(s);
+
+      Random random = new Random(41);
+      int[] sizes = { 100, 10000, 1000000 };
+      int[] thresholds = { 1, 64, 5000, RadixSort.DEFAULT_PARALLEL_THRESHOLD };
+      for (int size : sizes) {
+        for (int threshold : thresholds) {
+          s = new int[size];
+          for (int i = 0; i < size; i++) {
+            s[i] = random.nextInt();
+          }
+          checkParallelRadixSort(s, pool, threshold);
+
+          // a single top level bucket
+          for (int i = 0; i < size; i++) {
+            s[i] = random.nextInt(1 << 20);
+          }
+          checkParallelRadixSort(s, pool, threshold);
+
+          for (int i = 0; i < size; i++) {
+            s[i] = random.nextInt(10) - 5;
+          }
+          checkParallelRadixSort(s, pool, threshold);
+
+          Arrays.fill(s, Integer.MIN_VALUE);
+          checkParallelRadixSort(s, pool, threshold);
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private void checkParallelRadixSort(int[] s, ForkJoinPool pool, int threshold) {
+    int[] expected = s.clone();
+    Arrays.sort(expected);
+    RadixSort.parallelRadixSort(s, pool, threshold);
+    assertTrue(Arrays.equals(expected, s));
+  }
+
+  private void checkRadixSort(int[] s) {
+    int[] expected = s.clone();
+    Arrays.sort(expected);
+    RadixSort.radixSort(s);
+    assertTrue(Arrays.equals(expected, s));
+  }
+
+  private void checkRadixSort(long[] s) {
+    long[] expected = s.clone();
+    Arrays.sort(expected);
+    RadixSort.radixSort(s);
+    assertTrue(Arrays.equals(expected, s));
+  }
+
+  @Test
+  public void testRadixSortRange() {
+    Random random = new Random(75);
+    {
+      int[] s = new int[1000];
+      for (int i = 0; i < s.length; i++) {
+        s[i] = random.nextInt();
+      }
+      int[] expected = s.clone();
+      Arrays.sort(expected, 100, 900);
+      RadixSort.radixSort(s, 100, 900);
+      assertTrue(Arrays.equals(expected, s));
+
+      RadixSort.radixSort(s, 500, 500);
+      assertTrue(Arrays.equals(expected, s));
+
+      try {
+        RadixSort.radixSort(s, 2, 1);
+        fail();
+      } catch (IllegalArgumentException e) {
+      }
+      try {
+        RadixSort.radixSort(s, -1, 10);
+        fail();
+      } catch (ArrayIndexOutOfBoundsException e) {
+      }
+      try {
+        RadixSort.radixSort(s, 0, s.length + 1);
+        fail();
+      } catch (ArrayIndexOutOfBoundsException e) {
+      }
+    }
+
+    {
+      long[] s = new long[1000];
+      for (int i = 0; i < s.length; i++) {
+        s[i] = random.nextLong();
+      }
+      long[] expected = s.clone();
+      Arrays.sort(expected, 100, 900);
+      RadixSort.radixSort(s, 100, 900);
+      assertTrue(Arrays.equals(expected, s));
+
+      RadixSort.radixSort(s, 500, 500);
+      assertTrue(Arrays.equals(expected, s));
+
+      try {
+        RadixSort.radixSort(s, 2, 1);
+        fail();
+      } catch (IllegalArgumentException e) {
+      }
+      try {
+        RadixSort.radixSort(s, -1, 10);
+        fail();
+      } catch (ArrayIndexOutOfBoundsException e) {
+      }
+      try {
+        RadixSort.radixSort(s, 0, s.length + 1);
+        fail();
+      } catch (ArrayIndexOutOfBoundsException e) {
+      }
+    }
+  }
+
+  private void verifySorted(int[] s) {
+    for (int i = 1; i < s.length; i++) {
+      assertTrue("elements are not sorted.  index=[" + i + "]", s[i - 1] <= s[i]);
+    }
+  }
+
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2009, The Algorithm Study Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright notice,
+ *       this list of conditions and the following disclaimer in the documentation
+ *       and/or other materials provided with the distribution.
+ *     * Neither the name of the Algorithm Study Project, algorithmstudy.com, nor
+ *       the names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+package com.algorithmstudy.sort;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.algorithmstudy.sort.SortEngine.Plan;
+import com.algorithmstudy.sort.SortEngine.Strategy;
+
+import junit.framework.TestCase;
+
+public class TestSortEngine extends TestCase {
+
+  @Test
+  public void testSortEngine() {
+    SortEngine engine = new SortEngine();
+    try {
+      engine.sort(null);
+      fail();
+    } catch (NullPointerException e) {
+    }
+    try {
+      engine.plan(null);
+      fail();
+    } catch (NullPointerException e) {
+    }
+    try {
+      new SortEngine(null);
+      fail();
+    } catch (NullPointerException e) {
+    }
+
+    int[] s = {};
+    assertEquals(Strategy.NONE, engine.sort(s).strategy());
+
+    s = new int[] { 7 };
+    Plan single = engine.sort(s);
+    assertEquals(Strategy.NONE, single.strategy());
+    assertEquals(7, single.min());
+    assertEquals(7, single.max());
+    single = engine.plan(new int[] { 1, -3, 2 }, 1, 2);
+    assertEquals(-3, single.min());
+    assertEquals(-3, single.max());
+
+    s = new int[] { 1, 0 };
+    assertEquals(Strategy.SORTING_NETWORK, engine.sort(s).strategy());
+    verifySorted(s);
+
+    s = new int[] { 5, 5 };
+    assertEquals(Strategy.NONE, engine.sort(s).strategy());
+    verifySorted(s);
+
+    s = new int[] { 10, 10, 8, 9, 7, 3, 4, 5, 6, 2, 1, 0 };
+    Plan plan = engine.sort(s);
+    assertEquals(Strategy.SORTING_NETWORK, plan.strategy());
+    assertEquals(12, plan.size());
+    assertEquals(0, plan.min());
+    assertEquals(10, plan.max());
+    verifySorted(s);
+  }
+
+  @Test
+  public void testPlan() {
+    SortEngine engine = new SortEngine(new ForkJoinPool(1));
+    Random random = new Random(42);
+
+    // sorted, reverse sorted and two sorted runs
+    int[] s = new int[1000];
+    for (int i = 0; i < s.length; i++) {
+      s[i] = i;
+    }
+    Plan plan = engine.plan(s);
+    assertEquals(Strategy.NONE, plan.strategy());
+    assertEquals(1, plan.runs());
+    assertEquals(0, plan.min());
+    assertEquals(999, plan.max());
+    assertEquals(1.0, plan.distinctRatio());
+    for (int i = 0; i < s.length; i++) {
+      s[i] = s.length - i;
+    }
+    plan = engine.plan(s);
+    assertEquals(Strategy.TIM_SORT, plan.strategy());
+    assertEquals(1, plan.runs());
+    for (int i = 0; i < s.length; i++) {
+      s[i] = i % 500;
+    }
+    plan = engine.plan(s);
+    assertEquals(Strategy.TIM_SORT, plan.strategy());
+    assertEquals(2, plan.runs());
+
+    // random and few distinct keys below the radix sort threshold
+    s = new int[SortEngine.RADIX_SORT_THRESHOLD - 1];
+    for (int i = 0; i < s.length; i++) {
+      s[i] = random.nextInt();
+    }
+    assertEquals(Strategy.INTRO_SORT, engine.plan(s).strategy());
+    for (int i = 0; i < s.length; i++) {
+      s[i] = random.nextInt(4) * 1000000;
+    }
+    plan = engine.plan(s);
+    assertEquals(Strategy.THREE_WAY_QUICK_SORT, plan.strategy());
+    assertTrue(plan.distinctRatio() * SortEngine.MAX_DUPLICATE_RATIO <= 1.0);
+
+    // a key range no wider than the input, sequentially and in parallel
+    for (int i = 0; i < s.length; i++) {
+      s[i] = random.nextInt(s.length) - 100;
+    }
+    assertEquals(Strategy.COUNTING_SORT, engine.plan(s).strategy());
+    int[] t = new int[CountingSort.DEFAULT_PARALLEL_THRESHOLD + 1];
+    for (int i = 0; i < t.length; i++) {
+      t[i] = random.nextInt(4096);
+    }
+    assertEquals(Strategy.COUNTING_SORT, engine.plan(t).strategy());
+    assertEquals(Strategy.PARALLEL_COUNTING_SORT, new SortEngine(new ForkJoinPool(2)).plan(t)
+        .strategy());
+
+    // random above the radix sort threshold, sequentially and in parallel
+    s = new int[RadixSort.DEFAULT_PARALLEL_THRESHOLD];
+    for (int i = 0; i < s.length; i++) {
+      s[i] = random.nextInt();
+    }
+    assertEquals(Strategy.RADIX_SORT, engine.plan(s).strategy());
+    assertEquals(Strategy.PARALLEL_RADIX_SORT, new SortEngine(new ForkJoinPool(2)).plan(s)
+        .strategy());
+    assertEquals(Strategy.RADIX_SORT, new SortEngine(new ForkJoinPool(2)).plan(s, 1, s.length)
+        .strategy());
+    assertTrue(engine.plan(s).toString().startsWith("RADIX_SORT (size=" + s.length));
+  }
+
+  @Test
+  public void testSortEngineLarge() {
+    Random random = new Random();
+    SortEngine[] engines = { new SortEngine(new ForkJoinPool(1)),
+        new SortEngine(new ForkJoinPool(2)) };
+    int[] sizes = { 17, 100, 1000, 5000, RadixSort.DEFAULT_PARALLEL_THRESHOLD + 1 };
+    for (SortEngine engine : engines) {
+      for (int size : sizes) {
+        int[][] inputs = new int[5][size];
+        for (int i = 0; i < size; i++) {
+          inputs[0][i] = random.nextInt();
+          inputs[1][i] = random.nextInt(3) - 1;
+          inputs[2][i] = size - i;
+          inputs[3][i] = i < size / 2 ? i : i - size;
+          inputs[4][i] = i % 64 == 0 ? random.nextInt() : i;
+        }
+        for (int[] s : inputs) {
+          int[] copy = s.clone();
+          engine.sort(s);
+          verifySorted(s);
+          Arrays.sort(copy);
+          assertTrue(Arrays.equals(copy, s));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testSortEngineRange() {
+    SortEngine engine = new SortEngine(new ForkJoinPool(2));
+    Random random = new Random();
+    int[] s = new int[RadixSort.DEFAULT_PARALLEL_THRESHOLD + 10];
+    for (int i = 0; i < s.length; i++) {
+      s[i] = random.nextInt();
+    }
+    int[] copy = s.clone();
+    engine.sort(s, 5, s.length - 5);
+    Arrays.sort(copy, 5, copy.length - 5);
+    assertTrue(Arrays.equals(copy, s));
+
+    try {
+      engine.sort(s, 2, 1);
+      fail();
+    } catch (IllegalArgumentException e) {
+    }
+    try {
+      engine.sort(s, -1, 1);
+      fail();
+    } catch (ArrayIndexOutOfBoundsException e) {
+    }
+    try {
+      engine.plan(s, 0, s.length + 1);
+      fail();
+    } catch (ArrayIndexOutOfBoundsException e) {
+    }
+  }
+
+  private void verifySorted(int[] s) {
+    for (int i = 1; i < s.length; i++) {
+      assertTrue("elements are not sorted.  index=[" + i + "]", s[i - 1] <= s[i]);
+    }
+  }
+
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2009, The Algorithm Study Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright notice,
+ *       this list of conditions and the following disclaimer in the documentation
+ *       and/or other materials provided with the distribution.
+ *     * Neither the name of the Algorithm Study Project, algorithmstudy.com, nor
+ *       the names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+package com.algorithmstudy.sort;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.algorithmstudy.sort.SortEngine.Strategy;
+
+import junit.framework.TestCase;
+
+public class TestSortMetrics extends TestCase {
+
+  @Test
+  public void testSortMetrics() {
+    try {
+      IntroSort.introSort(new int[1], null);
+      fail();
+    } catch (NullPointerException e) {
+    }
+    try {
+      MergeSort.mergeSort((int[]) null, new SortMetrics());
+      fail();
+    } catch (NullPointerException e) {
+    }
+
+    // nothing is recorded in NONE
+    int[] s = RandomArrays.ints(new Random(48), 1000);
+    IntroSort.introSort(s.clone(), SortMetrics.NONE);
+    HeapSort.heapSort(s.clone(), SortMetrics.NONE);
+    MergeSort.mergeSort(s.clone(), SortMetrics.NONE);
+    InsertionSort.insertionSort(s.clone(), SortMetrics.NONE);
+    RadixSort.radixSort(s.clone(), SortMetrics.NONE);
+    TimSort.timSort(s.clone(), SortMetrics.NONE);
+    QuickSort.threeWayQuickSort(s.clone(), SortMetrics.NONE);
+    new SortEngine().sort(s.clone(), SortMetrics.NONE);
+    assertEquals(0, SortMetrics.NONE.comparisons());
+    assertEquals(0, SortMetrics.NONE.moves());
+    assertEquals(0, SortMetrics.NONE.maxDepth());
+    assertTrue(SortMetrics.NONE.phaseNanos().isEmpty());
+
+    SortMetrics metrics = new SortMetrics();
+    IntroSort.introSort(s.clone(), metrics);
+    assertTrue(metrics.comparisons() > 0);
+    assertTrue(metrics.toString().startsWith("comparisons="));
+    try {
+      metrics.phaseNanos().clear();
+      fail();
+    } catch (UnsupportedOperationException e) {
+    }
+    metrics.reset();
+    assertEquals(0, metrics.comparisons());
+    assertEquals(0, metrics.swaps());
+    assertEquals(0, metrics.maxDepth());
+    assertTrue(metrics.phaseNanos().isEmpty());
+  }
+
+  @Test
+  public void testInsertionSortMetrics() {
+    int n = 100;
+    int[] s = new int[n];
+    for (int i = 0; i < n; i++) {
+      s[i] = n - i;
+    }
+    SortMetrics metrics = new SortMetrics();
+    InsertionSort.insertionSort(s, metrics);
+    verifySorted(s);
+    // every pair is compared and shifted once
+    assertEquals(n * (n - 1) / 2, metrics.comparisons());
+    assertEquals(n * (n - 1) / 2 + n - 1, metrics.moves());
+    assertEquals(1, metrics.maxDepth());
+    assertTrue(metrics.phaseNanos().containsKey("insertionSort"));
+
+    // sorted input takes one comparison per element and no moves
+    metrics.reset();
+    InsertionSort.insertionSort(s, metrics);
+    assertEquals(n - 1, metrics.comparisons());
+    assertEquals(0, metrics.moves());
+  }
+
+  @Test
+  public void testComparisonSortMetrics() {
+    Random random = new Random(49);
+    int[] sizes = { 0, 1, 16, 17, 1000, 100000 };
+    for (int size : sizes) {
+      int[] s = RandomArrays.ints(random, size);
+      int[] expected = s.clone();
+      Arrays.sort(expected);
+      double nlgn = size * Math.log(Math.max(size, 2)) / Math.log(2);
+
+      SortMetrics metrics = new SortMetrics();
+      int[] t = s.clone();
+      MergeSort.mergeSort(t, metrics);
+      assertTrue(Arrays.equals(expected, t));
+      assertTrue(metrics.comparisons() <= nlgn);
+      assertEquals(size < 2 ? 0 : 4L * size, metrics.scratchBytes());
+      if (size > SortingNetworks.MAX_SIZE) {
+        assertTrue(metrics.maxDepth() > 1);
+        assertTrue(metrics.moves() >= size);
+      }
+
+      metrics = new SortMetrics();
+      t = s.clone();
+      HeapSort.heapSort(t, metrics);
+      assertTrue(Arrays.equals(expected, t));
+      assertTrue(metrics.comparisons() <= 2 * nlgn + size);
+      assertEquals(0, metrics.scratchBytes());
+      assertTrue(metrics.phaseNanos().containsKey("buildHeap"));
+      assertTrue(metrics.phaseNanos().containsKey("sortDown"));
+
+      metrics = new SortMetrics();
+      t = s.clone();
+      IntroSort.introSort(t, metrics);
+      assertTrue(Arrays.equals(expected, t));
+      assertTrue(metrics.comparisons() <= 3 * nlgn);
+      assertTrue(metrics.maxDepth() <= 2 * nlgn / Math.max(size, 1) + 1);
+      assertEquals(0, metrics.scratchBytes());
+      if (size > SortingNetworks.MAX_SIZE) {
+        assertTrue(metrics.swaps() > 0);
+      }
+
+      metrics = new SortMetrics();
+      t = s.clone();
+      QuickSort.threeWayQuickSort(t, metrics);
+      assertTrue(Arrays.equals(expected, t));
+      assertTrue(metrics.comparisons() <= 3 * nlgn);
+      assertTrue(metrics.maxDepth() <= 2 * nlgn / Math.max(size, 1) + 1);
+      assertEquals(0, metrics.scratchBytes());
+      assertTrue(metrics.phaseNanos().containsKey("threeWayQuickSort"));
+
+      metrics = new SortMetrics();
+      t = s.clone();
+      TimSort.timSort(t, metrics);
+      assertTrue(Arrays.equals(expected, t));
+      assertTrue(metrics.comparisons() <= nlgn);
+      assertEquals(1, metrics.maxDepth());
+      // the scratch space grows geometrically up to n / 2 elements
+      assertTrue(metrics.scratchBytes() <= 6L * size);
+      if (size > SortingNetworks.MAX_SIZE) {
+        assertTrue(metrics.moves() >= size);
+
+        // sorted and reverse sorted input are a single run
+        metrics.reset();
+        TimSort.timSort(t, metrics);
+        assertEquals(size - 1, metrics.comparisons());
+        assertEquals(0, metrics.moves());
+        for (int i = 0; i < size / 2; i++) {
+          int tmp = t[i];
+          t[i] = t[size - 1 - i];
+          t[size - 1 - i] = tmp;
+        }
+        metrics.reset();
+        TimSort.timSort(t, metrics);
+        assertTrue(Arrays.equals(expected, t));
+        assertEquals(size - 1, metrics.comparisons());
+        assertEquals(size / 2, metrics.swaps());
+      }
+    }
+  }
+
+  @Test
+  public void testRadixSortMetrics() {
+    int[] s = RandomArrays.ints(new Random(50), 10000);
+    int[] expected = s.clone();
+    Arrays.sort(expected);
+    SortMetrics metrics = new SortMetrics();
+    RadixSort.radixSort(s, metrics);
+    assertTrue(Arrays.equals(expected, s));
+    assertEquals(0, metrics.comparisons());
+    // four passes which end up back in the input
+    assertEquals(4L * s.length, metrics.moves());
+    assertEquals(4L * s.length + 4L * 4 * 256, metrics.scratchBytes());
+    Map<String, Long> phases = metrics.phaseNanos();
+    assertTrue(phases.containsKey("histogram"));
+    assertTrue(phases.containsKey("scatter"));
+  }
+
+  @Test
+  public void testSortEngineMetrics() {
+    SortEngine engine = new SortEngine(new ForkJoinPool(1));
+    Random random = new Random(51);
+    int[] s = RandomArrays.ints(random, 500);
+    SortMetrics metrics = new SortMetrics();
+    assertEquals(Strategy.INTRO_SORT, engine.sort(s, metrics).strategy());
+    verifySorted(s);
+    assertTrue(metrics.comparisons() > 0);
+    assertEquals(4L * SortEngine.SAMPLE_SIZE, metrics.scratchBytes());
+    assertEquals(Arrays.asList("plan", "sort"), Arrays.asList(metrics.phaseNanos().keySet()
+        .toArray()));
+
+    metrics.reset();
+    s = new int[] { 3, 2, 1 };
+    assertEquals(Strategy.SORTING_NETWORK, engine.sort(s, metrics).strategy());
+    assertEquals(3, metrics.comparisons());
+    metrics.reset();
+    s = new int[1000];
+    for (int i = 0; i < s.length; i++) {
+      s[i] = i % 500;
+    }
+    assertEquals(Strategy.TIM_SORT, engine.sort(s, metrics).strategy());
+    verifySorted(s);
+    assertTrue(metrics.comparisons() > 0);
+    assertTrue(metrics.moves() > 0);
+    metrics.reset();
+    s = new int[SortEngine.RADIX_SORT_THRESHOLD - 1];
+    for (int i = 0; i < s.length; i++) {
+      s[i] = random.nextInt(4) * 1000000;
+    }
+    assertEquals(Strategy.THREE_WAY_QUICK_SORT, engine.sort(s, metrics).strategy());
+    verifySorted(s);
+    assertTrue(metrics.comparisons() > 0);
+    assertTrue(metrics.swaps() > 0);
+
+    // strategies which aren't instrumented still record their time
+    s = RandomArrays.ints(random, 5000);
+    for (int i = 0; i < s.length; i++) {
+      s[i] &= 1023;
+    }
+    metrics.reset();
+    assertEquals(Strategy.COUNTING_SORT, engine.sort(s, 0, s.length, metrics).strategy());
+    verifySorted(s);
+    assertEquals(0, metrics.comparisons());
+    assertTrue(metrics.phaseNanos().containsKey("sort"));
+  }
+
+  private void verifySorted(int[] s) {
+    for (int i = 1; i < s.length; i++) {
+      assertTrue("elements are not sorted.  index=[" + i + "]", s[i - 1] <= s[i]);
+    }
+  }
+
+}
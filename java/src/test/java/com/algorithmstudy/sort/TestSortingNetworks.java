@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2009, The Algorithm Study Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright notice,
+ *       this list of conditions and the following disclaimer in the documentation
+ *       and/or other materials provided with the distribution.
+ *     * Neither the name of the Algorithm Study Project, algorithmstudy.com, nor
+ *       the names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+package com.algorithmstudy.sort;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+public class TestSortingNetworks extends TestCase {
+
+  @Test
+  public void testNetworkSort() {
+    try {
+      SortingNetworks.networkSort(null);
+      fail();
+    } catch (NullPointerException e) {
+    }
+    try {
+      SortingNetworks.networkSort(new int[SortingNetworks.MAX_SIZE + 1]);
+      fail();
+    } catch (IllegalArgumentException e) {
+    }
+    try {
+      SortingNetworks.networkSort(new int[20], 2, 1);
+      fail();
+    } catch (IllegalArgumentException e) {
+    }
+    try {
+      SortingNetworks.networkSort(new int[20], 10, 21);
+      fail();
+    } catch (ArrayIndexOutOfBoundsException e) {
+    }
+
+    int[] s = {};
+    SortingNetworks.networkSort(s);
+    verifySorted(s);
+
+    s = new int[] { 0 };
+    SortingNetworks.networkSort(s);
+    verifySorted(s);
+  }
+
+  /**
+   * By the 0-1 principle a network sorts all inputs if it sorts all inputs of zeros and ones.
+   */
+  @Test
+  public void testZeroOnePrinciple() {
+    for (int n = 2; n <= SortingNetworks.MAX_SIZE; n++) {
+      int[] s = new int[n + 2];
+      for (int bits = 0; bits < (1 << n); bits++) {
+        s[0] = -1;
+        s[n + 1] = 2;
+        for (int i = 0; i < n; i++) {
+          s[i + 1] = (bits >>> i) & 1;
+        }
+        SortingNetworks.networkSort(s, 1, n + 1);
+        verifySorted(s);
+        int ones = 0;
+        for (int i = 1; i <= n; i++) {
+          ones += s[i];
+        }
+        assertEquals(Integer.bitCount(bits), ones);
+      }
+    }
+  }
+
+  @Test
+  public void testRandom() {
+    Random random = new Random(113);
+    for (int n = 0; n <= SortingNetworks.MAX_SIZE; n++) {
+      for (int round = 0; round < 100; round++) {
+        int[] s = new int[n];
+        for (int i = 0; i < n; i++) {
+          s[i] = round % 2 == 0 ? random.nextInt() : random.nextInt(3);
+        }
+        int[] expected = s.clone();
+        Arrays.sort(expected);
+        SortingNetworks.networkSort(s);
+        assertTrue(Arrays.equals(expected, s));
+      }
+    }
+  }
+
+  private void verifySorted(int[] s) {
+    for (int i = 1; i < s.length; i++) {
+      assertTrue("elements are not sorted.  index=[" + i + "]", s[i - 1] <= s[i]);
+    }
+  }
+
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2009, The Algorithm Study Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright notice,
+ *       this list of conditions and the following disclaimer in the documentation
+ *       and/or other materials provided with the distribution.
+ *     * Neither the name of the Algorithm Study Project, algorithmstudy.com, nor
+ *       the names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+package com.algorithmstudy.sort;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+public class TestTimSort extends TestCase {
+
+  @Test
+  public void testTimSort() {
+    try {
+      TimSort.timSort(null);
+      fail();
+    } catch (NullPointerException e) {
+    }
+
+    int[] s = {};
+    TimSort.timSort(s);
+    verifySorted(s);
+
+    s = new int[] { 0 };
+    TimSort.timSort(s);
+    verifySorted(s);
+
+    s = new int[] { 0, 1 };
+    TimSort.timSort(s);
+    verifySorted(s);
+
+    s = new int[] { 1, 0 };
+    TimSort.timSort(s);
+    verifySorted(s);
+
+    s = new int[] { 5, 5 };
+    TimSort.timSort(s);
+    verifySorted(s);
+
+    s = new int[] { 5, 4, 3, 2, 1 };
+    TimSort.timSort(s);
+    verifySorted(s);
+
+    s = new int[] { 10, 8, 9, 7, 3, 4, 5, 6, 2, 1, 0 };
+    TimSort.timSort(s);
+    verifySorted(s);
+
+    s = new int[] { 10, 10, 8, 9, 7, 3, 4, 5, 6, 2, 1, 0 };
+    TimSort.timSort(s);
+    verifySorted(s);
+  }
+
+  @Test
+  public void testTimSortPatterns() {
+    Random random = new Random(11);
+    int[] sizes = { 31, 32, 33, 100, 1000, 65537 };
+    for (int size : sizes) {
+      // random
+      int[] s = new int[size];
+      for (int i = 0; i < size; i++) {
+        s[i] = random.nextInt();
+      }
+      checkTimSort(s);
+
+      // few distinct values
+      for (int i = 0; i < size; i++) {
+        s[i] = random.nextInt(4);
+      }
+      checkTimSort(s);
+
+      // ascending, descending and ascending with a few elements out of place
+      for (int i = 0; i < size; i++) {
+        s[i] = i;
+      }
+      checkTimSort(s);
+      for (int i = 0; i < size; i++) {
+        s[i] = size - i;
+      }
+      checkTimSort(s);
+      for (int i = 0; i < size; i++) {
+        s[i] = i;
+      }
+      for (int i = 0; i < 5; i++) {
+        s[random.nextInt(size)] = random.nextInt(size);
+      }
+      checkTimSort(s);
+
+      // sawtooth of ascending and descending runs of varying length
+      int runLength = 1 + random.nextInt(200);
+      for (int i = 0; i < size; i++) {
+        int run = i / runLength;
+        s[i] = (run % 2 == 0) ? i % runLength : runLength - i % runLength;
+      }
+      checkTimSort(s);
+
+      // interleaved ranges, which exercise galloping in both directions
+      for (int i = 0; i < size; i++) {
+        s[i] = (i < size / 2) ? i * 2 : (i - size / 2) * 2 + 1;
+      }
+      checkTimSort(s);
+      for (int i = 0; i < size; i++) {
+        s[i] = (i < size / 3) ? size + i : i;
+      }
+      checkTimSort(s);
+    }
+  }
+
+  private void checkTimSort(int[] s) {
+    int[] expected = s.clone();
+    Arrays.sort(expected);
+    TimSort.timSort(s);
+    assertTrue(Arrays.equals(expected, s));
+  }
+
+  @Test
+  public void testTimSortRange() {
+    Random random = new Random(69);
+    int[] s = new int[1000];
+    for (int i = 0; i < s.length; i++) {
+      s[i] = random.nextInt(100);
+    }
+    int[] expected = s.clone();
+    Arrays.sort(expected, 100, 900);
+    TimSort.timSort(s, 100, 900);
+    assertTrue(Arrays.equals(expected, s));
+
+    TimSort.timSort(s, 500, 500);
+    assertTrue(Arrays.equals(expected, s));
+
+    try {
+      TimSort.timSort(s, 2, 1);
+      fail();
+    } catch (IllegalArgumentException e) {
+    }
+    try {
+      TimSort.timSort(s, -1, 10);
+      fail();
+    } catch (ArrayIndexOutOfBoundsException e) {
+    }
+    try {
+      TimSort.timSort(s, 0, s.length + 1);
+      fail();
+    } catch (ArrayIndexOutOfBoundsException e) {
+    }
+  }
+
+  private void verifySorted(int[] s) {
+    for (int i = 1; i < s.length; i++) {
+      assertTrue("elements are not sorted.  index=[" + i + "]", s[i - 1] <= s[i]);
+    }
+  }
+
+}
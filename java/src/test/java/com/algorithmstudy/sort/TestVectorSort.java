@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2009, The Algorithm Study Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ *     * Redistributions of source code must retain the above copyright notice,
+ *       this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright notice,
+ *       this list of conditions and the following disclaimer in the documentation
+ *       and/or other materials provided with the distribution.
+ *     * Neither the name of the Algorithm Study Project, algorithmstudy.com, nor
+ *       the names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+package com.algorithmstudy.sort;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import junit.framework.TestCase;
+
+public class TestVectorSort extends TestCase {
+
+  @Test
+  public void testVectorized() {
+    // Set by the vector profile, which compiles the kernel and adds its module
+    if (Boolean.getBoolean("algorithmstudy.vectorized")) {
+      assertTrue(VectorSort.isVectorized());
+    }
+  }
+
+  @Test
+  public void testVectorSort() {
+    try {
+      VectorSort.vectorSort((int[]) null);
+      fail();
+    } catch (NullPointerException e) {
+    }
+    try {
+      VectorSort.vectorSort(new int[10], 2, 11);
+      fail();
+    } catch (ArrayIndexOutOfBoundsException e) {
+    }
+
+    int[] s = {};
+    VectorSort.vectorSort(s);
+    verifySorted(s);
+
+    s = new int[] { 0 };
+    VectorSort.vectorSort(s);
+    verifySorted(s);
+
+    s = new int[] { 10, 10, 8, 9, 7, 3, 4, 5, 6, 2, 1, 0 };
+    VectorSort.vectorSort(s);
+    verifySorted(s);
+
+    Random random = new Random(127);
+    int[] sizes = { 2, 7, 8, 9, 16, 31, 63, 64, 65, 100, 129, 1000, 4097, 100000 };
+    for (int size : sizes) {
+      int[][] inputs = new int[5][size];
+      for (int i = 0; i < size; i++) {
+        inputs[0][i] = random.nextInt();
+        inputs[1][i] = random.nextInt(4);
+        inputs[2][i] = i;
+        inputs[3][i] = size - i;
+        inputs[4][i] = random.nextBoolean() ? Integer.MAX_VALUE : Integer.MIN_VALUE;
+      }
+      for (int[] input : inputs) {
+        int[] expected = input.clone();
+        Arrays.sort(expected);
+        s = input.clone();
+        VectorSort.vectorSort(s);
+        assertTrue(Arrays.equals(expected, s));
+
+        s = input.clone();
+        expected = input.clone();
+        Arrays.sort(expected, size / 3, size - size / 4);
+        VectorSort.vectorSort(s, size / 3, size - size / 4);
+        assertTrue(Arrays.equals(expected, s));
+      }
+    }
+  }
+
+  @Test
+  public void testVectorSortLongs() {
+    try {
+      VectorSort.vectorSort((long[]) null);
+      fail();
+    } catch (NullPointerException e) {
+    }
+    try {
+      VectorSort.vectorSort(new long[10], 3, 2);
+      fail();
+    } catch (IllegalArgumentException e) {
+    }
+
+    Random random = new Random(131);
+    int[] sizes = { 0, 1, 2, 3, 4, 5, 32, 33, 64, 65, 1000, 100000 };
+    for (int size : sizes) {
+      long[][] inputs = new long[4][size];
+      for (int i = 0; i < size; i++) {
+        inputs[0][i] = random.nextLong();
+        inputs[1][i] = random.nextInt(4) - 2;
+        inputs[2][i] = size - i;
+        inputs[3][i] = random.nextBoolean() ? Long.MAX_VALUE : Long.MIN_VALUE;
+      }
+      for (long[] input : inputs) {
+        long[] expected = input.clone();
+        Arrays.sort(expected);
+        long[] s = input.clone();
+        VectorSort.vectorSort(s);
+        assertTrue(Arrays.equals(expected, s));
+
+        s = input.clone();
+        expected = input.clone();
+        Arrays.sort(expected, size / 3, size - size / 4);
+        VectorSort.vectorSort(s, size / 3, size - size / 4);
+        assertTrue(Arrays.equals(expected, s));
+      }
+    }
+  }
+
+  private void verifySorted(int[] s) {
+    for (int i = 1; i < s.length; i++) {
+      assertTrue("elements are not sorted.  index=[" + i + "]", s[i - 1] <= s[i]);
+    }
+  }
+
+}